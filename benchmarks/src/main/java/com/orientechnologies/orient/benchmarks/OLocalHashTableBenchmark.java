@@ -0,0 +1,86 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.benchmarks;
+
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.serialization.serializer.binary.OBinarySerializerFactory;
+import com.orientechnologies.orient.core.storage.index.hashindex.local.OLocalHashTable;
+import com.orientechnologies.orient.core.storage.index.hashindex.local.OMurmurHash3HashFunction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Put and get of {@link OLocalHashTable} filled with integer keys.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class OLocalHashTableBenchmark extends OStorageBenchmark {
+  @Param({ "1000000" })
+  public int keysCount;
+
+  private OLocalHashTable<Integer, String> hashTable;
+
+  @Setup
+  public void setup() {
+    openDatabase();
+
+    hashTable = new OLocalHashTable<>("benchmarkHashTable", ".imc", ".tsc", ".obf", ".nbh", storage);
+    hashTable.create(OIntegerSerializer.INSTANCE, OBinarySerializerFactory.getInstance().getObjectSerializer(OType.STRING), null,
+        null, new OMurmurHash3HashFunction<>(OIntegerSerializer.INSTANCE), true);
+
+    for (int i = 0; i < keysCount; i++)
+      hashTable.put(i, Integer.toString(i));
+  }
+
+  @TearDown
+  public void tearDown() {
+    hashTable.delete();
+    dropDatabase();
+  }
+
+  @Benchmark
+  public void put() {
+    final int key = ThreadLocalRandom.current().nextInt(keysCount);
+    hashTable.put(key, Integer.toString(key));
+  }
+
+  @Benchmark
+  public String get() {
+    return hashTable.get(ThreadLocalRandom.current().nextInt(keysCount));
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.benchmarks;
+
+import com.orientechnologies.orient.core.storage.OPhysicalPosition;
+import com.orientechnologies.orient.core.storage.ORawBuffer;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.OPaginatedCluster;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creation and read of records of {@link OPaginatedCluster}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class OPaginatedClusterBenchmark extends OStorageBenchmark {
+  private static final byte RECORD_TYPE = 'd';
+
+  @Param({ "100000" })
+  public int recordsCount;
+
+  @Param({ "256" })
+  public int recordSize;
+
+  private int               clusterId;
+  private OPaginatedCluster cluster;
+  private byte[]            content;
+
+  @Setup
+  public void setup() throws IOException {
+    openDatabase();
+
+    clusterId = storage.addCluster("benchmarkCluster");
+    cluster = (OPaginatedCluster) storage.getClusterById(clusterId);
+
+    content = new byte[recordSize];
+    new Random(42).nextBytes(content);
+
+    for (int i = 0; i < recordsCount; i++)
+      cluster.createRecord(content, 1, RECORD_TYPE, null);
+  }
+
+  @TearDown
+  public void tearDown() {
+    storage.dropCluster(clusterId, false);
+    dropDatabase();
+  }
+
+  @Benchmark
+  public OPhysicalPosition create() throws IOException {
+    return cluster.createRecord(content, 1, RECORD_TYPE, null);
+  }
+
+  @Benchmark
+  public ORawBuffer read() throws IOException {
+    return cluster.readRecord(ThreadLocalRandom.current().nextInt(recordsCount), false);
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.benchmarks;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseInternal;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.ODatabaseType;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.storage.cache.OCacheEntry;
+import com.orientechnologies.orient.core.storage.cache.OReadCache;
+import com.orientechnologies.orient.core.storage.cache.OWriteCache;
+import com.orientechnologies.orient.core.storage.cache.local.twoq.O2QCache;
+import com.orientechnologies.orient.core.storage.cache.local.twoq.OPartitioned2QCache;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load and release of pages by several threads through {@link O2QCache} and {@link OPartitioned2QCache}. Pages are stored in
+ * the write cache of plocal storage, because in-memory storage does not use read cache at all.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@Threads(8)
+public class OReadCacheBenchmark {
+  private static final String DB_NAME = "readCacheBenchmark";
+
+  @Param({ "2q", "partitioned2q" })
+  public String cacheType;
+
+  @Param({ "8" })
+  public int partitions;
+
+  @Param({ "16384" })
+  public int pagesCount;
+
+  /**
+   * Percent of the pages which fit into the read cache, values lower than 100 benchmark eviction of pages as well.
+   */
+  @Param({ "100", "50" })
+  public int cachedPercent;
+
+  private OrientDB         orientDB;
+  private ODatabaseSession session;
+
+  private OReadCache  readCache;
+  private OWriteCache writeCache;
+  private long        fileId;
+
+  @Setup
+  public void setup() throws IOException {
+    final String buildDirectory =
+        System.getProperty("buildDirectory", ".") + File.separator + OReadCacheBenchmark.class.getSimpleName();
+    OFileUtils.deleteRecursively(new File(buildDirectory, DB_NAME));
+
+    orientDB = new OrientDB("embedded:" + buildDirectory, OrientDBConfig.defaultConfig());
+    orientDB.create(DB_NAME, ODatabaseType.PLOCAL);
+    session = orientDB.open(DB_NAME, "admin", "admin");
+
+    writeCache = ((OAbstractPaginatedStorage) ((ODatabaseInternal) session).getStorage()).getWriteCache();
+
+    final int pageSize = OGlobalConfiguration.DISK_CACHE_PAGE_SIZE.getValueAsInteger() * 1024;
+    final long cacheMemory = (long) pagesCount * pageSize * cachedPercent / 100;
+    if (cacheType.equals("2q"))
+      readCache = new O2QCache(cacheMemory, pageSize, false, 20);
+    else
+      readCache = new OPartitioned2QCache(cacheMemory, pageSize, false, 20, partitions);
+
+    fileId = readCache.addFile("readCacheBenchmark.tst", writeCache);
+    for (int i = 0; i < pagesCount; i++) {
+      final OCacheEntry cacheEntry = readCache.allocateNewPage(fileId, writeCache, true);
+      cacheEntry.markDirty();
+      readCache.releaseFromWrite(cacheEntry, writeCache);
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    readCache.deleteFile(fileId, writeCache);
+    readCache.clear();
+
+    session.activateOnCurrentThread();
+    session.close();
+
+    orientDB.drop(DB_NAME);
+    orientDB.close();
+  }
+
+  @Benchmark
+  public void loadAndRelease() throws IOException {
+    final OCacheEntry cacheEntry = readCache
+        .loadForRead(fileId, ThreadLocalRandom.current().nextInt(pagesCount), false, writeCache, 1, true);
+    readCache.releaseFromRead(cacheEntry, writeCache);
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.benchmarks;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.ODatabaseType;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.BytesContainer;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.ORecordSerializerBinaryV1;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization, full and partial deserialization of a document by {@link ORecordSerializerBinaryV1}. Document has both fields
+ * declared in the schema and schemaless fields. Serialization does not depend on the type of storage, so in-memory database is
+ * used only to provide the schema.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ORecordSerializerBinaryV1Benchmark {
+  private static final String   DB_NAME        = "recordSerializerBenchmark";
+  private static final String[] PARTIAL_FIELDS = new String[] { "age" };
+
+  private final ORecordSerializerBinaryV1 serializer = new ORecordSerializerBinaryV1();
+
+  private OrientDB         orientDB;
+  private ODatabaseSession session;
+
+  private ODocument document;
+  private byte[]    serialized;
+
+  @Setup
+  public void setup() {
+    final String buildDirectory =
+        System.getProperty("buildDirectory", ".") + File.separator + ORecordSerializerBinaryV1Benchmark.class.getSimpleName();
+    OFileUtils.deleteRecursively(new File(buildDirectory, DB_NAME));
+
+    orientDB = new OrientDB("embedded:" + buildDirectory, OrientDBConfig.defaultConfig());
+    orientDB.create(DB_NAME, ODatabaseType.MEMORY);
+    session = orientDB.open(DB_NAME, "admin", "admin");
+
+    final OClass person = session.createClass("Person");
+    person.createProperty("name", OType.STRING);
+    person.createProperty("age", OType.INTEGER);
+
+    final Map<String, Object> address = new HashMap<>();
+    address.put("city", "Rome");
+    address.put("zip", 100);
+
+    document = new ODocument("Person");
+    document.field("name", "Luke");
+    document.field("surname", "Skywalker");
+    document.field("age", 42);
+    document.field("height", 1.72);
+    document.field("registered", new Date(0));
+    document.field("score", Long.MAX_VALUE);
+    document.field("tags", Arrays.asList("pilot", "jedi", "farmer"), OType.EMBEDDEDLIST);
+    document.field("address", address, OType.EMBEDDEDMAP);
+    document.field("ship", new ODocument().field("name", "X-wing").field("speed", 1050), OType.EMBEDDED);
+
+    serialized = serialize();
+  }
+
+  @TearDown
+  public void tearDown() {
+    session.activateOnCurrentThread();
+    session.close();
+
+    orientDB.drop(DB_NAME);
+    orientDB.close();
+  }
+
+  @Benchmark
+  public byte[] serialize() {
+    final BytesContainer bytes = new BytesContainer();
+    serializer.serializeWithClassName(document, bytes, false);
+    return bytes.fitBytes();
+  }
+
+  @Benchmark
+  public ODocument deserialize() {
+    final ODocument result = new ODocument();
+    serializer.deserializeWithClassName(result, new BytesContainer(serialized));
+    return result;
+  }
+
+  @Benchmark
+  public ODocument deserializePartial() {
+    final ODocument result = new ODocument();
+    serializer.deserializePartialWithClassName(result, new BytesContainer(serialized), PARTIAL_FIELDS);
+    return result;
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.benchmarks;
+
+import com.orientechnologies.orient.core.command.OBasicCommandContext;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.OSQLEngine;
+import com.orientechnologies.orient.core.sql.executor.OInternalExecutionPlan;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import com.orientechnologies.orient.core.sql.executor.OSelectExecutionPlanner;
+import com.orientechnologies.orient.core.sql.parser.OSelectStatement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Planning of SELECT statements by {@link OSelectExecutionPlanner} without the cache of execution plans, and execution of the
+ * same statements against indexed class.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class OSelectExecutionPlannerBenchmark extends OStorageBenchmark {
+  @Param({ "100000" })
+  public int recordsCount;
+
+  @Param({ "indexEquals", "indexRangeOrdered", "fullScan" })
+  public String query;
+
+  private String              sql;
+  private Map<Object, Object> parameters;
+  private OSelectStatement    statement;
+
+  @Setup
+  public void setup() {
+    openDatabase();
+
+    final OClass person = session.createClass("Person");
+    person.createProperty("name", OType.STRING);
+    person.createProperty("age", OType.INTEGER).createIndex(OClass.INDEX_TYPE.NOTUNIQUE);
+
+    for (int i = 0; i < recordsCount; i++) {
+      final ODocument document = new ODocument("Person");
+      document.field("name", "name" + i);
+      document.field("age", i % 100);
+      document.field("surname", "surname" + (i % 1000));
+      session.save(document);
+    }
+
+    parameters = new HashMap<>();
+    switch (query) {
+    case "indexEquals":
+      sql = "SELECT FROM Person WHERE age = :age";
+      parameters.put("age", 42);
+      break;
+    case "indexRangeOrdered":
+      sql = "SELECT name FROM Person WHERE age > :from AND age < :to ORDER BY name LIMIT 100";
+      parameters.put("from", 10);
+      parameters.put("to", 20);
+      break;
+    case "fullScan":
+      sql = "SELECT count(*) FROM Person WHERE surname = :surname";
+      parameters.put("surname", "surname42");
+      break;
+    default:
+      throw new IllegalArgumentException("Unknown query " + query);
+    }
+
+    statement = (OSelectStatement) OSQLEngine.parse(sql, (ODatabaseDocumentInternal) session);
+  }
+
+  @TearDown
+  public void tearDown() {
+    dropDatabase();
+  }
+
+  @Benchmark
+  public OInternalExecutionPlan plan() {
+    final OBasicCommandContext context = new OBasicCommandContext();
+    context.setDatabase(session);
+    context.setInputParameters(parameters);
+
+    return new OSelectExecutionPlanner(statement).createExecutionPlan(context, false, false);
+  }
+
+  @Benchmark
+  public void execute(final Blackhole blackhole) {
+    try (OResultSet result = session.query(sql, parameters)) {
+      while (result.hasNext())
+        blackhole.consume(result.next());
+    }
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.benchmarks;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.core.db.ODatabaseInternal;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.ODatabaseType;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import org.openjdk.jmh.annotations.Param;
+
+import java.io.File;
+
+/**
+ * Base class of the benchmarks which are executed against both in-memory and plocal storages. Database is created inside of
+ * directory passed in "buildDirectory" system property, or inside of the current directory if property is absent.
+ */
+public abstract class OStorageBenchmark {
+  @Param({ "memory", "plocal" })
+  public String storageType;
+
+  protected OrientDB                  orientDB;
+  protected ODatabaseSession          session;
+  protected OAbstractPaginatedStorage storage;
+
+  private String dbName;
+
+  protected void openDatabase() {
+    final String buildDirectory =
+        System.getProperty("buildDirectory", ".") + File.separator + getClass().getSimpleName();
+
+    dbName = getClass().getSimpleName() + "-" + storageType;
+    OFileUtils.deleteRecursively(new File(buildDirectory, dbName));
+
+    orientDB = new OrientDB("embedded:" + buildDirectory, OrientDBConfig.defaultConfig());
+    orientDB.create(dbName, ODatabaseType.valueOf(storageType.toUpperCase()));
+
+    session = orientDB.open(dbName, "admin", "admin");
+    storage = (OAbstractPaginatedStorage) ((ODatabaseInternal) session).getStorage();
+  }
+
+  protected void dropDatabase() {
+    session.activateOnCurrentThread();
+    session.close();
+
+    orientDB.drop(dbName);
+    orientDB.close();
+  }
+}
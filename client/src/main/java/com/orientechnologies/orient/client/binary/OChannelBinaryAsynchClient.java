@@ -19,6 +19,7 @@
  */
 package com.orientechnologies.orient.client.binary;
 
+import com.orientechnologies.common.concur.lock.OInterruptedException;
 import com.orientechnologies.common.concur.lock.OLockException;
 import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.exception.OSystemException;
@@ -43,7 +44,11 @@ import java.lang.reflect.InvocationTargetException;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketException;
+import java.net.SocketTimeoutException;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class OChannelBinaryAsynchClient extends OChannelBinary {
   private         int    socketTimeout;                                               // IN MS
@@ -53,6 +58,16 @@ public class OChannelBinaryAsynchClient extends OChannelBinary {
   private         int    currentSessionId;
   private         byte   currentMessage;
 
+  /**
+   * Used when several requests are sent through the channel before their responses are received. Responses are matched to the
+   * requests by session id, the thread which reads the header of a response addressed to another session hands the channel over
+   * to the owner of that session.
+   */
+  private volatile boolean       pipelined;
+  private final    ReentrantLock responseLock  = new ReentrantLock();
+  private final    Condition     responseReady = responseLock.newCondition();
+  private          boolean       responsePending;
+
   public OChannelBinaryAsynchClient(final String remoteHost, final int remotePort, final String iDatabaseName,
       final OContextConfiguration iConfig, final int iProtocolVersion) throws IOException {
     super(OSocketFactory.instance(iConfig).createSocket(), iConfig);
@@ -155,26 +170,19 @@ public class OChannelBinaryAsynchClient extends OChannelBinary {
 
   public byte[] beginResponse(final int iRequesterId, final long iTimeout, final boolean token) throws IOException {
     try {
-      // WAIT FOR THE RESPONSE
-      if (iTimeout <= 0)
-        acquireReadLock();
-
-      if (!isConnected()) {
-        releaseReadLock();
-        throw new IOException("Channel is closed");
-      }
-
-      try {
-        setWaitResponseTimeout();
-        currentStatus = readByte();
-        currentSessionId = readInt();
-
-        if (debug)
-          OLogManager.instance()
-              .debug(this, "%s - Read response: %d-%d", socket.getLocalAddress(), (int) currentStatus, currentSessionId);
+      if (pipelined)
+        awaitPipelinedResponse(iRequesterId);
+      else {
+        // WAIT FOR THE RESPONSE
+        if (iTimeout <= 0)
+          acquireReadLock();
+
+        if (!isConnected()) {
+          releaseReadLock();
+          throw new IOException("Channel is closed");
+        }
 
-      } finally {
-        setReadResponseTimeout();
+        readResponseHeader();
       }
 
       assert (currentSessionId == iRequesterId);
@@ -198,7 +206,76 @@ public class OChannelBinaryAsynchClient extends OChannelBinary {
     return null;
   }
 
+  private void readResponseHeader() throws IOException {
+    try {
+      setWaitResponseTimeout();
+      currentStatus = readByte();
+      currentSessionId = readInt();
+
+      if (debug)
+        OLogManager.instance()
+            .debug(this, "%s - Read response: %d-%d", socket.getLocalAddress(), (int) currentStatus, currentSessionId);
+
+    } finally {
+      setReadResponseTimeout();
+    }
+  }
+
+  /**
+   * Waits till the response of the given session is the next one in the channel. The response lock is kept till
+   * {@link #endResponse()} is called, or is released at once if waiting fails.
+   */
+  private void awaitPipelinedResponse(final int iRequesterId) throws IOException {
+    responseLock.lock();
+    try {
+      long nanos = TimeUnit.MILLISECONDS.toNanos(getSocketTimeout());
+      while (true) {
+        if (!isConnected())
+          throw new IOException("Channel is closed");
+
+        if (!responsePending) {
+          readResponseHeader();
+          responsePending = true;
+        }
+
+        if (currentSessionId == iRequesterId) {
+          responsePending = false;
+          return;
+        }
+
+        // THE RESPONSE BELONGS TO ANOTHER REQUEST SENT THROUGH THIS CHANNEL: WAKE UP ITS OWNER
+        responseReady.signalAll();
+        try {
+          if (getSocketTimeout() <= 0)
+            responseReady.await();
+          else {
+            if (nanos <= 0)
+              throw new SocketTimeoutException("Timeout on waiting for the response of session " + iRequesterId);
+            nanos = responseReady.awaitNanos(nanos);
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw OException.wrapException(new OInterruptedException("Waiting for the response was interrupted"), e);
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      // OTHER WAITING THREADS FAIL AS WELL IF THE CHANNEL IS BROKEN
+      responseReady.signalAll();
+      responseLock.unlock();
+      throw e;
+    }
+  }
+
   public void endResponse() throws IOException {
+    if (pipelined) {
+      if (responseLock.isHeldByCurrentThread()) {
+        // NEXT RESPONSE CAN BE READ BY ANY OF THE WAITING THREADS
+        responseReady.signalAll();
+        responseLock.unlock();
+      }
+      return;
+    }
+
     // WAKE UP ALL THE WAITING THREADS
     try {
       releaseReadLock();
@@ -210,10 +287,18 @@ public class OChannelBinaryAsynchClient extends OChannelBinary {
   }
 
   public void endRequest() throws IOException {
-    flush();
-    releaseWriteLock();
+    try {
+      flush();
+    } finally {
+      releaseWriteLock();
+    }
   }
 
+  /**
+   * Closes the socket. If the channel is pipelined, the threads which wait for their responses are woken up and fail because the
+   * channel is closed. The socket is closed first, so the thread which reads the current response fails and releases the response
+   * lock.
+   */
   @Override
   public void close() {
     try {
@@ -221,6 +306,15 @@ public class OChannelBinaryAsynchClient extends OChannelBinary {
     } catch (Exception e) {
       // IGNORE IT
     }
+
+    if (pipelined) {
+      responseLock.lock();
+      try {
+        responseReady.signalAll();
+      } finally {
+        responseLock.unlock();
+      }
+    }
   }
 
   @Override
@@ -254,6 +348,19 @@ public class OChannelBinaryAsynchClient extends OChannelBinary {
     return serverURL;
   }
 
+  /**
+   * Allows to send requests through the channel before the responses of the previous requests are received. Request is written
+   * under the write lock which is acquired by {@link #beginRequest(byte, OStorageRemoteNodeSession)}, so the channel can be
+   * shared by several threads at the same time.
+   */
+  public void enablePipelining() {
+    pipelined = true;
+  }
+
+  public boolean isPipelined() {
+    return pipelined;
+  }
+
   public boolean tryLock() {
     return getLockWrite().tryAcquireLock();
   }
@@ -340,6 +447,10 @@ public class OChannelBinaryAsynchClient extends OChannelBinary {
   }
 
   public void beginRequest(byte iCommand, OStorageRemoteNodeSession nodeSession) throws IOException {
+    if (pipelined)
+      // RELEASED BY endRequest()
+      acquireWriteLock();
+
     if (nodeSession == null)
       throw new OIOException("Invalid session for URL '" + getServerURL() + "'");
 
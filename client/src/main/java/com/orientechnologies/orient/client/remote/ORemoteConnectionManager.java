@@ -57,14 +57,58 @@ public class ORemoteConnectionManager {
   }
 
   public OChannelBinaryAsynchClient acquire(String iServerURL, final OContextConfiguration clientConfiguration) {
+    iServerURL = normalizeURL(iServerURL);
+
+    final ORemoteConnectionPool pool = getOrCreatePool(iServerURL, clientConfiguration);
+
+    try {
+      // RETURN THE RESOURCE
+      OChannelBinaryAsynchClient ret = pool.acquire(iServerURL, getTimeout(clientConfiguration), clientConfiguration);
+      return ret;
+
+    } catch (RuntimeException e) {
+      // ERROR ON RETRIEVING THE INSTANCE FROM THE POOL
+      throw e;
+    } catch (Exception e) {
+      // ERROR ON RETRIEVING THE INSTANCE FROM THE POOL
+      OLogManager.instance().debug(this, "Error on retrieving the connection from pool: " + iServerURL, e);
+    }
+    return null;
+  }
+
+  /**
+   * Acquires the channel which can be shared with other requests. Up to <code>pipelineDepth</code> requests are sent through the
+   * channel before their responses are received, the write lock of the channel is acquired by the request itself.
+   */
+  public OChannelBinaryAsynchClient acquirePipelined(String iServerURL, final int pipelineDepth,
+      final OContextConfiguration clientConfiguration) {
+    iServerURL = normalizeURL(iServerURL);
+
+    final ORemoteConnectionPool pool = getOrCreatePool(iServerURL, clientConfiguration);
+    return pool.acquirePipelined(iServerURL, pipelineDepth, getTimeout(clientConfiguration), clientConfiguration);
+  }
+
+  private static String normalizeURL(String iServerURL) {
     if (iServerURL.startsWith(OEngineRemote.PREFIX))
       iServerURL = iServerURL.substring(OEngineRemote.PREFIX.length());
 
     if (iServerURL.endsWith("/"))
       iServerURL = iServerURL.substring(0, iServerURL.length() - 1);
 
-    long localTimeout = timeout;
+    return iServerURL;
+  }
+
+  private long getTimeout(final OContextConfiguration clientConfiguration) {
+    if (clientConfiguration != null) {
+      final Object netLockTimeout = clientConfiguration.getValue(OGlobalConfiguration.NETWORK_LOCK_TIMEOUT);
+      if (netLockTimeout != null)
+        return Integer.parseInt(netLockTimeout.toString());
+    }
+
+    return timeout;
+  }
 
+  private ORemoteConnectionPool getOrCreatePool(final String iServerURL, final OContextConfiguration clientConfiguration) {
     ORemoteConnectionPool pool = connections.get(iServerURL);
     if (pool == null) {
       int maxPool = clientConfiguration.getValueAsInteger(OGlobalConfiguration.CLIENT_CHANNEL_MAX_POOL);
@@ -73,10 +117,6 @@ public class ORemoteConnectionManager {
         final Object max = clientConfiguration.getValue(OGlobalConfiguration.CLIENT_CHANNEL_MAX_POOL);
         if (max != null)
           maxPool = Integer.parseInt(max.toString());
-
-        final Object netLockTimeout = clientConfiguration.getValue(OGlobalConfiguration.NETWORK_LOCK_TIMEOUT);
-        if (netLockTimeout != null)
-          localTimeout = Integer.parseInt(netLockTimeout.toString());
       }
 
       pool = new ORemoteConnectionPool(maxPool);
@@ -88,19 +128,7 @@ public class ORemoteConnectionManager {
       }
     }
 
-    try {
-      // RETURN THE RESOURCE
-      OChannelBinaryAsynchClient ret = pool.acquire(iServerURL, localTimeout, clientConfiguration);
-      return ret;
-
-    } catch (RuntimeException e) {
-      // ERROR ON RETRIEVING THE INSTANCE FROM THE POOL
-      throw e;
-    } catch (Exception e) {
-      // ERROR ON RETRIEVING THE INSTANCE FROM THE POOL
-      OLogManager.instance().debug(this, "Error on retrieving the connection from pool: " + iServerURL, e);
-    }
-    return null;
+    return pool;
   }
 
   public void release(final OChannelBinaryAsynchClient conn) {
@@ -113,7 +141,7 @@ public class ORemoteConnectionManager {
         OLogManager.instance().debug(this, "Network connection pool is receiving a closed connection to reuse: discard it");
         remove(conn);
       } else {
-        pool.getPool().returnResource(conn);
+        pool.release(conn);
       }
     }
   }
@@ -126,7 +154,7 @@ public class ORemoteConnectionManager {
     if (pool == null)
       throw new IllegalStateException("Connection cannot be released because the pool doesn't exist anymore");
 
-    pool.getPool().remove(conn);
+    pool.remove(conn);
 
     try {
       conn.unlock();
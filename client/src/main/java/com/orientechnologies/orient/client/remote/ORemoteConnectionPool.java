@@ -6,16 +6,30 @@ import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.io.OIOException;
 import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.orient.client.binary.OChannelBinaryAsynchClient;
+import com.orientechnologies.common.concur.lock.OInterruptedException;
 import com.orientechnologies.orient.core.config.OContextConfiguration;
+import com.orientechnologies.orient.core.exception.OAcquireTimeoutException;
 import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryProtocol;
 
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
 /**
  * Created by tglman on 01/10/15.
  */
 public class ORemoteConnectionPool implements OResourcePoolListener<String, OChannelBinaryAsynchClient> {
+  private static final long CONTENDED_RETRY_INTERVAL = 10;
 
   private OResourcePool<String, OChannelBinaryAsynchClient> pool;
 
+  /**
+   * Channels shared by the requests which may be pipelined, mapped to the amount of requests which are in progress on each channel.
+   * Every pipelined channel is taken from {@link #pool} and is kept out of it till it is removed, so exclusive and pipelined channels
+   * are limited together by the maximum size of the pool.
+   */
+  private final Map<OChannelBinaryAsynchClient, Integer> pipelined = new IdentityHashMap<>();
+
   public ORemoteConnectionPool(int iMaxResources) {
     pool = new OResourcePool<>(iMaxResources, this);
   }
@@ -89,5 +103,113 @@ public class ORemoteConnectionPool implements OResourcePoolListener<String, OCha
       final OContextConfiguration clientConfiguration) {
     return pool.getResource(iServerURL, timeout, clientConfiguration);
   }
-  
+
+  /**
+   * Returns the channel for the request which may be pipelined. Idle channel is preferred, then a channel is taken from the pool if
+   * the maximum size of the pool is not reached, otherwise the request is sent through the least loaded channel which has less than
+   * <code>pipelineDepth</code> requests in progress.
+   */
+  public OChannelBinaryAsynchClient acquirePipelined(final String iServerURL, final int pipelineDepth, final long timeout,
+      final OContextConfiguration clientConfiguration) {
+    final long deadline = System.currentTimeMillis() + timeout;
+    boolean contended = false;
+
+    while (true) {
+      synchronized (pipelined) {
+        while (true) {
+          OChannelBinaryAsynchClient candidate = null;
+          int candidateRequests = Integer.MAX_VALUE;
+
+          for (Iterator<Map.Entry<OChannelBinaryAsynchClient, Integer>> it = pipelined.entrySet().iterator(); it.hasNext(); ) {
+            final Map.Entry<OChannelBinaryAsynchClient, Integer> entry = it.next();
+            if (!entry.getKey().isConnected()) {
+              it.remove();
+              pool.remove(entry.getKey());
+              continue;
+            }
+
+            if (entry.getValue() < candidateRequests) {
+              candidate = entry.getKey();
+              candidateRequests = entry.getValue();
+            }
+          }
+
+          if (candidate != null && candidateRequests == 0) {
+            pipelined.put(candidate, 1);
+            return candidate;
+          }
+
+          if (!contended && pool.getAvailableResources() > 0)
+            break;
+
+          if (candidate != null && candidateRequests < pipelineDepth) {
+            pipelined.put(candidate, candidateRequests + 1);
+            return candidate;
+          }
+
+          final long wait = deadline - System.currentTimeMillis();
+          if (wait <= 0)
+            throw new OAcquireTimeoutException(
+                "No more resources available in pool (max=" + pool.getMaxResources() + ", pipelineDepth=" + pipelineDepth
+                    + "). Requested resource: " + iServerURL);
+
+          try {
+            if (contended) {
+              // RELEASED CHANNELS OF THE POOL DO NOT WAKE UP THIS THREAD, SO THE POOL IS CHECKED AGAIN AFTER A WHILE
+              pipelined.wait(Math.min(wait, CONTENDED_RETRY_INTERVAL));
+              contended = false;
+            } else
+              pipelined.wait(wait);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw OException.wrapException(new OInterruptedException("Acquiring of resources was interrupted"), e);
+          }
+        }
+      }
+
+      final OChannelBinaryAsynchClient channel;
+      try {
+        channel = pool.getResource(iServerURL, 0, clientConfiguration);
+      } catch (OAcquireTimeoutException e) {
+        // THE LAST AVAILABLE CHANNEL WAS TAKEN BY ANOTHER THREAD IN THE MEANWHILE
+        contended = true;
+        continue;
+      }
+
+      channel.enablePipelining();
+      synchronized (pipelined) {
+        pipelined.put(channel, 1);
+        pipelined.notifyAll();
+      }
+      return channel;
+    }
+  }
+
+  /**
+   * Returns the channel to the pool, or decreases the amount of requests in progress if the channel is pipelined.
+   */
+  public void release(final OChannelBinaryAsynchClient channel) {
+    synchronized (pipelined) {
+      if (channel.isPipelined()) {
+        final Integer requests = pipelined.get(channel);
+        if (requests != null && requests > 0)
+          pipelined.put(channel, requests - 1);
+      } else
+        pool.returnResource(channel);
+
+      // A PIPELINED REQUEST MAY WAIT FOR THE CHANNEL
+      pipelined.notifyAll();
+    }
+  }
+
+  /**
+   * Removes the channel from the pool, the channel is not closed.
+   */
+  public void remove(final OChannelBinaryAsynchClient channel) {
+    synchronized (pipelined) {
+      pipelined.remove(channel);
+      pool.remove(channel);
+      pipelined.notifyAll();
+    }
+  }
 }
@@ -188,6 +188,22 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
         }
         ret = response;
         connectionManager.release(network);
+      } else if (pMode == 1 && network.isPipelined()) {
+        // NEXT REQUEST OF THE SESSION COULD BE SENT THROUGH THE SAME CHANNEL, SO THE RESPONSE IS READ BEFORE THE CHANNEL IS RELEASED
+        try {
+          beginResponse(network, session);
+          response.read(network, session);
+        } finally {
+          endResponse(network);
+        }
+        connectionManager.release(network);
+        asynchExecutor.submit(() -> {
+          try {
+            callback.call(recordId, response);
+          } catch (Exception e) {
+            OLogManager.instance().error(this, "Exception on async query", e);
+          }
+        });
       } else if (pMode == 1) {
         // ASYNC
         asynchExecutor.submit(() -> {
@@ -271,7 +287,7 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
 
       do {
         try {
-          network = getNetwork(serverUrl);
+          network = getPipelinedNetwork(serverUrl);
         } catch (OException e) {
           if (session.isStickToSession()) {
             throw e;
@@ -290,9 +306,14 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
         // In case i do not have a token or i'm switching between server i've to execute a open operation.
         OStorageRemoteNodeSession nodeSession = session.getServerSession(network.getServerURL());
         if (nodeSession == null || !nodeSession.isValid()) {
-          openRemoteDatabase(network);
-          if (!network.tryLock())
-            continue;
+          if (network.isPipelined())
+            // THE OPEN REQUEST IS NOT BOUND TO A SESSION YET, SO ITS RESPONSE CANNOT BE DEMULTIPLEXED
+            openRemoteDatabaseOnDedicatedNetwork(network.getServerURL());
+          else {
+            openRemoteDatabase(network);
+            if (!network.tryLock())
+              continue;
+          }
         }
 
         return operation.execute(network, session);
@@ -1516,6 +1537,16 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
     pushThread.subscribe(new OSubscribeIndexManagerRequest(), nodeSession);
   }
 
+  private void openRemoteDatabaseOnDedicatedNetwork(final String serverURL) throws IOException {
+    final OChannelBinaryAsynchClient network = getNetwork(serverURL);
+    try {
+      openRemoteDatabase(network);
+    } catch (IOException | OIOException e) {
+      connectionManager.remove(network);
+      throw e;
+    }
+  }
+
   protected void openRemoteDatabase(String currentURL) {
     do {
       do {
@@ -1820,6 +1851,24 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
     return network;
   }
 
+  /**
+   * Returns the channel which is shared with other requests if pipelining is enabled, otherwise the channel which is locked for
+   * exclusive usage like {@link #getNetwork(String)} does.
+   */
+  public OChannelBinaryAsynchClient getPipelinedNetwork(final String iCurrentURL) {
+    final int pipelineDepth = clientConfiguration.getValueAsInteger(OGlobalConfiguration.CLIENT_CHANNEL_PIPELINE_DEPTH);
+    if (pipelineDepth <= 1)
+      return getNetwork(iCurrentURL);
+
+    try {
+      return connectionManager.acquirePipelined(iCurrentURL, pipelineDepth, clientConfiguration);
+    } catch (OIOException cause) {
+      throw cause;
+    } catch (Exception cause) {
+      throw OException.wrapException(new OStorageException("Cannot open a connection to remote server: " + iCurrentURL), cause);
+    }
+  }
+
   public void beginResponse(OChannelBinaryAsynchClient iNetwork, OStorageRemoteSession session) throws IOException {
     OStorageRemoteNodeSession nodeSession = session.getServerSession(iNetwork.getServerURL());
     byte[] newToken = iNetwork.beginResponse(nodeSession.getSessionId(), true);
@@ -0,0 +1,127 @@
+package com.orientechnologies.orient.client.binary;
+
+import com.orientechnologies.orient.core.config.OContextConfiguration;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryProtocol;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class OChannelBinaryAsynchClientPipeliningTest {
+  private ServerSocket               serverSocket;
+  private Socket                     server;
+  private OChannelBinaryAsynchClient channel;
+  private ExecutorService            readers;
+
+  @Before
+  public void before() throws IOException {
+    serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+
+    final CompletableFuture<Socket> accepted = CompletableFuture.supplyAsync(() -> {
+      try {
+        final Socket socket = serverSocket.accept();
+        final DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+        out.writeShort(OChannelBinaryProtocol.CURRENT_PROTOCOL_VERSION);
+        out.flush();
+        return socket;
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+
+    channel = new OChannelBinaryAsynchClient(InetAddress.getLoopbackAddress().getHostAddress(), serverSocket.getLocalPort(), null,
+        new OContextConfiguration(), OChannelBinaryProtocol.CURRENT_PROTOCOL_VERSION);
+    channel.enablePipelining();
+
+    server = accepted.join();
+    readers = Executors.newFixedThreadPool(2);
+  }
+
+  @After
+  public void after() throws IOException {
+    readers.shutdownNow();
+    channel.close();
+    server.close();
+    serverSocket.close();
+  }
+
+  @Test
+  public void testResponsesAreDeliveredToTheirSessions() throws Exception {
+    final CompletableFuture<Integer> first = readResponse(1);
+    final CompletableFuture<Integer> second = readResponse(2);
+
+    // RESPONSES ARE SENT IN THE REVERSE ORDER
+    final DataOutputStream out = new DataOutputStream(server.getOutputStream());
+    writeResponse(out, 2, 200);
+    writeResponse(out, 1, 100);
+    out.flush();
+
+    assertEquals(100, (int) first.get(10, TimeUnit.SECONDS));
+    assertEquals(200, (int) second.get(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testWaitingRequestsFailWhenChannelIsClosed() throws Exception {
+    final CompletableFuture<Integer> first = readResponse(1);
+    final CompletableFuture<Integer> second = readResponse(2);
+
+    // RESPONSE OF ANOTHER SESSION KEEPS BOTH THE REQUESTS WAITING
+    final DataOutputStream out = new DataOutputStream(server.getOutputStream());
+    out.writeByte(OChannelBinaryProtocol.RESPONSE_STATUS_OK);
+    out.writeInt(3);
+    out.flush();
+    Thread.sleep(200);
+
+    channel.close();
+
+    assertFailed(first);
+    assertFailed(second);
+  }
+
+  private static void assertFailed(final CompletableFuture<Integer> response) throws Exception {
+    try {
+      response.get(10, TimeUnit.SECONDS);
+      fail("Response should not be read from the closed channel");
+    } catch (ExecutionException e) {
+      // EXPECTED
+    }
+  }
+
+  private CompletableFuture<Integer> readResponse(final int sessionId) {
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        channel.beginResponse(sessionId, true);
+        try {
+          return channel.readInt();
+        } finally {
+          channel.endResponse();
+        }
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    }, readers);
+  }
+
+  private static void writeResponse(final DataOutputStream out, final int sessionId, final int content) throws IOException {
+    out.writeByte(OChannelBinaryProtocol.RESPONSE_STATUS_OK);
+    out.writeInt(sessionId);
+    // NO TOKEN
+    out.writeInt(-1);
+    // MESSAGE ID
+    out.writeByte(0);
+    out.writeInt(content);
+  }
+}
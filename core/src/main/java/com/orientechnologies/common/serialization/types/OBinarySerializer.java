@@ -20,6 +20,7 @@
 
 package com.orientechnologies.common.serialization.types;
 
+import com.orientechnologies.common.comparator.ODefaultComparator;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWALChanges;
 
 import java.nio.ByteBuffer;
@@ -235,4 +236,19 @@ public interface OBinarySerializer<T> {
    * @return Size of serialized object.
    */
   int getObjectSizeInByteBuffer(ByteBuffer buffer, OWALChanges walChanges, int offset);
+
+  /**
+   * Compares object serialized in the buffer at its current position with the given object. Result is the same as the result of
+   * {@link ODefaultComparator} called for the deserialized object and the given one.
+   * <p>
+   * Serializers of index keys override this method to compare serialized presentation in place, so binary search inside of index
+   * pages does not create key instances. Final position of <code>ByteBuffer</code> is undefined.
+   *
+   * @param buffer Buffer which contains serialized presentation of object
+   * @param object Object to compare with
+   * @return Negative value, zero or positive value if serialized object is less than, equal to or greater than given object.
+   */
+  default int compareInByteBuffer(ByteBuffer buffer, T object) {
+    return ODefaultComparator.INSTANCE.compare(deserializeFromByteBufferObject(buffer), object);
+  }
 }
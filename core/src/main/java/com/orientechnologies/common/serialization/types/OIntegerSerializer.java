@@ -148,4 +148,15 @@ public class OIntegerSerializer implements OBinarySerializer<Integer> {
   public int getObjectSizeInByteBuffer(ByteBuffer buffer, OWALChanges walChanges, int offset) {
     return INT_SIZE;
   }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int compareInByteBuffer(ByteBuffer buffer, Integer object) {
+    if (object == null)
+      return 1;
+
+    return Integer.compare(buffer.getInt(), object);
+  }
 }
@@ -154,4 +154,15 @@ public class OLongSerializer implements OBinarySerializer<Long> {
   public int getObjectSizeInByteBuffer(ByteBuffer buffer, OWALChanges walChanges, int offset) {
     return LONG_SIZE;
   }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int compareInByteBuffer(ByteBuffer buffer, Long object) {
+    if (object == null)
+      return 1;
+
+    return Long.compare(buffer.getLong(), object);
+  }
 }
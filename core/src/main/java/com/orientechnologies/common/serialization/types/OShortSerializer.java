@@ -145,4 +145,15 @@ public class OShortSerializer implements OBinarySerializer<Short> {
   public int getObjectSizeInByteBuffer(ByteBuffer buffer, OWALChanges walChanges, int offset) {
     return SHORT_SIZE;
   }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int compareInByteBuffer(ByteBuffer buffer, Short object) {
+    if (object == null)
+      return 1;
+
+    return Short.compare(buffer.getShort(), object);
+  }
 }
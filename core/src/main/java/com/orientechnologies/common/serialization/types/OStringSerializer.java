@@ -203,4 +203,29 @@ public class OStringSerializer implements OBinarySerializer<String> {
   public int getObjectSizeInByteBuffer(ByteBuffer buffer, OWALChanges walChanges, int offset) {
     return walChanges.getIntValue(buffer, offset) * 2 + OIntegerSerializer.INT_SIZE;
   }
+
+  /**
+   * Compares characters stored in the buffer one by one, in the same way as {@link String#compareTo(String)} does.
+   */
+  @Override
+  public int compareInByteBuffer(ByteBuffer buffer, String object) {
+    if (object == null)
+      return 1;
+
+    final int length = buffer.getInt();
+    final int otherLength = object.length();
+    final int minLength = Math.min(length, otherLength);
+
+    int position = buffer.position();
+    for (int i = 0; i < minLength; i++) {
+      final char c = (char) ((0xFF & buffer.get(position)) | ((0xFF & buffer.get(position + 1)) << 8));
+      final char otherC = object.charAt(i);
+      if (c != otherC)
+        return c - otherC;
+
+      position += 2;
+    }
+
+    return length - otherLength;
+  }
 }
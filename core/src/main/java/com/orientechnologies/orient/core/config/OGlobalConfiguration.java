@@ -123,6 +123,18 @@ public enum OGlobalConfiguration {
       + " if this percent is reached next pages will be left in unpinned state. You can not set value more than 50", Integer.class,
       20, false),
 
+  DISK_CACHE_PARTITIONS("storage.diskCache.partitions",
+      "Amount of independent partitions of the read cache. Each partition has its own lock and eviction queues, which lowers contention between threads on machines with many cores. 1 (default) means single 2Q cache, 0 means the number of available cores. The value is rounded up to the power of two",
+      Integer.class, 1),
+
+  DISK_CACHE_READ_AHEAD_MAX_PAGES("storage.diskCache.readAheadMaxPages",
+      "Maximum amount of pages which are read ahead in background when sequential read of a file, like a full scan of a cluster, is detected. Amount of read ahead pages grows with every next read ahead of the same file up to this limit. Read ahead pages are not promoted to the hot queue of the read cache, so long scans do not evict pages which are used often. 0 disables read ahead",
+      Integer.class, 64),
+
+  DISK_CACHE_SCAN_BUFFER_SIZE("storage.diskCache.scanBufferSize",
+      "Maximum amount of pages which are kept in the separate buffer of the read cache for bulk operations, like export of the database, which read most of the pages only once. Pages which are absent in the read cache and are read by such operations are not put into the main queues of the cache, so they do not evict pages used by the rest of the workload. 0 disables the buffer",
+      Integer.class, 256),
+
   DISK_CACHE_SIZE("storage.diskCache.bufferSize", "Size of disk buffer in megabytes, disk size may be changed at runtime, "
       + "but if does not enough to contain all pinned pages exception will be thrown", Integer.class, 4 * 1024,
       new OConfigurationChangeCallback() {
@@ -252,6 +264,14 @@ public enum OGlobalConfiguration {
 
   WAL_COMMIT_TIMEOUT("storage.wal.commitTimeout", "Maximum interval between WAL commits (in ms.)", Integer.class, 1000),
 
+  WAL_GROUP_COMMIT("storage.wal.groupCommit",
+      "Makes commits of transactions durable. Committing thread waits till the records of the transaction are forced to the disk, "
+          + "records of transactions which are committed at the same time are forced by a single fsync", Boolean.class, false),
+
+  WAL_GROUP_COMMIT_MAX_DELAY("storage.wal.groupCommitMaxDelay",
+      "Maximum interval (in microseconds) the WAL waits for other transactions to join the group commit before the log is forced "
+          + "to the disk. The actual interval adapts to the load", Integer.class, 2000),
+
   WAL_SHUTDOWN_TIMEOUT("storage.wal.shutdownTimeout", "Maximum wait interval between events, when the background flush thread"
       + "receives a shutdown command and when the background flush will be stopped (in ms.)", Integer.class, 10000),
 
@@ -400,6 +420,23 @@ public enum OGlobalConfiguration {
 
   INDEX_CURSOR_PREFETCH_SIZE("index.cursor.prefetchSize", "Default prefetch size of index cursor", Integer.class, 10000),
 
+  INDEX_BULK_LOAD("index.bulkLoad",
+      "Fill unique indexes from externally sorted keys during index creation and rebuild, instead of inserting keys one by one. "
+          + "Indexes which fit into index.bulkLoad.maxHeapPercent are built bottom-up in memory, bigger indexes are filled by sorted keys one by one (true by default)",
+      Boolean.class, true),
+
+  INDEX_BULK_LOAD_FILL_FACTOR("index.bulkLoad.fillFactor",
+      "Portion of the page which is filled by keys during bulk load of an index, the rest of the page is left for further insertions (0.9 by default)",
+      Float.class, 0.9),
+
+  INDEX_BULK_LOAD_SORT_BUFFER_SIZE("index.bulkLoad.sortBufferSize",
+      "Amount of keys which are sorted in memory during bulk load of an index before being spilled to a temporary file (500000 by default)",
+      Integer.class, 500000),
+
+  INDEX_BULK_LOAD_MAX_HEAP_PERCENT("index.bulkLoad.maxHeapPercent",
+      "Maximum percentage of the heap which may be used by the pages of an index built bottom-up in memory during bulk load. "
+          + "If estimated size of the index is bigger, sorted keys are put one by one (25 by default)", Integer.class, 25),
+
   // SBTREE
   SBTREE_MAX_DEPTH("sbtree.maxDepth",
       "Maximum depth of sbtree, which will be traversed during key look up until it will be treated as broken (64 by default)",
@@ -499,6 +536,14 @@ public enum OGlobalConfiguration {
       "Set the minimum enabled binary protocol version and disable all backward compatible behaviour for version previous the one specified",
       Integer.class, 26, false),
 
+  NETWORK_BINARY_NIO("network.binary.nio",
+      "Serve binary connections with a selector and a pool of worker threads instead of a thread per connection, so idle connections do not hold a thread. It is ignored for SSL sockets",
+      Boolean.class, false),
+
+  NETWORK_BINARY_NIO_WORKERS("network.binary.nio.workers",
+      "Maximum number of threads which execute the requests of binary connections served by the selector. 0 means 4 times the number of available cores",
+      Integer.class, 0),
+
   NETWORK_BINARY_DEBUG("network.binary.debug", "Debug mode: print all data incoming on the binary channel", Boolean.class, false,
       true),
 
@@ -529,6 +574,14 @@ public enum OGlobalConfiguration {
   NETWORK_HTTP_SESSION_EXPIRE_TIMEOUT("network.http.sessionExpireTimeout",
       "Timeout, after which an http session is considered to have expired (in seconds)", Integer.class, 900),
 
+  NETWORK_HTTP_CURSOR_TIMEOUT("network.http.cursorTimeout",
+      "Timeout, after which a server side cursor of a query executed through HTTP, which was not read by the client, is closed (in seconds)",
+      Integer.class, 60),
+
+  NETWORK_HTTP_MAX_CURSORS_PER_USER("network.http.maxCursorsPerUser",
+      "Maximum amount of server side cursors of queries executed through HTTP which are kept open for a single user of a database. If a new cursor exceeds the limit, the least recently read cursor of the user is closed",
+      Integer.class, 16),
+
   NETWORK_HTTP_USE_TOKEN("network.http.useToken", "Enable Token based sessions for http", Boolean.class, false),
 
   NETWORK_TOKEN_SECRETKEY("network.token.secretKey", "Network token sercret key", String.class, ""),
@@ -657,6 +710,37 @@ public enum OGlobalConfiguration {
       "Size of the queue that holds results on parallel execution. The queue is blocking, so in case the queue is full, the query threads will be in a wait state",
       Integer.class, 20000),
 
+  QUERY_PARALLEL_SCAN("query.parallelScan",
+      "Scan the clusters of a class in parallel in the SQL executor, evaluating filters and projections on worker threads. Parallel scan is activated only if the class has more than one cluster and more than query.parallelMinimumRecords records. It can be forced on a single query with the PARALLEL keyword",
+      Boolean.class, false),
+
+  QUERY_PARALLEL_SCAN_MAX_THREADS("query.parallelScan.maxThreads",
+      "Maximum number of worker threads used by a single parallel cluster scan. 0 means the number of available cores",
+      Integer.class, 0),
+
+  QUERY_PARALLEL_SCAN_ORDERED_MERGE("query.parallelScan.orderedMerge",
+      "Return the results of a parallel cluster scan cluster by cluster, in the same order as a sequential scan. If false, results are returned as soon as they are available",
+      Boolean.class, false),
+
+  QUERY_ORDER_BY_MEMORY_BUDGET("query.orderBy.memoryBudget",
+      "Approximate amount of heap (in MB) that a single ORDER BY can use to sort results. When the limit is exceeded, sorted runs are written to temporary files and merged at the end. It can be overridden for a single query with the $orderByMemoryBudget variable (eg. LET $orderByMemoryBudget = 64). 0 means no limit",
+      Long.class, 0),
+
+  QUERY_GROUP_BY_MEMORY_BUDGET("query.groupBy.memoryBudget",
+      "Approximate amount of heap (in MB) that a single GROUP BY can use to keep aggregated groups. When the limit is exceeded, the rows of new groups are partitioned to temporary files and aggregated one partition at a time. It can be overridden for a single query with the $groupByMemoryBudget variable (eg. LET $groupByMemoryBudget = 64). 0 means no limit",
+      Long.class, 0),
+
+  QUERY_RESULT_CACHE_ENABLED("query.resultCache.enabled",
+      "Keep the results of idempotent SELECT and MATCH queries executed by the SQL executor in a cache. Cached results are invalidated as soon as a record of a class or cluster the query depends on is changed",
+      Boolean.class, false),
+
+  QUERY_RESULT_CACHE_MAX_MEMORY("query.resultCache.maxMemory",
+      "Approximate amount of heap (in MB) used by the query result cache of a database. Least recently used results are evicted when the limit is exceeded",
+      Long.class, 64),
+
+  QUERY_RESULT_CACHE_MAX_RESULTS("query.resultCache.maxResults",
+      "Maximum number of records returned by a query to keep its result in the query result cache", Integer.class, 1000),
+
   QUERY_SCAN_PREFETCH_PAGES("query.scanPrefetchPages",
       "Pages to prefetch during scan. Setting this value higher makes scans faster, because it reduces the number of I/O operations, though it consumes more memory. (Use 0 to disable)",
       Integer.class, 20),
@@ -674,6 +758,10 @@ public enum OGlobalConfiguration {
 
   QUERY_LIVE_SUPPORT("query.live.support", "Enable/Disable the support of live query. (Use false to disable)", Boolean.class, true),
 
+  QUERY_LIVE_DISPATCH_THREADS("query.live.dispatchThreads",
+      "Number of threads per database that deliver the changes to the live query subscribers. Every subscriber is served by one thread, so it receives the changes in order",
+      Integer.class, 4),
+
   STATEMENT_CACHE_SIZE("statement.cacheSize", "Number of parsed SQL statements kept in cache", Integer.class, 100),
 
   // GRAPH
@@ -690,6 +778,13 @@ public enum OGlobalConfiguration {
   CLIENT_CHANNEL_MAX_POOL("client.channel.maxPool",
       "Maximum size of pool of network channels between client and server. A channel is a TCP/IP connection", Integer.class, 100),
 
+  /**
+   * Maximum amount of requests sent through the same network channel before their responses are received.
+   */
+  CLIENT_CHANNEL_PIPELINE_DEPTH("client.channel.pipelineDepth",
+      "Maximum amount of requests sent through the same network channel before their responses are received, when all the channels "
+          + "of the pool are busy. Values greater than 1 enable pipelining of requests", Integer.class, 1),
+
   /**
    * Maximum time, where the client should wait for a connection from the pool, when all connections busy.
    */
@@ -762,6 +857,14 @@ public enum OGlobalConfiguration {
   DISTRIBUTED_DEPLOYDB_TASK_COMPRESSION("distributed.deployDbTaskCompression",
       "Compression level (between 0 and 9) to use in backup for database deployment", Integer.class, 7, true),
 
+  DISTRIBUTED_DEPLOYDB_CHUNKS_IN_FLIGHT("distributed.deployDbChunksInFlight",
+      "Number of database chunks which are requested at once from the remote node during database deployment", Integer.class, 4,
+      true),
+
+  DISTRIBUTED_DEPLOYDB_CHUNK_RETRIES("distributed.deployDbChunkRetries",
+      "Maximum number of attempts to receive each database chunk during database deployment before the deployment fails",
+      Integer.class, 10, true),
+
   DISTRIBUTED_ASYNCH_QUEUE_SIZE("distributed.asynchQueueSize",
       "Queue size to handle distributed asynchronous operations. The bigger is the queue, the more operation are buffered, but also more memory it's consumed. 0 = dynamic allocation, which means up to 2^31-1 entries",
       Integer.class, 0),
@@ -149,6 +149,8 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract impleme
       installHooksEmbedded();
       if (this.getMetadata().getCommandCache().isEnabled())
         registerHook(new OCommandCacheHook(this), ORecordHook.HOOK_POSITION.REGULAR);
+      if (getSharedContext().getQueryResultCache().isEnabled())
+        registerHook(new OQueryResultCacheHook(this), ORecordHook.HOOK_POSITION.REGULAR);
 
       user = null;
 
@@ -236,6 +238,8 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract impleme
 
     if (this.getMetadata().getCommandCache().isEnabled())
       registerHook(new OCommandCacheHook(this), ORecordHook.HOOK_POSITION.REGULAR);
+    if (getSharedContext().getQueryResultCache().isEnabled())
+      registerHook(new OQueryResultCacheHook(this), ORecordHook.HOOK_POSITION.REGULAR);
   }
 
   public void callOnCreateListeners() {
@@ -515,7 +519,7 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract impleme
     if (!statement.isIdempotent()) {
       throw new OCommandExecutionException("Cannot execute query on non idempotent statement: " + query);
     }
-    OResultSet original = statement.execute(this, args);
+    OResultSet original = getSharedContext().getQueryResultCache().execute(this, statement, query, args);
     OLocalResultSetLifecycleDecorator result = new OLocalResultSetLifecycleDecorator(original);
     this.queryStarted(result.getQueryId(), result);
     result.addLifecycleListener(this);
@@ -531,7 +535,7 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract impleme
     if (!statement.isIdempotent()) {
       throw new OCommandExecutionException("Cannot execute query on non idempotent statement: " + query);
     }
-    OResultSet original = statement.execute(this, args);
+    OResultSet original = getSharedContext().getQueryResultCache().execute(this, statement, query, args);
     OLocalResultSetLifecycleDecorator result = new OLocalResultSetLifecycleDecorator(original);
     this.queryStarted(result.getQueryId(), result);
     result.addLifecycleListener(this);
@@ -987,6 +991,7 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract impleme
     super.afterCommitOperations();
     OLiveQueryHook.notifyForTxChanges(this);
     OLiveQueryHookV2.notifyForTxChanges(this);
+    OQueryResultCache.notifyForTxChanges(this);
   }
 
   @Override
@@ -994,6 +999,7 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract impleme
     super.afterRollbackOperations();
     OLiveQueryHook.removePendingDatabaseOps(this);
     OLiveQueryHookV2.removePendingDatabaseOps(this);
+    OQueryResultCache.removePendingDatabaseOps(this);
   }
 
   @Override
@@ -0,0 +1,298 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.db.tool;
+
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.db.record.ridbag.ORidBag;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.record.ORecordInternal;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.ORecordSerializerNetworkV37;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Binary format of the records of a database export. The records of every cluster are written to their own stream, so that
+ * clusters can be exported and imported in parallel. A stream starts with an uncompressed header declaring the codec of the rest
+ * of the stream, followed by the records as record type, cluster position, version and content.
+ * <p>
+ * Documents are written with the binary serializer that stores field names instead of the ids of the schema global properties,
+ * because the global properties of the target database can be different.
+ */
+public class OBinaryRecordStream {
+  public static final String MANIFEST_NAME = "records.manifest";
+
+  private static final int  MAGIC   = 0x4F524543;
+  private static final int  VERSION = 1;
+  private static final byte END     = 0;
+
+  public enum Codec {
+    NONE, GZIP;
+
+    private OutputStream compress(final OutputStream out, final int level, final int bufferSize) throws IOException {
+      if (this == NONE)
+        return out;
+      return new GZIPOutputStream(out, bufferSize) {
+        {
+          def.setLevel(level);
+        }
+      };
+    }
+
+    private InputStream decompress(final InputStream in, final int bufferSize) throws IOException {
+      if (this == NONE)
+        return in;
+      return new GZIPInputStream(in, bufferSize);
+    }
+  }
+
+  /**
+   * Returns the directory that contains the record streams of an export file.
+   */
+  public static File getDirectory(final String exportFileName) {
+    final String baseName =
+        exportFileName.endsWith(".gz") ? exportFileName.substring(0, exportFileName.length() - ".gz".length()) : exportFileName;
+    return new File(baseName + ".records");
+  }
+
+  public static class Writer implements Closeable {
+    private final DataOutputStream out;
+    private       long             records;
+
+    public Writer(final File file, final Codec codec, final int compressionLevel, final int bufferSize) throws IOException {
+      final OutputStream fileOut = new FileOutputStream(file);
+      try {
+        final DataOutputStream header = new DataOutputStream(fileOut);
+        header.writeInt(MAGIC);
+        header.writeInt(VERSION);
+        header.writeByte(codec.ordinal());
+        header.flush();
+
+        out = new DataOutputStream(new BufferedOutputStream(codec.compress(fileOut, compressionLevel, bufferSize), bufferSize));
+      } catch (IOException e) {
+        fileOut.close();
+        throw e;
+      }
+    }
+
+    public void write(final ORecord record) throws IOException {
+      final byte[] content = toStream(record);
+
+      out.writeByte(ORecordInternal.getRecordType(record));
+      out.writeLong(record.getIdentity().getClusterPosition());
+      out.writeInt(record.getVersion());
+      out.writeInt(content.length);
+      out.write(content);
+      records++;
+    }
+
+    public long getRecords() {
+      return records;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        out.writeByte(END);
+      } finally {
+        out.close();
+      }
+    }
+
+    private static byte[] toStream(final ORecord record) {
+      if (!(record instanceof ODocument))
+        return record.toStream();
+
+      ODocument document = (ODocument) record;
+      for (String fieldName : document.fieldNames()) {
+        final Object value = document.rawField(fieldName);
+        if (value instanceof ORidBag && !((ORidBag) value).isEmbedded()) {
+          // TREE BASED RIDBAGS ARE SERIALIZED AS POINTERS TO THE SOURCE STORAGE, WRITE THEIR CONTENT INSTEAD
+          if (document == record)
+            document = document.copy();
+
+          final ORidBag content = new ORidBag(Integer.MAX_VALUE, -1);
+          for (Iterator<OIdentifiable> it = ((ORidBag) value).rawIterator(); it.hasNext(); )
+            content.add(it.next());
+          document.field(fieldName, content);
+        }
+      }
+      return ORecordSerializerNetworkV37.INSTANCE.toStream(document, false);
+    }
+  }
+
+  public static class Reader implements Closeable {
+    private final DataInputStream in;
+    private final int             clusterId;
+
+    public Reader(final File file, final int clusterId, final int bufferSize) throws IOException {
+      this.clusterId = clusterId;
+
+      final InputStream fileIn = new FileInputStream(file);
+      try {
+        final DataInputStream header = new DataInputStream(fileIn);
+        if (header.readInt() != MAGIC)
+          throw new IOException("File '" + file + "' is not a stream of exported records");
+        final int version = header.readInt();
+        if (version != VERSION)
+          throw new IOException("Unsupported version " + version + " of the stream of exported records '" + file + "'");
+        final Codec codec = Codec.values()[header.readByte()];
+
+        in = new DataInputStream(new BufferedInputStream(codec.decompress(fileIn, bufferSize), bufferSize));
+      } catch (IOException e) {
+        fileIn.close();
+        throw e;
+      }
+    }
+
+    /**
+     * Reads the next record of the stream, keeping the identity and version it had in the exported database.
+     *
+     * @return the record or null at the end of the stream
+     */
+    public ORecord next(final ODatabaseDocumentInternal database) throws IOException {
+      final byte recordType = in.readByte();
+      if (recordType == END)
+        return null;
+
+      final long clusterPosition = in.readLong();
+      final int version = in.readInt();
+      final byte[] content = new byte[in.readInt()];
+      in.readFully(content);
+
+      final ORecord record = Orient.instance().getRecordFactoryManager().newInstance(recordType, clusterId, database);
+      if (record instanceof ODocument) {
+        ORecordSerializerNetworkV37.INSTANCE.fromStream(content, record, null);
+        // THE RECORD IS SAVED WITH THE SERIALIZER OF THE TARGET DATABASE
+        ORecordInternal.setRecordSerializer(record, database.getSerializer());
+      } else
+        record.fromStream(content);
+
+      ORecordInternal.setIdentity(record, clusterId, clusterPosition);
+      ORecordInternal.setVersion(record, version);
+      return record;
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+
+  /**
+   * Index of the record streams of an export, with the RIDs of the records that could not be exported.
+   */
+  public static class Manifest {
+    private final List<Entry> entries    = new ArrayList<Entry>();
+    private final Set<ORID>   brokenRids = new HashSet<ORID>();
+
+    public List<Entry> getEntries() {
+      return entries;
+    }
+
+    public Set<ORID> getBrokenRids() {
+      return brokenRids;
+    }
+
+    public void write(final File directory) throws IOException {
+      try (DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(new FileOutputStream(new File(directory, MANIFEST_NAME))))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(entries.size());
+        for (Entry entry : entries) {
+          out.writeUTF(entry.clusterName);
+          out.writeInt(entry.clusterId);
+          out.writeUTF(entry.fileName);
+          out.writeByte(entry.codec.ordinal());
+          out.writeLong(entry.records);
+        }
+        out.writeInt(brokenRids.size());
+        for (ORID rid : brokenRids)
+          out.writeUTF(rid.toString());
+      }
+    }
+
+    public static Manifest read(final File directory) throws IOException {
+      final File file = new File(directory, MANIFEST_NAME);
+      try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION)
+          throw new IOException("File '" + file + "' is not a supported manifest of exported records");
+
+        final Manifest manifest = new Manifest();
+        final int entries = in.readInt();
+        for (int i = 0; i < entries; i++) {
+          final String clusterName = in.readUTF();
+          final int clusterId = in.readInt();
+          final String fileName = in.readUTF();
+          final Codec codec = Codec.values()[in.readByte()];
+          manifest.entries.add(new Entry(clusterName, clusterId, fileName, codec, in.readLong()));
+        }
+        final int brokenRids = in.readInt();
+        for (int i = 0; i < brokenRids; i++)
+          manifest.brokenRids.add(new ORecordId(in.readUTF()));
+        return manifest;
+      }
+    }
+  }
+
+  public static class Entry {
+    private final String clusterName;
+    private final int    clusterId;
+    private final String fileName;
+    private final Codec  codec;
+    private final long   records;
+
+    public Entry(final String clusterName, final int clusterId, final String fileName, final Codec codec, final long records) {
+      this.clusterName = clusterName;
+      this.clusterId = clusterId;
+      this.fileName = fileName;
+      this.codec = codec;
+      this.records = records;
+    }
+
+    public String getClusterName() {
+      return clusterName;
+    }
+
+    public int getClusterId() {
+      return clusterId;
+    }
+
+    public String getFileName() {
+      return fileName;
+    }
+
+    public Codec getCodec() {
+      return codec;
+    }
+
+    public long getRecords() {
+      return records;
+    }
+  }
+}
@@ -27,6 +27,7 @@ import com.orientechnologies.orient.core.iterator.ORecordIteratorCluster;
 import com.orientechnologies.orient.core.metadata.schema.OClass;
 import com.orientechnologies.orient.core.record.ORecord;
 import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.storage.cache.OScanAccessHint;
 
 import java.util.Iterator;
 import java.util.List;
@@ -61,11 +62,16 @@ public class OCheckIndexTool extends ODatabaseTool {
 
   @Override
   public void run() {
-    for (OIndex index : database.getMetadata().getIndexManager().getIndexes()) {
-      if (!canCheck(index)) {
-        continue;
+    OScanAccessHint.begin();
+    try {
+      for (OIndex index : database.getMetadata().getIndexManager().getIndexes()) {
+        if (!canCheck(index)) {
+          continue;
+        }
+        checkIndex(index);
       }
-      checkIndex(index);
+    } finally {
+      OScanAccessHint.end();
     }
     message("Total errors found on indexes: " + getTotalErrors());
   }
@@ -50,6 +50,7 @@ import com.orientechnologies.orient.core.record.impl.ODocumentHelper.ODbRelatedC
 import com.orientechnologies.orient.core.storage.OPhysicalPosition;
 import com.orientechnologies.orient.core.storage.ORawBuffer;
 import com.orientechnologies.orient.core.storage.OStorage;
+import com.orientechnologies.orient.core.storage.cache.OScanAccessHint;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 public class ODatabaseCompare extends ODatabaseImpExpAbstract {
@@ -87,6 +88,7 @@ public class ODatabaseCompare extends ODatabaseImpExpAbstract {
   }
 
   public boolean compare() {
+    OScanAccessHint.begin();
     try {
       ODocumentHelper.RIDMapper ridMapper = null;
       if (autoDetectExportImportMap) {
@@ -137,6 +139,7 @@ public class ODatabaseCompare extends ODatabaseImpExpAbstract {
           "Error on comparing database '" + databaseOne.getName() + "' against '" + databaseTwo.getName() + "'",
           e);
     } finally {
+      OScanAccessHint.end();
       makeDbCall(databaseOne, new ODbRelatedCall<Void>() {
         @Override
         public Void call(ODatabaseDocumentInternal database) {
@@ -42,7 +42,9 @@ import com.orientechnologies.orient.core.record.ORecord;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.serialization.serializer.OJSONWriter;
 import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
+import com.orientechnologies.orient.core.storage.cache.OScanAccessHint;
 
+import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
@@ -64,6 +66,8 @@ public class ODatabaseExport extends ODatabaseImpExpAbstract {
   protected long        recordExported;
   protected int compressionLevel  = Deflater.BEST_SPEED;
   protected int compressionBuffer = 16384;              // 16Kb
+  protected boolean                   binaryRecords     = false;
+  protected OBinaryRecordStream.Codec binaryCompression = OBinaryRecordStream.Codec.GZIP;
 
   private final String tempFileName;
 
@@ -113,6 +117,7 @@ public class ODatabaseExport extends ODatabaseImpExpAbstract {
   }
 
   public ODatabaseExport exportDatabase() {
+    OScanAccessHint.begin();
     try {
       listener.onMessage("\nStarted export of database '" + database.getName() + "' to " + fileName + "...");
 
@@ -124,8 +129,12 @@ public class ODatabaseExport extends ODatabaseImpExpAbstract {
         exportClusters();
       if (includeSchema)
         exportSchema();
-      if (includeRecords)
-        exportRecords();
+      if (includeRecords) {
+        if (binaryRecords)
+          exportRecordsBinary();
+        else
+          exportRecords();
+      }
       if (includeIndexDefinitions)
         exportIndexDefinitions();
       if (includeManualIndexes)
@@ -138,6 +147,7 @@ public class ODatabaseExport extends ODatabaseImpExpAbstract {
       OLogManager.instance().error(this, "Error on exporting database '%s' to: %s", e, database.getName(), fileName);
       throw new ODatabaseExportException("Error on exporting database '" + database.getName() + "' to: " + fileName, e);
     } finally {
+      OScanAccessHint.end();
       close();
     }
     return this;
@@ -164,15 +174,7 @@ public class ODatabaseExport extends ODatabaseImpExpAbstract {
 
       if (clusterName != null) {
         // CHECK IF THE CLUSTER IS INCLUDED
-        if (includeClusters != null) {
-          if (!includeClusters.contains(clusterName.toUpperCase(Locale.ENGLISH)))
-            continue;
-        } else if (excludeClusters != null) {
-          if (excludeClusters.contains(clusterName.toUpperCase(Locale.ENGLISH)))
-            continue;
-        }
-
-        if (excludeClusters != null && excludeClusters.contains(clusterName.toUpperCase(Locale.ENGLISH)))
+        if (!isClusterIncluded(clusterName))
           continue;
 
         clusterExportedRecordsTot = database.countClusterElements(clusterName);
@@ -190,18 +192,7 @@ public class ODatabaseExport extends ODatabaseImpExpAbstract {
           for (; it.hasNext(); ) {
 
             rec = it.next();
-            if (rec instanceof ODocument) {
-              // CHECK IF THE CLASS OF THE DOCUMENT IS INCLUDED
-              ODocument doc = (ODocument) rec;
-              final String className = doc.getClassName() != null ? doc.getClassName().toUpperCase(Locale.ENGLISH) : null;
-              if (includeClasses != null) {
-                if (!includeClasses.contains(className))
-                  continue;
-              } else if (excludeClasses != null) {
-                if (excludeClasses.contains(className))
-                  continue;
-              }
-            } else if (includeClasses != null && !includeClasses.isEmpty())
+            if (!isRecordIncluded(rec))
               continue;
 
             if (exportRecord(clusterExportedRecordsTot, clusterExportedRecordsCurrent, rec, brokenRids))
@@ -258,6 +249,107 @@ public class ODatabaseExport extends ODatabaseImpExpAbstract {
     return totalExportedRecords;
   }
 
+  /**
+   * Exports the records of every cluster to its own binary stream, see {@link OBinaryRecordStream}. The clusters are exported in
+   * parallel and the export file only contains the name of the directory of the streams.
+   */
+  public long exportRecordsBinary() throws Exception {
+    if (tempFileName == null)
+      throw new ODatabaseExportException("Records in binary format can be exported only to a file");
+
+    listener.onMessage("\nExporting records in binary format...");
+
+    final File directory = OBinaryRecordStream.getDirectory(fileName);
+    OFileUtils.deleteRecursively(directory);
+    if (!directory.mkdirs())
+      throw new IOException("Cannot create directory '" + directory + "'");
+
+    final List<Integer> clusterIds = new ArrayList<>();
+    final int maxClusterId = getMaxClusterId();
+    for (int i = 0; i <= maxClusterId; ++i) {
+      final String clusterName = database.getClusterNameById(i);
+      if (clusterName != null && isClusterIncluded(clusterName))
+        clusterIds.add(i);
+    }
+
+    final OBinaryRecordStream.Manifest manifest = new OBinaryRecordStream.Manifest();
+    final Set<ORID> brokenRids = Collections.synchronizedSet(new HashSet<>());
+    manifest.getEntries()
+        .addAll(executeInParallel(clusterIds, (db, clusterId) -> exportClusterBinary(db, clusterId, directory, brokenRids)));
+    manifest.getBrokenRids().addAll(brokenRids);
+    manifest.write(directory);
+
+    writer.writeAttribute(1, true, "binaryRecords", directory.getName());
+
+    long totalExportedRecords = 0;
+    for (OBinaryRecordStream.Entry entry : manifest.getEntries())
+      totalExportedRecords += entry.getRecords();
+
+    listener.onMessage(
+        "\n\nDone. Exported " + totalExportedRecords + " records of " + clusterIds.size() + " clusters. " + brokenRids.size()
+            + " records were detected as broken\n");
+
+    return totalExportedRecords;
+  }
+
+  private OBinaryRecordStream.Entry exportClusterBinary(final ODatabaseDocumentInternal db, final int clusterId,
+      final File directory, final Set<ORID> brokenRids) throws IOException {
+    final String clusterName = db.getClusterNameById(clusterId);
+    final String streamName = "cluster_" + clusterId + ".bin";
+    // BLOBS ARE USUALLY ALREADY COMPRESSED
+    final OBinaryRecordStream.Codec codec =
+        db.getBlobClusterIds().contains(clusterId) ? OBinaryRecordStream.Codec.NONE : binaryCompression;
+
+    long exported;
+    try (OBinaryRecordStream.Writer out = new OBinaryRecordStream.Writer(new File(directory, streamName), codec,
+        compressionLevel, compressionBuffer)) {
+      final ORecordIteratorCluster<ORecord> it = db.browseCluster(clusterName);
+      while (it.hasNext()) {
+        final ORecord rec = it.next();
+        if (!isRecordIncluded(rec))
+          continue;
+
+        try {
+          out.write(rec);
+        } catch (IOException e) {
+          OLogManager.instance().error(this, "\nError on exporting record %s because of I/O problems", e, rec.getIdentity());
+          throw e;
+        } catch (Exception t) {
+          brokenRids.add(rec.getIdentity().copy());
+
+          final byte[] buffer = rec.toStream();
+          OLogManager.instance().error(this,
+              "\nError on exporting record %s. It seems corrupted; size: %d bytes, raw content (as string):\n==========\n%s\n==========",
+              t, rec.getIdentity(), buffer.length, new String(buffer));
+        }
+      }
+      brokenRids.addAll(it.getBrokenRIDs());
+      exported = out.getRecords();
+    }
+
+    listener.onMessage("\n- Cluster '" + clusterName + "' (id=" + clusterId + ")...OK (records=" + exported + ")");
+    return new OBinaryRecordStream.Entry(clusterName, clusterId, streamName, codec, exported);
+  }
+
+  private boolean isClusterIncluded(final String clusterName) {
+    final String name = clusterName.toUpperCase(Locale.ENGLISH);
+    if (includeClusters != null && !includeClusters.contains(name))
+      return false;
+    return excludeClusters == null || !excludeClusters.contains(name);
+  }
+
+  private boolean isRecordIncluded(final ORecord rec) {
+    if (rec instanceof ODocument) {
+      // CHECK IF THE CLASS OF THE DOCUMENT IS INCLUDED
+      final ODocument doc = (ODocument) rec;
+      final String className = doc.getClassName() != null ? doc.getClassName().toUpperCase(Locale.ENGLISH) : null;
+      if (includeClasses != null)
+        return includeClasses.contains(className);
+      return excludeClasses == null || !excludeClasses.contains(className);
+    }
+    return includeClasses == null || includeClasses.isEmpty();
+  }
+
   public void close() {
     database.declareIntent(null);
 
@@ -297,6 +389,10 @@ public class ODatabaseExport extends ODatabaseImpExpAbstract {
       compressionLevel = Integer.parseInt(items.get(0));
     else if (option.equalsIgnoreCase("-compressionBuffer"))
       compressionBuffer = Integer.parseInt(items.get(0));
+    else if (option.equalsIgnoreCase("-binaryRecords"))
+      binaryRecords = Boolean.parseBoolean(items.get(0));
+    else if (option.equalsIgnoreCase("-binaryCompression"))
+      binaryCompression = OBinaryRecordStream.Codec.valueOf(items.get(0).toUpperCase(Locale.ENGLISH));
     else
       super.parseSetting(option, items);
   }
@@ -23,8 +23,14 @@ import com.orientechnologies.orient.core.command.OCommandOutputListener;
 import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
 import com.orientechnologies.orient.core.metadata.OMetadataDefault;
+import com.orientechnologies.orient.core.storage.cache.OScanAccessHint;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Abstract class for import/export of database and data in general.
@@ -49,8 +55,16 @@ public abstract class ODatabaseImpExpAbstract extends ODatabaseTool {
   protected boolean                   includeManualIndexes      = true;
   protected boolean                   useLineFeedForRecords     = false;
   protected boolean                   preserveRids              = false;
+  protected int                       threads                   = Runtime.getRuntime().availableProcessors();
   protected OCommandOutputListener    listener;
 
+  /**
+   * Task executed on a database instance owned by the current thread.
+   */
+  protected interface OParallelTask<T, R> {
+    R execute(ODatabaseDocumentInternal database, T item) throws Exception;
+  }
+
   public ODatabaseImpExpAbstract(final ODatabaseDocumentInternal iDatabase, final String iFileName,
       final OCommandOutputListener iListener) {
     database = iDatabase;
@@ -194,6 +208,71 @@ public abstract class ODatabaseImpExpAbstract extends ODatabaseTool {
     this.preserveRids = preserveRids;
   }
 
+  public int getThreads() {
+    return threads;
+  }
+
+  public void setThreads(final int threads) {
+    this.threads = threads;
+  }
+
+  /**
+   * Executes a task for every item on up to {@link #threads} threads. Every thread works on its own copy of the database.
+   *
+   * @return the results of the tasks, in the same order of the items
+   */
+  @SuppressWarnings("unchecked")
+  protected <T, R> List<R> executeInParallel(final List<T> items, final OParallelTask<T, R> task) throws Exception {
+    final Object[] results = new Object[items.size()];
+    final AtomicInteger next = new AtomicInteger();
+    final boolean scan = OScanAccessHint.isActive();
+    final int poolSize = Math.max(1, Math.min(threads, items.size()));
+
+    final ExecutorService executor = Executors.newFixedThreadPool(poolSize, r -> {
+      final Thread thread = new Thread(r, "OrientDB " + getClass().getSimpleName() + " (" + database.getName() + ")");
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+      for (int i = 0; i < poolSize; i++) {
+        final ODatabaseDocumentInternal db = database.copy();
+        futures.add(executor.submit(() -> {
+          db.activateOnCurrentThread();
+          if (scan)
+            OScanAccessHint.begin();
+          try {
+            for (int item = next.getAndIncrement(); item < items.size(); item = next.getAndIncrement())
+              results[item] = task.execute(db, items.get(item));
+          } catch (Exception e) {
+            // STOP THE OTHER THREADS
+            next.set(items.size());
+            throw e;
+          } finally {
+            if (scan)
+              OScanAccessHint.end();
+            db.close();
+          }
+          return null;
+        }));
+      }
+
+      for (Future<Void> future : futures) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof Exception)
+            throw (Exception) e.getCause();
+          throw e;
+        }
+      }
+    } finally {
+      executor.shutdown();
+      database.activateOnCurrentThread();
+    }
+    return (List<R>) Arrays.asList(results);
+  }
+
   protected void parseSetting(final String option, final List<String> items) {
     if (option.equalsIgnoreCase("-excludeAll")) {
       includeInfo = false;
@@ -253,6 +332,9 @@ public abstract class ODatabaseImpExpAbstract extends ODatabaseTool {
     } else if (option.equalsIgnoreCase("-useLineFeedForRecords")) {
       useLineFeedForRecords = Boolean.parseBoolean(items.get(0));
 
+    } else if (option.equalsIgnoreCase("-threads")) {
+      threads = Integer.parseInt(items.get(0));
+
     }
   }
 }
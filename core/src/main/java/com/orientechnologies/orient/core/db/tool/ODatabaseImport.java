@@ -72,6 +72,7 @@ import com.orientechnologies.orient.core.storage.index.hashindex.local.OHashInde
 import com.orientechnologies.orient.core.storage.index.hashindex.local.OMurmurHash3HashFunction;
 
 import java.io.BufferedInputStream;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -88,6 +89,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -205,6 +207,8 @@ public class ODatabaseImport extends ODatabaseImpExpAbstract {
           importSchema(clustersImported);
         else if (tag.equals("records"))
           importRecords();
+        else if (tag.equals("binaryRecords"))
+          importRecordsBinary(jsonReader.readString(OJSONReader.NEXT_IN_OBJECT));
         else if (tag.equals("indexes"))
           importIndexes();
         else if (tag.equals("manualIndexes"))
@@ -1030,9 +1034,7 @@ public class ODatabaseImport extends ODatabaseImpExpAbstract {
     return total;
   }
 
-  private long importRecords() throws Exception {
-    long total = 0;
-
+  private void createExportImportRIDsMap() {
     database.getMetadata().getIndexManager().dropIndex(EXPORT_IMPORT_MAP_NAME);
     OIndexFactory factory = OIndexes
         .getFactory(OClass.INDEX_TYPE.DICTIONARY_HASH_INDEX.toString(), OHashIndexFactory.HASH_INDEX_ALGORITHM);
@@ -1040,6 +1042,12 @@ public class ODatabaseImport extends ODatabaseImpExpAbstract {
     exportImportHashTable = (OIndex<OIdentifiable>) database.getMetadata().getIndexManager()
         .createIndex(EXPORT_IMPORT_MAP_NAME, OClass.INDEX_TYPE.DICTIONARY_HASH_INDEX.toString(),
             new OSimpleKeyIndexDefinition(factory.getLastVersion(), OType.LINK), null, null, null);
+  }
+
+  private long importRecords() throws Exception {
+    long total = 0;
+
+    createExportImportRIDsMap();
 
     jsonReader.readNext(OJSONReader.BEGIN_COLLECTION);
 
@@ -1173,51 +1181,10 @@ public class ODatabaseImport extends ODatabaseImpExpAbstract {
           return null;
       }
 
-      if (record.getIdentity().getClusterId() == 0 && record.getIdentity().getClusterPosition() == 1)
-        // JUMP INTERNAL RECORDS
+      if (isInternalRecord(database, record.getIdentity()))
         return null;
 
-      if (exporterVersion >= 3) {
-        int oridsId = database.getClusterIdByName("ORIDs");
-        int indexId = database.getClusterIdByName(OMetadataDefault.CLUSTER_INDEX_NAME);
-
-        if (record.getIdentity().getClusterId() == indexId || record.getIdentity().getClusterId() == oridsId)
-          // JUMP INDEX RECORDS
-          return null;
-      }
-
-      final int manualIndexCluster = database.getClusterIdByName(OMetadataDefault.CLUSTER_MANUAL_INDEX_NAME);
-      final int internalCluster = database.getClusterIdByName(OMetadataDefault.CLUSTER_INTERNAL_NAME);
-      final int indexCluster = database.getClusterIdByName(OMetadataDefault.CLUSTER_INDEX_NAME);
-
-      if (exporterVersion >= 4) {
-        if (record.getIdentity().getClusterId() == manualIndexCluster)
-          // JUMP INDEX RECORDS
-          return null;
-      }
-
-      if (record.getIdentity().equals(indexMgrRecordId))
-        return null;
-
-      final ORID rid = record.getIdentity();
-
-      final int clusterId = rid.getClusterId();
-
-      if ((clusterId != manualIndexCluster && clusterId != internalCluster && clusterId != indexCluster)) {
-        ORecordInternal.setVersion(record, 0);
-        record.setDirty();
-        ORecordInternal.setIdentity(record, new ORecordId());
-
-        if (!preserveRids && record instanceof ODocument
-            && ODocumentInternal.getImmutableSchemaClass(database, ((ODocument) record)) != null)
-          record.save();
-        else
-          record.save(database.getClusterNameById(clusterId));
-
-        if (!rid.equals(record.getIdentity()))
-          // SAVE IT ONLY IF DIFFERENT
-          exportImportHashTable.put(rid, record.getIdentity());
-      }
+      saveImportedRecord(database, record);
 
     } catch (Exception t) {
       if (record != null)
@@ -1239,6 +1206,128 @@ public class ODatabaseImport extends ODatabaseImpExpAbstract {
     return record.getIdentity();
   }
 
+  /**
+   * Checks if an exported record is part of the database internals, that are not imported.
+   */
+  private boolean isInternalRecord(final ODatabaseDocumentInternal db, final ORID rid) {
+    if (rid.getClusterId() == 0 && rid.getClusterPosition() == 1)
+      // JUMP INTERNAL RECORDS
+      return true;
+
+    if (exporterVersion >= 3) {
+      int oridsId = db.getClusterIdByName("ORIDs");
+      int indexId = db.getClusterIdByName(OMetadataDefault.CLUSTER_INDEX_NAME);
+
+      if (rid.getClusterId() == indexId || rid.getClusterId() == oridsId)
+        // JUMP INDEX RECORDS
+        return true;
+    }
+
+    if (exporterVersion >= 4) {
+      if (rid.getClusterId() == db.getClusterIdByName(OMetadataDefault.CLUSTER_MANUAL_INDEX_NAME))
+        // JUMP INDEX RECORDS
+        return true;
+    }
+
+    return rid.equals(indexMgrRecordId);
+  }
+
+  private void saveImportedRecord(final ODatabaseDocumentInternal db, final ORecord record) {
+    final int manualIndexCluster = db.getClusterIdByName(OMetadataDefault.CLUSTER_MANUAL_INDEX_NAME);
+    final int internalCluster = db.getClusterIdByName(OMetadataDefault.CLUSTER_INTERNAL_NAME);
+    final int indexCluster = db.getClusterIdByName(OMetadataDefault.CLUSTER_INDEX_NAME);
+
+    final ORID rid = record.getIdentity();
+
+    final int clusterId = rid.getClusterId();
+
+    if ((clusterId != manualIndexCluster && clusterId != internalCluster && clusterId != indexCluster)) {
+      ORecordInternal.setVersion(record, 0);
+      record.setDirty();
+      ORecordInternal.setIdentity(record, new ORecordId());
+
+      if (!preserveRids && record instanceof ODocument
+          && ODocumentInternal.getImmutableSchemaClass(db, ((ODocument) record)) != null)
+        record.save();
+      else
+        record.save(db.getClusterNameById(clusterId));
+
+      if (!rid.equals(record.getIdentity()))
+        // SAVE IT ONLY IF DIFFERENT
+        exportImportHashTable.put(rid, record.getIdentity());
+    }
+  }
+
+  /**
+   * Imports the records exported in binary format, see {@link OBinaryRecordStream}. Every cluster is imported in parallel from its
+   * own stream, indexes of the imported classes are built when the index definitions are imported, after the records.
+   */
+  private void importRecordsBinary(final String directoryName) throws Exception {
+    final File directory = new File(new File(fileName).getAbsoluteFile().getParentFile(), directoryName);
+    final OBinaryRecordStream.Manifest manifest = OBinaryRecordStream.Manifest.read(directory);
+
+    createExportImportRIDsMap();
+
+    listener.onMessage("\n\nImporting records in binary format...");
+
+    final List<OBinaryRecordStream.Entry> entries = new ArrayList<OBinaryRecordStream.Entry>();
+    for (OBinaryRecordStream.Entry entry : manifest.getEntries()) {
+      // CHECK IF THE CLUSTER IS INCLUDED
+      final String clusterName = entry.getClusterName().toUpperCase(Locale.ENGLISH);
+      if (includeClusters != null && !includeClusters.contains(clusterName))
+        continue;
+      if (excludeClusters != null && excludeClusters.contains(clusterName))
+        continue;
+      entries.add(entry);
+    }
+
+    final long begin = System.currentTimeMillis();
+    long totalRecords = 0;
+    for (Long records : executeInParallel(entries, (db, entry) -> importClusterBinary(db, directory, entry)))
+      totalRecords += records;
+
+    if (migrateLinks) {
+      listener.onMessage(
+          manifest.getBrokenRids().size() + " were detected as broken during database export, links on those records will be"
+              + " removed from result database");
+
+      migrateLinksInImportedDocuments(manifest.getBrokenRids());
+    }
+
+    listener.onMessage(String.format("\n\nDone. Imported %,d records in %,.2f secs\n", totalRecords,
+        ((float) (System.currentTimeMillis() - begin)) / 1000));
+  }
+
+  private long importClusterBinary(final ODatabaseDocumentInternal db, final File directory, final OBinaryRecordStream.Entry entry)
+      throws Exception {
+    db.declareIntent(new OIntentMassiveInsert());
+    db.setValidationEnabled(false);
+
+    long imported = 0;
+    try (OBinaryRecordStream.Reader reader = new OBinaryRecordStream.Reader(new File(directory, entry.getFileName()),
+        entry.getClusterId(), 16384)) {
+      ORecord record;
+      while ((record = reader.next(db)) != null) {
+        final ORID rid = record.getIdentity();
+        if ((schemaImported && rid.equals(schemaRecordId)) || isInternalRecord(db, rid))
+          continue;
+
+        try {
+          saveImportedRecord(db, record);
+          imported++;
+        } catch (ODatabaseException e) {
+          OLogManager.instance().error(this, "Error importing record " + rid, e);
+        }
+      }
+    } finally {
+      db.declareIntent(null);
+    }
+
+    listener.onMessage(
+        String.format("\n- Imported %,d of %,d records into cluster '%s'", imported, entry.getRecords(), entry.getClusterName()));
+    return imported;
+  }
+
   private void importIndexes() throws IOException, ParseException {
     listener.onMessage("\n\nImporting indexes ...");
 
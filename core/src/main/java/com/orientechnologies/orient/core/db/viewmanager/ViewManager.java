@@ -1,16 +1,26 @@
 package com.orientechnologies.orient.core.db.viewmanager;
 
 import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.common.util.OPair;
+import com.orientechnologies.orient.core.command.OBasicCommandContext;
 import com.orientechnologies.orient.core.db.*;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentEmbedded;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.index.*;
 import com.orientechnologies.orient.core.metadata.schema.*;
 import com.orientechnologies.orient.core.record.OElement;
 import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.OSQLEngine;
 import com.orientechnologies.orient.core.sql.executor.OResult;
+import com.orientechnologies.orient.core.sql.executor.OResultInternal;
 import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import com.orientechnologies.orient.core.sql.parser.OFromItem;
+import com.orientechnologies.orient.core.sql.parser.OProjection;
+import com.orientechnologies.orient.core.sql.parser.OSelectStatement;
+import com.orientechnologies.orient.core.sql.parser.OStatement;
 
 import java.util.*;
 import java.util.concurrent.Callable;
@@ -51,6 +61,11 @@ public class ViewManager {
 
   String lastUpdatedView = null;
 
+  /**
+   * Live views that received changes they cannot apply in place, they are rebuilt by the view thread
+   */
+  Set<String> viewsToRebuild = ConcurrentHashMap.newKeySet();
+
   public ViewManager(OrientDBInternal orientDb, String dbName) {
     this.orientDB = orientDb;
     this.dbName = dbName;
@@ -95,7 +110,14 @@ public class ViewManager {
       boolean registered = false;
       if (view.getUpdateStrategy() != null && view.getUpdateStrategy().equalsIgnoreCase(OViewConfig.UPDATE_STRATEGY_LIVE)) {
         liveDb.activateOnCurrentThread();
-        liveDb.live(view.getQuery(), new ViewUpdateListener(view.getName()));
+        OSelectStatement incrementalQuery = parseIncrementalQuery(view, liveDb);
+        if (incrementalQuery != null) {
+          // the filter is evaluated by the listener, so that it also sees the records that stop matching the view
+          String className = incrementalQuery.getTarget().getItem().getIdentifier().getStringValue();
+          liveDb.live("SELECT FROM `" + className + "`", new ViewUpdateListener(view.getName(), incrementalQuery));
+        } else {
+          liveDb.live(view.getQuery(), new ViewUpdateListener(view.getName(), null));
+        }
         if (oldDb != null) {
 
         }
@@ -180,13 +202,16 @@ public class ViewManager {
         continue;
       }
       if (isLiveUpdate(db, name)) {
-        continue;
-      }
-      if (!isUpdateExpiredFor(name, db)) {
-        continue;
-      }
-      if (!needsUpdateBasedOnWatchRules(name, db)) {
-        continue;
+        if (!viewsToRebuild.contains(name)) {
+          continue;
+        }
+      } else {
+        if (!isUpdateExpiredFor(name, db)) {
+          continue;
+        }
+        if (!needsUpdateBasedOnWatchRules(name, db)) {
+          continue;
+        }
       }
       if (lastUpdatedView == null || name.compareTo(lastUpdatedView) > 0) {
         lastUpdatedView = name;
@@ -257,6 +282,7 @@ public class ViewManager {
 
   public synchronized void updateView(OView view, ODatabaseDocument db) {
     lastUpdateTimestampForView.put(view.getName(), System.currentTimeMillis());
+    viewsToRebuild.remove(view.getName());
 
     int cluster = db.addCluster(getNextClusterNameFor(view, db));
 
@@ -327,6 +353,145 @@ public class ViewManager {
     indexes.forEach(idx -> idx.put(indexedKeyFor(idx, newRow), newRow));
   }
 
+  /**
+   * Checks if a view can be updated in place, record by record: it has to be a live view with an origin RID field, defined by a
+   * plain filter and projection over a single class.
+   *
+   * @param view the view
+   * @param db   db instance
+   *
+   * @return the parsed query of the view if it can be updated in place, null otherwise
+   */
+  private OSelectStatement parseIncrementalQuery(OView view, ODatabaseDocumentInternal db) {
+    if (view.getOriginRidField() == null) {
+      return null;
+    }
+    OStatement statement = OSQLEngine.parse(view.getQuery(), db);
+    if (!(statement instanceof OSelectStatement)) {
+      return null;
+    }
+    OSelectStatement select = (OSelectStatement) statement;
+    OFromItem target = select.getTarget() == null ? null : select.getTarget().getItem();
+    if (target == null || target.getIdentifier() == null || target.getModifier() != null
+        || db.getMetadata().getSchema().getClass(target.getIdentifier().getStringValue()) == null) {
+      return null;
+    }
+    if (select.getLetClause() != null || select.getGroupBy() != null || select.getOrderBy() != null || select.getUnwind() != null
+        || select.getSkip() != null || select.getLimit() != null) {
+      return null;
+    }
+    OProjection projection = select.getProjection();
+    if (projection != null && (projection.isExpand() || projection.isDistinct() || (projection.getItems() != null
+        && projection.getItems().stream().anyMatch(x -> x.isAggregate())))) {
+      return null;
+    }
+    return select;
+  }
+
+  /**
+   * Applies the current state of a record of the view source class to the view: the rows generated by the record are updated in
+   * place, created if the record started matching the view and removed if it stopped matching it or it was deleted.
+   *
+   * @param db       db instance
+   * @param viewName view name
+   * @param query    the parsed view query, see {@link #parseIncrementalQuery(OView, ODatabaseDocumentInternal)}
+   * @param origin   the RID of the changed record
+   */
+  private synchronized void updateViewFor(ODatabaseDocument db, String viewName, OSelectStatement query, ORID origin) {
+    OView view = db.getMetadata().getSchema().getView(viewName);
+    if (view == null || view.getClusterIds().length == 0) {
+      return;
+    }
+    String originRidField = view.getOriginRidField();
+    String clusterName = db.getClusterNameById(view.getClusterIds()[0]);
+    List<OIndex> indexes = new ArrayList<>(view.getIndexes());
+
+    OScenarioThreadLocal.executeAsDistributed(new Callable<Object>() {
+      @Override
+      public Object call() {
+        List<OElement> rows = findViewRows(view, origin, indexes, db);
+        ODocument record = db.load(origin);
+        OResult item = record == null ? null : calculateViewRow(query, record, db);
+        int toRemove = item == null ? 0 : 1;
+        for (int i = toRemove; i < rows.size(); i++) {
+          removeRowFromView(rows.get(i), db, indexes);
+        }
+        if (item == null) {
+          return null;
+        }
+        OElement row;
+        if (rows.isEmpty()) {
+          row = db.newElement();
+        } else {
+          row = rows.get(0);
+          indexes.forEach(idx -> idx.remove(indexedKeyFor(idx, row), row));
+          for (String prop : new ArrayList<>(row.getPropertyNames())) {
+            if (!item.hasProperty(prop)) {
+              row.removeProperty(prop);
+            }
+          }
+        }
+        copyProperties(item, row);
+        row.setProperty(originRidField, origin);
+        row.setProperty("@view", viewName);
+        if (rows.isEmpty()) {
+          db.save(row, clusterName);
+        } else {
+          db.save(row);
+        }
+        indexes.forEach(idx -> idx.put(indexedKeyFor(idx, row), row));
+        return null;
+      }
+    });
+  }
+
+  private OResult calculateViewRow(OSelectStatement query, ODocument record, ODatabaseDocument db) {
+    OBasicCommandContext ctx = new OBasicCommandContext();
+    ctx.setDatabase(db);
+    OResult item = new OResultInternal(record);
+    if (query.getWhereClause() != null && !query.getWhereClause().matchesFilters(item, ctx)) {
+      return null;
+    }
+    return query.getProjection() == null ? item : query.getProjection().calculateSingle(ctx, item);
+  }
+
+  /**
+   * Finds the rows of a view generated by a record, using the index on the origin RID field if the view has one
+   */
+  private List<OElement> findViewRows(OView view, ORID origin, List<OIndex> indexes, ODatabaseDocument db) {
+    String originRidField = view.getOriginRidField();
+    List<OElement> result = new ArrayList<>();
+    for (OIndex idx : indexes) {
+      List<String> fields = idx.getDefinition().getFields();
+      if (fields.size() == 1 && fields.get(0).equals(originRidField)) {
+        Object value = idx.get(idx.getDefinition().createValue(origin));
+        Collection<?> rids = value instanceof Collection ? (Collection<?>) value :
+            value == null ? Collections.emptyList() : Collections.singletonList(value);
+        for (Object rid : rids) {
+          ODocument row = db.load(((OIdentifiable) rid).getIdentity());
+          if (row != null) {
+            result.add(row);
+          }
+        }
+        return result;
+      }
+    }
+    for (int cluster : view.getClusterIds()) {
+      for (ODocument row : db.<ODocument>browseCluster(db.getClusterNameById(cluster))) {
+        Object value = row.getProperty(originRidField);
+        if (value instanceof OIdentifiable && origin.equals(((OIdentifiable) value).getIdentity())) {
+          result.add(row);
+        }
+      }
+    }
+    return result;
+  }
+
+  private void removeRowFromView(OElement row, ODatabaseDocument db, List<OIndex> indexes) {
+    indexes.forEach(idx -> idx.remove(indexedKeyFor(idx, row), row));
+    db.delete(row.getIdentity());
+  }
+
   private Object indexedKeyFor(OIndex idx, OElement newRow) {
     List<String> fieldsToIndex = idx.getDefinition().getFieldsToIndex();
     if (fieldsToIndex.size() == 1) {
@@ -343,6 +508,7 @@ public class ViewManager {
     try {
       List<OIndex> result = new ArrayList<>();
       OIndexManager idxMgr = db.getMetadata().getIndexManager();
+      boolean originRidIndexed = false;
       for (OViewConfig.OViewIndexConfig cfg : view.getRequiredIndexesInfo()) {
         OIndexDefinition definition = createIndexDefinition(view.getName(), cfg.getProperties());
         String indexName = view.getName() + "_" + UUID.randomUUID().toString().replaceAll("-", "_");
@@ -350,6 +516,14 @@ public class ViewManager {
         OIndex<?> idx = idxMgr.createIndex(indexName, type, definition, new int[] { cluster }, null, null);
 
         result.add(idx);
+        originRidIndexed = originRidIndexed || (cfg.getProperties().size() == 1 && cfg.getProperties().get(0).getKey()
+            .equals(view.getOriginRidField()));
+      }
+      if (!originRidIndexed && view.getOriginRidField() != null && isLiveUpdate(db, view.getName())) {
+        // live views look up the rows of a changed record by origin RID
+        OIndexDefinition definition = new OPropertyIndexDefinition(view.getName(), view.getOriginRidField(), OType.LINK);
+        String indexName = view.getName() + "_" + UUID.randomUUID().toString().replaceAll("-", "_");
+        result.add(idxMgr.createIndex(indexName, "NOTUNIQUE", definition, new int[] { cluster }, null, null));
       }
       return result;
     } catch (Exception e) {
@@ -390,12 +564,16 @@ public class ViewManager {
 
   private OElement copyElement(OResult item, ODatabaseDocument db) {
     OElement newRow = db.newElement();
+    copyProperties(item, newRow);
+    return newRow;
+  }
+
+  private void copyProperties(OResult item, OElement row) {
     for (String prop : item.getPropertyNames()) {
-      if (!prop.equalsIgnoreCase("@rid") && !prop.equalsIgnoreCase("@class")) {
-        newRow.setProperty(prop, item.getProperty(prop));
+      if (!prop.equalsIgnoreCase("@rid") && !prop.equalsIgnoreCase("@class") && !prop.equalsIgnoreCase("@version")) {
+        row.setProperty(prop, item.getProperty(prop));
       }
     }
-    return newRow;
   }
 
   public void updateViewAsync(String name, ViewCreationListener listener) {
@@ -472,14 +650,23 @@ public class ViewManager {
   }
 
   private class ViewUpdateListener implements OLiveQueryResultListener {
-    private final String viewName;
+    private final String           viewName;
+    /**
+     * the view query if the view can be updated in place, null if changes and deletions require a rebuild
+     */
+    private final OSelectStatement incrementalQuery;
 
-    public ViewUpdateListener(String name) {
+    public ViewUpdateListener(String name, OSelectStatement incrementalQuery) {
       this.viewName = name;
+      this.incrementalQuery = incrementalQuery;
     }
 
     @Override
     public void onCreate(ODatabaseDocument db, OResult data) {
+      if (incrementalQuery != null) {
+        applyChange(db, data);
+        return;
+      }
       OView view = db.getMetadata().getSchema().getView(viewName);
       if (view != null) {
         int cluster = view.getClusterIds()[0];
@@ -490,12 +677,30 @@ public class ViewManager {
 
     @Override
     public void onUpdate(ODatabaseDocument database, OResult before, OResult after) {
-      //TODO
+      if (incrementalQuery != null) {
+        applyChange(database, after);
+      } else {
+        viewsToRebuild.add(viewName);
+      }
     }
 
     @Override
     public void onDelete(ODatabaseDocument database, OResult data) {
-      //TODO
+      if (incrementalQuery != null) {
+        applyChange(database, data);
+      } else {
+        viewsToRebuild.add(viewName);
+      }
+    }
+
+    private void applyChange(ODatabaseDocument db, OResult data) {
+      try {
+        OIdentifiable origin = data.getProperty("@rid");
+        updateViewFor(db, viewName, incrementalQuery, origin.getIdentity());
+      } catch (Exception e) {
+        OLogManager.instance().warn(this, "Cannot update view %s in place, it will be rebuilt", e, viewName);
+        viewsToRebuild.add(viewName);
+      }
     }
 
     @Override
@@ -25,12 +25,17 @@ import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.io.OIOUtils;
 import com.orientechnologies.common.jna.ONative;
 import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.profiler.OAbstractProfiler;
+import com.orientechnologies.common.profiler.OProfiler;
+import com.orientechnologies.orient.core.Orient;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.engine.OEngineAbstract;
 import com.orientechnologies.orient.core.engine.OMemoryAndLocalPaginatedEnginesInitializer;
 import com.orientechnologies.orient.core.exception.ODatabaseException;
 import com.orientechnologies.orient.core.storage.OStorage;
+import com.orientechnologies.orient.core.storage.cache.OReadCache;
 import com.orientechnologies.orient.core.storage.cache.local.twoq.O2QCache;
+import com.orientechnologies.orient.core.storage.cache.local.twoq.OPartitioned2QCache;
 import com.orientechnologies.orient.core.storage.fs.OFileClassic;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.OLocalPaginatedStorage;
 
@@ -43,7 +48,11 @@ import java.util.Map;
 public class OEngineLocalPaginated extends OEngineAbstract {
   public static final String NAME = "plocal";
 
-  private volatile O2QCache readCache;
+  private static final String SCAN_BYPASSED_PAGES_METRIC = "diskCache.scan.bypassedPages";
+  private static final String SCAN_BUFFER_HITS_METRIC    = "diskCache.scan.bufferHits";
+  private static final String SCAN_CACHE_HITS_METRIC     = "diskCache.scan.cacheHits";
+
+  private volatile OReadCache readCache;
 
   protected final OClosableLinkedContainer<Long, OFileClassic> files = new OClosableLinkedContainer<>(getOpenFilesLimit());
 
@@ -71,9 +80,62 @@ public class OEngineLocalPaginated extends OEngineAbstract {
     OMemoryAndLocalPaginatedEnginesInitializer.INSTANCE.initialize();
     super.startup();
 
-    readCache = new O2QCache(calculateReadCacheMaxMemory(OGlobalConfiguration.DISK_CACHE_SIZE.getValueAsLong() * 1024 * 1024),
-        OGlobalConfiguration.DISK_CACHE_PAGE_SIZE.getValueAsInteger() * 1024, true,
-        OGlobalConfiguration.DISK_CACHE_PINNED_PAGES.getValueAsInteger());
+    final long readCacheMaxMemory = calculateReadCacheMaxMemory(
+        OGlobalConfiguration.DISK_CACHE_SIZE.getValueAsLong() * 1024 * 1024);
+    final int pageSize = OGlobalConfiguration.DISK_CACHE_PAGE_SIZE.getValueAsInteger() * 1024;
+    final int percentOfPinnedPages = OGlobalConfiguration.DISK_CACHE_PINNED_PAGES.getValueAsInteger();
+    final int readAheadMaxPages = OGlobalConfiguration.DISK_CACHE_READ_AHEAD_MAX_PAGES.getValueAsInteger();
+    final int scanBufferSize = OGlobalConfiguration.DISK_CACHE_SCAN_BUFFER_SIZE.getValueAsInteger();
+
+    int partitions = OGlobalConfiguration.DISK_CACHE_PARTITIONS.getValueAsInteger();
+    if (partitions <= 0)
+      partitions = Runtime.getRuntime().availableProcessors();
+
+    if (partitions > 1) {
+      final OPartitioned2QCache partitionedCache = new OPartitioned2QCache(readCacheMaxMemory, pageSize, true,
+          percentOfPinnedPages, partitions, readAheadMaxPages, scanBufferSize);
+      OLogManager.instance().infoNoDb(this, "Read cache is split into %d partitions", partitionedCache.getPartitionsCount());
+
+      readCache = partitionedCache;
+    } else
+      readCache = new O2QCache(readCacheMaxMemory, pageSize, true, percentOfPinnedPages, readAheadMaxPages, scanBufferSize);
+
+    registerScanMetrics();
+  }
+
+  private void registerScanMetrics() {
+    final OProfiler profiler = Orient.instance().getProfiler();
+
+    profiler.registerHookValue(SCAN_BYPASSED_PAGES_METRIC,
+        "Number of pages loaded by bulk operations, like export of database, which were not put into the main queues of read cache",
+        OProfiler.METRIC_TYPE.COUNTER, new OAbstractProfiler.OProfilerHookValue() {
+          @Override
+          public Object getValue() {
+            final OReadCache readCache = OEngineLocalPaginated.this.readCache;
+
+            return readCache == null ? 0L : readCache.getScanBypassedPages();
+          }
+        });
+    profiler.registerHookValue(SCAN_BUFFER_HITS_METRIC,
+        "Number of reads of bulk operations which were served by pages loaded by other reads of bulk operations",
+        OProfiler.METRIC_TYPE.COUNTER, new OAbstractProfiler.OProfilerHookValue() {
+          @Override
+          public Object getValue() {
+            final OReadCache readCache = OEngineLocalPaginated.this.readCache;
+
+            return readCache == null ? 0L : readCache.getScanBufferHits();
+          }
+        });
+    profiler.registerHookValue(SCAN_CACHE_HITS_METRIC,
+        "Number of reads of bulk operations which were served by pages of the main queues of read cache",
+        OProfiler.METRIC_TYPE.COUNTER, new OAbstractProfiler.OProfilerHookValue() {
+          @Override
+          public Object getValue() {
+            final OReadCache readCache = OEngineLocalPaginated.this.readCache;
+
+            return readCache == null ? 0L : readCache.getScanCacheHits();
+          }
+        });
   }
 
   private long calculateReadCacheMaxMemory(final long cacheSize) {
@@ -83,9 +145,11 @@ public class OEngineLocalPaginated extends OEngineAbstract {
   /**
    * @param cacheSize Cache size in bytes.
    *
-   * @see O2QCache#changeMaximumAmountOfMemory(long)
+   * @see OReadCache#changeMaximumAmountOfMemory(long)
    */
   public void changeCacheSize(final long cacheSize) {
+    final OReadCache readCache = this.readCache;
+
     if (readCache != null)
       readCache.changeMaximumAmountOfMemory(calculateReadCacheMaxMemory(cacheSize));
 
@@ -109,7 +173,7 @@ public class OEngineLocalPaginated extends OEngineAbstract {
     return NAME;
   }
 
-  public O2QCache getReadCache() {
+  public OReadCache getReadCache() {
     return readCache;
   }
 
@@ -121,6 +185,11 @@ public class OEngineLocalPaginated extends OEngineAbstract {
   @Override
   public void shutdown() {
     try {
+      final OProfiler profiler = Orient.instance().getProfiler();
+      profiler.unregisterHookValue(SCAN_BYPASSED_PAGES_METRIC);
+      profiler.unregisterHookValue(SCAN_BUFFER_HITS_METRIC);
+      profiler.unregisterHookValue(SCAN_CACHE_HITS_METRIC);
+
       readCache.clear();
       files.clear();
     } finally {
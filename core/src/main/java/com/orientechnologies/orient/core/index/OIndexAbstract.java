@@ -27,6 +27,8 @@ import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.listener.OProgressListener;
 import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.common.serialization.types.OBinarySerializer;
+import com.orientechnologies.common.util.ORawPair;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
@@ -50,10 +52,13 @@ import com.orientechnologies.orient.core.tx.OTransactionIndexChangesPerKey;
 
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Locale;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -502,11 +507,15 @@ public abstract class OIndexAbstract<T> implements OIndexInternal<T> {
       if (iProgressListener != null)
         iProgressListener.onBegin(this, documentTotal, rebuild);
 
-      // INDEX ALL CLUSTERS
-      for (final String clusterName : clustersToIndex) {
-        final long[] metrics = indexCluster(clusterName, iProgressListener, documentNum, documentIndexed, documentTotal);
-        documentNum = metrics[0];
-        documentIndexed = metrics[1];
+      if (isBulkLoadUsed())
+        documentIndexed = bulkLoadClusters(iProgressListener, documentTotal);
+      else {
+        // INDEX ALL CLUSTERS
+        for (final String clusterName : clustersToIndex) {
+          final long[] metrics = indexCluster(clusterName, iProgressListener, documentNum, documentIndexed, documentTotal);
+          documentNum = metrics[0];
+          documentIndexed = metrics[1];
+        }
       }
 
       if (iProgressListener != null)
@@ -519,6 +528,35 @@ public abstract class OIndexAbstract<T> implements OIndexInternal<T> {
     return documentIndexed;
   }
 
+  private boolean isBulkLoadUsed() {
+    if (!OGlobalConfiguration.INDEX_BULK_LOAD.getValueAsBoolean() || !supportsBulkLoad())
+      return false;
+
+    while (true)
+      try {
+        return storage.isIndexBulkLoadSupported(indexId);
+      } catch (OInvalidIndexEngineIdException ignore) {
+        doReloadIndexEngine();
+      }
+  }
+
+  /**
+   * Fills the index at once from the keys of all the indexed clusters, instead of putting keys one by one.
+   */
+  private long bulkLoadClusters(final OProgressListener iProgressListener, final long documentTotal) {
+    final BulkLoadEntries entries = new BulkLoadEntries(iProgressListener, documentTotal);
+
+    while (true)
+      try {
+        storage.bulkLoadIndex(indexId, entries, getBulkLoadValidator());
+        break;
+      } catch (OInvalidIndexEngineIdException ignore) {
+        doReloadIndexEngine();
+      }
+
+    return entries.documentIndexed;
+  }
+
   public boolean remove(Object key, final OIdentifiable value) {
     return remove(key);
   }
@@ -838,6 +876,22 @@ public abstract class OIndexAbstract<T> implements OIndexInternal<T> {
 
   protected abstract OBinarySerializer determineValueSerializer();
 
+  /**
+   * @return {@code true} if the index can be filled by bulk load of all keys of indexed clusters during creation and rebuild.
+   *
+   * @see #getBulkLoadValidator()
+   */
+  protected boolean supportsBulkLoad() {
+    return false;
+  }
+
+  /**
+   * @return validator which resolves keys found in several records during bulk load, {@code null} if the last record wins.
+   */
+  protected OIndexEngine.Validator<Object, OIdentifiable> getBulkLoadValidator() {
+    return null;
+  }
+
   protected void populateIndex(ODocument doc, Object fieldValue) {
     if (fieldValue instanceof Collection) {
       for (final Object fieldValueItem : (Collection<?>) fieldValue) {
@@ -1079,4 +1133,103 @@ public abstract class OIndexAbstract<T> implements OIndexInternal<T> {
       return document;
     }
   }
+
+  /**
+   * Lazily extracts keys from the records of indexed clusters during bulk load. Null keys are put in the index directly because
+   * they are not part of the bulk loaded tree.
+   */
+  private final class BulkLoadEntries implements Iterator<ORawPair<Object, OIdentifiable>> {
+    private final OProgressListener                       progressListener;
+    private final long                                    documentTotal;
+    private final Iterator<String>                        clusters = clustersToIndex.iterator();
+    private final Deque<ORawPair<Object, OIdentifiable>> pending  = new ArrayDeque<>();
+
+    private Iterator<ORecord> records = Collections.emptyIterator();
+    private long              documentNum;
+    private long              documentIndexed;
+
+    private BulkLoadEntries(final OProgressListener progressListener, final long documentTotal) {
+      this.progressListener = progressListener;
+      this.documentTotal = documentTotal;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (pending.isEmpty()) {
+        final ORecord record;
+        try {
+          if (!records.hasNext()) {
+            if (!clusters.hasNext())
+              return false;
+
+            records = getDatabase().browseCluster(clusters.next());
+            continue;
+          }
+
+          record = records.next();
+        } catch (NoSuchElementException ignore) {
+          // END OF CLUSTER REACHED, IGNORE IT
+          records = Collections.emptyIterator();
+          continue;
+        }
+
+        extractKeys(record);
+      }
+
+      return true;
+    }
+
+    @Override
+    public ORawPair<Object, OIdentifiable> next() {
+      if (!hasNext())
+        throw new NoSuchElementException();
+
+      return pending.poll();
+    }
+
+    private void extractKeys(final ORecord record) {
+      if (Thread.interrupted())
+        throw new OCommandExecutionException("The index rebuild has been interrupted");
+
+      if (record instanceof ODocument) {
+        final ODocument doc = (ODocument) record;
+
+        if (indexDefinition == null)
+          throw new OConfigurationException(
+              "Index '" + name + "' cannot be rebuilt because has no a valid definition (" + indexDefinition + ")");
+
+        final Object fieldValue = indexDefinition.getDocumentValueToIndex(doc);
+
+        if (fieldValue != null || !indexDefinition.isNullValuesIgnored()) {
+          if (fieldValue instanceof Collection) {
+            for (final Object fieldValueItem : (Collection<?>) fieldValue)
+              addKey(fieldValueItem, doc);
+          } else
+            addKey(fieldValue, doc);
+
+          ++documentIndexed;
+        }
+      }
+      documentNum++;
+
+      if (progressListener != null)
+        progressListener.onProgress(OIndexAbstract.this, documentNum, (float) (documentNum * 100.0 / documentTotal));
+    }
+
+    private void addKey(final Object key, final ODocument doc) {
+      final Object collatingKey = getCollatingValue(key);
+      if (collatingKey != null) {
+        pending.add(new ORawPair<>(collatingKey, doc.getIdentity()));
+        return;
+      }
+
+      try {
+        put(null, doc);
+      } catch (OTooBigIndexKeyException | OIndexException e) {
+        OLogManager.instance().error(OIndexAbstract.this,
+            "Exception during index rebuild. Exception was caused by following key/ value pair - key %s, value %s."
+                + " Rebuild will continue from this point", e, key, doc.getIdentity());
+      }
+    }
+  }
 }
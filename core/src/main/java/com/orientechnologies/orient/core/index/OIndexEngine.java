@@ -21,12 +21,14 @@
 package com.orientechnologies.orient.core.index;
 
 import com.orientechnologies.common.serialization.types.OBinarySerializer;
+import com.orientechnologies.common.util.ORawPair;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.encryption.OEncryption;
 import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 
@@ -77,6 +79,32 @@ public interface OIndexEngine {
    */
   boolean validatedPut(Object key, OIdentifiable value, Validator<Object, OIdentifiable> validator);
 
+  /**
+   * @return {@code true} if the empty engine can be filled at once by {@link #bulkLoad(Iterator, Validator)}.
+   */
+  default boolean isBulkLoadSupported() {
+    return false;
+  }
+
+  /**
+   * Fills the empty index engine by the given entries at once, which is much faster than putting them one by one. Engines which do
+   * not support bulk load put the entries one by one by {@link #validatedPut(Object, OIdentifiable, Validator)}.
+   *
+   * @param entries   the entries to put in any order, keys should not be {@code null}.
+   * @param validator the validator which resolves entries with the same key, see {@link Validator#validate(Object, Object,
+   *                  Object)}.
+   *
+   * @return the amount of keys in the index engine.
+   */
+  default long bulkLoad(Iterator<ORawPair<Object, OIdentifiable>> entries, Validator<Object, OIdentifiable> validator) {
+    while (entries.hasNext()) {
+      final ORawPair<Object, OIdentifiable> entry = entries.next();
+      validatedPut(entry.getFirst(), entry.getSecond(), validator);
+    }
+
+    return size(null);
+  }
+
   Object getFirstKey();
 
   Object getLastKey();
@@ -78,6 +78,16 @@ public class OIndexUnique extends OIndexOneValue {
     }
   }
 
+  @Override
+  protected boolean supportsBulkLoad() {
+    return true;
+  }
+
+  @Override
+  protected OIndexEngine.Validator<Object, OIdentifiable> getBulkLoadValidator() {
+    return UNIQUE_VALIDATOR;
+  }
+
   @Override
   public boolean canBeUsedInEqualityOperators() {
     return true;
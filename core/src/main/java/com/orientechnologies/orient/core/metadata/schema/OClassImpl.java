@@ -43,6 +43,7 @@ import com.orientechnologies.orient.core.record.ORecord;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.sharding.auto.OAutoShardingClusterSelectionStrategy;
 import com.orientechnologies.orient.core.sql.OCommandSQL;
+import com.orientechnologies.orient.core.sql.executor.OQueryResultCache;
 import com.orientechnologies.orient.core.sql.query.OSQLAsynchQuery;
 import com.orientechnologies.orient.core.storage.*;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
@@ -667,6 +668,7 @@ public abstract class OClassImpl implements OClass {
     } catch (IOException e) {
       throw OException.wrapException(new ODatabaseException("Error during truncate of cluster " + clusterName), e);
     }
+    OQueryResultCache.invalidateCluster(database, cluster.getId());
 
     for (OIndex index : getIndexes()) {
       index.rebuild();
@@ -871,6 +873,7 @@ public abstract class OClassImpl implements OClass {
         OCluster cl = storage.getClusterById(id);
         db.checkForClusterPermissions(cl.getName());
         cl.truncate();
+        OQueryResultCache.invalidateCluster(db, id);
       }
       for (OIndex<?> index : getClassIndexes())
         index.clear();
@@ -0,0 +1,75 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.query.live;
+
+import com.orientechnologies.common.log.OLogManager;
+
+/**
+ * Delivers the changes to the live query subscribers of one partition. Every subscriber is assigned to a single partition, so it
+ * receives the changes in the order they have been committed.
+ */
+public class OLiveQueryDispatcherThreadV2 extends Thread {
+
+  private final OLiveQueryHookV2.OLiveQueryOps ops;
+  private final int                            partition;
+
+  private volatile boolean stopped = false;
+
+  public OLiveQueryDispatcherThreadV2(OLiveQueryHookV2.OLiveQueryOps ops, int partition) {
+    setName("LiveQueryDispatcherThreadV2-" + partition);
+    this.ops = ops;
+    this.partition = partition;
+    this.setDaemon(true);
+  }
+
+  public OLiveQueryDispatcherThreadV2 clone() {
+    return new OLiveQueryDispatcherThreadV2(this.ops, this.partition);
+  }
+
+  @Override
+  public void run() {
+    while (!stopped) {
+      OLiveQueryHookV2.OLiveQueryDispatch next;
+      try {
+        next = ops.getDispatchQueue(partition).take();
+      } catch (InterruptedException ignore) {
+        break;
+      }
+
+      for (Integer id : next.subscribers) {
+        // THE SUBSCRIBER COULD HAVE BEEN REMOVED IN THE MEANWHILE
+        final OLiveQueryListenerV2 listener = ops.getSubscribers().get(id);
+        if (listener == null)
+          continue;
+
+        try {
+          listener.onLiveResult(next.op);
+        } catch (Exception e) {
+          OLogManager.instance().warn(this, "Error executing live query subscriber.", e);
+        }
+      }
+    }
+  }
+
+  public void stopExecution() {
+    this.stopped = true;
+    this.interrupt();
+  }
+}
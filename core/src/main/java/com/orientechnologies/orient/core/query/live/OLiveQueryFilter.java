@@ -0,0 +1,129 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.query.live;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Necessary condition for a change to be delivered to a live query subscriber, used to index the subscribers by class and by
+ * field predicates. A change satisfies the filter when its record is an instance of the class and at least one of the conditions
+ * is satisfied by the record (the record after the change, or before it for deletes). A filter without conditions is satisfied by
+ * all the changes of the class.
+ * <p>
+ * The subscriber still evaluates its own condition on the changes that satisfy the filter.
+ */
+public class OLiveQueryFilter {
+  private final String                className;
+  private final List<OFieldCondition> conditions;
+
+  /**
+   * Equality or range condition on the value of a field.
+   */
+  public static class OFieldCondition {
+    private final String  field;
+    private final Object  value;
+    private final Object  lower;
+    private final boolean lowerInclusive;
+    private final Object  upper;
+    private final boolean upperInclusive;
+
+    private OFieldCondition(final String field, final Object value, final Object lower, final boolean lowerInclusive,
+        final Object upper, final boolean upperInclusive) {
+      this.field = field;
+      this.value = value;
+      this.lower = lower;
+      this.lowerInclusive = lowerInclusive;
+      this.upper = upper;
+      this.upperInclusive = upperInclusive;
+    }
+
+    public static OFieldCondition equalTo(final String field, final Object value) {
+      return new OFieldCondition(field, value, null, false, null, false);
+    }
+
+    /**
+     * Returns a range condition, a null bound means the range is unbounded on that side.
+     */
+    public static OFieldCondition range(final String field, final Object lower, final boolean lowerInclusive, final Object upper,
+        final boolean upperInclusive) {
+      return new OFieldCondition(field, null, lower, lowerInclusive, upper, upperInclusive);
+    }
+
+    public String getField() {
+      return field;
+    }
+
+    public boolean isEquality() {
+      return value != null;
+    }
+
+    public Object getValue() {
+      return value;
+    }
+
+    public Object getLower() {
+      return lower;
+    }
+
+    public boolean isLowerInclusive() {
+      return lowerInclusive;
+    }
+
+    public Object getUpper() {
+      return upper;
+    }
+
+    public boolean isUpperInclusive() {
+      return upperInclusive;
+    }
+
+    @Override
+    public String toString() {
+      if (isEquality())
+        return field + " = " + value;
+      return (lower != null ? lower + (lowerInclusive ? " <= " : " < ") : "") + field + (upper != null ?
+          (upperInclusive ? " <= " : " < ") + upper :
+          "");
+    }
+  }
+
+  public OLiveQueryFilter(final String className, final List<OFieldCondition> conditions) {
+    this.className = className;
+    this.conditions = conditions == null ? Collections.<OFieldCondition>emptyList() : new ArrayList<OFieldCondition>(conditions);
+  }
+
+  public String getClassName() {
+    return className;
+  }
+
+  /**
+   * Returns the conditions in OR, empty if all the changes of the class satisfy the filter.
+   */
+  public List<OFieldCondition> getConditions() {
+    return conditions;
+  }
+
+  @Override
+  public String toString() {
+    return className + (conditions.isEmpty() ? "" : " " + conditions);
+  }
+}
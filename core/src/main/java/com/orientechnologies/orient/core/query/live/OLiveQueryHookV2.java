@@ -21,17 +21,22 @@ package com.orientechnologies.orient.core.query.live;
 
 import com.orientechnologies.common.concur.resource.OCloseable;
 import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.profiler.OAbstractProfiler;
+import com.orientechnologies.common.profiler.OProfiler;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.config.OContextConfiguration;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.ODatabaseInternal;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
 import com.orientechnologies.orient.core.db.record.ORecordOperation;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OImmutableClass;
 import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.record.impl.ODocumentInternal;
 import com.orientechnologies.orient.core.sql.executor.OResult;
 import com.orientechnologies.orient.core.sql.executor.OResultInternal;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -40,10 +45,15 @@ import java.util.concurrent.LinkedBlockingQueue;
 public class OLiveQueryHookV2 {
 
   public static class OLiveQueryOp {
-    public    OResult   before;
-    public    OResult   after;
-    public    byte      type;
-    protected ODocument originalDoc;
+    public    OResult     before;
+    public    OResult     after;
+    public    byte        type;
+    protected ODocument   originalDoc;
+    /**
+     * Lower case names of the class of the record and of its super classes.
+     */
+    protected Set<String> classNames;
+    protected long        enqueueTime;
 
     OLiveQueryOp(ODocument originalDoc, OResult before, OResult after, byte type) {
       this.originalDoc = originalDoc;
@@ -53,6 +63,19 @@ public class OLiveQueryHookV2 {
     }
   }
 
+  /**
+   * Change to deliver to some subscribers of a dispatcher partition.
+   */
+  public static class OLiveQueryDispatch {
+    public final OLiveQueryOp  op;
+    public final List<Integer> subscribers;
+
+    OLiveQueryDispatch(OLiveQueryOp op, List<Integer> subscribers) {
+      this.op = op;
+      this.subscribers = subscribers;
+    }
+  }
+
   public static class OLiveQueryOps implements OCloseable {
 
     protected Map<ODatabaseDocument, List<OLiveQueryOp>> pendingOps  = new ConcurrentHashMap<ODatabaseDocument, List<OLiveQueryOp>>();
@@ -62,6 +85,34 @@ public class OLiveQueryHookV2 {
     private BlockingQueue<OLiveQueryOp>                  queue       = new LinkedBlockingQueue<OLiveQueryOp>();
     private ConcurrentMap<Integer, OLiveQueryListenerV2> subscribers = new ConcurrentHashMap<Integer, OLiveQueryListenerV2>();
 
+    private final String                                  databaseName;
+    private final OLiveQuerySubscriptionIndex             index          = new OLiveQuerySubscriptionIndex();
+    private final List<BlockingQueue<OLiveQueryDispatch>> dispatchQueues = new ArrayList<BlockingQueue<OLiveQueryDispatch>>();
+    private final OLiveQueryDispatcherThreadV2[]          dispatcherThreads;
+
+    public OLiveQueryOps() {
+      this(null, null);
+    }
+
+    /**
+     * @param databaseName  name of the database, used to register the metrics of the queues. If null no metrics are registered
+     * @param configuration configuration of the database, if null the global configuration is used
+     */
+    public OLiveQueryOps(String databaseName, OContextConfiguration configuration) {
+      this.databaseName = databaseName;
+
+      final int threads = Math.max(1, configuration != null ?
+          configuration.getValueAsInteger(OGlobalConfiguration.QUERY_LIVE_DISPATCH_THREADS) :
+          OGlobalConfiguration.QUERY_LIVE_DISPATCH_THREADS.getValueAsInteger());
+      dispatcherThreads = new OLiveQueryDispatcherThreadV2[threads];
+      for (int i = 0; i < threads; i++) {
+        dispatchQueues.add(new LinkedBlockingQueue<OLiveQueryDispatch>());
+        dispatcherThreads[i] = new OLiveQueryDispatcherThreadV2(this, i);
+      }
+
+      registerMetrics();
+    }
+
     @Override
     public void close() {
       queueThread.stopExecution();
@@ -70,7 +121,146 @@ public class OLiveQueryHookV2 {
       } catch (InterruptedException ignore) {
         Thread.currentThread().interrupt();
       }
+      for (OLiveQueryDispatcherThreadV2 dispatcher : dispatcherThreads) {
+        dispatcher.stopExecution();
+        try {
+          dispatcher.join();
+        } catch (InterruptedException ignore) {
+          Thread.currentThread().interrupt();
+        }
+      }
       pendingOps.clear();
+      unregisterMetrics();
+    }
+
+    /**
+     * Sends a change to the dispatchers of the subscribers that can be interested in it.
+     */
+    public void dispatch(OLiveQueryOp op) {
+      final Set<Integer> candidates = index.getCandidates(op);
+      if (candidates.isEmpty())
+        return;
+
+      final List<List<Integer>> partitions = new ArrayList<List<Integer>>(dispatchQueues.size());
+      for (int i = 0; i < dispatchQueues.size(); i++)
+        partitions.add(null);
+
+      for (Integer id : candidates) {
+        final int partition = getPartition(id);
+        List<Integer> ids = partitions.get(partition);
+        if (ids == null) {
+          ids = new ArrayList<Integer>();
+          partitions.set(partition, ids);
+        }
+        ids.add(id);
+      }
+
+      for (int i = 0; i < partitions.size(); i++)
+        if (partitions.get(i) != null)
+          dispatchQueues.get(i).offer(new OLiveQueryDispatch(op, partitions.get(i)));
+    }
+
+    public BlockingQueue<OLiveQueryDispatch> getDispatchQueue(int partition) {
+      return dispatchQueues.get(partition);
+    }
+
+    public OLiveQuerySubscriptionIndex getIndex() {
+      return index;
+    }
+
+    /**
+     * Returns the time in ms the oldest change waiting in the queue of a dispatcher has been waiting, 0 if the queue is empty.
+     */
+    public long getLag(int partition) {
+      final OLiveQueryDispatch next = dispatchQueues.get(partition).peek();
+      return next != null ? getLag(next.op) : 0;
+    }
+
+    /**
+     * Returns the time in ms the oldest change not yet delivered has been waiting.
+     */
+    public long getLag() {
+      long lag = getLag(queue.peek());
+      for (int i = 0; i < dispatchQueues.size(); i++)
+        lag = Math.max(lag, getLag(i));
+      return lag;
+    }
+
+    private long getLag(OLiveQueryOp op) {
+      return op != null ? Math.max(0, System.currentTimeMillis() - op.enqueueTime) : 0;
+    }
+
+    private int getPartition(Integer id) {
+      return Math.floorMod(id, dispatchQueues.size());
+    }
+
+    private void startThreads() {
+      if (!queueThread.isAlive()) {
+        queueThread = queueThread.clone();
+        queueThread.start();
+      }
+      for (int i = 0; i < dispatcherThreads.length; i++) {
+        if (!dispatcherThreads[i].isAlive()) {
+          dispatcherThreads[i] = dispatcherThreads[i].clone();
+          dispatcherThreads[i].start();
+        }
+      }
+    }
+
+    private void registerMetrics() {
+      if (databaseName == null)
+        return;
+
+      final OProfiler profiler = Orient.instance().getProfiler();
+      profiler.registerHookValue(profiler.getDatabaseMetric(databaseName, "liveQuery.queueSize"),
+          "Number of changes waiting to be dispatched to the live query subscribers", OProfiler.METRIC_TYPE.SIZE,
+          new OAbstractProfiler.OProfilerHookValue() {
+            @Override
+            public Object getValue() {
+              return (long) queue.size();
+            }
+          }, profiler.getDatabaseMetric("*", "liveQuery.queueSize"));
+      profiler.registerHookValue(profiler.getDatabaseMetric(databaseName, "liveQuery.lag"),
+          "Time in ms the oldest change not yet delivered to the live query subscribers has been waiting",
+          OProfiler.METRIC_TYPE.SIZE, new OAbstractProfiler.OProfilerHookValue() {
+            @Override
+            public Object getValue() {
+              return getLag();
+            }
+          }, profiler.getDatabaseMetric("*", "liveQuery.lag"));
+
+      for (int i = 0; i < dispatchQueues.size(); i++) {
+        final int partition = i;
+        profiler.registerHookValue(profiler.getDatabaseMetric(databaseName, "liveQuery.dispatcher." + i + ".queueSize"),
+            "Number of changes waiting to be delivered by a live query dispatcher", OProfiler.METRIC_TYPE.SIZE,
+            new OAbstractProfiler.OProfilerHookValue() {
+              @Override
+              public Object getValue() {
+                return (long) dispatchQueues.get(partition).size();
+              }
+            }, profiler.getDatabaseMetric("*", "liveQuery.dispatcher.*.queueSize"));
+        profiler.registerHookValue(profiler.getDatabaseMetric(databaseName, "liveQuery.dispatcher." + i + ".lag"),
+            "Time in ms the oldest change waiting in a live query dispatcher has been waiting", OProfiler.METRIC_TYPE.SIZE,
+            new OAbstractProfiler.OProfilerHookValue() {
+              @Override
+              public Object getValue() {
+                return getLag(partition);
+              }
+            }, profiler.getDatabaseMetric("*", "liveQuery.dispatcher.*.lag"));
+      }
+    }
+
+    private void unregisterMetrics() {
+      if (databaseName == null)
+        return;
+
+      final OProfiler profiler = Orient.instance().getProfiler();
+      profiler.unregisterHookValue(profiler.getDatabaseMetric(databaseName, "liveQuery.queueSize"));
+      profiler.unregisterHookValue(profiler.getDatabaseMetric(databaseName, "liveQuery.lag"));
+      for (int i = 0; i < dispatchQueues.size(); i++) {
+        profiler.unregisterHookValue(profiler.getDatabaseMetric(databaseName, "liveQuery.dispatcher." + i + ".queueSize"));
+        profiler.unregisterHookValue(profiler.getDatabaseMetric(databaseName, "liveQuery.dispatcher." + i + ".lag"));
+      }
     }
 
     public OLiveQueryQueueThreadV2 getQueueThread() {
@@ -86,16 +276,19 @@ public class OLiveQueryHookV2 {
     }
 
     public void enqueue(OLiveQueryHookV2.OLiveQueryOp item) {
+      item.enqueueTime = System.currentTimeMillis();
       queue.offer(item);
     }
 
     public Integer subscribe(Integer id, OLiveQueryListenerV2 iListener) {
+      index.add(id, iListener.getFilter());
       subscribers.put(id, iListener);
       return id;
     }
 
     public void unsubscribe(Integer id) {
       OLiveQueryListenerV2 res = subscribers.remove(id);
+      index.remove(id);
       if (res != null) {
         res.onLiveResultEnd();
       }
@@ -119,10 +312,7 @@ public class OLiveQueryHookV2 {
     }
     OLiveQueryOps ops = getOpsReference(db);
     synchronized (ops.threadLock) {
-      if (!ops.queueThread.isAlive()) {
-        ops.queueThread = ops.queueThread.clone();
-        ops.queueThread.start();
-      }
+      ops.startThreads();
     }
 
     return ops.subscribe(token, iListener);
@@ -183,6 +373,7 @@ public class OLiveQueryHookV2 {
     OResult after = iType == ORecordOperation.DELETED ? null : calculateAfter(iDocument);
 
     OLiveQueryOp result = new OLiveQueryOp(iDocument, before, after, iType);
+    result.classNames = getClassNames(iDocument);
     synchronized (ops.pendingOps) {
       List<OLiveQueryOp> list = ops.pendingOps.get(db);
       if (list == null) {
@@ -211,6 +402,18 @@ public class OLiveQueryHookV2 {
     return null;
   }
 
+  private static Set<String> getClassNames(ODocument iDocument) {
+    final OImmutableClass clazz = ODocumentInternal.getImmutableSchemaClass(iDocument);
+    if (clazz == null)
+      return null;
+
+    final Set<String> result = new HashSet<String>();
+    result.add(clazz.getName().toLowerCase(Locale.ENGLISH));
+    for (OClass superClass : clazz.getAllSuperClasses())
+      result.add(superClass.getName().toLowerCase(Locale.ENGLISH));
+    return result;
+  }
+
   private static OResultInternal calculateBefore(ODocument iDocument) {
     OResultInternal result = new OResultInternal();
     for (String prop : iDocument.getPropertyNames()) {
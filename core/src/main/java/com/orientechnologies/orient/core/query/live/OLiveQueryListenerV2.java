@@ -29,4 +29,12 @@ public interface OLiveQueryListenerV2 {
   void onLiveResultEnd();
 
   int getToken();
+
+  /**
+   * Returns the filter used to deliver to this subscriber only the changes it can be interested in, null to receive all the
+   * changes.
+   */
+  default OLiveQueryFilter getFilter() {
+    return null;
+  }
 }
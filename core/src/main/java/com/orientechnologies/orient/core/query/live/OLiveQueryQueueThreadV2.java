@@ -52,13 +52,10 @@ public class OLiveQueryQueueThreadV2 extends Thread {
       if (next == null) {
         continue;
       }
-      for (OLiveQueryListenerV2 listener : ops.getSubscribers().values()) {
-        try {
-          listener.onLiveResult(next);
-        } catch (Exception e) {
-          OLogManager.instance().warn(this, "Error executing live query subscriber.", e);
-        }
-
+      try {
+        ops.dispatch(next);
+      } catch (Exception e) {
+        OLogManager.instance().warn(this, "Error dispatching live query change.", e);
       }
     }
   }
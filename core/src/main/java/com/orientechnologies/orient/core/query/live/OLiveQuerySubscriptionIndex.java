@@ -0,0 +1,287 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.query.live;
+
+import com.orientechnologies.orient.core.db.record.ORecordOperation;
+import com.orientechnologies.orient.core.sql.executor.OResult;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Index of the live query subscribers by the {@link OLiveQueryFilter} they declare. Given a change it returns the subscribers that
+ * can be interested in it: the ones without a filter, the ones interested in all the changes of the class of the record (or of one
+ * of its super classes) and the ones with an equality or range condition satisfied by the record.
+ * <p>
+ * Values are compared by a normalized key, so that numbers of different types, numeric strings and strings that differ only by case
+ * have the same key. In case of doubt, for example for a value of a type that cannot be normalized, the subscriber is returned: the
+ * result can contain subscribers not interested in the change, but never misses one.
+ */
+public class OLiveQuerySubscriptionIndex {
+  private final Set<Integer>                     unfiltered = new HashSet<Integer>();
+  private final Map<String, OClassSubscriptions> classes    = new HashMap<String, OClassSubscriptions>();
+  private final Map<Integer, OLiveQueryFilter>   filters    = new HashMap<Integer, OLiveQueryFilter>();
+
+  private static class ORange {
+    private final Integer    id;
+    private final BigDecimal lower;
+    private final boolean    lowerInclusive;
+    private final BigDecimal upper;
+    private final boolean    upperInclusive;
+
+    private ORange(final Integer id, final BigDecimal lower, final boolean lowerInclusive, final BigDecimal upper,
+        final boolean upperInclusive) {
+      this.id = id;
+      this.lower = lower;
+      this.lowerInclusive = lowerInclusive;
+      this.upper = upper;
+      this.upperInclusive = upperInclusive;
+    }
+
+    private boolean contains(final BigDecimal value) {
+      if (lower != null) {
+        final int cmp = value.compareTo(lower);
+        if (cmp < 0 || (cmp == 0 && !lowerInclusive))
+          return false;
+      }
+      if (upper != null) {
+        final int cmp = value.compareTo(upper);
+        if (cmp > 0 || (cmp == 0 && !upperInclusive))
+          return false;
+      }
+      return true;
+    }
+  }
+
+  private static class OClassSubscriptions {
+    private final Set<Integer>                           all        = new HashSet<Integer>();
+    private final Map<String, Map<Object, Set<Integer>>> equalities = new HashMap<String, Map<Object, Set<Integer>>>();
+    private final Map<String, List<ORange>>              ranges     = new HashMap<String, List<ORange>>();
+
+    private boolean isEmpty() {
+      return all.isEmpty() && equalities.isEmpty() && ranges.isEmpty();
+    }
+
+    private void collect(final OResult record, final Set<Integer> result) {
+      result.addAll(all);
+
+      for (Map.Entry<String, Map<Object, Set<Integer>>> entry : equalities.entrySet()) {
+        final Object value = record.getProperty(entry.getKey());
+        if (value == null)
+          continue;
+
+        final Object key = key(value);
+        if (key == null)
+          for (Set<Integer> ids : entry.getValue().values())
+            result.addAll(ids);
+        else {
+          final Set<Integer> ids = entry.getValue().get(key);
+          if (ids != null)
+            result.addAll(ids);
+        }
+      }
+
+      for (Map.Entry<String, List<ORange>> entry : ranges.entrySet()) {
+        final Object value = record.getProperty(entry.getKey());
+        if (value == null)
+          continue;
+
+        final Object key = key(value);
+        for (ORange range : entry.getValue())
+          if (!(key instanceof BigDecimal) || range.contains((BigDecimal) key))
+            result.add(range.id);
+      }
+    }
+  }
+
+  /**
+   * Indexes a subscriber.
+   *
+   * @param id     the id of the subscriber
+   * @param filter the filter of the subscriber, null if it is interested in all the changes
+   */
+  public synchronized void add(final Integer id, final OLiveQueryFilter filter) {
+    remove(id);
+
+    if (filter == null || filter.getClassName() == null) {
+      unfiltered.add(id);
+      return;
+    }
+
+    filters.put(id, filter);
+
+    final String className = filter.getClassName().toLowerCase(Locale.ENGLISH);
+    OClassSubscriptions subscriptions = classes.get(className);
+    if (subscriptions == null) {
+      subscriptions = new OClassSubscriptions();
+      classes.put(className, subscriptions);
+    }
+
+    if (filter.getConditions().isEmpty() || !isIndexable(filter)) {
+      subscriptions.all.add(id);
+      return;
+    }
+
+    for (OLiveQueryFilter.OFieldCondition condition : filter.getConditions()) {
+      if (condition.isEquality()) {
+        Map<Object, Set<Integer>> values = subscriptions.equalities.get(condition.getField());
+        if (values == null) {
+          values = new HashMap<Object, Set<Integer>>();
+          subscriptions.equalities.put(condition.getField(), values);
+        }
+        final Object key = key(condition.getValue());
+        Set<Integer> ids = values.get(key);
+        if (ids == null) {
+          ids = new HashSet<Integer>();
+          values.put(key, ids);
+        }
+        ids.add(id);
+      } else {
+        List<ORange> ranges = subscriptions.ranges.get(condition.getField());
+        if (ranges == null) {
+          ranges = new ArrayList<ORange>();
+          subscriptions.ranges.put(condition.getField(), ranges);
+        }
+        ranges.add(new ORange(id, (BigDecimal) key(condition.getLower()), condition.isLowerInclusive(),
+            (BigDecimal) key(condition.getUpper()), condition.isUpperInclusive()));
+      }
+    }
+  }
+
+  public synchronized void remove(final Integer id) {
+    if (unfiltered.remove(id))
+      return;
+
+    final OLiveQueryFilter filter = filters.remove(id);
+    if (filter == null)
+      return;
+
+    final String className = filter.getClassName().toLowerCase(Locale.ENGLISH);
+    final OClassSubscriptions subscriptions = classes.get(className);
+    if (subscriptions == null)
+      return;
+
+    subscriptions.all.remove(id);
+    for (OLiveQueryFilter.OFieldCondition condition : filter.getConditions()) {
+      if (condition.isEquality()) {
+        final Map<Object, Set<Integer>> values = subscriptions.equalities.get(condition.getField());
+        if (values == null)
+          continue;
+        final Object key = key(condition.getValue());
+        final Set<Integer> ids = values.get(key);
+        if (ids != null) {
+          ids.remove(id);
+          if (ids.isEmpty())
+            values.remove(key);
+        }
+        if (values.isEmpty())
+          subscriptions.equalities.remove(condition.getField());
+      } else {
+        final List<ORange> ranges = subscriptions.ranges.get(condition.getField());
+        if (ranges == null)
+          continue;
+        for (Iterator<ORange> it = ranges.iterator(); it.hasNext(); )
+          if (it.next().id.equals(id))
+            it.remove();
+        if (ranges.isEmpty())
+          subscriptions.ranges.remove(condition.getField());
+      }
+    }
+
+    if (subscriptions.isEmpty())
+      classes.remove(className);
+  }
+
+  /**
+   * Returns the ids of the subscribers that can be interested in a change.
+   */
+  public synchronized Set<Integer> getCandidates(final OLiveQueryHookV2.OLiveQueryOp op) {
+    final Set<Integer> result = new HashSet<Integer>(unfiltered);
+
+    final OResult record = op.type == ORecordOperation.DELETED ? op.before : op.after;
+    if (record == null || op.classNames == null)
+      return result;
+
+    for (String className : op.classNames) {
+      final OClassSubscriptions subscriptions = classes.get(className);
+      if (subscriptions != null)
+        subscriptions.collect(record, result);
+    }
+    return result;
+  }
+
+  private static boolean isIndexable(final OLiveQueryFilter filter) {
+    for (OLiveQueryFilter.OFieldCondition condition : filter.getConditions()) {
+      if (condition.getField() == null)
+        return false;
+      if (condition.isEquality()) {
+        if (key(condition.getValue()) == null)
+          return false;
+      } else {
+        if (condition.getLower() == null && condition.getUpper() == null)
+          return false;
+        if (condition.getLower() != null && !(key(condition.getLower()) instanceof BigDecimal))
+          return false;
+        if (condition.getUpper() != null && !(key(condition.getUpper()) instanceof BigDecimal))
+          return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the normalized key of a value, null if the value cannot be normalized.
+   */
+  protected static Object key(final Object value) {
+    if (value instanceof Number) {
+      if (value instanceof BigDecimal)
+        return normalize((BigDecimal) value);
+      if (value instanceof Double || value instanceof Float) {
+        final double d = ((Number) value).doubleValue();
+        if (Double.isNaN(d) || Double.isInfinite(d))
+          return null;
+        return normalize(new BigDecimal(value.toString()));
+      }
+      try {
+        return normalize(new BigDecimal(value.toString()));
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    }
+    if (value instanceof String) {
+      final String s = ((String) value).trim();
+      if (!s.isEmpty() && (Character.isDigit(s.charAt(s.length() - 1)) || s.charAt(s.length() - 1) == '.'))
+        try {
+          return normalize(new BigDecimal(s));
+        } catch (NumberFormatException e) {
+          // NOT A NUMBER
+        }
+      return ((String) value).toLowerCase(Locale.ENGLISH);
+    }
+    if (value instanceof Boolean)
+      return value.toString();
+    return null;
+  }
+
+  private static BigDecimal normalize(final BigDecimal value) {
+    final BigDecimal stripped = value.stripTrailingZeros();
+    return stripped.signum() == 0 ? BigDecimal.ZERO : stripped;
+  }
+}
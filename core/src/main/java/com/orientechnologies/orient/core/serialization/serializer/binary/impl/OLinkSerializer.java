@@ -165,4 +165,28 @@ public class OLinkSerializer implements OBinarySerializer<OIdentifiable> {
   public int getObjectSizeInByteBuffer(ByteBuffer buffer, OWALChanges walChanges, int offset) {
     return RID_SIZE;
   }
+
+  /**
+   * Compares cluster id and cluster position stored in the buffer with the identity of the given record, in the same way as
+   * {@link ORecordId#compareTo(OIdentifiable)} does.
+   */
+  @Override
+  public int compareInByteBuffer(ByteBuffer buffer, OIdentifiable object) {
+    if (object == null)
+      return 1;
+
+    final ORID other = object.getIdentity();
+
+    final int clusterId = buffer.getShort();
+    if (clusterId != other.getClusterId())
+      return clusterId > other.getClusterId() ? 1 : -1;
+
+    // CLUSTER POSITION IS STORED IN BIG ENDIAN ORDER, SEE deserializeFromByteBufferObject
+    final int position = buffer.position();
+    long clusterPosition = 0;
+    for (int i = 0; i < OLongSerializer.LONG_SIZE; i++)
+      clusterPosition = (clusterPosition << 8) | (0xFF & buffer.get(position + i));
+
+    return Long.compare(clusterPosition, other.getClusterPosition());
+  }
 }
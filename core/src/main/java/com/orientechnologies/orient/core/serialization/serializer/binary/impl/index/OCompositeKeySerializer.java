@@ -24,6 +24,8 @@ import com.orientechnologies.common.serialization.types.OBinarySerializer;
 import com.orientechnologies.common.serialization.types.OIntegerSerializer;
 import com.orientechnologies.common.serialization.types.ONullSerializer;
 import com.orientechnologies.common.util.OCommonConst;
+import com.orientechnologies.orient.core.index.OAlwaysGreaterKey;
+import com.orientechnologies.orient.core.index.OAlwaysLessKey;
 import com.orientechnologies.orient.core.index.OCompositeKey;
 import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.serialization.serializer.binary.OBinarySerializerFactory;
@@ -368,4 +370,46 @@ public class OCompositeKeySerializer implements OBinarySerializer<OCompositeKey>
   public int getObjectSizeInByteBuffer(ByteBuffer buffer, OWALChanges walChanges, int offset) {
     return walChanges.getIntValue(buffer, offset);
   }
+
+  /**
+   * Compares serialized keys one by one with keys of the given composite key, in the same way as
+   * {@link OCompositeKey#compareTo(OCompositeKey)} does. Every key is compared by its own serializer without deserialization.
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public int compareInByteBuffer(ByteBuffer buffer, OCompositeKey object) {
+    if (object == null)
+      return 1;
+
+    buffer.position(buffer.position() + OIntegerSerializer.INT_SIZE);
+    final int keysSize = buffer.getInt();
+
+    final List<Object> otherKeys = object.getKeys();
+    final int size = Math.min(keysSize, otherKeys.size());
+
+    final OBinarySerializerFactory factory = OBinarySerializerFactory.getInstance();
+    for (int i = 0; i < size; i++) {
+      final Object otherKey = otherKeys.get(i);
+
+      if (otherKey instanceof OAlwaysGreaterKey)
+        return -1;
+
+      if (otherKey instanceof OAlwaysLessKey)
+        return 1;
+
+      final byte serializerId = buffer.get();
+      final OBinarySerializer<Object> binarySerializer = (OBinarySerializer<Object>) factory.getObjectSerializer(serializerId);
+
+      final int keyPosition = buffer.position();
+      final int result = binarySerializer.compareInByteBuffer(buffer, otherKey);
+      if (result != 0)
+        return result;
+
+      buffer.position(keyPosition);
+      final int keySize = binarySerializer.getObjectSizeInByteBuffer(buffer);
+      buffer.position(keyPosition + keySize);
+    }
+
+    return 0;
+  }
 }
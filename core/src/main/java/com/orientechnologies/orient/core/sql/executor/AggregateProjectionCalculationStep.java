@@ -2,6 +2,8 @@ package com.orientechnologies.orient.core.sql.executor;
 
 import com.orientechnologies.common.concur.OTimeoutException;
 import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.exception.OCommandExecutionException;
 import com.orientechnologies.orient.core.sql.parser.OExpression;
 import com.orientechnologies.orient.core.sql.parser.OGroupBy;
@@ -12,22 +14,73 @@ import java.util.*;
 
 /**
  * Created by luigidellaquila on 12/07/16.
+ * <p>
+ * Hash aggregation. Groups are kept in memory until they exceed the memory budget (see {@link
+ * OGlobalConfiguration#QUERY_GROUP_BY_MEMORY_BUDGET}, or the <code>$groupByMemoryBudget</code> context variable for a single
+ * query). After that, input rows that belong to groups that are already in memory are still aggregated in memory, while rows of
+ * new groups are written to a set of partitions (by hash of the GROUP BY key); each partition is then aggregated on its own,
+ * partitioning it again if it is still too big. Rows that cannot be written to disk stay in memory with their partition, so all
+ * the rows of a group are always aggregated together.
+ * <p>
+ * The step can also run in {@link Mode#PARTIAL} mode, returning the partial state of each aggregation (plus the GROUP BY key as
+ * result metadata) and in {@link Mode#FINAL} mode, merging partial states calculated elsewhere (eg. on single clusters or on
+ * other nodes). Partial rows are grouped and spilled like input records, so a FINAL step merges all the partial states of a
+ * group at once.
  */
 public class AggregateProjectionCalculationStep extends ProjectionCalculationStep {
 
+  public enum Mode {
+    /**
+     * aggregates input records and returns final values
+     */
+    COMPLETE,
+    /**
+     * aggregates input records and returns partial states
+     */
+    PARTIAL,
+    /**
+     * merges partial states and returns final values
+     */
+    FINAL
+  }
+
+  public static final String MEMORY_BUDGET_VARIABLE = "$groupByMemoryBudget";
+
+  /**
+   * metadata key used by partial results to carry the GROUP BY key
+   */
+  public static final String GROUP_KEY_METADATA = "$groupByKey";
+
+  private static final int SPILL_PARTITIONS     = 16;
+  private static final int MAX_SPILL_LEVEL      = 3;
+  private static final int HEAP_OVERHEAD_FACTOR = 3;
+  private static final int GROUP_OVERHEAD_BYTES = 256;
+
   private final OGroupBy groupBy;
+  private final Mode     mode;
+
+  private Iterator<OResult>     finalResults      = null;
+  private Deque<SpillPartition> pendingPartitions = new ArrayDeque<>();
 
-  //the key is the GROUP BY key, the value is the (partially) aggregated value
-  private Map<List, OResultInternal> aggregateResults = new LinkedHashMap<>();
-  private List<OResultInternal>      finalResults     = null;
+  // spill to disk
+  private long memoryBudget      = -1;
+  private long sampledBytes      = 0;
+  private long samples           = 0;
+  private long spilledRows       = 0;
+  private int  spilledPartitions = 0;
 
-  private int  nextItem = 0;
-  private long cost     = 0;
+  private long cost = 0;
 
   public AggregateProjectionCalculationStep(OProjection projection, OGroupBy groupBy, OCommandContext ctx,
       boolean profilingEnabled) {
+    this(projection, groupBy, Mode.COMPLETE, ctx, profilingEnabled);
+  }
+
+  public AggregateProjectionCalculationStep(OProjection projection, OGroupBy groupBy, Mode mode, OCommandContext ctx,
+      boolean profilingEnabled) {
     super(projection, ctx, profilingEnabled);
     this.groupBy = groupBy;
+    this.mode = mode;
   }
 
   @Override
@@ -41,21 +94,19 @@ public class AggregateProjectionCalculationStep extends ProjectionCalculationSte
 
       @Override
       public boolean hasNext() {
-        if (localNext > nRecords || nextItem >= finalResults.size()) {
+        if (localNext >= nRecords) {
           return false;
         }
-        return true;
+        return fetchNextPartitionIfNeeded(ctx);
       }
 
       @Override
       public OResult next() {
-        if (localNext > nRecords || nextItem >= finalResults.size()) {
+        if (!hasNext()) {
           throw new IllegalStateException();
         }
-        OResult result = finalResults.get(nextItem);
-        nextItem++;
         localNext++;
-        return result;
+        return finalResults.next();
       }
 
       @Override
@@ -80,62 +131,109 @@ public class AggregateProjectionCalculationStep extends ProjectionCalculationSte
       throw new OCommandExecutionException("Cannot execute an aggregation or a GROUP BY without a previous result");
     }
     OExecutionStepInternal prevStep = prev.get();
-    OResultSet lastRs = prevStep.syncPull(ctx, nRecords);
-    while (lastRs.hasNext()) {
-      aggregate(lastRs.next(), ctx);
-      if (!lastRs.hasNext()) {
-        lastRs = prevStep.syncPull(ctx, nRecords);
-      }
-    }
-    finalResults = new ArrayList<>();
-    finalResults.addAll(aggregateResults.values());
-    aggregateResults.clear();
-    for (OResultInternal item : finalResults) {
-      for (String name : item.getPropertyNames()) {
-        Object prevVal = item.getProperty(name);
-        if (prevVal instanceof AggregationContext) {
-          item.setProperty(name, ((AggregationContext) prevVal).getFinalValue());
+    AggregationRound round = new AggregationRound(0);
+    try {
+      OResultSet lastRs = prevStep.syncPull(ctx, nRecords);
+      while (lastRs.hasNext()) {
+        round.add(lastRs.next(), ctx);
+        if (!lastRs.hasNext()) {
+          lastRs = prevStep.syncPull(ctx, nRecords);
         }
       }
+    } catch (RuntimeException e) {
+      round.discard();
+      throw e;
     }
+    finalResults = round.finish(ctx);
   }
 
-  private void aggregate(OResult next, OCommandContext ctx) {
-    long begin = profilingEnabled ? System.nanoTime() : 0;
-    try {
-      List<Object> key = new ArrayList<>();
-      if (groupBy != null) {
-        for (OExpression item : groupBy.getItems()) {
-          Object val = item.execute(next, ctx);
-          key.add(val);
+  /**
+   * when the current results are exhausted, aggregates the next spilled partition
+   *
+   * @return true if there are more results
+   */
+  private boolean fetchNextPartitionIfNeeded(OCommandContext ctx) {
+    while (!finalResults.hasNext() && !pendingPartitions.isEmpty()) {
+      SpillPartition partition = pendingPartitions.poll();
+      long begin = profilingEnabled ? System.nanoTime() : 0;
+      try {
+        AggregationRound round = new AggregationRound(partition.level);
+        try {
+          Iterator<OResult> rows = partition.read((ODatabaseDocumentInternal) ctx.getDatabase());
+          while (rows.hasNext()) {
+            round.add(rows.next(), ctx);
+          }
+        } catch (RuntimeException e) {
+          round.discard();
+          throw e;
         }
+        finalResults = round.finish(ctx);
+      } finally {
+        partition.delete();
+        if (profilingEnabled) {
+          cost += (System.nanoTime() - begin);
+        }
+      }
+    }
+    return finalResults.hasNext();
+  }
+
+  private List<Object> calculateKey(OResult next, OCommandContext ctx) {
+    if (mode == Mode.FINAL) {
+      Object key = next.getMetadata(GROUP_KEY_METADATA);
+      if (key instanceof List) {
+        return new ArrayList<>((List) key);
       }
-      OResultInternal preAggr = aggregateResults.get(key);
-      if (preAggr == null) {
-        preAggr = new OResultInternal();
-        aggregateResults.put(key, preAggr);
+    }
+    List<Object> key = new ArrayList<>();
+    if (groupBy != null) {
+      for (OExpression item : groupBy.getItems()) {
+        Object val = item.execute(next, ctx);
+        key.add(val);
       }
+    }
+    return key;
+  }
 
-      for (OProjectionItem proj : this.projection.getItems()) {
-        String alias = proj.getProjectionAlias().getStringValue();
-        if (proj.isAggregate()) {
-          AggregationContext aggrCtx = preAggr.getProperty(alias);
-          if (aggrCtx == null) {
-            aggrCtx = proj.getAggregationContext(ctx);
-            preAggr.setProperty(alias, aggrCtx);
-          }
-          aggrCtx.apply(next, ctx);
-        } else {
-          preAggr.setProperty(alias, proj.execute(next, ctx));
+  private void aggregate(OResultInternal preAggr, OResult next, OCommandContext ctx) {
+    for (OProjectionItem proj : this.projection.getItems()) {
+      String alias = proj.getProjectionAlias().getStringValue();
+      if (proj.isAggregate()) {
+        AggregationContext aggrCtx = preAggr.getProperty(alias);
+        if (aggrCtx == null) {
+          aggrCtx = mode == Mode.FINAL ? new PartialValuesMerger(proj.getAggregationContext(ctx), alias) :
+              proj.getAggregationContext(ctx);
+          preAggr.setProperty(alias, aggrCtx);
         }
+        aggrCtx.apply(next, ctx);
+      } else if (mode == Mode.FINAL) {
+        preAggr.setProperty(alias, next.getProperty(alias));
+      } else {
+        preAggr.setProperty(alias, proj.execute(next, ctx));
       }
-    } finally {
-      if (profilingEnabled) {
-        cost += (System.nanoTime() - begin);
-      }
     }
   }
 
+  private long resolveMemoryBudget(OCommandContext ctx) {
+    Object queryBudget = ctx.getVariable(MEMORY_BUDGET_VARIABLE);
+    long budgetMB;
+    if (queryBudget instanceof Number) {
+      budgetMB = ((Number) queryBudget).longValue();
+    } else {
+      budgetMB = ctx.getDatabase().getConfiguration().getValueAsLong(OGlobalConfiguration.QUERY_GROUP_BY_MEMORY_BUDGET);
+    }
+    return Math.max(0, budgetMB) * 1024 * 1024;
+  }
+
+  @Override
+  public void close() {
+    for (SpillPartition partition : pendingPartitions) {
+      partition.delete();
+    }
+    pendingPartitions.clear();
+    super.close();
+  }
+
   @Override
   public String prettyPrint(int depth, int indent) {
     String spaces = OExecutionStepInternal.getIndent(depth, indent);
@@ -143,8 +241,14 @@ public class AggregateProjectionCalculationStep extends ProjectionCalculationSte
     if (profilingEnabled) {
       result += " (" + getCostFormatted() + ")";
     }
+    if (mode != Mode.COMPLETE) {
+      result += " (" + mode + ")";
+    }
     result +=
         "\n" + spaces + "      " + projection.toString() + "" + (groupBy == null ? "" : (spaces + "\n  " + groupBy.toString()));
+    if (spilledRows > 0) {
+      result += "\n" + spaces + "  (spilled to disk: " + spilledRows + " records in " + spilledPartitions + " partitions)";
+    }
     return result;
   }
 
@@ -152,4 +256,216 @@ public class AggregateProjectionCalculationStep extends ProjectionCalculationSte
   public long getCost() {
     return cost;
   }
+
+  /**
+   * One pass of the hash aggregation, on the original input or on a spilled partition
+   */
+  private class AggregationRound {
+    private final int level;
+
+    //the key is the GROUP BY key, the value is the (partially) aggregated value
+    private final Map<List, OResultInternal> aggregateResults = new LinkedHashMap<>();
+    private       SpillPartition[]           partitions;
+    private       boolean                    spilling         = false;
+
+    AggregationRound(int level) {
+      this.level = level;
+    }
+
+    void add(OResult next, OCommandContext ctx) {
+      long begin = profilingEnabled ? System.nanoTime() : 0;
+      try {
+        List<Object> key = calculateKey(next, ctx);
+        OResultInternal preAggr = aggregateResults.get(key);
+        if (preAggr == null) {
+          if (spilling) {
+            spill(key, next);
+            return;
+          }
+          preAggr = new OResultInternal();
+          aggregateResults.put(key, preAggr);
+          if (!spilling && level < MAX_SPILL_LEVEL) {
+            spilling = isOverMemoryBudget(next, ctx);
+          }
+        }
+        aggregate(preAggr, next, ctx);
+      } finally {
+        if (profilingEnabled) {
+          cost += (System.nanoTime() - begin);
+        }
+      }
+    }
+
+    private boolean isOverMemoryBudget(OResult next, OCommandContext ctx) {
+      if (memoryBudget < 0) {
+        memoryBudget = resolveMemoryBudget(ctx);
+      }
+      if (memoryBudget == 0) {
+        return false;
+      }
+      if (samples < 16 || aggregateResults.size() % 1024 == 0) {
+        sampledBytes += OResultSpillFile.serializedSize(next);
+        samples++;
+      }
+      long estimatedMemory =
+          aggregateResults.size() * ((sampledBytes / samples) * HEAP_OVERHEAD_FACTOR + GROUP_OVERHEAD_BYTES);
+      return estimatedMemory > memoryBudget;
+    }
+
+    private void spill(List<Object> key, OResult next) {
+      if (partitions == null) {
+        partitions = new SpillPartition[SPILL_PARTITIONS];
+      }
+      int partition = Math.floorMod(mixHash(key.hashCode(), level), SPILL_PARTITIONS);
+      if (partitions[partition] == null) {
+        partitions[partition] = new SpillPartition(level + 1);
+        spilledPartitions++;
+      }
+      partitions[partition].add(next);
+      spilledRows++;
+    }
+
+    /**
+     * finalizes the groups that are in memory and schedules the partitions for the next rounds
+     */
+    Iterator<OResult> finish(OCommandContext ctx) {
+      List<OResult> results = new ArrayList<>(aggregateResults.size());
+      for (Map.Entry<List, OResultInternal> entry : aggregateResults.entrySet()) {
+        OResultInternal item = entry.getValue();
+        for (String name : item.getPropertyNames()) {
+          Object prevVal = item.getProperty(name);
+          if (prevVal instanceof AggregationContext) {
+            AggregationContext aggrCtx = (AggregationContext) prevVal;
+            item.setProperty(name, mode == Mode.PARTIAL ? aggrCtx.getPartialValue() : aggrCtx.getFinalValue());
+          }
+        }
+        if (mode == Mode.PARTIAL) {
+          item.setMetadata(GROUP_KEY_METADATA, entry.getKey());
+        }
+        results.add(item);
+      }
+      aggregateResults.clear();
+      if (partitions != null) {
+        for (SpillPartition partition : partitions) {
+          if (partition != null) {
+            partition.file.finishWriting();
+            pendingPartitions.add(partition);
+          }
+        }
+      }
+      return results.iterator();
+    }
+
+    /**
+     * deletes the partitions written by this round, when the round fails before they are scheduled
+     */
+    void discard() {
+      if (partitions != null) {
+        for (SpillPartition partition : partitions) {
+          if (partition != null) {
+            partition.delete();
+          }
+        }
+        partitions = null;
+      }
+      aggregateResults.clear();
+    }
+  }
+
+  /**
+   * a different hash function for each level, otherwise re-partitioning a partition would put all its rows in the same file
+   */
+  private static int mixHash(int hash, int level) {
+    int h = hash ^ (level * 0x9E3779B9);
+    h ^= (h >>> 16);
+    h *= 0x85EBCA6B;
+    h ^= (h >>> 13);
+    return h;
+  }
+
+  /**
+   * the rows of a set of groups that are aggregated in a later round. Rows that cannot be written to disk are kept in memory,
+   * together with their position among the written ones, so that the rows are read back in the original order
+   */
+  private static class SpillPartition {
+    private final OResultSpillFile file = new OResultSpillFile();
+    private final int              level;
+    private final List<Long>       inMemoryPositions = new ArrayList<>();
+    private final List<OResult>    inMemoryRows      = new ArrayList<>();
+
+    SpillPartition(int level) {
+      this.level = level;
+    }
+
+    void add(OResult row) {
+      if (OResultSpillFile.canSpill(row)) {
+        file.write(row);
+      } else {
+        inMemoryPositions.add(file.size());
+        inMemoryRows.add(row);
+      }
+    }
+
+    Iterator<OResult> read(ODatabaseDocumentInternal db) {
+      Iterator<OResult> written = file.read(db);
+      return new Iterator<OResult>() {
+        private long position     = 0;
+        private int  nextInMemory = 0;
+
+        @Override
+        public boolean hasNext() {
+          return written.hasNext() || nextInMemory < inMemoryRows.size();
+        }
+
+        @Override
+        public OResult next() {
+          if (nextInMemory < inMemoryRows.size() && inMemoryPositions.get(nextInMemory) == position) {
+            return inMemoryRows.get(nextInMemory++);
+          }
+          position++;
+          return written.next();
+        }
+      };
+    }
+
+    void delete() {
+      file.delete();
+      inMemoryPositions.clear();
+      inMemoryRows.clear();
+    }
+  }
+
+  /**
+   * collects the partial states of an aggregation for a group and merges them when the group is complete
+   */
+  private static class PartialValuesMerger implements AggregationContext {
+    private final AggregationContext delegate;
+    private final String             alias;
+    private final List<Object>       partialValues = new ArrayList<>();
+
+    PartialValuesMerger(AggregationContext delegate, String alias) {
+      this.delegate = delegate;
+      this.alias = alias;
+    }
+
+    @Override
+    public Object getFinalValue() {
+      return delegate.mergePartialValues(partialValues);
+    }
+
+    @Override
+    public void apply(OResult next, OCommandContext ctx) {
+      partialValues.add(next.getProperty(alias));
+    }
+
+    @Override
+    public Object getPartialValue() {
+      throw new UnsupportedOperationException("Partial states cannot be calculated from partial states");
+    }
+
+    @Override
+    public Object mergePartialValues(List<Object> partialValues) {
+      return delegate.mergePartialValues(partialValues);
+    }
+  }
 }
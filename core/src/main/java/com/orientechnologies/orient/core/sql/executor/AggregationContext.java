@@ -2,6 +2,8 @@ package com.orientechnologies.orient.core.sql.executor;
 
 import com.orientechnologies.orient.core.command.OCommandContext;
 
+import java.util.List;
+
 /**
  * Created by luigidellaquila on 16/07/16.
  */
@@ -11,4 +13,17 @@ public interface AggregationContext {
   public Object getFinalValue();
 
   void apply(OResult next, OCommandContext ctx);
+
+  /**
+   * @return the partial state of this aggregation, that can be merged with other partial states of the same aggregation (eg.
+   * calculated on other clusters or on other nodes) using {@link #mergePartialValues(List)}
+   */
+  Object getPartialValue();
+
+  /**
+   * calculates the final value of the aggregation from a list of partial states
+   *
+   * @param partialValues values returned by {@link #getPartialValue()} on other instances of the same aggregation
+   */
+  Object mergePartialValues(List<Object> partialValues);
 }
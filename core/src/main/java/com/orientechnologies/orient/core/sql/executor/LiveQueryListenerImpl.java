@@ -12,14 +12,15 @@ import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
 import com.orientechnologies.orient.core.db.record.ORecordOperation;
 import com.orientechnologies.orient.core.exception.OCommandExecutionException;
 import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.query.live.OLiveQueryFilter;
 import com.orientechnologies.orient.core.query.live.OLiveQueryHookV2;
 import com.orientechnologies.orient.core.query.live.OLiveQueryListenerV2;
 import com.orientechnologies.orient.core.sql.OSQLEngine;
-import com.orientechnologies.orient.core.sql.parser.OSelectStatement;
-import com.orientechnologies.orient.core.sql.parser.OStatement;
-import com.orientechnologies.orient.core.sql.parser.OWhereClause;
+import com.orientechnologies.orient.core.sql.parser.*;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
 
@@ -36,6 +37,7 @@ public class LiveQueryListenerImpl implements OLiveQueryListenerV2 {
   private       String           className;
 
   private final Map<Object, Object> params;
+  private final OLiveQueryFilter    filter;
 
   private              int    token;
   private static final Random random = new Random();
@@ -72,6 +74,7 @@ public class LiveQueryListenerImpl implements OLiveQueryListenerV2 {
     synchronized (random) {
       token = random.nextInt();// TODO do something better ;-)!
     }
+    this.filter = calculateFilter();
     OLiveQueryHookV2.subscribe(token, this, (ODatabaseInternal) db);
 
     OCommandContext ctx = new OBasicCommandContext();
@@ -111,6 +114,78 @@ public class LiveQueryListenerImpl implements OLiveQueryListenerV2 {
     return token;
   }
 
+  @Override
+  public OLiveQueryFilter getFilter() {
+    return filter;
+  }
+
+  /**
+   * Extracts from the WHERE condition an equality or range condition on a field for every OR branch, used to evaluate the
+   * condition only on the changes that can satisfy it.
+   */
+  private OLiveQueryFilter calculateFilter() {
+    final List<OLiveQueryFilter.OFieldCondition> conditions = new ArrayList<>();
+    final OWhereClause where = statement.getWhereClause();
+    if (where != null && where.getBaseExpression() != null) {
+      OBasicCommandContext ctx = new OBasicCommandContext();
+      ctx.setInputParameters(params);
+      for (OAndBlock block : where.flatten()) {
+        OLiveQueryFilter.OFieldCondition condition = calculateCondition(block, ctx);
+        if (condition == null) {
+          // ALL THE CHANGES OF THE CLASS CAN SATISFY THIS BRANCH
+          conditions.clear();
+          break;
+        }
+        conditions.add(condition);
+      }
+    }
+    return new OLiveQueryFilter(className, conditions);
+  }
+
+  private OLiveQueryFilter.OFieldCondition calculateCondition(OAndBlock block, OCommandContext ctx) {
+    String rangeField = null;
+    Object lower = null;
+    boolean lowerInclusive = false;
+    Object upper = null;
+    boolean upperInclusive = false;
+
+    for (OBooleanExpression exp : block.getSubBlocks()) {
+      if (!(exp instanceof OBinaryCondition)) {
+        continue;
+      }
+      OBinaryCondition condition = (OBinaryCondition) exp;
+      if (!condition.getLeft().isBaseIdentifier() || !condition.getRight().isEarlyCalculated(ctx)) {
+        continue;
+      }
+      String field = condition.getLeft().getDefaultAlias().getStringValue();
+      OBinaryCompareOperator operator = condition.getOperator();
+      if (operator instanceof OEqualsCompareOperator) {
+        Object value = condition.getRight().execute((OResult) null, ctx);
+        if (value != null) {
+          return OLiveQueryFilter.OFieldCondition.equalTo(field, value);
+        }
+      } else if (operator.isRangeOperator() && (rangeField == null || rangeField.equals(field))) {
+        Object value = condition.getRight().execute((OResult) null, ctx);
+        if (!(value instanceof Number)) {
+          continue;
+        }
+        if ((operator instanceof OGtOperator || operator instanceof OGeOperator) && lower == null) {
+          lower = value;
+          lowerInclusive = operator instanceof OGeOperator;
+          rangeField = field;
+        } else if ((operator instanceof OLtOperator || operator instanceof OLeOperator) && upper == null) {
+          upper = value;
+          upperInclusive = operator instanceof OLeOperator;
+          rangeField = field;
+        }
+      }
+    }
+    if (rangeField != null) {
+      return OLiveQueryFilter.OFieldCondition.range(rangeField, lower, lowerInclusive, upper, upperInclusive);
+    }
+    return null;
+  }
+
   @Override
   public void onLiveResult(OLiveQueryHookV2.OLiveQueryOp iRecord) {
     execDb.activateOnCurrentThread();
@@ -96,9 +96,8 @@ public class OCreateEdgeExecutionPlanner {
     handleSave(result, targetClusterName, ctx, enableProfiling);
     //TODO implement batch, wait and retry
 
-    if (useCache && !enableProfiling && statement.executinPlanCanBeCached() && result.canBeCached()
-        && OExecutionPlanCache.getLastInvalidation(db) < planningStart) {
-      OExecutionPlanCache.put(statement.getOriginalStatement(), result, (ODatabaseDocumentInternal) ctx.getDatabase());
+    if (useCache && !enableProfiling && statement.executinPlanCanBeCached() && result.canBeCached()) {
+      OExecutionPlanCache.put(statement.getOriginalStatement(), result, planningStart, db);
     }
 
     return result;
@@ -1,6 +1,8 @@
 package com.orientechnologies.orient.core.sql.executor;
 
 import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.db.OScenarioThreadLocal;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
 import com.orientechnologies.orient.core.sql.functions.OSQLFunction;
 import com.orientechnologies.orient.core.sql.parser.OExpression;
 
@@ -35,4 +37,33 @@ public class OFuncitonAggregationContext implements AggregationContext {
     }
     aggregateFunction.execute(next, null, null, paramValues.toArray(), ctx);
   }
+
+  /**
+   * the partial state is the result that the function returns when it runs on a single node of a distributed query
+   */
+  @Override public Object getPartialValue() {
+    return OScenarioThreadLocal.executeAsDistributed(() -> aggregateFunction.getResult());
+  }
+
+  /**
+   * merges the partial states with {@link OSQLFunction#mergeDistributedResult(List)}. Null states (eg. min() on a group with no
+   * values) do not take part in the merge, when all the states are null the result is the one of an empty aggregation
+   */
+  @Override public Object mergePartialValues(List<Object> partialValues) {
+    List<Object> toMerge = new ArrayList<>(partialValues.size());
+    for (Object value : partialValues) {
+      if (value != null) {
+        toMerge.add(value);
+      }
+    }
+    if (toMerge.isEmpty()) {
+      return aggregateFunction.getResult();
+    }
+    try {
+      return OScenarioThreadLocal.executeAsDistributed(() -> aggregateFunction.mergeDistributedResult(toMerge));
+    } catch (IllegalStateException e) {
+      throw new OCommandExecutionException(
+          "Partial results of function " + aggregateFunction.getName() + " cannot be merged: " + e.getMessage());
+    }
+  }
 }
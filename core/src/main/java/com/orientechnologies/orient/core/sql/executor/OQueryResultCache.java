@@ -0,0 +1,623 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.common.profiler.OProfiler;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.config.OContextConfiguration;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.config.OStorageConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.OMetadataUpdateListener;
+import com.orientechnologies.orient.core.db.OSharedContext;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.index.OIndexManager;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OSchema;
+import com.orientechnologies.orient.core.metadata.schema.OSchemaShared;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.record.ORecordInternal;
+import com.orientechnologies.orient.core.sql.parser.OStatement;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cache of the results of idempotent SELECT and MATCH statements executed by the SQL executor. It is disabled by default, see
+ * {@link OGlobalConfiguration#QUERY_RESULT_CACHE_ENABLED}.
+ * <p>
+ * Results are keyed by the statement, its parameters and the current user. Every entry remembers the clusters its result depends
+ * on: the clusters of the classes and of the clusters named in the statement plus the clusters of all the records read while the
+ * result was computed. {@link OQueryResultCacheHook} invalidates the entries of a cluster as soon as one of its records is created,
+ * updated or deleted, schema, index and function changes invalidate the whole cache. The cache is bounded by the estimated size
+ * of the results it keeps, least recently used results are evicted first.
+ */
+public class OQueryResultCache implements OMetadataUpdateListener {
+  private static final OProfiler PROFILER = Orient.instance().getProfiler();
+
+  private static final Pattern NAME = Pattern.compile("`([^`]+)`|([\\w$]+)");
+
+  /**
+   * Returned by {@link #detach(Object, long[])} when a value cannot be shared between database instances.
+   */
+  private static final Object NOT_CACHEABLE = new Object();
+
+  private final String  databaseName;
+  private final boolean enabled;
+  private final long    maxMemory;
+  private final int     maxResults;
+
+  private final LinkedHashMap<Key, Entry> entries       = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<Integer, Set<Key>>    keysByCluster = new HashMap<>();
+  private       long                      usedMemory;
+
+  /**
+   * Incremented on every invalidation, a result is not cached if an invalidation happened while it was computed.
+   */
+  private long invalidations;
+
+  private final ThreadLocal<Set<Integer>>            readClusters    = new ThreadLocal<>();
+  private final Map<ODatabaseDocument, Set<Integer>> pendingClusters = new ConcurrentHashMap<>();
+  private final AtomicLong                           hits            = new AtomicLong();
+  private final AtomicLong                           misses          = new AtomicLong();
+
+  public OQueryResultCache(String databaseName, OContextConfiguration configuration) {
+    this.databaseName = databaseName;
+    this.enabled = configuration.getValueAsBoolean(OGlobalConfiguration.QUERY_RESULT_CACHE_ENABLED);
+    this.maxMemory = configuration.getValueAsLong(OGlobalConfiguration.QUERY_RESULT_CACHE_MAX_MEMORY) * 1024 * 1024;
+    this.maxResults = configuration.getValueAsInteger(OGlobalConfiguration.QUERY_RESULT_CACHE_MAX_RESULTS);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Executes a query, taking the result from the cache when possible.
+   *
+   * @param db        the current database
+   * @param statement the parsed statement
+   * @param query     the text of the statement
+   * @param args      positional parameters
+   *
+   * @return the result of the statement
+   */
+  public OResultSet execute(ODatabaseDocumentInternal db, OStatement statement, String query, Object[] args) {
+    if (!canBeCached(db, statement)) {
+      return statement.execute(db, args);
+    }
+    Object params = detach(args == null ? Collections.emptyList() : Arrays.asList(args), new long[1]);
+    if (params == NOT_CACHEABLE) {
+      return statement.execute(db, args);
+    }
+    return execute(db, new Key(query, params, db.getUser() == null ? null : db.getUser().getName()), query,
+        () -> statement.execute(db, args));
+  }
+
+  /**
+   * Executes a query, taking the result from the cache when possible.
+   *
+   * @param db        the current database
+   * @param statement the parsed statement
+   * @param query     the text of the statement
+   * @param args      named parameters
+   *
+   * @return the result of the statement
+   */
+  public OResultSet execute(ODatabaseDocumentInternal db, OStatement statement, String query, Map args) {
+    if (!canBeCached(db, statement)) {
+      return statement.execute(db, args);
+    }
+    Object params = detach(args == null ? Collections.emptyMap() : args, new long[1]);
+    if (params == NOT_CACHEABLE) {
+      return statement.execute(db, args);
+    }
+    return execute(db, new Key(query, params, db.getUser() == null ? null : db.getUser().getName()), query,
+        () -> statement.execute(db, args));
+  }
+
+  private boolean canBeCached(ODatabaseDocumentInternal db, OStatement statement) {
+    // CHANGES OF THE CURRENT TRANSACTION ARE NOT VISIBLE TO THE OTHER DATABASE INSTANCES
+    return enabled && !db.getTransaction().isActive() && statement.resultCanBeCached();
+  }
+
+  private OResultSet execute(ODatabaseDocumentInternal db, Key key, String query, Supplier<OResultSet> execution) {
+    Entry entry;
+    long invalidationsBefore;
+    synchronized (this) {
+      entry = entries.get(key);
+      invalidationsBefore = invalidations;
+    }
+
+    if (entry != null) {
+      hits.incrementAndGet();
+      PROFILER.updateCounter(PROFILER.getDatabaseMetric(databaseName, "queryResultCache.hit"),
+          "Results returned by the query result cache", +1);
+      OInternalResultSet result = new OInternalResultSet();
+      for (Object item : entry.results) {
+        result.add((OResult) attach(item, db));
+      }
+      return result;
+    }
+
+    misses.incrementAndGet();
+    PROFILER.updateCounter(PROFILER.getDatabaseMetric(databaseName, "queryResultCache.miss"),
+        "Results not returned by the query result cache", +1);
+
+    Set<Integer> clusters = new HashSet<>();
+    List<OResult> fetched = new ArrayList<>();
+    OResultSet original;
+    Set<Integer> outerClusters = readClusters.get();
+    readClusters.set(clusters);
+    try {
+      original = execution.get();
+      while (fetched.size() <= maxResults && original.hasNext()) {
+        fetched.add(original.next());
+      }
+    } finally {
+      if (outerClusters != null) {
+        outerClusters.addAll(clusters);
+        readClusters.set(outerClusters);
+      } else {
+        readClusters.remove();
+      }
+    }
+
+    if (fetched.size() > maxResults) {
+      return new OPrefetchedResultSet(fetched, original);
+    }
+    original.close();
+
+    OInternalResultSet result = new OInternalResultSet();
+    original.getExecutionPlan().ifPresent(result::setPlan);
+    long[] size = new long[1];
+    List<Object> cached = new ArrayList<>(fetched.size());
+    for (OResult item : fetched) {
+      result.add(item);
+      if (cached != null) {
+        Object detached = detach(item, size);
+        if (detached == NOT_CACHEABLE) {
+          cached = null;
+        } else {
+          cached.add(detached);
+        }
+      }
+    }
+
+    if (cached != null) {
+      addNamedClusters(db, query, clusters);
+      put(key, new Entry(cached, clusters, size[0] + query.length() * 2 + 64), invalidationsBefore);
+    }
+    return result;
+  }
+
+  private synchronized void put(Key key, Entry entry, long invalidationsBefore) {
+    if (invalidations != invalidationsBefore || entry.size > maxMemory) {
+      return;
+    }
+    remove(key);
+    entries.put(key, entry);
+    usedMemory += entry.size;
+    for (Integer cluster : entry.clusters) {
+      keysByCluster.computeIfAbsent(cluster, x -> new HashSet<>()).add(key);
+    }
+
+    Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+    while (usedMemory > maxMemory && eldest.hasNext()) {
+      Map.Entry<Key, Entry> next = eldest.next();
+      eldest.remove();
+      removeFromClusters(next.getKey(), next.getValue());
+    }
+  }
+
+  private void remove(Key key) {
+    Entry removed = entries.remove(key);
+    if (removed != null) {
+      removeFromClusters(key, removed);
+    }
+  }
+
+  private void removeFromClusters(Key key, Entry entry) {
+    usedMemory -= entry.size;
+    for (Integer cluster : entry.clusters) {
+      Set<Key> keys = keysByCluster.get(cluster);
+      if (keys != null) {
+        keys.remove(key);
+        if (keys.isEmpty()) {
+          keysByCluster.remove(cluster);
+        }
+      }
+    }
+  }
+
+  /**
+   * The statement depends on all the clusters it names and on all the clusters of the classes it names, including subclasses.
+   * Names are not resolved through the parser, so a field that happens to have the name of a class only causes more invalidations.
+   */
+  private static void addNamedClusters(ODatabaseDocumentInternal db, String query, Set<Integer> clusters) {
+    OSchema schema = db.getMetadata().getImmutableSchemaSnapshot();
+    Matcher matcher = NAME.matcher(query);
+    while (matcher.find()) {
+      String name = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+      OClass clazz = schema.getClass(name);
+      if (clazz != null) {
+        for (int cluster : clazz.getPolymorphicClusterIds()) {
+          clusters.add(cluster);
+        }
+      }
+      int cluster = db.getClusterIdByName(name);
+      if (cluster >= 0) {
+        clusters.add(cluster);
+      }
+    }
+  }
+
+  /**
+   * Called by {@link OQueryResultCacheHook} when a record is read, to collect the clusters the result of the query being cached
+   * depends on.
+   */
+  public void onRecordRead(ORecord record) {
+    Set<Integer> clusters = readClusters.get();
+    if (clusters != null) {
+      clusters.add(record.getIdentity().getClusterId());
+    }
+  }
+
+  /**
+   * Called by {@link OQueryResultCacheHook} when a record is created, updated or deleted. Changes done in a transaction invalidate
+   * the cache again after the commit, because queries executed in the meantime still see the old content.
+   */
+  public void onRecordChanged(ODatabaseDocumentInternal db, ORecord record) {
+    int cluster = record.getIdentity().getClusterId();
+    invalidateCluster(cluster);
+    if (db.getTransaction().isActive()) {
+      pendingClusters.computeIfAbsent(db, x -> new HashSet<>()).add(cluster);
+    }
+  }
+
+  public static void notifyForTxChanges(ODatabaseDocumentInternal db) {
+    OQueryResultCache cache = getCache(db);
+    if (cache != null) {
+      Set<Integer> clusters = cache.pendingClusters.remove(db);
+      if (clusters != null) {
+        for (Integer cluster : clusters) {
+          cache.invalidateCluster(cluster);
+        }
+      }
+    }
+  }
+
+  public static void removePendingDatabaseOps(ODatabaseDocumentInternal db) {
+    OQueryResultCache cache = getCache(db);
+    if (cache != null) {
+      cache.pendingClusters.remove(db);
+    }
+  }
+
+  /**
+   * Invalidates the results that depend on a cluster changed without record hooks, like on truncate.
+   */
+  public static void invalidateCluster(ODatabaseDocumentInternal db, int cluster) {
+    OQueryResultCache cache = getCache(db);
+    if (cache != null) {
+      cache.invalidateCluster(cluster);
+    }
+  }
+
+  private static OQueryResultCache getCache(ODatabaseDocumentInternal db) {
+    OSharedContext sharedContext = db.getSharedContext();
+    if (sharedContext == null) {
+      return null;
+    }
+    OQueryResultCache cache = sharedContext.getQueryResultCache();
+    return cache != null && cache.enabled ? cache : null;
+  }
+
+  public synchronized void invalidateCluster(int cluster) {
+    invalidations++;
+    Set<Key> keys = keysByCluster.remove(cluster);
+    if (keys != null) {
+      for (Key key : keys) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+          removeFromClusters(key, removed);
+        }
+      }
+    }
+  }
+
+  public synchronized void invalidate() {
+    invalidations++;
+    entries.clear();
+    keysByCluster.clear();
+    usedMemory = 0;
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * @return the estimated amount of memory (in bytes) used by the cached results
+   */
+  public synchronized long getUsedMemory() {
+    return usedMemory;
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  /**
+   * Copies a value so that it can be shared between database instances, adding its estimated size to the first element of
+   * <code>size</code>.
+   *
+   * @return the copy or {@link #NOT_CACHEABLE}
+   */
+  private static Object detach(Object value, long[] size) {
+    size[0] += 16;
+    if (value == null || value instanceof Boolean || value instanceof Number || value instanceof Character
+        || value instanceof Enum) {
+      return value;
+    } else if (value instanceof String) {
+      size[0] += ((String) value).length() * 2 + 24;
+      return value;
+    } else if (value instanceof Date) {
+      return new Date(((Date) value).getTime());
+    } else if (value instanceof byte[]) {
+      size[0] += ((byte[]) value).length;
+      return ((byte[]) value).clone();
+    } else if (value instanceof ORID) {
+      return ((ORID) value).isPersistent() ? ((ORID) value).copy() : NOT_CACHEABLE;
+    } else if (value instanceof OResult) {
+      return detachResult((OResult) value, size);
+    } else if (value instanceof OIdentifiable) {
+      ORID identity = ((OIdentifiable) value).getIdentity();
+      return identity.isPersistent() ? identity.copy() : NOT_CACHEABLE;
+    } else if (value instanceof List || value instanceof Set) {
+      Collection<Object> copy = value instanceof List ? new ArrayList<>() : new LinkedHashSet<>();
+      for (Object item : (Collection<?>) value) {
+        Object detached = detach(item, size);
+        if (detached == NOT_CACHEABLE) {
+          return NOT_CACHEABLE;
+        }
+        copy.add(detached);
+      }
+      return copy;
+    } else if (value instanceof Map) {
+      Map<Object, Object> copy = new LinkedHashMap<>();
+      for (Map.Entry<?, ?> item : ((Map<?, ?>) value).entrySet()) {
+        Object key = detach(item.getKey(), size);
+        Object detached = detach(item.getValue(), size);
+        if (key == NOT_CACHEABLE || detached == NOT_CACHEABLE) {
+          return NOT_CACHEABLE;
+        }
+        copy.put(key, detached);
+      }
+      return copy;
+    }
+    return NOT_CACHEABLE;
+  }
+
+  private static Object detachResult(OResult result, long[] size) {
+    // SUBCLASSES KEEP STATE THAT IS NOT VISIBLE THROUGH PROPERTIES AND METADATA
+    if (result.getClass() != OResultInternal.class) {
+      return NOT_CACHEABLE;
+    }
+
+    Map<String, Object> metadata = new HashMap<>();
+    for (String key : result.getMetadataKeys()) {
+      Object value = detach(result.getMetadata(key), size);
+      if (value == NOT_CACHEABLE) {
+        return NOT_CACHEABLE;
+      }
+      metadata.put(key, value);
+    }
+
+    if (result.isElement()) {
+      ORecord record = result.getElement().get().getRecord();
+      if (record == null || record.isDirty() || !record.getIdentity().isPersistent()) {
+        return NOT_CACHEABLE;
+      }
+      byte[] content = record.toStream();
+      size[0] += content.length + 64;
+      return new CachedRecord(record.getIdentity().copy(), record.getVersion(), ORecordInternal.getRecordType(record),
+          content.clone(), metadata);
+    }
+
+    Map<String, Object> properties = new LinkedHashMap<>();
+    for (String name : result.getPropertyNames()) {
+      Object value = detach(result.getProperty(name), size);
+      if (value == NOT_CACHEABLE) {
+        return NOT_CACHEABLE;
+      }
+      properties.put(name, value);
+    }
+    return new CachedProjection(properties, metadata);
+  }
+
+  /**
+   * Creates a copy of a cached value for the current database instance.
+   */
+  private static Object attach(Object value, ODatabaseDocumentInternal db) {
+    if (value instanceof CachedRecord) {
+      CachedRecord cached = (CachedRecord) value;
+      ORecord record = Orient.instance().getRecordFactoryManager()
+          .newInstance(cached.recordType, cached.identity.getClusterId(), db);
+      ORecordInternal.setRecordSerializer(record, db.getSerializer());
+      ORecordInternal.fill(record, cached.identity.copy(), cached.version, cached.content.clone(), false, db);
+      OResultInternal result = new OResultInternal(record);
+      attachMetadata(cached.metadata, result, db);
+      return result;
+    } else if (value instanceof CachedProjection) {
+      CachedProjection cached = (CachedProjection) value;
+      OResultInternal result = new OResultInternal();
+      for (Map.Entry<String, Object> property : cached.properties.entrySet()) {
+        result.setProperty(property.getKey(), attach(property.getValue(), db));
+      }
+      attachMetadata(cached.metadata, result, db);
+      return result;
+    } else if (value instanceof Date) {
+      return new Date(((Date) value).getTime());
+    } else if (value instanceof byte[]) {
+      return ((byte[]) value).clone();
+    } else if (value instanceof ORID) {
+      return ((ORID) value).copy();
+    } else if (value instanceof List || value instanceof Set) {
+      Collection<Object> copy = value instanceof List ? new ArrayList<>() : new LinkedHashSet<>();
+      for (Object item : (Collection<?>) value) {
+        copy.add(attach(item, db));
+      }
+      return copy;
+    } else if (value instanceof Map) {
+      Map<Object, Object> copy = new LinkedHashMap<>();
+      for (Map.Entry<?, ?> item : ((Map<?, ?>) value).entrySet()) {
+        copy.put(attach(item.getKey(), db), attach(item.getValue(), db));
+      }
+      return copy;
+    }
+    return value;
+  }
+
+  private static void attachMetadata(Map<String, Object> metadata, OResultInternal result, ODatabaseDocumentInternal db) {
+    for (Map.Entry<String, Object> item : metadata.entrySet()) {
+      result.setMetadata(item.getKey(), attach(item.getValue(), db));
+    }
+  }
+
+  @Override
+  public void onSchemaUpdate(String database, OSchemaShared schema) {
+    invalidate();
+  }
+
+  @Override
+  public void onIndexManagerUpdate(String database, OIndexManager indexManager) {
+    invalidate();
+  }
+
+  @Override
+  public void onFunctionLibraryUpdate(String database) {
+    invalidate();
+  }
+
+  @Override
+  public void onSequenceLibraryUpdate(String database) {
+    invalidate();
+  }
+
+  @Override
+  public void onStorageConfigurationUpdate(String database, OStorageConfiguration update) {
+    invalidate();
+  }
+
+  private static final class Key {
+    private final String statement;
+    private final Object params;
+    private final String user;
+
+    private Key(String statement, Object params, String user) {
+      this.statement = statement;
+      this.params = params;
+      this.user = user;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o)
+        return true;
+      if (!(o instanceof Key))
+        return false;
+      Key key = (Key) o;
+      return statement.equals(key.statement) && Objects.equals(params, key.params) && Objects.equals(user, key.user);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(statement, params, user);
+    }
+  }
+
+  private static final class Entry {
+    private final List<Object> results;
+    private final Set<Integer> clusters;
+    private final long         size;
+
+    private Entry(List<Object> results, Set<Integer> clusters, long size) {
+      this.results = results;
+      this.clusters = clusters;
+      this.size = size;
+    }
+  }
+
+  private static final class CachedRecord {
+    private final ORID                identity;
+    private final int                 version;
+    private final byte                recordType;
+    private final byte[]              content;
+    private final Map<String, Object> metadata;
+
+    private CachedRecord(ORID identity, int version, byte recordType, byte[] content, Map<String, Object> metadata) {
+      this.identity = identity;
+      this.version = version;
+      this.recordType = recordType;
+      this.content = content;
+      this.metadata = metadata;
+    }
+  }
+
+  private static final class CachedProjection {
+    private final Map<String, Object> properties;
+    private final Map<String, Object> metadata;
+
+    private CachedProjection(Map<String, Object> properties, Map<String, Object> metadata) {
+      this.properties = properties;
+      this.metadata = metadata;
+    }
+  }
+
+  /**
+   * Results fetched to find out if the query can be cached, followed by the rest of the original result set.
+   */
+  private static final class OPrefetchedResultSet implements OResultSet {
+    private final Iterator<OResult> prefetched;
+    private final OResultSet        original;
+
+    private OPrefetchedResultSet(List<OResult> prefetched, OResultSet original) {
+      this.prefetched = prefetched.iterator();
+      this.original = original;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return prefetched.hasNext() || original.hasNext();
+    }
+
+    @Override
+    public OResult next() {
+      return prefetched.hasNext() ? prefetched.next() : original.next();
+    }
+
+    @Override
+    public void close() {
+      original.close();
+    }
+
+    @Override
+    public Optional<OExecutionPlan> getExecutionPlan() {
+      return original.getExecutionPlan();
+    }
+
+    @Override
+    public Map<String, Long> getQueryStats() {
+      return original.getQueryStats();
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.hook.ORecordHookAbstract;
+import com.orientechnologies.orient.core.record.ORecord;
+
+/**
+ * Hook that invalidates the results of the {@link OQueryResultCache} that depend on the cluster of a changed record and collects
+ * the clusters of the records read by the queries being cached.
+ */
+public class OQueryResultCacheHook extends ORecordHookAbstract {
+
+  private final OQueryResultCache         cache;
+  private final ODatabaseDocumentInternal database;
+
+  public OQueryResultCacheHook(final ODatabaseDocumentInternal database) {
+    this.database = database;
+    this.cache = database.getSharedContext().getQueryResultCache();
+  }
+
+  @Override
+  public SCOPE[] getScopes() {
+    return new SCOPE[] { SCOPE.CREATE, SCOPE.READ, SCOPE.UPDATE, SCOPE.DELETE };
+  }
+
+  @Override
+  public void onRecordAfterRead(final ORecord record) {
+    cache.onRecordRead(record);
+  }
+
+  @Override
+  public void onRecordAfterCreate(final ORecord record) {
+    cache.onRecordChanged(database, record);
+  }
+
+  @Override
+  public void onRecordAfterUpdate(final ORecord record) {
+    cache.onRecordChanged(database, record);
+  }
+
+  @Override
+  public void onRecordAfterDelete(final ORecord record) {
+    cache.onRecordChanged(database, record);
+  }
+
+  @Override
+  public DISTRIBUTED_EXECUTION_MODE getDistributedExecutionMode() {
+    return DISTRIBUTED_EXECUTION_MODE.BOTH;
+  }
+}
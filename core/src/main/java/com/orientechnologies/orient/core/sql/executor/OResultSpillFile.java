@@ -0,0 +1,323 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.record.ORecordInternal;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.ORecordSerializerBinary;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * A temporary file that holds a sequence of {@link OResult}s in binary form. It is used by the execution steps that have to move
+ * intermediate results out of the heap when they exceed their memory budget (eg. ORDER BY and GROUP BY on large data sets).
+ * <p>
+ * Records are written with {@link ORecordSerializerBinary} together with their identity and version, projections (and result
+ * metadata) are wrapped in a temporary document serialized the same way. The file is written once, then it can be read back
+ * sequentially with {@link #read(ODatabaseDocumentInternal)}. The file is removed from disk by {@link #delete()}, the owner of
+ * the file has to invoke it when the results are not needed anymore.
+ */
+public class OResultSpillFile implements AutoCloseable {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private static final byte FLAG_ELEMENT  = 1;
+  private static final byte FLAG_CONTENT  = 2;
+  private static final byte FLAG_METADATA = 4;
+
+  private final File             file;
+  private final List<Reader>     readers = new ArrayList<>();
+  private       DataOutputStream out;
+  private       long             count   = 0;
+
+  public OResultSpillFile() {
+    try {
+      File dir = new File(Orient.getTempPath());
+      dir.mkdirs();
+      file = File.createTempFile("orientdb-spill-", ".tmp", dir);
+    } catch (IOException e) {
+      throw OException.wrapException(new OCommandExecutionException("Cannot create temporary file for query results"), e);
+    }
+    try {
+      out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+    } catch (IOException e) {
+      file.delete();
+      throw OException.wrapException(new OCommandExecutionException("Cannot create temporary file for query results"), e);
+    }
+  }
+
+  /**
+   * @return true if the result can be written to a spill file and read back without losing information. Results bound to a
+   * modified record or with a specialized implementation (eg. traverse results) have to stay in memory
+   */
+  public static boolean canSpill(OResult result) {
+    if (result.getClass() != OResultInternal.class) {
+      return false;
+    }
+    OIdentifiable element = ((OResultInternal) result).element;
+    if (element == null) {
+      return true;
+    }
+    if (!(element instanceof ORecord)) {
+      return false;
+    }
+    ORecord record = (ORecord) element;
+    return record instanceof ODocument && !record.isDirty() && record.getIdentity().isPersistent();
+  }
+
+  public void write(OResult result) {
+    try {
+      writeResult((OResultInternal) result, out);
+      count++;
+    } catch (IOException e) {
+      throw OException.wrapException(new OCommandExecutionException("Cannot write query results to " + file), e);
+    }
+  }
+
+  /**
+   * @return the number of results written to this file
+   */
+  public long size() {
+    return count;
+  }
+
+  /**
+   * flushes and closes the file. After this call no more results can be written
+   */
+  public void finishWriting() {
+    if (out == null) {
+      return;
+    }
+    try {
+      out.close();
+      out = null;
+    } catch (IOException e) {
+      throw OException.wrapException(new OCommandExecutionException("Cannot write query results to " + file), e);
+    }
+  }
+
+  /**
+   * opens a new sequential reader on the content of the file. {@link #finishWriting()} is invoked if needed
+   */
+  public Reader read(ODatabaseDocumentInternal db) {
+    finishWriting();
+    try {
+      Reader reader = new Reader(new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE)), db);
+      readers.add(reader);
+      return reader;
+    } catch (IOException e) {
+      throw OException.wrapException(new OCommandExecutionException("Cannot read query results from " + file), e);
+    }
+  }
+
+  /**
+   * closes the readers that are still open and removes the file from disk
+   */
+  public void delete() {
+    try {
+      if (out != null) {
+        out.close();
+        out = null;
+      }
+    } catch (IOException ignore) {
+      // the file is going to be deleted anyway
+    }
+    for (Reader reader : readers) {
+      reader.close();
+    }
+    readers.clear();
+    if (!file.delete() && file.exists()) {
+      OLogManager.instance().warn(this, "Cannot delete temporary file of query results %s", file);
+    }
+  }
+
+  @Override
+  public void close() {
+    delete();
+  }
+
+  /**
+   * @return the approximate size in bytes of the serialized form of a result, this can be used to estimate the memory used by the
+   * results that are kept in heap
+   */
+  public static int serializedSize(OResult result) {
+    if (!canSpill(result)) {
+      return 0;
+    }
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      writeResult((OResultInternal) result, new DataOutputStream(bytes));
+      return bytes.size();
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+
+  private static void writeResult(OResultInternal result, DataOutputStream out) throws IOException {
+    byte flags = 0;
+    if (result.element != null) {
+      flags |= FLAG_ELEMENT;
+    }
+    if (!result.content.isEmpty()) {
+      flags |= FLAG_CONTENT;
+    }
+    if (result.metadata != null && !result.metadata.isEmpty()) {
+      flags |= FLAG_METADATA;
+    }
+    out.writeByte(flags);
+
+    if (result.element != null) {
+      ORecord record = (ORecord) result.element;
+      ORID rid = record.getIdentity();
+      out.writeByte(ORecordInternal.getRecordType(record));
+      out.writeInt(rid.getClusterId());
+      out.writeLong(rid.getClusterPosition());
+      out.writeInt(record.getVersion());
+      writeBytes(ORecordSerializerBinary.INSTANCE.toStream(record, false), out);
+    }
+
+    if ((flags & (FLAG_CONTENT | FLAG_METADATA)) != 0) {
+      ODocument envelope = new ODocument();
+      if (!result.content.isEmpty()) {
+        envelope.field("content", toSerializable(result.content), OType.EMBEDDEDMAP);
+      }
+      if (result.metadata != null && !result.metadata.isEmpty()) {
+        envelope.field("metadata", toSerializable(result.metadata), OType.EMBEDDEDMAP);
+      }
+      writeBytes(ORecordSerializerBinary.INSTANCE.toStream(envelope, false), out);
+    }
+  }
+
+  private static Map<String, Object> toSerializable(Map<String, Object> values) {
+    Map<String, Object> result = new LinkedHashMap<>();
+    for (Map.Entry<String, Object> entry : values.entrySet()) {
+      result.put(entry.getKey(), toSerializable(entry.getValue()));
+    }
+    return result;
+  }
+
+  private static Object toSerializable(Object value) {
+    if (value instanceof OResult) {
+      return ((OResult) value).toElement();
+    }
+    if (value instanceof List) {
+      List<Object> result = new ArrayList<>();
+      for (Object item : (List) value) {
+        result.add(toSerializable(item));
+      }
+      return result;
+    }
+    if (value instanceof Set) {
+      Set<Object> result = new LinkedHashSet<>();
+      for (Object item : (Set) value) {
+        result.add(toSerializable(item));
+      }
+      return result;
+    }
+    if (value instanceof Map) {
+      Map<Object, Object> result = new LinkedHashMap<>();
+      for (Map.Entry<Object, Object> entry : ((Map<Object, Object>) value).entrySet()) {
+        result.put(entry.getKey(), toSerializable(entry.getValue()));
+      }
+      return result;
+    }
+    return value;
+  }
+
+  private static void writeBytes(byte[] bytes, DataOutputStream out) throws IOException {
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static byte[] readBytes(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  /**
+   * Sequential reader of a spill file
+   */
+  public class Reader implements Iterator<OResult>, AutoCloseable {
+    private final DataInputStream           in;
+    private final ODatabaseDocumentInternal db;
+    private       long                      read = 0;
+
+    private Reader(DataInputStream in, ODatabaseDocumentInternal db) {
+      this.in = in;
+      this.db = db;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return read < count;
+    }
+
+    @Override
+    public OResult next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      try {
+        OResult result = readResult();
+        read++;
+        if (read == count) {
+          close();
+        }
+        return result;
+      } catch (IOException e) {
+        close();
+        throw OException.wrapException(new OCommandExecutionException("Cannot read query results from " + file), e);
+      }
+    }
+
+    private OResult readResult() throws IOException {
+      OResultInternal result = new OResultInternal();
+      byte flags = in.readByte();
+      if ((flags & FLAG_ELEMENT) != 0) {
+        byte recordType = in.readByte();
+        int clusterId = in.readInt();
+        long clusterPosition = in.readLong();
+        int version = in.readInt();
+        byte[] content = readBytes(in);
+        ORecord record = Orient.instance().getRecordFactoryManager().newInstance(recordType, clusterId, db);
+        ORecordInternal.fill(record, new ORecordId(clusterId, clusterPosition), version, content, false);
+        ORecordInternal.setRecordSerializer(record, ORecordSerializerBinary.INSTANCE);
+        result.setElement(record);
+      }
+      if ((flags & (FLAG_CONTENT | FLAG_METADATA)) != 0) {
+        ODocument envelope = new ODocument();
+        ORecordSerializerBinary.INSTANCE.fromStream(readBytes(in), envelope, null);
+        Map<String, Object> content = envelope.field("content");
+        if (content != null) {
+          for (Map.Entry<String, Object> entry : content.entrySet()) {
+            result.setProperty(entry.getKey(), entry.getValue());
+          }
+        }
+        Map<String, Object> metadata = envelope.field("metadata");
+        if (metadata != null) {
+          result.addMetadata(new HashMap<>(metadata));
+        }
+      }
+      return result;
+    }
+
+    @Override
+    public void close() {
+      try {
+        in.close();
+      } catch (IOException ignore) {
+        // nothing to do, the stream is not used anymore
+      }
+    }
+  }
+}
@@ -0,0 +1,428 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import java.util.Arrays;
+
+/**
+ * Compressed bitmap of cluster positions, used by {@link ORidSet} to keep track of the RIDs of a single cluster.
+ * <p>
+ * It follows the layout of Roaring bitmaps: positions are split in chunks of 2^16 values by their high bits and each chunk is
+ * stored in its own container, that is a sorted array of the low 16 bits when the chunk is sparse (up to 4096 values, two bytes
+ * per value) and a plain bitmap of 2^16 bits (8KB) when it is dense. The memory used is then proportional to the number of
+ * positions in the set, not to the highest position.
+ */
+class ORidBitmap {
+
+  private static final int INITIAL_CAPACITY = 4;
+
+  /**
+   * max number of values in an array container, over this threshold a bitmap container is smaller
+   */
+  static final int MAX_ARRAY_SIZE = 4096;
+
+  private long[]      keys        = new long[INITIAL_CAPACITY];
+  private Container[] containers  = new Container[INITIAL_CAPACITY];
+  private int         nContainers = 0;
+  private long        cardinality = 0;
+
+  boolean add(long position) {
+    long key = position >>> 16;
+    int idx = indexOf(key);
+    if (idx < 0) {
+      idx = -idx - 1;
+      insertContainer(idx, key, new ArrayContainer());
+    }
+    Container container = containers[idx];
+    int before = container.cardinality();
+    container = container.add((char) position);
+    containers[idx] = container;
+    if (container.cardinality() == before) {
+      return false;
+    }
+    cardinality++;
+    return true;
+  }
+
+  boolean contains(long position) {
+    int idx = indexOf(position >>> 16);
+    return idx >= 0 && containers[idx].contains((char) position);
+  }
+
+  boolean remove(long position) {
+    int idx = indexOf(position >>> 16);
+    if (idx < 0) {
+      return false;
+    }
+    Container container = containers[idx];
+    int before = container.cardinality();
+    container = container.remove((char) position);
+    if (container.cardinality() == before) {
+      return false;
+    }
+    cardinality--;
+    if (container.cardinality() == 0) {
+      removeContainer(idx);
+    } else {
+      containers[idx] = container;
+    }
+    return true;
+  }
+
+  long cardinality() {
+    return cardinality;
+  }
+
+  /**
+   * @return the smallest position in the bitmap that is greater or equal to <code>from</code>, -1 if there is none
+   */
+  long nextPosition(long from) {
+    int idx = indexOf(from >>> 16);
+    int lowFrom = (char) from;
+    if (idx < 0) {
+      idx = -idx - 1;
+      lowFrom = 0;
+    }
+    for (; idx < nContainers; idx++) {
+      int next = containers[idx].next(lowFrom);
+      if (next >= 0) {
+        return (keys[idx] << 16) | next;
+      }
+      lowFrom = 0;
+    }
+    return -1;
+  }
+
+  /**
+   * adds all the positions of another bitmap to this one
+   */
+  void or(ORidBitmap other) {
+    long[] newKeys = new long[Math.max(INITIAL_CAPACITY, nContainers + other.nContainers)];
+    Container[] newContainers = new Container[newKeys.length];
+    int i = 0, j = 0, n = 0;
+    long newCardinality = 0;
+    while (i < nContainers || j < other.nContainers) {
+      Container container;
+      if (j >= other.nContainers || (i < nContainers && keys[i] < other.keys[j])) {
+        newKeys[n] = keys[i];
+        container = containers[i++];
+      } else if (i >= nContainers || other.keys[j] < keys[i]) {
+        newKeys[n] = other.keys[j];
+        container = other.containers[j++].copy();
+      } else {
+        newKeys[n] = keys[i];
+        container = containers[i++].or(other.containers[j++]);
+      }
+      newContainers[n++] = container;
+      newCardinality += container.cardinality();
+    }
+    keys = newKeys;
+    containers = newContainers;
+    nContainers = n;
+    cardinality = newCardinality;
+  }
+
+  /**
+   * removes from this bitmap all the positions that are not in another bitmap
+   */
+  void and(ORidBitmap other) {
+    int i = 0, j = 0, n = 0;
+    long newCardinality = 0;
+    while (i < nContainers && j < other.nContainers) {
+      if (keys[i] < other.keys[j]) {
+        i++;
+      } else if (other.keys[j] < keys[i]) {
+        j++;
+      } else {
+        Container container = containers[i].and(other.containers[j]);
+        if (container.cardinality() > 0) {
+          keys[n] = keys[i];
+          containers[n++] = container;
+          newCardinality += container.cardinality();
+        }
+        i++;
+        j++;
+      }
+    }
+    Arrays.fill(containers, n, nContainers, null);
+    nContainers = n;
+    cardinality = newCardinality;
+  }
+
+  private int indexOf(long key) {
+    int low = 0;
+    int high = nContainers - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      long midKey = keys[mid];
+      if (midKey < key) {
+        low = mid + 1;
+      } else if (midKey > key) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -(low + 1);
+  }
+
+  private void insertContainer(int idx, long key, Container container) {
+    if (nContainers == keys.length) {
+      keys = Arrays.copyOf(keys, keys.length * 2);
+      containers = Arrays.copyOf(containers, containers.length * 2);
+    }
+    System.arraycopy(keys, idx, keys, idx + 1, nContainers - idx);
+    System.arraycopy(containers, idx, containers, idx + 1, nContainers - idx);
+    keys[idx] = key;
+    containers[idx] = container;
+    nContainers++;
+  }
+
+  private void removeContainer(int idx) {
+    System.arraycopy(keys, idx + 1, keys, idx, nContainers - idx - 1);
+    System.arraycopy(containers, idx + 1, containers, idx, nContainers - idx - 1);
+    nContainers--;
+    containers[nContainers] = null;
+  }
+
+  /**
+   * A chunk of 2^16 values. Operations that can change the representation return the container to be used from now on
+   */
+  private abstract static class Container {
+    abstract Container add(char value);
+
+    abstract boolean contains(char value);
+
+    abstract Container remove(char value);
+
+    abstract int cardinality();
+
+    /**
+     * @return the smallest value greater or equal to <code>from</code>, -1 if there is none
+     */
+    abstract int next(int from);
+
+    abstract Container or(Container other);
+
+    abstract Container and(Container other);
+
+    abstract Container copy();
+  }
+
+  private static final class ArrayContainer extends Container {
+    private char[] values;
+    private int    size = 0;
+
+    ArrayContainer() {
+      this(4);
+    }
+
+    ArrayContainer(int capacity) {
+      values = new char[capacity];
+    }
+
+    @Override
+    Container add(char value) {
+      int idx = Arrays.binarySearch(values, 0, size, value);
+      if (idx >= 0) {
+        return this;
+      }
+      if (size >= MAX_ARRAY_SIZE) {
+        return toBitmap().add(value);
+      }
+      idx = -idx - 1;
+      if (size == values.length) {
+        values = Arrays.copyOf(values, Math.min(MAX_ARRAY_SIZE, values.length * 2));
+      }
+      System.arraycopy(values, idx, values, idx + 1, size - idx);
+      values[idx] = value;
+      size++;
+      return this;
+    }
+
+    @Override
+    boolean contains(char value) {
+      return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+
+    @Override
+    Container remove(char value) {
+      int idx = Arrays.binarySearch(values, 0, size, value);
+      if (idx >= 0) {
+        System.arraycopy(values, idx + 1, values, idx, size - idx - 1);
+        size--;
+      }
+      return this;
+    }
+
+    @Override
+    int cardinality() {
+      return size;
+    }
+
+    @Override
+    int next(int from) {
+      int idx = Arrays.binarySearch(values, 0, size, (char) from);
+      if (idx < 0) {
+        idx = -idx - 1;
+      }
+      return idx < size ? values[idx] : -1;
+    }
+
+    @Override
+    Container or(Container other) {
+      if (other instanceof BitmapContainer) {
+        return other.copy().or(this);
+      }
+      ArrayContainer that = (ArrayContainer) other;
+      if (size + that.size > MAX_ARRAY_SIZE) {
+        return toBitmap().or(that);
+      }
+      ArrayContainer result = new ArrayContainer(Math.max(4, size + that.size));
+      int i = 0, j = 0;
+      while (i < size || j < that.size) {
+        if (j >= that.size || (i < size && values[i] < that.values[j])) {
+          result.values[result.size++] = values[i++];
+        } else if (i >= size || that.values[j] < values[i]) {
+          result.values[result.size++] = that.values[j++];
+        } else {
+          result.values[result.size++] = values[i++];
+          j++;
+        }
+      }
+      return result;
+    }
+
+    @Override
+    Container and(Container other) {
+      ArrayContainer result = new ArrayContainer(Math.max(4, size));
+      for (int i = 0; i < size; i++) {
+        if (other.contains(values[i])) {
+          result.values[result.size++] = values[i];
+        }
+      }
+      return result;
+    }
+
+    @Override
+    Container copy() {
+      ArrayContainer result = new ArrayContainer(values.length);
+      System.arraycopy(values, 0, result.values, 0, size);
+      result.size = size;
+      return result;
+    }
+
+    private BitmapContainer toBitmap() {
+      BitmapContainer result = new BitmapContainer();
+      for (int i = 0; i < size; i++) {
+        result.add(values[i]);
+      }
+      return result;
+    }
+  }
+
+  private static final class BitmapContainer extends Container {
+    private final long[] words       = new long[1024];
+    private       int    cardinality = 0;
+
+    @Override
+    Container add(char value) {
+      long mask = 1L << value;
+      int idx = value >>> 6;
+      if ((words[idx] & mask) == 0) {
+        words[idx] |= mask;
+        cardinality++;
+      }
+      return this;
+    }
+
+    @Override
+    boolean contains(char value) {
+      return (words[value >>> 6] & (1L << value)) != 0;
+    }
+
+    @Override
+    Container remove(char value) {
+      long mask = 1L << value;
+      int idx = value >>> 6;
+      if ((words[idx] & mask) != 0) {
+        words[idx] &= ~mask;
+        cardinality--;
+        if (cardinality <= MAX_ARRAY_SIZE) {
+          return toArray();
+        }
+      }
+      return this;
+    }
+
+    @Override
+    int cardinality() {
+      return cardinality;
+    }
+
+    @Override
+    int next(int from) {
+      int idx = from >>> 6;
+      if (idx >= words.length) {
+        return -1;
+      }
+      long word = words[idx] & (-1L << from);
+      while (true) {
+        if (word != 0) {
+          return (idx << 6) + Long.numberOfTrailingZeros(word);
+        }
+        if (++idx == words.length) {
+          return -1;
+        }
+        word = words[idx];
+      }
+    }
+
+    @Override
+    Container or(Container other) {
+      if (other instanceof ArrayContainer) {
+        ArrayContainer that = (ArrayContainer) other;
+        for (int i = 0; i < that.size; i++) {
+          add(that.values[i]);
+        }
+        return this;
+      }
+      BitmapContainer that = (BitmapContainer) other;
+      int newCardinality = 0;
+      for (int i = 0; i < words.length; i++) {
+        words[i] |= that.words[i];
+        newCardinality += Long.bitCount(words[i]);
+      }
+      cardinality = newCardinality;
+      return this;
+    }
+
+    @Override
+    Container and(Container other) {
+      if (other instanceof ArrayContainer) {
+        return other.and(this);
+      }
+      BitmapContainer that = (BitmapContainer) other;
+      BitmapContainer result = new BitmapContainer();
+      for (int i = 0; i < words.length; i++) {
+        result.words[i] = words[i] & that.words[i];
+        result.cardinality += Long.bitCount(result.words[i]);
+      }
+      return result.cardinality <= MAX_ARRAY_SIZE ? result.toArray() : result;
+    }
+
+    @Override
+    Container copy() {
+      BitmapContainer result = new BitmapContainer();
+      System.arraycopy(words, 0, result.words, 0, words.length);
+      result.cardinality = cardinality;
+      return result;
+    }
+
+    private ArrayContainer toArray() {
+      ArrayContainer result = new ArrayContainer(Math.max(4, cardinality));
+      for (int value = next(0); value >= 0; value = value + 1 < (1 << 16) ? next(value + 1) : -1) {
+        result.values[result.size++] = (char) value;
+      }
+      return result;
+    }
+  }
+}
@@ -2,45 +2,40 @@ package com.orientechnologies.orient.core.sql.executor;
 
 import com.orientechnologies.orient.core.id.ORID;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 /**
  * Special implementation of Java Set&lt;ORID&gt; to efficiently handle memory and performance.
  * It does not store actual RIDs, but it only keeps track that a RID was stored, so the iterator will return new instances.
+ * <p>
+ * Positions are kept in a compressed bitmap per cluster (see {@link ORidBitmap}), so sparse sets only use a few bytes per RID
+ * and dense sets about one bit per RID. Unions and intersections between two ORidSets ({@link #addAll(Collection)} and {@link
+ * #retainAll(Collection)}) work directly on the bitmaps. The iterator returns RIDs ordered by cluster and position.
  *
  * @author Luigi Dell'Aquila
  */
 public class ORidSet implements Set<ORID> {
 
-  protected static int INITIAL_BLOCK_SIZE = 4096;
-
   /*
-   * cluster / offset / bitmask
-   * eg. inserting #12:0 you will have content[12][0][0] = 1
-   * eg. inserting #12:(63*maxArraySize + 1) you will have content[12][1][0] = 1
-   *
+   * one bitmap per cluster id, null if the cluster has no RIDs in this set
    */
-  protected long[][][] content = new long[8][][];
+  protected ORidBitmap[] content = new ORidBitmap[8];
 
   long size = 0;
 
-  protected int maxArraySize;
-
-  /**
-   * instantiates an ORidSet with a bucket size of Integer.MAX_VALUE / 10
-   */
   public ORidSet() {
-    this(Integer.MAX_VALUE / 10);
   }
 
   /**
-   *
-   * @param bucketSize 
+   * @param bucketSize not used anymore, positions are stored in compressed bitmaps that do not need a bucket size
    */
+  @Deprecated
   public ORidSet(int bucketSize) {
-    maxArraySize = bucketSize;
+    this();
   }
 
   @Override public int size() {
@@ -59,39 +54,15 @@ public class ORidSet implements Set<ORID> {
       throw new IllegalArgumentException();
     }
     ORID identifiable = ((ORID) o);
-    if (identifiable == null) {
-      throw new IllegalArgumentException();
-    }
     int cluster = identifiable.getClusterId();
     long position = identifiable.getClusterPosition();
     if (cluster < 0 || position < 0) {
       return false;
     }
-    long positionByte = (position / 63);
-    int positionBit = (int) (position % 63);
-    int block = (int) (positionByte / maxArraySize);
-    int blockPositionByteInt = (int) (positionByte % maxArraySize);
-
-    if (content.length <= cluster) {
-      return false;
-    }
-    if (content[cluster] == null) {
-      return false;
-    }
-    if (content[cluster].length <= block) {
-      return false;
-    }
-    if (content[cluster][block] == null) {
-      return false;
-    }
-    if (content[cluster][block].length <= blockPositionByteInt) {
+    if (content.length <= cluster || content[cluster] == null) {
       return false;
     }
-
-    long currentMask = 1L << positionBit;
-    long existed = content[cluster][block][blockPositionByteInt] & currentMask;
-
-    return existed > 0L;
+    return content[cluster].contains(position);
   }
 
   @Override public Iterator<ORID> iterator() {
@@ -99,11 +70,15 @@ public class ORidSet implements Set<ORID> {
   }
 
   @Override public Object[] toArray() {
-    return new Object[0];
+    return toArray(new Object[0]);
   }
 
   @Override public <T> T[] toArray(T[] a) {
-    return null;
+    List<ORID> result = new ArrayList<>(size());
+    for (ORID rid : this) {
+      result.add(rid);
+    }
+    return result.toArray(a);
   }
 
   @Override public boolean add(ORID identifiable) {
@@ -115,73 +90,23 @@ public class ORidSet implements Set<ORID> {
     if (cluster < 0 || position < 0) {
       throw new IllegalArgumentException("negative RID");//TODO
     }
-    long positionByte = (position / 63);
-    int positionBit = (int) (position % 63);
-    int block = (int) (positionByte / maxArraySize);
-    int blockPositionByteInt = (int) (positionByte % maxArraySize);
-
-    if (content.length <= cluster) {
-      long[][][] oldContent = content;
-      content = new long[cluster + 1][][];
-      System.arraycopy(oldContent, 0, content, 0, oldContent.length);
-    }
+    ensureClusterCapacity(cluster);
     if (content[cluster] == null) {
-      content[cluster] = createClusterArray(block, blockPositionByteInt);
-    }
-
-    if (content[cluster].length <= block) {
-      content[cluster] = expandClusterBlocks(content[cluster], block, blockPositionByteInt);
+      content[cluster] = new ORidBitmap();
     }
-    if (content[cluster][block] == null) {
-      content[cluster][block] = expandClusterArray(new long[INITIAL_BLOCK_SIZE], blockPositionByteInt);
-    }
-    if (content[cluster][block].length <= blockPositionByteInt) {
-      content[cluster][block] = expandClusterArray(content[cluster][block], blockPositionByteInt);
-    }
-
-    long original = content[cluster][block][blockPositionByteInt];
-    long currentMask = 1L << positionBit;
-    long existed = content[cluster][block][blockPositionByteInt] & currentMask;
-    content[cluster][block][blockPositionByteInt] = original | currentMask;
-    if (existed == 0L) {
+    if (content[cluster].add(position)) {
       size++;
+      return true;
     }
-    return existed == 0L;
-  }
-
-  private static long[][] expandClusterBlocks(long[][] longs, int block, int blockPositionByteInt) {
-    long[][] result = new long[block + 1][];
-    System.arraycopy(longs, 0, result, 0, longs.length);
-    result[block] = expandClusterArray(new long[INITIAL_BLOCK_SIZE], blockPositionByteInt);
-    return result;
-  }
-
-  private static long[][] createClusterArray(int block, int positionByteInt) {
-    int currentSize = INITIAL_BLOCK_SIZE;
-    while (currentSize <= positionByteInt) {
-      currentSize *= 2;
-      if (currentSize < 0) {
-        currentSize = positionByteInt + 1;
-        break;
-      }
-    }
-    long[][] result = new long[block + 1][];
-    result[block] = new long[currentSize];
-    return result;
+    return false;
   }
 
-  private static long[] expandClusterArray(long[] original, int positionByteInt) {
-    int currentSize = original.length;
-    while (currentSize <= positionByteInt) {
-      currentSize *= 2;
-      if (currentSize < 0) {
-        currentSize = positionByteInt + 1;
-        break;
-      }
+  private void ensureClusterCapacity(int cluster) {
+    if (content.length <= cluster) {
+      ORidBitmap[] oldContent = content;
+      content = new ORidBitmap[Math.max(cluster + 1, oldContent.length * 2)];
+      System.arraycopy(oldContent, 0, content, 0, oldContent.length);
     }
-    long[] result = new long[currentSize];
-    System.arraycopy(original, 0, result, 0, original.length);
-    return result;
   }
 
   @Override public boolean remove(Object o) {
@@ -189,42 +114,19 @@ public class ORidSet implements Set<ORID> {
       throw new IllegalArgumentException();
     }
     ORID identifiable = ((ORID) o);
-    if (identifiable == null) {
-      throw new IllegalArgumentException();
-    }
     int cluster = identifiable.getClusterId();
     long position = identifiable.getClusterPosition();
     if (cluster < 0 || position < 0) {
       throw new IllegalArgumentException("negative RID");//TODO
     }
-    long positionByte = (position / 63);
-    int positionBit = (int) (position % 63);
-    int block = (int) (positionByte / maxArraySize);
-    int blockPositionByteInt = (int) (positionByte % maxArraySize);
-
-    if (content.length <= cluster) {
-      return false;
-    }
-    if (content[cluster] == null) {
+    if (content.length <= cluster || content[cluster] == null) {
       return false;
     }
-    if (content[cluster].length <= block) {
-      return false;
-    }
-    if (content[cluster][block].length <= blockPositionByteInt) {
-      return false;
-    }
-
-    long original = content[cluster][block][blockPositionByteInt];
-    long currentMask = 1L << positionBit;
-    long existed = content[cluster][block][blockPositionByteInt] & currentMask;
-    currentMask = ~currentMask;
-    content[cluster][block][blockPositionByteInt] = original & currentMask;
-    if (existed > 0) {
+    if (content[cluster].remove(position)) {
       size--;
+      return true;
     }
-    return existed == 0L;
-
+    return false;
   }
 
   @Override public boolean containsAll(Collection<?> c) {
@@ -237,29 +139,78 @@ public class ORidSet implements Set<ORID> {
   }
 
   @Override public boolean addAll(Collection<? extends ORID> c) {
+    if (c instanceof ORidSet) {
+      return union((ORidSet) c);
+    }
     boolean added = false;
     for (ORID o : c) {
-      added = added && add(o);
+      added |= add(o);
     }
     return added;
   }
 
+  private boolean union(ORidSet other) {
+    long oldSize = size;
+    ensureClusterCapacity(other.content.length - 1);
+    for (int cluster = 0; cluster < other.content.length; cluster++) {
+      ORidBitmap otherBitmap = other.content[cluster];
+      if (otherBitmap == null || otherBitmap.cardinality() == 0) {
+        continue;
+      }
+      if (content[cluster] == null) {
+        content[cluster] = new ORidBitmap();
+      }
+      size -= content[cluster].cardinality();
+      content[cluster].or(otherBitmap);
+      size += content[cluster].cardinality();
+    }
+    return size != oldSize;
+  }
+
   @Override public boolean retainAll(Collection<?> c) {
-    throw new UnsupportedOperationException();
+    if (c instanceof ORidSet) {
+      return intersection((ORidSet) c);
+    }
+    List<ORID> toRemove = new ArrayList<>();
+    for (ORID rid : this) {
+      if (!c.contains(rid)) {
+        toRemove.add(rid);
+      }
+    }
+    for (ORID rid : toRemove) {
+      remove(rid);
+    }
+    return !toRemove.isEmpty();
+  }
+
+  private boolean intersection(ORidSet other) {
+    long oldSize = size;
+    for (int cluster = 0; cluster < content.length; cluster++) {
+      if (content[cluster] == null) {
+        continue;
+      }
+      size -= content[cluster].cardinality();
+      if (cluster < other.content.length && other.content[cluster] != null) {
+        content[cluster].and(other.content[cluster]);
+        size += content[cluster].cardinality();
+      } else {
+        content[cluster] = null;
+      }
+    }
+    return size != oldSize;
   }
 
   @Override public boolean removeAll(Collection<?> c) {
+    boolean removed = false;
     for (Object o : c) {
-      remove(o);
+      removed |= remove(o);
     }
-    return true;
+    return removed;
   }
 
   @Override public void clear() {
-    content = new long[8][][];
+    content = new ORidBitmap[8];
     size = 0;
   }
 
 }
-
-
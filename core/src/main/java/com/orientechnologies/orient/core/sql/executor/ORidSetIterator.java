@@ -39,43 +39,17 @@ public class ORidSetIterator implements Iterator<ORID> {
       currentId = 0;
     }
 
-    long currentArrayPos = currentId / 63;
-    long currentBit = currentId % 63;
-    int block = (int) (currentArrayPos / set.maxArraySize);
-    int blockPositionByteInt = (int) (currentArrayPos % set.maxArraySize);
-
     while (currentCluster < set.content.length) {
-      while (set.content[currentCluster] != null && block < set.content[currentCluster].length) {
-        while (set.content[currentCluster][block] != null && blockPositionByteInt < set.content[currentCluster][block].length) {
-          if (currentBit == 0 && set.content[currentCluster][block][blockPositionByteInt] == 0L) {
-            blockPositionByteInt++;
-            currentArrayPos++;
-            continue;
-          }
-          if (set.contains(new ORecordId(currentCluster, currentArrayPos * 63 + currentBit))) {
-            currentId = currentArrayPos * 63 + currentBit;
-            return;
-          } else {
-            currentBit++;
-            if (currentBit > 63) {
-              currentBit = 0;
-              blockPositionByteInt++;
-              currentArrayPos++;
-            }
-          }
-        }
-        if (set.content[currentCluster][block] == null && set.content[currentCluster].length >= block) {
-          currentArrayPos += set.maxArraySize;
+      ORidBitmap bitmap = set.content[currentCluster];
+      if (bitmap != null && currentId >= 0) {
+        long next = bitmap.nextPosition(currentId);
+        if (next >= 0) {
+          currentId = next;
+          return;
         }
-        block++;
-        blockPositionByteInt = 0;
-        currentBit = 0;
       }
-      block = 0;
-      currentBit = 0;
-      currentArrayPos = 0;
-      blockPositionByteInt = 0;
       currentCluster++;
+      currentId = 0;
     }
 
     currentCluster = -1;
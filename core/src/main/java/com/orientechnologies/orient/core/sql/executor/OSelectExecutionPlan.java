@@ -70,6 +70,25 @@ public class OSelectExecutionPlan implements OInternalExecutionPlan {
     return (List) steps;
   }
 
+  /**
+   * @return <code>true</code> if the plan reads all the records of a class or of a cluster, directly or in a sub-query.
+   */
+  boolean readsAllRecords() {
+    for (OExecutionStepInternal step : steps) {
+      if (step instanceof FetchFromClassExecutionStep || step instanceof FetchFromClusterExecutionStep
+          || step instanceof ParallelFetchFromClassExecutionStep) {
+        return true;
+      }
+      if (step instanceof SubQueryStep) {
+        OInternalExecutionPlan subPlan = ((SubQueryStep) step).getSubExecutionPlan();
+        if (subPlan instanceof OSelectExecutionPlan && ((OSelectExecutionPlan) subPlan).readsAllRecords()) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
   public void setSteps(List<OExecutionStepInternal> steps) {
     this.steps = steps;
     if (steps.size() > 0) {
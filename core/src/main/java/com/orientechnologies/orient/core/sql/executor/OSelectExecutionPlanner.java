@@ -3,6 +3,8 @@ package com.orientechnologies.orient.core.sql.executor;
 import com.orientechnologies.common.util.OPair;
 import com.orientechnologies.orient.core.command.OBasicCommandContext;
 import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.config.OContextConfiguration;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.ODatabase;
 import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.db.ODatabaseInternal;
@@ -100,9 +102,8 @@ public class OSelectExecutionPlanner {
 
     handleProjectionsBlock(result, info, ctx, enableProfiling);
 
-    if (useCache && !enableProfiling && statement.executinPlanCanBeCached() && result.canBeCached()
-        && OExecutionPlanCache.getLastInvalidation(db) < planningStart) {
-      OExecutionPlanCache.put(statement.getOriginalStatement(), result, (ODatabaseDocumentInternal) ctx.getDatabase());
+    if (useCache && !enableProfiling && statement.executinPlanCanBeCached() && result.canBeCached()) {
+      OExecutionPlanCache.put(statement.getOriginalStatement(), result, planningStart, db);
     }
     return result;
   }
@@ -1471,7 +1472,12 @@ public class OSelectExecutionPlanner {
 
     AbstractExecutionStep fetcher;
     if (schema.getClass(className) != null) {
-      fetcher = new FetchFromClassExecutionStep(className, filterClusters, info, ctx, orderByRidAsc, profilingEnabled);
+      fetcher = from == info.target ?
+          createParallelFetchFromClass(schema.getClass(className), filterClusters, info, ctx, orderByRidAsc, profilingEnabled) :
+          null;
+      if (fetcher == null) {
+        fetcher = new FetchFromClassExecutionStep(className, filterClusters, info, ctx, orderByRidAsc, profilingEnabled);
+      }
     } else if (schema.getView(className) != null) {
       fetcher = new FetchFromViewExecutionStep(className, filterClusters, info, ctx, orderByRidAsc, profilingEnabled);
     } else {
@@ -1484,6 +1490,77 @@ public class OSelectExecutionPlanner {
     plan.chain(fetcher);
   }
 
+  /**
+   * creates a parallel scan of the clusters of a class, if it was requested with the PARALLEL keyword or with
+   * {@link OGlobalConfiguration#QUERY_PARALLEL_SCAN} and if the query allows it. The WHERE condition and, when there is nothing
+   * between the filter and the projections (no ORDER BY, GROUP BY, DISTINCT, expand() or UNWIND), the projections are evaluated
+   * by the workers
+   *
+   * @return the parallel fetch step, or null if the class has to be scanned sequentially
+   */
+  private AbstractExecutionStep createParallelFetchFromClass(OClass clazz, Set<String> filterClusters, QueryPlanningInfo info,
+      OCommandContext ctx, Boolean orderByRidAsc, boolean profilingEnabled) {
+    ODatabaseDocumentInternal db = (ODatabaseDocumentInternal) ctx.getDatabase();
+    OContextConfiguration conf = db.getConfiguration();
+    boolean forced = Boolean.TRUE.equals(statement.getParallel());
+    if (!forced && !conf.getValueAsBoolean(OGlobalConfiguration.QUERY_PARALLEL_SCAN)) {
+      return null;
+    }
+    if (db.getTransaction().isActive() || info.serverToClusters.size() != 1 || info.perRecordLetClause != null
+        || info.globalLetPresent || info.lockRecord != null || (info.ridRangeConditions != null && !info.ridRangeConditions
+        .isEmpty())) {
+      return null;
+    }
+
+    List<Integer> filteredClusters = new ArrayList<>();
+    for (int clusterId : clazz.getPolymorphicClusterIds()) {
+      if (clusterId >= 0 && (filterClusters == null || filterClusters.contains(db.getClusterNameById(clusterId)))) {
+        filteredClusters.add(clusterId);
+      }
+    }
+    if (filteredClusters.size() < 2) {
+      return null;
+    }
+    int[] clusterIds = filteredClusters.stream().mapToInt(x -> x).toArray();
+    Arrays.sort(clusterIds);
+    if (Boolean.FALSE.equals(orderByRidAsc)) {
+      for (int i = 0; i < clusterIds.length / 2; i++) {
+        int old = clusterIds[i];
+        clusterIds[i] = clusterIds[clusterIds.length - 1 - i];
+        clusterIds[clusterIds.length - 1 - i] = old;
+      }
+    }
+    if (!forced && db.getStorage().count(clusterIds) <= conf.getValueAsLong(OGlobalConfiguration.QUERY_PARALLEL_MINIMUM_RECORDS)) {
+      return null;
+    }
+
+    Object order = null;
+    if (Boolean.TRUE.equals(orderByRidAsc)) {
+      order = FetchFromClusterExecutionStep.ORDER_ASC;
+    } else if (Boolean.FALSE.equals(orderByRidAsc)) {
+      order = FetchFromClusterExecutionStep.ORDER_DESC;
+    }
+
+    OWhereClause where = info.whereClause;
+    info.whereClause = null;//The WHERE clause won't be used anymore, the parallel workers do all the filtering
+
+    OProjection projection = null;
+    if (!info.projectionsCalculated && info.projection != null && info.preAggregateProjection == null
+        && info.aggregateProjection == null && info.groupBy == null && info.orderBy == null && !info.distinct && !info.expand
+        && info.unwind == null && !info.projection.refersToParent()) {
+      projection = info.projection;
+      info.projectionsCalculated = true;
+    }
+
+    int maxThreads = conf.getValueAsInteger(OGlobalConfiguration.QUERY_PARALLEL_SCAN_MAX_THREADS);
+    if (maxThreads <= 0) {
+      maxThreads = Runtime.getRuntime().availableProcessors();
+    }
+    return new ParallelFetchFromClassExecutionStep(clazz.getName(), clusterIds, where, projection, order,
+        conf.getValueAsBoolean(OGlobalConfiguration.QUERY_PARALLEL_SCAN_ORDERED_MERGE), maxThreads,
+        conf.getValueAsInteger(OGlobalConfiguration.QUERY_PARALLEL_RESULT_QUEUE_SIZE), ctx, profilingEnabled);
+  }
+
   private boolean handleClassAsTargetWithIndexedFunction(OSelectExecutionPlan plan, Set<String> filterClusters,
       OIdentifier queryTarget, QueryPlanningInfo info, OCommandContext ctx, boolean profilingEnabled) {
     if (queryTarget == null) {
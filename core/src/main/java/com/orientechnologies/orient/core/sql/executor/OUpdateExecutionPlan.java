@@ -6,6 +6,7 @@ package com.orientechnologies.orient.core.sql.executor;
 
 import com.orientechnologies.orient.core.command.OCommandContext;
 import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.storage.cache.OScanAccessHint;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -41,14 +42,28 @@ public class OUpdateExecutionPlan extends OSelectExecutionPlan {
     executeInternal();
   }
 
+  /**
+   * Executes the whole statement. Statements which read all the records of a class or of a cluster are executed under
+   * {@link OScanAccessHint}, so they do not evict pages used by the rest of the workload from the read cache.
+   */
   public void executeInternal() throws OCommandExecutionException {
-    while (true) {
-      OResultSet nextBlock = super.fetchNext(100);
-      if (!nextBlock.hasNext()) {
-        return;
+    boolean scan = readsAllRecords();
+    if (scan) {
+      OScanAccessHint.begin();
+    }
+    try {
+      while (true) {
+        OResultSet nextBlock = super.fetchNext(100);
+        if (!nextBlock.hasNext()) {
+          return;
+        }
+        while (nextBlock.hasNext()) {
+          result.add(nextBlock.next());
+        }
       }
-      while (nextBlock.hasNext()) {
-        result.add(nextBlock.next());
+    } finally {
+      if (scan) {
+        OScanAccessHint.end();
       }
     }
   }
@@ -2,21 +2,48 @@ package com.orientechnologies.orient.core.sql.executor;
 
 import com.orientechnologies.common.concur.OTimeoutException;
 import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.sql.parser.OOrderBy;
 
 import java.util.*;
 
 /**
  * Created by luigidellaquila on 11/07/16.
+ * <p>
+ * Sorts the upstream in memory. If a memory budget is defined (see {@link OGlobalConfiguration#QUERY_ORDER_BY_MEMORY_BUDGET}, or
+ * the <code>$orderByMemoryBudget</code> context variable for a single query) and the buffered results exceed it, the buffer is
+ * sorted and written to a temporary file as a sorted run; at the end all the runs are merged.
  */
 public class OrderByStep extends AbstractExecutionStep {
+  public static final String MEMORY_BUDGET_VARIABLE = "$orderByMemoryBudget";
+
+  /**
+   * maximum number of runs that are merged together, if there are more runs they are merged in multiple passes
+   */
+  private static final int MAX_MERGE_FAN_IN = 64;
+
+  /**
+   * rough ratio between the memory used by a result in heap and the size of its serialized form
+   */
+  private static final int HEAP_OVERHEAD_FACTOR = 3;
+
   private final OOrderBy orderBy;
   private       Integer  maxResults;
 
   private long cost = 0;
 
-  List<OResult> cachedResult = null;
-  int           nextElement  = 0;
+  List<OResult>     cachedResult  = null;
+  Iterator<OResult> sortedResults = null;
+
+  // spill to disk
+  private long                   memoryBudget   = -1;
+  private boolean                spillDisabled  = false;
+  private long                   sampledBytes   = 0;
+  private long                   samples        = 0;
+  private long                   added          = 0;
+  private List<OResultSpillFile> runs           = null;
+  private long                   spilledResults = 0;
 
   public OrderByStep(OOrderBy orderBy, OCommandContext ctx, boolean profilingEnabled) {
     this(orderBy, null, ctx, profilingEnabled);
@@ -36,21 +63,20 @@ public class OrderByStep extends AbstractExecutionStep {
     if (cachedResult == null) {
       cachedResult = new ArrayList<>();
       prev.ifPresent(p -> init(p, ctx));
+      if (sortedResults == null) {
+        sortedResults = cachedResult.iterator();
+      }
     }
 
     return new OResultSet() {
       int currentBatchReturned = 0;
-      int offset = nextElement;
 
       @Override
       public boolean hasNext() {
         if (currentBatchReturned >= nRecords) {
           return false;
         }
-        if (cachedResult.size() <= nextElement) {
-          return false;
-        }
-        return true;
+        return sortedResults.hasNext();
       }
 
       @Override
@@ -60,11 +86,10 @@ public class OrderByStep extends AbstractExecutionStep {
           if (currentBatchReturned >= nRecords) {
             throw new IllegalStateException();
           }
-          if (cachedResult.size() <= nextElement) {
+          if (!sortedResults.hasNext()) {
             throw new IllegalStateException();
           }
-          OResult result = cachedResult.get(offset + currentBatchReturned);
-          nextElement++;
+          OResult result = sortedResults.next();
           currentBatchReturned++;
           return result;
         } finally {
@@ -114,6 +139,10 @@ public class OrderByStep extends AbstractExecutionStep {
             cachedResult = new ArrayList<>(cachedResult.subList(0, maxResults));
             sorted = true;
           }
+          if (isOverMemoryBudget(item, ctx)) {
+            spill(ctx);
+            sorted = true;
+          }
         } finally {
           if (profilingEnabled) {
             cost += (System.nanoTime() - begin);
@@ -142,6 +171,9 @@ public class OrderByStep extends AbstractExecutionStep {
       if (!sorted) {
         cachedResult.sort((a, b) -> orderBy.compare(a, b, ctx));
       }
+      if (runs != null) {
+        initMerge(ctx);
+      }
     } finally {
       if (profilingEnabled) {
         cost += (System.nanoTime() - begin);
@@ -150,6 +182,146 @@ public class OrderByStep extends AbstractExecutionStep {
 
   }
 
+  /**
+   * estimates the memory used by the buffered results, sampling the serialized size of some of them
+   *
+   * @return true if the buffer has to be spilled to disk
+   */
+  private boolean isOverMemoryBudget(OResult item, OCommandContext ctx) {
+    if (spillDisabled) {
+      return false;
+    }
+    if (!OResultSpillFile.canSpill(item)) {
+      // this result cannot be written to disk, so the sort has to happen in memory
+      spillDisabled = true;
+      return false;
+    }
+    if (memoryBudget < 0) {
+      memoryBudget = resolveMemoryBudget(ctx);
+    }
+    if (memoryBudget == 0) {
+      spillDisabled = true;
+      return false;
+    }
+    added++;
+    if (samples < 16 || added % 1024 == 0) {
+      sampledBytes += OResultSpillFile.serializedSize(item);
+      samples++;
+    }
+    long estimatedMemory = cachedResult.size() * (sampledBytes / samples) * HEAP_OVERHEAD_FACTOR;
+    return estimatedMemory > memoryBudget;
+  }
+
+  private long resolveMemoryBudget(OCommandContext ctx) {
+    Object queryBudget = ctx.getVariable(MEMORY_BUDGET_VARIABLE);
+    long budgetMB;
+    if (queryBudget instanceof Number) {
+      budgetMB = ((Number) queryBudget).longValue();
+    } else {
+      budgetMB = ctx.getDatabase().getConfiguration().getValueAsLong(OGlobalConfiguration.QUERY_ORDER_BY_MEMORY_BUDGET);
+    }
+    return Math.max(0, budgetMB) * 1024 * 1024;
+  }
+
+  /**
+   * sorts the buffered results and writes them to a new sorted run
+   */
+  private void spill(OCommandContext ctx) {
+    cachedResult.sort((a, b) -> orderBy.compare(a, b, ctx));
+    int toWrite = maxResults == null ? cachedResult.size() : Math.min(maxResults, cachedResult.size());
+    OResultSpillFile run = new OResultSpillFile();
+    try {
+      for (int i = 0; i < toWrite; i++) {
+        run.write(cachedResult.get(i));
+      }
+      run.finishWriting();
+    } catch (RuntimeException e) {
+      run.delete();
+      throw e;
+    }
+    if (runs == null) {
+      runs = new ArrayList<>();
+    }
+    runs.add(run);
+    spilledResults += toWrite;
+    cachedResult = new ArrayList<>();
+  }
+
+  private void initMerge(OCommandContext ctx) {
+    ODatabaseDocumentInternal db = (ODatabaseDocumentInternal) ctx.getDatabase();
+    while (runs.size() >= MAX_MERGE_FAN_IN) {
+      List<OResultSpillFile> nextPass = new ArrayList<>();
+      for (int i = 0; i < runs.size(); i += MAX_MERGE_FAN_IN) {
+        List<OResultSpillFile> group = runs.subList(i, Math.min(i + MAX_MERGE_FAN_IN, runs.size()));
+        List<Iterator<OResult>> sources = new ArrayList<>();
+        for (OResultSpillFile run : group) {
+          sources.add(run.read(db));
+        }
+        OResultSpillFile merged = new OResultSpillFile();
+        try {
+          Iterator<OResult> mergeIterator = new MergeIterator(sources, ctx);
+          while (mergeIterator.hasNext()) {
+            merged.write(mergeIterator.next());
+          }
+          merged.finishWriting();
+        } catch (RuntimeException e) {
+          // the runs of this pass are not referenced by the step yet, the old ones are deleted on close
+          merged.delete();
+          for (OResultSpillFile run : nextPass) {
+            run.delete();
+          }
+          throw e;
+        }
+        for (OResultSpillFile run : group) {
+          run.delete();
+        }
+        nextPass.add(merged);
+      }
+      runs = nextPass;
+    }
+
+    List<Iterator<OResult>> sources = new ArrayList<>();
+    for (OResultSpillFile run : runs) {
+      sources.add(run.read(db));
+    }
+    // the last run is still in memory, it does not need to be written
+    sources.add(cachedResult.iterator());
+    Iterator<OResult> merged = new MergeIterator(sources, ctx);
+    if (maxResults != null) {
+      sortedResults = new Iterator<OResult>() {
+        int returned = 0;
+
+        @Override
+        public boolean hasNext() {
+          return returned < maxResults && merged.hasNext();
+        }
+
+        @Override
+        public OResult next() {
+          returned++;
+          return merged.next();
+        }
+      };
+    } else {
+      sortedResults = merged;
+    }
+  }
+
+  private void deleteRuns() {
+    if (runs != null) {
+      for (OResultSpillFile run : runs) {
+        run.delete();
+      }
+      runs = null;
+    }
+  }
+
+  @Override
+  public void close() {
+    deleteRuns();
+    super.close();
+  }
+
   @Override
   public String prettyPrint(int depth, int indent) {
     String result = OExecutionStepInternal.getIndent(depth, indent) + "+ " + orderBy;
@@ -157,6 +329,9 @@ public class OrderByStep extends AbstractExecutionStep {
       result += " (" + getCostFormatted() + ")";
     }
     result += (maxResults != null ? "\n  (buffer size: " + maxResults + ")" : "");
+    if (spilledResults > 0) {
+      result += "\n  (spilled to disk: " + spilledResults + " records)";
+    }
     return result;
   }
 
@@ -164,4 +339,63 @@ public class OrderByStep extends AbstractExecutionStep {
   public long getCost() {
     return cost;
   }
+
+  /**
+   * k-way merge of sorted sources. If two results are equal, the one from the first source is returned first, so the merge is
+   * stable as long as the sources are in the same order as the original input
+   */
+  private class MergeIterator implements Iterator<OResult> {
+    private final PriorityQueue<Cursor> queue;
+
+    MergeIterator(List<Iterator<OResult>> sources, OCommandContext ctx) {
+      queue = new PriorityQueue<>(Math.max(1, sources.size()), (a, b) -> {
+        int result = orderBy.compare(a.head, b.head, ctx);
+        return result != 0 ? result : Integer.compare(a.index, b.index);
+      });
+      for (int i = 0; i < sources.size(); i++) {
+        Cursor cursor = new Cursor(i, sources.get(i));
+        if (cursor.advance()) {
+          queue.add(cursor);
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !queue.isEmpty();
+    }
+
+    @Override
+    public OResult next() {
+      Cursor cursor = queue.poll();
+      if (cursor == null) {
+        throw new NoSuchElementException();
+      }
+      OResult result = cursor.head;
+      if (cursor.advance()) {
+        queue.add(cursor);
+      }
+      return result;
+    }
+  }
+
+  private static class Cursor {
+    private final int               index;
+    private final Iterator<OResult> source;
+    private       OResult           head;
+
+    Cursor(int index, Iterator<OResult> source) {
+      this.index = index;
+      this.source = source;
+    }
+
+    boolean advance() {
+      if (source.hasNext()) {
+        head = source.next();
+        return true;
+      }
+      head = null;
+      return false;
+    }
+  }
 }
@@ -0,0 +1,454 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.common.concur.OTimeoutException;
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.command.OBasicCommandContext;
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.db.OExecutionThreadLocal;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.exception.OCommandInterruptedException;
+import com.orientechnologies.orient.core.iterator.ORecordIteratorCluster;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.sql.parser.OProjection;
+import com.orientechnologies.orient.core.sql.parser.OWhereClause;
+import com.orientechnologies.orient.core.storage.cache.OScanAccessHint;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Scans the clusters of a class on a bounded pool of worker threads. Each worker opens its own copy of the database, iterates one
+ * cluster at a time and evaluates the WHERE condition (and, when possible, the projections) before handing the results back to
+ * the calling thread.
+ * <p>
+ * Results are merged either unordered (first come, first served) or ordered, ie. cluster by cluster, in the same order that a
+ * sequential {@link FetchFromClassExecutionStep} would produce.
+ * <p>
+ * Closing the step stops the workers and closes their database copies before {@link #close()} returns. A result set which is
+ * abandoned without being closed is closed together with its database.
+ */
+public class ParallelFetchFromClassExecutionStep extends AbstractExecutionStep {
+
+  private static final OResult END_OF_CLUSTER = new OResultInternal();
+
+  private final String       className;
+  private final int[]        clusterIds;
+  private final OWhereClause whereClause;
+  private final OProjection  projection;
+  private final Object       order;
+  private final boolean      orderedMerge;
+  private final int          maxThreads;
+  private final int          queueSize;
+
+  //runtime
+  private          boolean                                         started        = false;
+  private volatile boolean                                         running        = false;
+  private          BlockingQueue<OResult>[]                        queues;
+  private          List<Future<?>>                                 workers;
+  private          AtomicReferenceArray<ODatabaseDocumentInternal> workerDbs;
+  private final    AtomicInteger                                   nextCluster    = new AtomicInteger(0);
+  private final    AtomicReference<Throwable>                      workerError    = new AtomicReference<>();
+  private          int                                             currentQueue   = 0;
+  private          int                                             finishedQueues = 0;
+  private          OResult                                         nextItem       = null;
+
+  private final AtomicLong   cost           = new AtomicLong(0);
+  private final AtomicLong[] recordsScanned;
+  private final AtomicLong[] recordsMatched;
+
+  /**
+   * @param className    the class name
+   * @param clusterIds   the clusters to scan
+   * @param whereClause  the filter to evaluate on the workers (can be null)
+   * @param projection   the projection to calculate on the workers (can be null)
+   * @param order        {@link FetchFromClusterExecutionStep#ORDER_ASC}, {@link FetchFromClusterExecutionStep#ORDER_DESC} or null
+   *                     for no specific order
+   * @param orderedMerge true to return the results cluster by cluster, false to return them as soon as they are available
+   * @param maxThreads   maximum number of worker threads used by this scan
+   * @param queueSize    maximum number of results buffered by the workers
+   */
+  public ParallelFetchFromClassExecutionStep(String className, int[] clusterIds, OWhereClause whereClause, OProjection projection,
+      Object order, boolean orderedMerge, int maxThreads, int queueSize, OCommandContext ctx, boolean profilingEnabled) {
+    super(ctx, profilingEnabled);
+    this.className = className;
+    this.clusterIds = clusterIds;
+    this.whereClause = whereClause;
+    this.projection = projection;
+    this.order = order;
+    this.orderedMerge = orderedMerge || order != null;
+    this.maxThreads = Math.max(1, Math.min(maxThreads, clusterIds.length));
+    this.queueSize = Math.max(1, queueSize);
+    this.recordsScanned = new AtomicLong[clusterIds.length];
+    this.recordsMatched = new AtomicLong[clusterIds.length];
+    for (int i = 0; i < clusterIds.length; i++) {
+      recordsScanned[i] = new AtomicLong(0);
+      recordsMatched[i] = new AtomicLong(0);
+    }
+  }
+
+  @Override
+  public OResultSet syncPull(OCommandContext ctx, int nRecords) throws OTimeoutException {
+    getPrev().ifPresent(x -> x.syncPull(ctx, nRecords));
+    if (!started) {
+      start();
+    }
+    return new OResultSet() {
+      int fetched = 0;
+
+      @Override
+      public boolean hasNext() {
+        if (fetched >= nRecords) {
+          return false;
+        }
+        if (nextItem == null) {
+          nextItem = fetchNextItem();
+        }
+        return nextItem != null;
+      }
+
+      @Override
+      public OResult next() {
+        if (!hasNext()) {
+          throw new IllegalStateException();
+        }
+        OResult result = nextItem;
+        nextItem = null;
+        fetched++;
+        ctx.setVariable("$current", result);
+        return result;
+      }
+
+      @Override
+      public void close() {
+
+      }
+
+      @Override
+      public Optional<OExecutionPlan> getExecutionPlan() {
+        return Optional.empty();
+      }
+
+      @Override
+      public Map<String, Long> getQueryStats() {
+        return new HashMap<>();
+      }
+    };
+  }
+
+  private void start() {
+    started = true;
+    running = true;
+    if (clusterIds.length == 0) {
+      return;
+    }
+
+    int nQueues = orderedMerge ? clusterIds.length : 1;
+    int capacity = orderedMerge ? Math.max(1, queueSize / maxThreads) : queueSize;
+    queues = new BlockingQueue[nQueues];
+    for (int i = 0; i < nQueues; i++) {
+      queues[i] = new ArrayBlockingQueue<>(capacity);
+    }
+
+    // the database copies have to be created on the calling thread, ODatabaseDocumentInternal.copy() re-activates the current
+    // database before returning
+    ODatabaseDocumentInternal db = (ODatabaseDocumentInternal) ctx.getDatabase();
+    boolean scan = OScanAccessHint.isActive();
+    workerDbs = new AtomicReferenceArray<>(maxThreads);
+    for (int i = 0; i < maxThreads; i++) {
+      workerDbs.set(i, db.copy());
+    }
+    db.activateOnCurrentThread();
+
+    workers = new ArrayList<>(maxThreads);
+    for (int i = 0; i < maxThreads; i++) {
+      int workerIdx = i;
+      workers.add(Orient.instance().submit(() -> runWorker(workerIdx, scan)));
+    }
+  }
+
+  private void runWorker(int workerIdx, boolean scan) {
+    // the copy is taken by the worker, unless the step was closed before the worker started
+    ODatabaseDocumentInternal localDb = workerDbs.getAndSet(workerIdx, null);
+    if (localDb == null) {
+      return;
+    }
+    // the scan hint is bound to the thread which started the scan, workers inherit it
+    if (scan) {
+      OScanAccessHint.begin();
+    }
+    try {
+      localDb.activateOnCurrentThread();
+      OBasicCommandContext workerCtx = new OBasicCommandContext();
+      workerCtx.setDatabase(localDb);
+      workerCtx.setInputParameters(ctx.getInputParameters());
+      OWhereClause localWhere = whereClause == null ? null : whereClause.copy();
+      OProjection localProjection = projection == null ? null : projection.copy();
+
+      int clusterIdx;
+      while ((clusterIdx = nextCluster.getAndIncrement()) < clusterIds.length) {
+        try {
+          if (running && workerError.get() == null) {
+            scanCluster(clusterIdx, localDb, workerCtx, localWhere, localProjection);
+          }
+        } catch (Throwable t) {
+          workerError.compareAndSet(null, t);
+        } finally {
+          publish(clusterIdx, END_OF_CLUSTER, true);
+        }
+      }
+    } finally {
+      localDb.close();
+      ODatabaseRecordThreadLocal.instance().remove();
+      if (scan) {
+        OScanAccessHint.end();
+      }
+    }
+  }
+
+  private void scanCluster(int clusterIdx, ODatabaseDocumentInternal localDb, OCommandContext workerCtx, OWhereClause localWhere,
+      OProjection localProjection) {
+    ORecordIteratorCluster iterator = new ORecordIteratorCluster(localDb, clusterIds[clusterIdx]);
+    boolean desc = isOrderDesc();
+    if (desc) {
+      iterator.last();
+    }
+    while (running && (desc ? iterator.hasPrevious() : iterator.hasNext())) {
+      long begin = profilingEnabled ? System.nanoTime() : 0;
+      OResult toPublish = null;
+      try {
+        ORecord record = desc ? iterator.previous() : iterator.next();
+        recordsScanned[clusterIdx].incrementAndGet();
+        OResultInternal item = new OResultInternal();
+        item.element = record;
+        workerCtx.setVariable("$current", item);
+        if (localWhere == null || localWhere.matchesFilters(item, workerCtx)) {
+          recordsMatched[clusterIdx].incrementAndGet();
+          toPublish = localProjection == null ? item : localProjection.calculateSingle(workerCtx, item);
+        }
+      } finally {
+        if (profilingEnabled) {
+          cost.addAndGet(System.nanoTime() - begin);
+        }
+      }
+      if (toPublish != null) {
+        publish(clusterIdx, toPublish, false);
+      }
+    }
+  }
+
+  /**
+   * Blocks until there is room in the result queue, so that workers never run too far ahead of the consumer. End markers are
+   * always delivered, otherwise the consumer could wait forever.
+   */
+  private void publish(int clusterIdx, OResult item, boolean endMarker) {
+    BlockingQueue<OResult> queue = queues[orderedMerge ? clusterIdx : 0];
+    try {
+      while (!queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+        if (!running && !endMarker) {
+          return;
+        }
+        if (!running) {
+          queue.clear();
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      running = false;
+    }
+  }
+
+  private OResult fetchNextItem() {
+    if (queues == null) {
+      return null;
+    }
+    int nQueues = queues.length;
+    while (true) {
+      if (orderedMerge ? currentQueue >= nQueues : finishedQueues >= clusterIds.length) {
+        checkWorkerError();
+        return null;
+      }
+      OResult item;
+      try {
+        item = queues[orderedMerge ? currentQueue : 0].poll(100, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        close();
+        throw new OCommandInterruptedException("The command has been interrupted");
+      }
+      if (OExecutionThreadLocal.isInterruptCurrentOperation()) {
+        close();
+        throw new OCommandInterruptedException("The command has been interrupted");
+      }
+      if (timedOut) {
+        close();
+        return null;
+      }
+      if (item == null) {
+        continue;
+      }
+      if (item == END_OF_CLUSTER) {
+        checkWorkerError();
+        if (orderedMerge) {
+          currentQueue++;
+        } else {
+          finishedQueues++;
+        }
+        continue;
+      }
+      return item;
+    }
+  }
+
+  private void checkWorkerError() {
+    Throwable error = workerError.get();
+    if (error != null) {
+      close();
+      if (error instanceof RuntimeException) {
+        throw (RuntimeException) error;
+      }
+      throw OException.wrapException(new OCommandExecutionException("Error on parallel scan of class " + className), error);
+    }
+  }
+
+  @Override
+  public void sendTimeout() {
+    super.sendTimeout();
+    running = false;
+  }
+
+  @Override
+  public void close() {
+    running = false;
+    if (queues != null) {
+      for (BlockingQueue<OResult> queue : queues) {
+        queue.clear();
+      }
+    }
+    if (workers != null) {
+      closeWorkers();
+    }
+    super.close();
+  }
+
+  /**
+   * closes the database copies of the workers which did not start yet and waits for the running workers, which close their own
+   * copies once they see that the step is closed
+   */
+  private void closeWorkers() {
+    boolean closedCopies = false;
+    for (int i = 0; i < workerDbs.length(); i++) {
+      ODatabaseDocumentInternal localDb = workerDbs.getAndSet(i, null);
+      if (localDb != null) {
+        localDb.activateOnCurrentThread();
+        localDb.close();
+        closedCopies = true;
+      }
+    }
+    if (closedCopies) {
+      ((ODatabaseDocumentInternal) ctx.getDatabase()).activateOnCurrentThread();
+    }
+
+    for (Future<?> worker : workers) {
+      try {
+        worker.get();
+      } catch (InterruptedException e) {
+        // the workers still close their copies, they just are not awaited
+        Thread.currentThread().interrupt();
+        return;
+      } catch (ExecutionException | CancellationException e) {
+        // errors of the workers are already reported to the consumer
+      }
+    }
+  }
+
+  @Override
+  public String prettyPrint(int depth, int indent) {
+    String ind = OExecutionStepInternal.getIndent(depth, indent);
+    StringBuilder builder = new StringBuilder();
+    builder.append(ind);
+    builder.append("+ PARALLEL FETCH FROM CLASS " + className);
+    builder.append(" (" + maxThreads + " threads, " + (orderedMerge ? "ordered" : "unordered") + " merge)");
+    if (profilingEnabled) {
+      builder.append(" (" + getCostFormatted() + ")");
+    }
+    for (int i = 0; i < clusterIds.length; i++) {
+      builder.append("\n");
+      builder.append(OExecutionStepInternal.getIndent(depth + 1, indent));
+      builder.append("+ FETCH FROM CLUSTER " + clusterIds[i] + " " + (isOrderDesc() ? "DESC" : "ASC"));
+      if (profilingEnabled) {
+        builder.append(" (scanned: " + recordsScanned[i].get() + ", matched: " + recordsMatched[i].get() + ")");
+      }
+    }
+    if (whereClause != null) {
+      builder.append("\n");
+      builder.append(OExecutionStepInternal.getIndent(depth + 1, indent));
+      builder.append("  FILTER ITEMS WHERE ");
+      builder.append(whereClause.toString());
+    }
+    if (projection != null) {
+      builder.append("\n");
+      builder.append(OExecutionStepInternal.getIndent(depth + 1, indent));
+      builder.append("  CALCULATE PROJECTIONS ");
+      builder.append(projection.toString());
+    }
+    return builder.toString();
+  }
+
+  private boolean isOrderDesc() {
+    return FetchFromClusterExecutionStep.ORDER_DESC == order;
+  }
+
+  @Override
+  public long getCost() {
+    return cost.get();
+  }
+
+  @Override
+  public OResult serialize() {
+    OResultInternal result = OExecutionStepInternal.basicSerialize(this);
+    result.setProperty("className", className);
+    List<Integer> clusters = new ArrayList<>();
+    for (int clusterId : clusterIds) {
+      clusters.add(clusterId);
+    }
+    result.setProperty("clusterIds", clusters);
+    result.setProperty("order", order);
+    result.setProperty("orderedMerge", orderedMerge);
+    result.setProperty("maxThreads", maxThreads);
+    if (whereClause != null) {
+      result.setProperty("whereClause", whereClause.serialize());
+    }
+    if (projection != null) {
+      result.setProperty("projection", projection.serialize());
+    }
+    return result;
+  }
+
+  /**
+   * the planner chooses this step only if no transaction is active and the class is big enough when the query is planned. A
+   * cached plan could run inside a transaction, where the database copies of the workers would not see its changes, so plans
+   * containing this step are never cached
+   */
+  @Override
+  public boolean canBeCached() {
+    return false;
+  }
+
+  @Override
+  public OExecutionStep copy(OCommandContext ctx) {
+    return new ParallelFetchFromClassExecutionStep(className, clusterIds, whereClause == null ? null : whereClause.copy(),
+        projection == null ? null : projection.copy(), order, orderedMerge, maxThreads, queueSize, ctx, profilingEnabled);
+  }
+}
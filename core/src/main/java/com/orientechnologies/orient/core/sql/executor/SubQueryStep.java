@@ -30,6 +30,10 @@ public class SubQueryStep extends AbstractExecutionStep {
     return subExecuitonPlan.fetchNext(nRecords);
   }
 
+  OInternalExecutionPlan getSubExecutionPlan() {
+    return subExecuitonPlan;
+  }
+
   @Override
   public String prettyPrint(int depth, int indent) {
     StringBuilder builder = new StringBuilder();
@@ -0,0 +1,146 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.sql.functions.graph;
+
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing map from visited RIDs to the RIDs they were reached from. Every RID is packed into a single <code>long</code>,
+ * so the map keeps two arrays of primitives instead of entry, key and value objects for every visited vertex.
+ */
+final class OCompactRIDMap {
+  private static final long EMPTY = Long.MIN_VALUE;
+
+  private long[] keys;
+  private long[] values;
+  private int    size;
+
+  OCompactRIDMap() {
+    this(64);
+  }
+
+  OCompactRIDMap(final int initialCapacity) {
+    int capacity = 16;
+    while (capacity < initialCapacity * 2)
+      capacity <<= 1;
+
+    allocate(capacity);
+  }
+
+  /**
+   * Adds the RID if it is not present yet.
+   *
+   * @param rid         RID to add
+   * @param predecessor RID the added one was reached from or <code>null</code> if it is the start of the search
+   *
+   * @return <code>true</code> if RID was added, <code>false</code> if it was already present
+   */
+  boolean putIfAbsent(final ORID rid, final ORID predecessor) {
+    final long key = pack(rid);
+    int index = indexOf(key, keys);
+    if (keys[index] == key)
+      return false;
+
+    keys[index] = key;
+    values[index] = predecessor == null ? EMPTY : pack(predecessor);
+    size++;
+
+    if (size * 2 > keys.length)
+      rehash();
+
+    return true;
+  }
+
+  boolean contains(final ORID rid) {
+    final long key = pack(rid);
+    return keys[indexOf(key, keys)] == key;
+  }
+
+  /**
+   * @return RID the given one was reached from or <code>null</code> if RID is not present or is the start of the search
+   */
+  ORID get(final ORID rid) {
+    final long key = pack(rid);
+    final int index = indexOf(key, keys);
+    if (keys[index] != key || values[index] == EMPTY)
+      return null;
+
+    return unpack(values[index]);
+  }
+
+  int size() {
+    return size;
+  }
+
+  private void allocate(final int capacity) {
+    keys = new long[capacity];
+    values = new long[capacity];
+    Arrays.fill(keys, EMPTY);
+  }
+
+  private void rehash() {
+    final long[] oldKeys = keys;
+    final long[] oldValues = values;
+
+    allocate(oldKeys.length << 1);
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != EMPTY) {
+        final int index = indexOf(oldKeys[i], keys);
+        keys[index] = oldKeys[i];
+        values[index] = oldValues[i];
+      }
+    }
+  }
+
+  /**
+   * @return slot which contains the key or empty slot where the key should be placed
+   */
+  private static int indexOf(final long key, final long[] keys) {
+    final int mask = keys.length - 1;
+    int index = hash(key) & mask;
+    while (keys[index] != EMPTY && keys[index] != key)
+      index = (index + 1) & mask;
+
+    return index;
+  }
+
+  private static int hash(long key) {
+    key ^= key >>> 33;
+    key *= 0xff51afd7ed558ccdL;
+    key ^= key >>> 33;
+    return (int) key;
+  }
+
+  /**
+   * Cluster id takes the highest 16 bits, the rest is taken by the cluster position including its sign, so temporary RIDs of the
+   * records created in the current transaction are supported too. {@link #EMPTY} can not be a valid RID because cluster id of such
+   * RID would be -32768.
+   */
+  static long pack(final ORID rid) {
+    return ((long) (rid.getClusterId() & 0xFFFF) << 48) | (rid.getClusterPosition() & 0xFFFFFFFFFFFFL);
+  }
+
+  static ORID unpack(final long packed) {
+    return new ORecordId((short) (packed >>> 48), (packed << 16) >> 16);
+  }
+}
@@ -23,8 +23,12 @@ import java.util.*;
  * @author Luca Garulli (l.garulli--(at)--orientdb.com)
  */
 public class OSQLFunctionShortestPath extends OSQLFunctionMathAbstract {
-  public static final String NAME            = "shortestPath";
-  public static final String PARAM_MAX_DEPTH = "maxDepth";
+  public static final String NAME              = "shortestPath";
+  public static final String PARAM_MAX_DEPTH   = "maxDepth";
+  /**
+   * Maximum amount of vertices visited from both sides, the search stops without a result when the budget is exhausted.
+   */
+  public static final String PARAM_MAX_VISITED = "maxVisited";
 
   protected static final float DISTANCE = 1f;
 
@@ -53,6 +57,7 @@ public class OSQLFunctionShortestPath extends OSQLFunctionMathAbstract {
     OVertex current;
     OVertex currentRight;
     public Integer maxDepth;
+    public Integer maxVisited;
     /**
      * option that decides whether or not to return the edge information
      */
@@ -131,6 +136,12 @@ public class OSQLFunctionShortestPath extends OSQLFunctionMathAbstract {
       bindAdditionalParams(iParams[4], ctx);
     }
 
+    if (!Boolean.TRUE.equals(ctx.edge)) {
+      // ONLY VERTICES ARE RETURNED, SO THE SEARCH CAN BE DONE ON RIDS WITHOUT LOADING ALL THE VISITED VERTICES
+      return new OShortestPathRidSearch(ctx.directionLeft, ctx.directionRight, ctx.edgeType, ctx.maxDepth, ctx.maxVisited)
+          .search(ctx.sourceVertex.getIdentity(), ctx.destinationVertex.getIdentity(), iContext);
+    }
+
     ctx.queueLeft.add(ctx.sourceVertex);
     ctx.leftVisited.add(ctx.sourceVertex.getIdentity());
 
@@ -207,7 +218,8 @@ public class OSQLFunctionShortestPath extends OSQLFunctionMathAbstract {
       mapParams = ((ODocument) ((OIdentifiable) additionalParams).getRecord()).toMap();
     }
     if (mapParams != null) {
-      ctx.maxDepth = integer(mapParams.get("maxDepth"));
+      ctx.maxDepth = integer(mapParams.get(PARAM_MAX_DEPTH));
+      ctx.maxVisited = integer(mapParams.get(PARAM_MAX_VISITED));
       Boolean withEdge = toBoolean(mapParams.get("edge"));
       ctx.edge = Boolean.TRUE.equals(withEdge) ? Boolean.TRUE : Boolean.FALSE;
     }
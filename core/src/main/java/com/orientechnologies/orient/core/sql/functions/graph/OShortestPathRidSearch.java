@@ -0,0 +1,320 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.sql.functions.graph;
+
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.command.OCommandExecutorAbstract;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.db.record.ORecordLazyMultiValue;
+import com.orientechnologies.orient.core.db.record.ridbag.ORidBag;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.metadata.OMetadataInternal;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OSchema;
+import com.orientechnologies.orient.core.record.ODirection;
+import com.orientechnologies.orient.core.record.OEdge;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.record.impl.ODocumentInternal;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bidirectional breadth first search of the shortest path which works with identities of the records only. Neighbors are read
+ * from the ridbags of the vertices which are expanded, so vertices of the last frontier, which is usually the biggest one, are
+ * never loaded. Only records of the not lightweight edges are loaded to find their opposite vertices.
+ *
+ * @see OSQLFunctionShortestPath
+ */
+class OShortestPathRidSearch {
+  private static final String CONNECTION_OUT_PREFIX = "out_";
+  private static final String CONNECTION_IN_PREFIX  = "in_";
+
+  private final ODirection directionLeft;
+  private final ODirection directionRight;
+  private final String[]   labels;
+  private final Integer    maxDepth;
+  private final Integer    maxVisited;
+  private final OSchema    schema;
+
+  private ArrayDeque<ORID> queueLeft  = new ArrayDeque<>();
+  private ArrayDeque<ORID> queueRight = new ArrayDeque<>();
+
+  private final OCompactRIDMap previouses = new OCompactRIDMap();
+  private final OCompactRIDMap nexts      = new OCompactRIDMap();
+
+  OShortestPathRidSearch(final ODirection directionLeft, final ODirection directionRight, final String edgeType,
+      final Integer maxDepth, final Integer maxVisited) {
+    this.directionLeft = directionLeft;
+    this.directionRight = directionRight;
+    this.labels = edgeType == null || edgeType.equalsIgnoreCase("E") ? null : new String[] { edgeType };
+    this.maxDepth = maxDepth;
+    this.maxVisited = maxVisited;
+
+    final ODatabaseDocumentInternal db = ODatabaseRecordThreadLocal.instance().get();
+    this.schema = ((OMetadataInternal) db.getMetadata()).getImmutableSchemaSnapshot();
+  }
+
+  List<ORID> search(final ORID source, final ORID destination, final OCommandContext context) {
+    final long start = System.nanoTime();
+    try {
+      return walk(source, destination, context);
+    } finally {
+      if (context != null && context.isRecordingMetrics()) {
+        context.updateMetric("shortestPathTime", (System.nanoTime() - start) / 1000000);
+        context.updateMetric("shortestPathVisited", previouses.size() + nexts.size());
+      }
+    }
+  }
+
+  private List<ORID> walk(final ORID source, final ORID destination, final OCommandContext context) {
+    queueLeft.add(source);
+    previouses.putIfAbsent(source, null);
+
+    queueRight.add(destination);
+    nexts.putIfAbsent(destination, null);
+
+    int depth = 1;
+    while (true) {
+      if (maxDepth != null && maxDepth <= depth)
+        break;
+
+      if (queueLeft.isEmpty() || queueRight.isEmpty())
+        break;
+
+      if (Thread.interrupted())
+        throw new OCommandExecutionException("The shortestPath() function has been interrupted");
+
+      if (!OCommandExecutorAbstract.checkInterruption(context))
+        break;
+
+      ORID meeting;
+      if (queueLeft.size() <= queueRight.size()) {
+        // START EVALUATING FROM LEFT
+        meeting = walkLeft();
+        if (meeting != null)
+          return computePath(meeting);
+
+        depth++;
+        if (maxDepth != null && maxDepth <= depth)
+          break;
+
+        if (queueLeft.isEmpty() || isOverBudget())
+          break;
+
+        meeting = walkRight();
+        if (meeting != null)
+          return computePath(meeting);
+      } else {
+        // START EVALUATING FROM RIGHT
+        meeting = walkRight();
+        if (meeting != null)
+          return computePath(meeting);
+
+        depth++;
+        if (maxDepth != null && maxDepth <= depth)
+          break;
+
+        if (queueRight.isEmpty() || isOverBudget())
+          break;
+
+        meeting = walkLeft();
+        if (meeting != null)
+          return computePath(meeting);
+      }
+
+      if (isOverBudget())
+        break;
+
+      depth++;
+    }
+
+    return new ArrayList<>();
+  }
+
+  private boolean isOverBudget() {
+    return maxVisited != null && previouses.size() + nexts.size() > maxVisited;
+  }
+
+  /**
+   * @return vertex where both searches met or <code>null</code> if they did not meet yet
+   */
+  private ORID walkLeft() {
+    final ArrayDeque<ORID> nextLevelQueue = new ArrayDeque<>();
+    while (!queueLeft.isEmpty()) {
+      final ORID current = queueLeft.poll();
+      final ORID meeting = expand(current, directionLeft, previouses, nexts, nextLevelQueue);
+      if (meeting != null)
+        return meeting;
+    }
+
+    queueLeft = nextLevelQueue;
+    return null;
+  }
+
+  private ORID walkRight() {
+    final ArrayDeque<ORID> nextLevelQueue = new ArrayDeque<>();
+    while (!queueRight.isEmpty()) {
+      final ORID current = queueRight.poll();
+      final ORID meeting = expand(current, directionRight, nexts, previouses, nextLevelQueue);
+      if (meeting != null)
+        return meeting;
+    }
+
+    queueRight = nextLevelQueue;
+    return null;
+  }
+
+  private ORID expand(final ORID current, final ODirection direction, final OCompactRIDMap visited,
+      final OCompactRIDMap otherSideVisited, final ArrayDeque<ORID> nextLevelQueue) {
+    final ORecord record = current.getRecord();
+    if (!(record instanceof ODocument))
+      return null;
+
+    final ODocument vertex = (ODocument) record;
+    if (direction == ODirection.BOTH) {
+      final ORID meeting = expand(current, vertex, ODirection.OUT, visited, otherSideVisited, nextLevelQueue);
+      if (meeting != null)
+        return meeting;
+
+      return expand(current, vertex, ODirection.IN, visited, otherSideVisited, nextLevelQueue);
+    }
+
+    return expand(current, vertex, direction, visited, otherSideVisited, nextLevelQueue);
+  }
+
+  private ORID expand(final ORID current, final ODocument vertex, final ODirection direction, final OCompactRIDMap visited,
+      final OCompactRIDMap otherSideVisited, final ArrayDeque<ORID> nextLevelQueue) {
+    final String prefix = direction == ODirection.OUT ? CONNECTION_OUT_PREFIX : CONNECTION_IN_PREFIX;
+    final Set<String> connectionFields = getConnectionFields(prefix);
+
+    for (String fieldName : vertex.fieldNames()) {
+      if (!fieldName.startsWith(prefix) || (connectionFields != null && !connectionFields.contains(fieldName)))
+        continue;
+
+      final Iterator<?> links = links(vertex.rawField(fieldName));
+      while (links.hasNext()) {
+        final Object link = links.next();
+        if (!(link instanceof OIdentifiable))
+          continue;
+
+        final ORID neighbor = getOppositeVertex(((OIdentifiable) link).getIdentity(), direction);
+        if (neighbor == null)
+          continue;
+
+        if (otherSideVisited.contains(neighbor)) {
+          visited.putIfAbsent(neighbor, current);
+          return neighbor;
+        }
+
+        if (visited.putIfAbsent(neighbor, current))
+          nextLevelQueue.offer(neighbor);
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * @return names of the fields which contain edges of requested types or <code>null</code> if all edges are requested
+   */
+  private Set<String> getConnectionFields(final String prefix) {
+    if (labels == null)
+      return null;
+
+    final Set<String> fields = new LinkedHashSet<>();
+    for (String label : labels) {
+      fields.add(prefix + label);
+
+      final OClass type = schema.getClass(label);
+      if (type != null) {
+        for (OClass subType : type.getAllSubclasses())
+          fields.add(prefix + subType.getName());
+      }
+    }
+    return fields;
+  }
+
+  private static Iterator<?> links(final Object fieldValue) {
+    if (fieldValue instanceof OIdentifiable)
+      return Collections.singleton(fieldValue).iterator();
+
+    if (fieldValue instanceof ORidBag)
+      return ((ORidBag) fieldValue).rawIterator();
+
+    if (fieldValue instanceof ORecordLazyMultiValue)
+      return ((ORecordLazyMultiValue) fieldValue).rawIterator();
+
+    if (fieldValue instanceof Collection<?>)
+      return ((Collection<?>) fieldValue).iterator();
+
+    return Collections.emptyIterator();
+  }
+
+  /**
+   * @param link content of the ridbag, RID of the edge or RID of the vertex itself in case of lightweight edge
+   */
+  private ORID getOppositeVertex(final ORID link, final ODirection direction) {
+    final OClass linkClass = schema.getClassByClusterId(link.getClusterId());
+    if (linkClass != null && linkClass.isVertexType())
+      // LIGHTWEIGHT EDGE, CLUSTER TELLS THE TYPE WITHOUT LOADING THE VERTEX
+      return link;
+
+    final ORecord record = link.getRecord();
+    if (!(record instanceof ODocument))
+      return null;
+
+    final ODocument document = (ODocument) record;
+    final OClass documentClass = ODocumentInternal.getImmutableSchemaClass(document);
+    if (documentClass != null && documentClass.isVertexType())
+      return link;
+
+    final Object vertex = document.rawField(direction == ODirection.OUT ? OEdge.DIRECITON_IN : OEdge.DIRECITON_OUT);
+    return vertex instanceof OIdentifiable ? ((OIdentifiable) vertex).getIdentity() : null;
+  }
+
+  private List<ORID> computePath(final ORID meeting) {
+    final List<ORID> result = new ArrayList<>();
+
+    ORID current = meeting;
+    while (current != null) {
+      result.add(0, current);
+      current = previouses.get(current);
+    }
+
+    current = nexts.get(meeting);
+    while (current != null) {
+      result.add(current);
+      current = nexts.get(current);
+    }
+
+    return result;
+  }
+}
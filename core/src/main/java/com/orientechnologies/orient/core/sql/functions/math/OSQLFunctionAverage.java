@@ -100,10 +100,14 @@ public class OSQLFunctionAverage extends OSQLFunctionMathAbstract {
       int dTotal = 0;
       for (Object iParameter : resultsToMerge) {
         final Map<String, Object> item = (Map<String, Object>) iParameter;
+        final Number itemSum = (Number) item.get("sum");
+        if (itemSum == null)
+          // NO VALUES ON THIS NODE
+          continue;
         if (dSum == null)
-          dSum = (Number) item.get("sum");
+          dSum = itemSum;
         else
-          dSum = OType.increment(dSum, (Number) item.get("sum"));
+          dSum = OType.increment(dSum, itemSum);
 
         dTotal += (Integer) item.get("total");
       }
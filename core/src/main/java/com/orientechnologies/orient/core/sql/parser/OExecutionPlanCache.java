@@ -1,5 +1,6 @@
 package com.orientechnologies.orient.core.sql.parser;
 
+import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
 import com.orientechnologies.orient.core.command.OBasicCommandContext;
 import com.orientechnologies.orient.core.command.OCommandContext;
 import com.orientechnologies.orient.core.config.OStorageConfiguration;
@@ -12,32 +13,29 @@ import com.orientechnologies.orient.core.metadata.schema.OSchemaShared;
 import com.orientechnologies.orient.core.sql.executor.OExecutionPlan;
 import com.orientechnologies.orient.core.sql.executor.OInternalExecutionPlan;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
-
 /**
  * This class is an LRU cache for already prepared SQL execution plans. It stores itself in the storage as a resource. It also acts
  * an an entry point for the SQL executor.
+ * <p>
+ * Lookups don't take any lock, the LRU order is updated in batches by the concurrent map, so under concurrent access the
+ * eviction order is approximate. Invalidations don't block planning either: a plan is cached only if no invalidation happened
+ * after its planning started, see {@link #put(String, OExecutionPlan, long, ODatabaseDocumentInternal)}.
  *
  * @author Luigi Dell'Aquila (l.dellaquila-(at)-orientdb.com)
  */
 public class OExecutionPlanCache implements OMetadataUpdateListener {
 
-  Map<String, OInternalExecutionPlan> map;
-  int                                 mapSize;
+  ConcurrentLinkedHashMap<String, OInternalExecutionPlan> map;
+  int                                                     mapSize;
 
-  protected long lastInvalidation = -1;
+  protected volatile long lastInvalidation = -1;
 
   /**
    * @param size the size of the cache
    */
   public OExecutionPlanCache(int size) {
     this.mapSize = size;
-    map = new LinkedHashMap<String, OInternalExecutionPlan>(size) {
-      protected boolean removeEldestEntry(final Map.Entry<String, OInternalExecutionPlan> eldest) {
-        return super.size() > mapSize;
-      }
-    };
+    map = new ConcurrentLinkedHashMap.Builder<String, OInternalExecutionPlan>().maximumWeightedCapacity(size).build();
   }
 
   public static long getLastInvalidation(ODatabaseDocumentInternal db) {
@@ -46,9 +44,7 @@ public class OExecutionPlanCache implements OMetadataUpdateListener {
     }
 
     OExecutionPlanCache resource = db.getSharedContext().getExecutionPlanCache();
-    synchronized (resource) {
-      return resource.lastInvalidation;
-    }
+    return resource.lastInvalidation;
   }
 
   /**
@@ -57,9 +53,7 @@ public class OExecutionPlanCache implements OMetadataUpdateListener {
    * @return true if the corresponding executor is present in the cache
    */
   public boolean contains(String statement) {
-    synchronized (map) {
-      return map.containsKey(statement);
-    }
+    return map.containsKey(statement);
   }
 
   /**
@@ -90,18 +84,41 @@ public class OExecutionPlanCache implements OMetadataUpdateListener {
     resource.putInternal(statement, plan, db);
   }
 
-  public void putInternal(String statement, OExecutionPlan plan, ODatabaseDocument db) {
-    synchronized (map) {
-      OInternalExecutionPlan internal = (OInternalExecutionPlan) plan;
-      OBasicCommandContext ctx = new OBasicCommandContext();
-      ctx.setDatabase(db);
-      internal = internal.copy(ctx);
-      //this copy is never used, so it has to be closed to free resources
-      internal.close();
-      map.put(statement, internal);
+  /**
+   * caches an execution plan, unless the cache was invalidated after the planning started
+   *
+   * @param statement     the SQL statement
+   * @param plan          the execution plan
+   * @param planningStart the time the planning started, as returned by {@link System#currentTimeMillis()}
+   * @param db            the current DB instance
+   */
+  public static void put(String statement, OExecutionPlan plan, long planningStart, ODatabaseDocumentInternal db) {
+    if (db == null) {
+      throw new IllegalArgumentException("DB cannot be null");
+    }
+
+    OExecutionPlanCache resource = db.getSharedContext().getExecutionPlanCache();
+    if (resource.lastInvalidation >= planningStart) {
+      return;
+    }
+    OInternalExecutionPlan cached = resource.putInternal(statement, plan, db);
+    // AN INVALIDATION SETS THE TIMESTAMP BEFORE CLEARING THE MAP, SO EITHER IT REMOVED THE PLAN OR IT IS VISIBLE HERE
+    if (resource.lastInvalidation >= planningStart) {
+      resource.map.remove(statement, cached);
     }
   }
 
+  public OInternalExecutionPlan putInternal(String statement, OExecutionPlan plan, ODatabaseDocument db) {
+    OInternalExecutionPlan internal = (OInternalExecutionPlan) plan;
+    OBasicCommandContext ctx = new OBasicCommandContext();
+    ctx.setDatabase(db);
+    internal = internal.copy(ctx);
+    //this copy is never used, so it has to be closed to free resources
+    internal.close();
+    map.put(statement, internal);
+    return internal;
+  }
+
   /**
    * @param statement an SQL statement
    * @param ctx
@@ -109,26 +126,18 @@ public class OExecutionPlanCache implements OMetadataUpdateListener {
    * @return the corresponding executor, taking it from the internal cache, if it exists
    */
   public OExecutionPlan getInternal(String statement, OCommandContext ctx, ODatabaseDocumentInternal db) {
-    OInternalExecutionPlan result;
-    synchronized (map) {
-      //LRU
-      result = map.remove(statement);
-      if (result != null) {
-        map.put(statement, result);
-        result = result.copy(ctx);
-      }
+    OInternalExecutionPlan result = map.get(statement);
+    if (result != null) {
+      // CACHED PLANS ARE NEVER EXECUTED, SO THEY CAN BE COPIED CONCURRENTLY
+      result = result.copy(ctx);
     }
 
     return result;
   }
 
   public void invalidate() {
-    synchronized (this) {
-      synchronized (map) {
-        map.clear();
-      }
-      lastInvalidation = System.currentTimeMillis();
-    }
+    lastInvalidation = System.currentTimeMillis();
+    map.clear();
   }
 
   @Override
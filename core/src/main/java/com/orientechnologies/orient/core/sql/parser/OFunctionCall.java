@@ -7,6 +7,8 @@ import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.exception.OCommandSQLParsingException;
+import com.orientechnologies.orient.core.metadata.function.ODatabaseFunction;
 import com.orientechnologies.orient.core.sql.OSQLEngine;
 import com.orientechnologies.orient.core.sql.executor.AggregationContext;
 import com.orientechnologies.orient.core.sql.executor.OFuncitonAggregationContext;
@@ -472,6 +474,28 @@ public class OFunctionCall extends SimpleNode {
     return false;//TODO
   }
 
+  /**
+   * @return true if the function returns the same value when it is invoked again with the same parameters on the same records, so
+   * the result of a query that invokes it can be kept in the query result cache (aggregate functions included). Stored functions
+   * can run any code, so they are never considered deterministic
+   */
+  public boolean isDeterministic() {
+    String string = name.getStringValue();
+    if (string.equalsIgnoreCase("sysdate") || string.equalsIgnoreCase("uuid") || string.equalsIgnoreCase("sequence")
+        || string.equalsIgnoreCase("indexKeySize") || string.equalsIgnoreCase("math_random")) {
+      return false;
+    }
+    if (string.equalsIgnoreCase("date") && params.isEmpty()) {
+      // current date
+      return false;
+    }
+    try {
+      return !(OSQLEngine.getInstance().getFunction(string) instanceof ODatabaseFunction);
+    } catch (OCommandSQLParsingException e) {
+      return false;
+    }
+  }
+
   private boolean isGraphFunction() {
     String string = name.getStringValue();
     if (string.equalsIgnoreCase("out")) {
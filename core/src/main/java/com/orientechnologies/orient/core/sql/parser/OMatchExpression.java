@@ -77,5 +77,17 @@ public class OMatchExpression extends SimpleNode {
   public void setItems(List<OMatchPathItem> items) {
     this.items = items;
   }
+
+  public boolean isCacheable() {
+    if (origin != null && !origin.isCacheable()) {
+      return false;
+    }
+    for (OMatchPathItem item : items) {
+      if (!item.isCacheable()) {
+        return false;
+      }
+    }
+    return true;
+  }
 }
 /* JavaCC - OriginalChecksum=73491fb653c32baf66997290db29f370 (do not edit this line) */
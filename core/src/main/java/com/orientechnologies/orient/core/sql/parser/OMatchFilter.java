@@ -205,5 +205,13 @@ public class OMatchFilter extends SimpleNode {
     return items != null ? items.hashCode() : 0;
   }
 
+  public boolean isCacheable() {
+    for (OMatchFilterItem item : items) {
+      if (!item.isCacheable()) {
+        return false;
+      }
+    }
+    return true;
+  }
 }
 /* JavaCC - OriginalChecksum=6b099371c69e0d0c1c106fc96b3072de (do not edit this line) */
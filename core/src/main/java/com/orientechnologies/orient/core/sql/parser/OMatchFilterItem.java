@@ -179,5 +179,18 @@ public class OMatchFilterItem extends SimpleNode {
     result = 31 * result + (pathAlias != null ? pathAlias.hashCode() : 0);
     return result;
   }
+
+  public boolean isCacheable() {
+    if (className != null && !className.isCacheable()) {
+      return false;
+    }
+    if (classNames != null && !classNames.isCacheable()) {
+      return false;
+    }
+    if (filter != null && !filter.isCacheable()) {
+      return false;
+    }
+    return whileCondition == null || whileCondition.isCacheable();
+  }
 }
 /* JavaCC - OriginalChecksum=74bf4765509f102180cac29f2295031e (do not edit this line) */
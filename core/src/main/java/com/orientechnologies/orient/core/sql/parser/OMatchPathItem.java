@@ -196,5 +196,13 @@ public class OMatchPathItem extends SimpleNode {
   public void setFilter(OMatchFilter filter) {
     this.filter = filter;
   }
+
+  public boolean isCacheable() {
+    OMethodCall method = getMethod();
+    if (method != null && !method.isCacheable()) {
+      return false;
+    }
+    return filter == null || filter.isCacheable();
+  }
 }
 /* JavaCC - OriginalChecksum=ffe8e0ffde583d7b21c9084eff6a8944 (do not edit this line) */
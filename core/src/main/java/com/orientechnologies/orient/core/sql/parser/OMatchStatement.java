@@ -1346,6 +1346,11 @@ public class OMatchStatement extends OStatement implements OCommandExecutor, OIt
     return false;
   }
 
+  @Override
+  public boolean resultCanBeCached() {
+    return isResultCacheable();
+  }
+
   @Override
   public long getDistributedTimeout() {
     return -1;
@@ -97,5 +97,18 @@ public class OMultiMatchPathItem extends OMatchPathItem {
   public void setItems(List<OMatchPathItem> items) {
     this.items = items;
   }
+
+  @Override
+  public boolean isCacheable() {
+    if (!super.isCacheable()) {
+      return false;
+    }
+    for (OMatchPathItem item : items) {
+      if (!item.isCacheable()) {
+        return false;
+      }
+    }
+    return true;
+  }
 }
 /* JavaCC - OriginalChecksum=f18f107768de80b8941f166d7fafb3c0 (do not edit this line) */
@@ -248,6 +248,11 @@ public class OSelectStatement extends OStatement {
     return true;
   }
 
+  @Override
+  public boolean resultCanBeCached() {
+    return isResultCacheable();
+  }
+
   @Override
   public OResultSet execute(ODatabase db, Object[] args, OCommandContext parentCtx) {
     OBasicCommandContext ctx = new OBasicCommandContext();
@@ -425,6 +430,10 @@ public class OSelectStatement extends OStatement {
     this.timeout = timeout;
   }
 
+  public Boolean getParallel() {
+    return parallel;
+  }
+
   public void setParallel(Boolean parallel) {
     this.parallel = parallel;
   }
@@ -137,6 +137,44 @@ public class OStatement extends SimpleNode {
     return false;
   }
 
+  /**
+   * @return true if the result of this statement depends only on the records it reads and on the input parameters, so it can be
+   * kept in the query result cache
+   */
+  public boolean resultCanBeCached() {
+    return false;
+  }
+
+  /**
+   * Checks the parsed tree of the statement for what prevents caching its result: calls to functions that are not deterministic
+   * (see {@link OFunctionCall#isDeterministic()}) and targets passed as input parameters, that are not part of the statement the
+   * cache uses to find the classes and clusters a result depends on. Unlike {@link #executinPlanCanBeCached()}, deterministic
+   * function calls and expressions that are evaluated again on each execution are allowed.
+   *
+   * @return false also if the statement was not created by the parser
+   */
+  protected boolean isResultCacheable() {
+    return jjtGetNumChildren() > 0 && isResultCacheable(this);
+  }
+
+  private static boolean isResultCacheable(Node node) {
+    if (node instanceof OFunctionCall && !((OFunctionCall) node).isDeterministic()) {
+      return false;
+    }
+    if (node instanceof OFromItem) {
+      OFromItem item = (OFromItem) node;
+      if (item.getInputParam() != null || (item.getInputParams() != null && !item.getInputParams().isEmpty())) {
+        return false;
+      }
+    }
+    for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+      if (!isResultCacheable(node.jjtGetChild(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   public String getOriginalStatement() {
     return originalStatement;
   }
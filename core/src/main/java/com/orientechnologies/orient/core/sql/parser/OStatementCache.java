@@ -1,5 +1,6 @@
 package com.orientechnologies.orient.core.sql.parser;
 
+import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
 import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
@@ -8,30 +9,27 @@ import com.orientechnologies.orient.core.sql.OCommandSQLParsingException;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
-import java.util.LinkedHashMap;
-import java.util.Map;
 
 /**
  * This class is an LRU cache for already parsed SQL statement executors. It stores itself in the storage as a resource. It also
  * acts an an entry point for the SQL parser.
+ * <p>
+ * Lookups don't take any lock, the LRU order is updated in batches by the concurrent map, so under concurrent access the
+ * eviction order is approximate.
  *
  * @author Luigi Dell'Aquila (l.dellaquila-(at)-orientdb.com)
  */
 public class OStatementCache {
 
-  Map<String, OStatement> map;
-  int                     mapSize;
+  ConcurrentLinkedHashMap<String, OStatement> map;
+  int                                         mapSize;
 
   /**
    * @param size the size of the cache
    */
   public OStatementCache(int size) {
     this.mapSize = size;
-    map = new LinkedHashMap<String, OStatement>(size) {
-      protected boolean removeEldestEntry(final Map.Entry<String, OStatement> eldest) {
-        return super.size() > mapSize;
-      }
-    };
+    map = new ConcurrentLinkedHashMap.Builder<String, OStatement>().maximumWeightedCapacity(size).build();
   }
 
   /**
@@ -40,9 +38,7 @@ public class OStatementCache {
    * @return true if the corresponding executor is present in the cache
    */
   public boolean contains(String statement) {
-    synchronized (map) {
-      return map.containsKey(statement);
-    }
+    return map.containsKey(statement);
   }
 
   /**
@@ -69,19 +65,10 @@ public class OStatementCache {
    * @return the corresponding executor, taking it from the internal cache, if it exists
    */
   public OStatement get(String statement) {
-    OStatement result;
-    synchronized (map) {
-      //LRU
-      result = map.remove(statement);
-      if (result != null) {
-        map.put(statement, result);
-      }
-    }
+    OStatement result = map.get(statement);
     if (result == null) {
       result = parse(statement);
-      synchronized (map) {
-        map.put(statement, result);
-      }
+      map.put(statement, result);
     }
     return result;
   }
@@ -145,8 +132,6 @@ public class OStatementCache {
   }
 
   public void clear() {
-    synchronized (map) {
-      map.clear();
-    }
+    map.clear();
   }
 }
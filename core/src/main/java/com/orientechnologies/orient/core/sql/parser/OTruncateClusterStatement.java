@@ -9,6 +9,7 @@ import com.orientechnologies.orient.core.exception.ODatabaseException;
 import com.orientechnologies.orient.core.metadata.schema.OClass;
 import com.orientechnologies.orient.core.metadata.schema.OSchema;
 import com.orientechnologies.orient.core.sql.executor.OInternalResultSet;
+import com.orientechnologies.orient.core.sql.executor.OQueryResultCache;
 import com.orientechnologies.orient.core.sql.executor.OResultInternal;
 import com.orientechnologies.orient.core.sql.executor.OResultSet;
 import com.orientechnologies.orient.core.storage.OStorage;
@@ -61,6 +62,7 @@ public class OTruncateClusterStatement extends ODDLStatement {
       } catch (IOException ioe) {
         throw OException.wrapException(new ODatabaseException("Error during truncation of cluster with name " + clusterName), ioe);
       }
+      OQueryResultCache.invalidateCluster(database, clusterId);
     } else {
       String name = database.getClusterNameById(clusterId);
       clazz.truncateCluster(name);
@@ -80,6 +80,30 @@ public interface OReadCache {
 
   long getUsedMemory();
 
+  /**
+   * Changes amount of memory which may be used by given cache.
+   *
+   * @param readCacheMaxMemory New maximum size of cache in bytes.
+   *
+   * @throws IllegalStateException In case of new size of disk cache is too small to hold existing pinned pages.
+   */
+  void changeMaximumAmountOfMemory(long readCacheMaxMemory) throws IllegalStateException;
+
+  /**
+   * @return Amount of pages which were loaded by reads under {@link OScanAccessHint} and were not put into the main queues.
+   */
+  long getScanBypassedPages();
+
+  /**
+   * @return Amount of reads under {@link OScanAccessHint} which were served by pages loaded by other such reads.
+   */
+  long getScanBufferHits();
+
+  /**
+   * @return Amount of reads under {@link OScanAccessHint} which were served by pages of the main queues.
+   */
+  long getScanCacheHits();
+
   void clear();
 
   void truncateFile(long fileId, OWriteCache writeCache) throws IOException;
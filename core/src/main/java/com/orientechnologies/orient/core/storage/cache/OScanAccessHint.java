@@ -0,0 +1,69 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+
+package com.orientechnologies.orient.core.storage.cache;
+
+/**
+ * Hint for the read cache that pages are read by a bulk operation, like export of the database, check of the indexes or update
+ * of all the records of a class, which reads most of the pages only once. While the hint is active for the current thread, pages
+ * which are absent in the read cache are loaded into a small separate buffer instead of the main queues of the cache, so bulk
+ * operations do not evict pages used by the rest of the workload. Pages which are already cached are served as usual.
+ * <p>
+ * Hint is bound to the current thread, not to the session or to the command: it covers pages read by this thread between the
+ * calls of {@link #begin()} and {@link #end()}, so result sets which are fetched after {@link #end()} are not covered. UPDATE and
+ * DELETE statements which read all the records of a class or of a cluster activate it by themselves, parallel scans pass it to
+ * their worker threads. Any other code activates it explicitly, scopes can be nested:
+ * <pre>
+ *   OScanAccessHint.begin();
+ *   try {
+ *     ...
+ *   } finally {
+ *     OScanAccessHint.end();
+ *   }
+ * </pre>
+ *
+ * @see com.orientechnologies.orient.core.config.OGlobalConfiguration#DISK_CACHE_SCAN_BUFFER_SIZE
+ */
+public final class OScanAccessHint {
+  private static final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+
+  private OScanAccessHint() {
+  }
+
+  /**
+   * Activates the hint for the current thread till the matching call of {@link #end()}.
+   */
+  public static void begin() {
+    depth.get()[0]++;
+  }
+
+  public static void end() {
+    final int[] counter = depth.get();
+    if (counter[0] > 0)
+      counter[0]--;
+  }
+
+  /**
+   * @return <code>true</code> if the pages are read by a bulk operation in the current thread.
+   */
+  public static boolean isActive() {
+    return depth.get()[0] > 0;
+  }
+}
@@ -46,8 +46,10 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
+import java.util.function.BooleanSupplier;
 
 /**
  * @author Andrey Lomakin (a.lomakin-at-orientdb.com)
@@ -113,6 +115,22 @@ public class O2QCache implements OReadCache {
 
   private final AtomicBoolean coldPagesRemovalInProgress = new AtomicBoolean();
 
+  /**
+   * Reads ahead pages of the files which are read sequentially, <code>null</code> if read ahead is disabled.
+   */
+  private final OReadAheadController readAhead;
+
+  /**
+   * Pages loaded by reads under {@link OScanAccessHint}. They are kept apart from 2Q queues, are not accounted in 2Q memory limits
+   * and are evicted in the order they were loaded once size of this queue exceeds {@link #scanBufferSize}.
+   */
+  private final LRUList scanBuffer = new ConcurrentLRUList();
+  private final int     scanBufferSize;
+
+  private final AtomicLong scanBypassedPages = new AtomicLong();
+  private final AtomicLong scanBufferHits    = new AtomicLong();
+  private final AtomicLong scanCacheHits     = new AtomicLong();
+
   /**
    * @param readCacheMaxMemory   Maximum amount of direct memory which can allocated by disk cache in bytes.
    * @param pageSize             Cache page size in bytes.
@@ -122,6 +140,24 @@ public class O2QCache implements OReadCache {
    * @see #MAX_PERCENT_OF_PINED_PAGES
    */
   public O2QCache(final long readCacheMaxMemory, final int pageSize, final boolean checkMinSize, final int percentOfPinnedPages) {
+    this(readCacheMaxMemory, pageSize, checkMinSize, percentOfPinnedPages, 0, 0);
+  }
+
+  /**
+   * @param readCacheMaxMemory   Maximum amount of direct memory which can allocated by disk cache in bytes.
+   * @param pageSize             Cache page size in bytes.
+   * @param checkMinSize         If this flat is set size of cache may be {@link #MIN_CACHE_SIZE} or bigger.
+   * @param percentOfPinnedPages Maximum percent of pinned pages which may be hold by this cache.
+   * @param readAheadMaxPages    Maximum amount of pages which are read ahead at once when file is read sequentially, 0 disables
+   *                             read ahead.
+   * @param scanBufferSize       Maximum amount of pages loaded by reads under {@link OScanAccessHint} which are kept in the cache,
+   *                             0 means that such reads are not distinguished from other reads.
+   *
+   * @see #MAX_PERCENT_OF_PINED_PAGES
+   * @see OReadAheadController
+   */
+  public O2QCache(final long readCacheMaxMemory, final int pageSize, final boolean checkMinSize, final int percentOfPinnedPages,
+      final int readAheadMaxPages, final int scanBufferSize) {
     if (percentOfPinnedPages > MAX_PERCENT_OF_PINED_PAGES)
       throw new IllegalArgumentException(
           "Percent of pinned pages cannot be more than " + percentOfPinnedPages + " but passed value is " + percentOfPinnedPages);
@@ -148,6 +184,37 @@ public class O2QCache implements OReadCache {
     } finally {
       cacheLock.releaseWriteLock();
     }
+
+    readAhead = readAheadMaxPages > 0 ? new OReadAheadController(readAheadMaxPages, this::prefetch) : null;
+    this.scanBufferSize = scanBufferSize;
+  }
+
+  LRUList getScanBuffer() {
+    return scanBuffer;
+  }
+
+  /**
+   * @return Amount of pages which were loaded by reads under {@link OScanAccessHint} and were not put into the main queues.
+   */
+  @Override
+  public long getScanBypassedPages() {
+    return scanBypassedPages.get();
+  }
+
+  /**
+   * @return Amount of reads under {@link OScanAccessHint} which were served by pages loaded by other such reads.
+   */
+  @Override
+  public long getScanBufferHits() {
+    return scanBufferHits.get();
+  }
+
+  /**
+   * @return Amount of reads under {@link OScanAccessHint} which were served by pages of the main queues.
+   */
+  @Override
+  public long getScanCacheHits() {
+    return scanCacheHits.get();
   }
 
   LRUList getAm() {
@@ -199,7 +266,7 @@ public class O2QCache implements OReadCache {
   @Override
   public OCacheEntry loadForWrite(long fileId, long pageIndex, boolean checkPinnedPages, OWriteCache writeCache, int pageCount,
       boolean verifyChecksums) throws IOException {
-    final OCacheEntry cacheEntry = doLoad(fileId, pageIndex, checkPinnedPages, writeCache, pageCount, verifyChecksums);
+    final OCacheEntry cacheEntry = doLoad(fileId, pageIndex, checkPinnedPages, writeCache, pageCount, verifyChecksums, false);
 
     if (cacheEntry != null) {
       cacheEntry.acquireExclusiveLock();
@@ -286,7 +353,14 @@ public class O2QCache implements OReadCache {
   @Override
   public OCacheEntry loadForRead(long fileId, long pageIndex, boolean checkPinnedPages, OWriteCache writeCache, int pageCount,
       boolean verifyChecksums) throws IOException {
-    final OCacheEntry cacheEntry = doLoad(fileId, pageIndex, checkPinnedPages, writeCache, pageCount, verifyChecksums);
+    final boolean scan = OScanAccessHint.isActive();
+
+    if (readAhead != null)
+      readAhead.onRead(OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId), pageIndex, writeCache,
+          verifyChecksums, scan);
+
+    final OCacheEntry cacheEntry = doLoad(fileId, pageIndex, checkPinnedPages, writeCache, pageCount, verifyChecksums,
+        scan && scanBufferSize > 0);
 
     if (cacheEntry != null) {
       cacheEntry.acquireSharedLock();
@@ -384,6 +458,7 @@ public class O2QCache implements OReadCache {
    *
    * @throws IllegalStateException In case of new size of disk cache is too small to hold existing pinned pages.
    */
+  @Override
   public void changeMaximumAmountOfMemory(final long readCacheMaxMemory) throws IllegalStateException {
     MemoryData memoryData;
     MemoryData newMemoryData;
@@ -411,7 +486,7 @@ public class O2QCache implements OReadCache {
   }
 
   private OCacheEntry doLoad(long fileId, long pageIndex, boolean checkPinnedPages, OWriteCache writeCache, int pageCount,
-      boolean verifyChecksums) throws IOException {
+      boolean verifyChecksums, boolean scan) throws IOException {
     final OSessionStoragePerformanceStatistic sessionStoragePerformanceStatistic = writeCache.getPerformanceStatisticManager()
         .getSessionPerformanceStatistic();
 
@@ -423,13 +498,16 @@ public class O2QCache implements OReadCache {
       fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
 
       final UpdateCacheResult cacheResult = doLoad(fileId, pageIndex, checkPinnedPages, false, writeCache, pageCount,
-          sessionStoragePerformanceStatistic, verifyChecksums);
+          sessionStoragePerformanceStatistic, verifyChecksums, scan);
       if (cacheResult == null)
         return null;
 
       try {
         if (cacheResult.removeColdPages)
           removeColdestPagesIfNeeded();
+
+        if (scan && scanBuffer.size() > scanBufferSize)
+          removeScanPagesIfNeeded();
       } catch (RuntimeException e) {
         assert !cacheResult.cacheEntry.isDirty();
 
@@ -447,7 +525,7 @@ public class O2QCache implements OReadCache {
 
   private UpdateCacheResult doLoad(long fileId, long pageIndex, boolean checkPinnedPages, boolean addNewPages,
       OWriteCache writeCache, final int pageCount, final OSessionStoragePerformanceStatistic sessionStoragePerformanceStatistic,
-      boolean verifyChecksums) throws IOException {
+      boolean verifyChecksums, boolean scan) throws IOException {
 
     if (pageCount < 1)
       throw new IllegalArgumentException(
@@ -486,8 +564,9 @@ public class O2QCache implements OReadCache {
             cacheEntry = pinnedPages.get(new PinnedPage(fileId, pageIndex));
 
           if (cacheEntry == null) {
-            UpdateCacheResult cacheResult = updateCache(fileId, pageIndex, addNewPages, writeCache, pageCount, cacheHit,
-                verifyChecksums);
+            UpdateCacheResult cacheResult = scan ?
+                updateScanBuffer(fileId, pageIndex, addNewPages, writeCache, pageCount, cacheHit, verifyChecksums) :
+                updateCache(fileId, pageIndex, addNewPages, writeCache, pageCount, cacheHit, verifyChecksums);
             if (cacheResult == null)
               return null;
 
@@ -528,43 +607,33 @@ public class O2QCache implements OReadCache {
     try {
       fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
 
-      UpdateCacheResult cacheResult;
-
-      Lock fileLock;
-      cacheLock.acquireReadLock();
-      try {
-        fileLock = fileLockManager.acquireExclusiveLock(fileId);
-        try {
-          final long filledUpTo = writeCache.getFilledUpTo(fileId);
-          assert filledUpTo >= 0;
-          cacheResult = doLoad(fileId, filledUpTo, false, true, writeCache, 1, sessionStoragePerformanceStatistic, verifyChecksums);
-        } finally {
-          fileLock.unlock();
-        }
-      } finally {
-        cacheLock.releaseReadLock();
+      return doAllocateNewPage(fileId, -1, writeCache, verifyChecksums, sessionStoragePerformanceStatistic);
+    } finally {
+      if (sessionStoragePerformanceStatistic != null) {
+        sessionStoragePerformanceStatistic.stopPageReadFromCacheTimer();
       }
+    }
+  }
 
-      assert cacheResult != null;
-
-      try {
-        if (cacheResult.removeColdPages)
-          removeColdestPagesIfNeeded();
-      } catch (RuntimeException e) {
-        assert !cacheResult.cacheEntry.isDirty();
-
-        doRelease(cacheResult.cacheEntry);
-        throw e;
-      }
+  /**
+   * Adds page with given index to the end of the file. It is used by {@link OPartitioned2QCache} which keeps track of the file
+   * size itself, so the partition which holds the new page does not need to query the write cache.
+   *
+   * @param fileId    Id of the file, which is already checked for compatibility with the write cache.
+   * @param pageIndex Index of the page to allocate, it is the current size of the file in pages.
+   */
+  OCacheEntry allocatePage(long fileId, long pageIndex, OWriteCache writeCache, boolean verifyChecksums) throws IOException {
+    assert pageIndex >= 0;
 
-      final OCacheEntry cacheEntry = cacheResult.cacheEntry;
+    final OSessionStoragePerformanceStatistic sessionStoragePerformanceStatistic = writeCache.getPerformanceStatisticManager()
+        .getSessionPerformanceStatistic();
 
-      if (cacheEntry != null) {
-        cacheEntry.acquireExclusiveLock();
-        writeCache.updateDirtyPagesTable(cacheEntry.getCachePointer());
-      }
+    if (sessionStoragePerformanceStatistic != null) {
+      sessionStoragePerformanceStatistic.startPageReadFromCacheTimer();
+    }
 
-      return cacheResult.cacheEntry;
+    try {
+      return doAllocateNewPage(fileId, pageIndex, writeCache, verifyChecksums, sessionStoragePerformanceStatistic);
     } finally {
       if (sessionStoragePerformanceStatistic != null) {
         sessionStoragePerformanceStatistic.stopPageReadFromCacheTimer();
@@ -572,10 +641,58 @@ public class O2QCache implements OReadCache {
     }
   }
 
+  /**
+   * @param pageIndex Index of the page to allocate or <code>-1</code> if page should be added after the last page of the file.
+   */
+  private OCacheEntry doAllocateNewPage(long fileId, long pageIndex, OWriteCache writeCache, boolean verifyChecksums,
+      OSessionStoragePerformanceStatistic sessionStoragePerformanceStatistic) throws IOException {
+    UpdateCacheResult cacheResult;
+
+    Lock fileLock;
+    cacheLock.acquireReadLock();
+    try {
+      fileLock = fileLockManager.acquireExclusiveLock(fileId);
+      try {
+        final long filledUpTo = pageIndex < 0 ? writeCache.getFilledUpTo(fileId) : pageIndex;
+        assert filledUpTo >= 0;
+        cacheResult = doLoad(fileId, filledUpTo, false, true, writeCache, 1, sessionStoragePerformanceStatistic, verifyChecksums,
+            false);
+      } finally {
+        fileLock.unlock();
+      }
+    } finally {
+      cacheLock.releaseReadLock();
+    }
+
+    assert cacheResult != null;
+
+    try {
+      if (cacheResult.removeColdPages)
+        removeColdestPagesIfNeeded();
+    } catch (RuntimeException e) {
+      assert !cacheResult.cacheEntry.isDirty();
+
+      doRelease(cacheResult.cacheEntry);
+      throw e;
+    }
+
+    final OCacheEntry cacheEntry = cacheResult.cacheEntry;
+
+    if (cacheEntry != null) {
+      cacheEntry.acquireExclusiveLock();
+      writeCache.updateDirtyPagesTable(cacheEntry.getCachePointer());
+    }
+
+    return cacheResult.cacheEntry;
+  }
+
   @Override
   public void clear() {
     cacheLock.acquireWriteLock();
     try {
+      if (readAhead != null)
+        readAhead.clear();
+
       clearCacheContent();
     } finally {
       cacheLock.releaseWriteLock();
@@ -591,6 +708,8 @@ public class O2QCache implements OReadCache {
     try {
       fileLock = fileLockManager.acquireExclusiveLock(fileId);
       try {
+        if (readAhead != null)
+          readAhead.forgetFile(fileId);
 
         writeCache.truncateFile(fileId);
 
@@ -603,6 +722,32 @@ public class O2QCache implements OReadCache {
     }
   }
 
+  /**
+   * Removes all pages of given file from this cache without touching the write cache. It is used by {@link OPartitioned2QCache}
+   * which performs file operations on the write cache only once and then clears content of each of its partitions.
+   *
+   * @param fileId     Id of the file, which is already checked for compatibility with the write cache.
+   * @param removeFile If <code>true</code> file is removed from the list of files known by this cache.
+   */
+  void clearFilePages(long fileId, boolean removeFile) {
+    Lock fileLock;
+
+    cacheLock.acquireReadLock();
+    try {
+      fileLock = fileLockManager.acquireExclusiveLock(fileId);
+      try {
+        clearFile(fileId);
+
+        if (removeFile)
+          filePages.remove(fileId);
+      } finally {
+        fileLock.unlock();
+      }
+    } finally {
+      cacheLock.releaseReadLock();
+    }
+  }
+
   private void clearFile(long fileId) {
     final Set<Long> pageEntries = filePages.get(fileId);
     if (pageEntries == null || pageEntries.isEmpty()) {
@@ -659,6 +804,9 @@ public class O2QCache implements OReadCache {
     try {
       fileLock = fileLockManager.acquireExclusiveLock(fileId);
       try {
+        if (readAhead != null)
+          readAhead.forgetFile(fileId);
+
         writeCache.close(fileId, flush);
 
         clearFile(fileId);
@@ -682,6 +830,9 @@ public class O2QCache implements OReadCache {
     try {
       fileLock = fileLockManager.acquireExclusiveLock(fileId);
       try {
+        if (readAhead != null)
+          readAhead.forgetFile(fileId);
+
         clearFile(fileId);
         filePages.remove(fileId);
         writeCache.deleteFile(fileId);
@@ -710,6 +861,9 @@ public class O2QCache implements OReadCache {
 
     cacheLock.acquireWriteLock();
     try {
+      if (readAhead != null)
+        readAhead.forgetStorage(writeCache.getId());
+
       final long[] filesToClear = writeCache.close();
 
       for (long fileId : filesToClear)
@@ -761,10 +915,10 @@ public class O2QCache implements OReadCache {
               return;
             }
 
-            restoreQueue(writeCache, am, dataInputStream, true);
-            restoreQueue(writeCache, a1in, dataInputStream, true);
+            restoreQueue(writeCache, am, readQueueState(writeCache, dataInputStream), true);
+            restoreQueue(writeCache, a1in, readQueueState(writeCache, dataInputStream), true);
 
-            restoreQueue(writeCache, a1out, dataInputStream, false);
+            restoreQueue(writeCache, a1out, readQueueState(writeCache, dataInputStream), false);
           }
 
         }
@@ -781,102 +935,112 @@ public class O2QCache implements OReadCache {
   }
 
   /**
+   * Reads state of single queue stored by {@link #storeQueueState(OWriteCache, Set, DataOutputStream, LRUList)}.
    * Following format is used to store queue state:
    * <ol>
    * <li>File id or -1 if end of queue is reached (int)</li>
    * <li>Page index (long), is absent if end of the queue is reached</li>
    * </ol>
    *
+   * @param writeCache      Write cache is used to convert internal file ids to external ones.
    * @param dataInputStream Stream of file which contains state of the cache.
-   * @param queue           Queue, state of which should be restored.
-   * @param loadPages       Indicates whether pages should be loaded from disk or only stubs should be added.
-   * @param writeCache      Write cache is used to load data from disk if needed.
-   */
-  private void restoreQueue(OWriteCache writeCache, LRUList queue, DataInputStream dataInputStream, boolean loadPages)
-      throws IOException {
-    if (loadPages) {
-      restoreQueueWithPageLoad(writeCache, queue, dataInputStream);
-    } else {
-      restoreQueueWithoutPageLoad(writeCache, queue, dataInputStream);
-    }
-  }
-
-  /**
-   * Restores queues state if it is NOT needed to load cache page from disk to cache.
-   * Following format is used to store queue state:
-   * <ol>
-   * <li>File id or -1 if end of queue is reached (int)</li>
-   * <li>Page index (long), is absent if end of the queue is reached</li>
-   * </ol>
    *
-   * @param dataInputStream Stream of file which contains state of the cache.
-   * @param queue           Queue, state of which should be restored.
-   * @param writeCache      Write cache is used to load data from disk if needed.
+   * @return Pages of the queue from least recently used to most recently used one. Pages of unknown files are skipped.
    */
-  private void restoreQueueWithoutPageLoad(OWriteCache writeCache, LRUList queue, DataInputStream dataInputStream) {
-
-    //this set is only needed to rollback changes in case of IO Exception
-    final Set<PageKey> addedPages = new HashSet<>();
+  static List<PageKey> readQueueState(OWriteCache writeCache, DataInputStream dataInputStream) {
+    final List<PageKey> pages = new ArrayList<>();
 
     try {
       int internalFileId = dataInputStream.readInt();
 
       while (internalFileId >= 0) {
         final long pageIndex = dataInputStream.readLong();
-        try {
-          final long fileId = writeCache.externalFileId(internalFileId);
+        final long fileId = writeCache.externalFileId(internalFileId);
 
-          if (writeCache.fileNameById(fileId) == null) // skip potentially outdated information about unknown files
-            continue;
+        // skip potentially outdated information about unknown files
+        if (writeCache.fileNameById(fileId) != null)
+          pages.add(new PageKey(fileId, pageIndex));
 
-          if (get(fileId, pageIndex) == null && !pinnedPages.containsKey(new PinnedPage(fileId, pageIndex))) {
-            final OCacheEntry cacheEntry = new OCacheEntryImpl(fileId, pageIndex, null, false);
+        internalFileId = dataInputStream.readInt();
+      }
+    } catch (IOException e) {
+      throw OException.wrapException(new OLoadCacheStateException("Can not restore state of cache from file"), e);
+    }
 
-            Set<Long> pages = filePages.get(fileId);
-            if (pages == null) {
-              pages = new HashSet<>();
+    return pages;
+  }
 
-              Set<Long> op = filePages.putIfAbsent(fileId, pages);
-              if (op != null) {
-                pages = op;
-              }
-            }
+  /**
+   * Restores state of single queue read by {@link #readQueueState(OWriteCache, DataInputStream)}. It is used by
+   * {@link OPartitioned2QCache} which reads state of the whole cache and passes pages to the partitions which hold them.
+   *
+   * @param queue     Queue, state of which should be restored. It should be one of the queues of this cache.
+   * @param pages     Pages of the queue from least recently used to most recently used one.
+   * @param loadPages Indicates whether pages should be loaded from disk or only stubs should be added.
+   */
+  void restoreQueueState(OWriteCache writeCache, LRUList queue, List<PageKey> pages, boolean loadPages) throws IOException {
+    cacheLock.acquireWriteLock();
+    try {
+      restoreQueue(writeCache, queue, pages, loadPages);
+    } finally {
+      cacheLock.releaseWriteLock();
+    }
+  }
 
-            queue.putToMRU(cacheEntry);
-            pages.add(cacheEntry.getPageIndex());
+  /**
+   * @param pages      Pages of the queue from least recently used to most recently used one.
+   * @param queue      Queue, state of which should be restored.
+   * @param loadPages  Indicates whether pages should be loaded from disk or only stubs should be added.
+   * @param writeCache Write cache is used to load data from disk if needed.
+   */
+  private void restoreQueue(OWriteCache writeCache, LRUList queue, List<PageKey> pages, boolean loadPages) throws IOException {
+    if (loadPages) {
+      restoreQueueWithPageLoad(writeCache, queue, pages);
+    } else {
+      restoreQueueWithoutPageLoad(queue, pages);
+    }
+  }
 
-            addedPages.add(new PageKey(fileId, pageIndex));
-            removeColdPagesWithCacheLock();
+  /**
+   * Restores queues state if it is NOT needed to load cache page from disk to cache.
+   *
+   * @param pages Pages of the queue from least recently used to most recently used one.
+   * @param queue Queue, state of which should be restored.
+   */
+  private void restoreQueueWithoutPageLoad(LRUList queue, List<PageKey> pages) {
+    for (PageKey pageKey : pages) {
+      final long fileId = pageKey.fileId;
+      final long pageIndex = pageKey.pageIndex;
+
+      if (get(fileId, pageIndex) == null && !pinnedPages.containsKey(new PinnedPage(fileId, pageIndex))) {
+        final OCacheEntry cacheEntry = new OCacheEntryImpl(fileId, pageIndex, null, false);
+
+        Set<Long> pageEntries = filePages.get(fileId);
+        if (pageEntries == null) {
+          pageEntries = new HashSet<>();
+
+          Set<Long> op = filePages.putIfAbsent(fileId, pageEntries);
+          if (op != null) {
+            pageEntries = op;
           }
-        } finally {
-          internalFileId = dataInputStream.readInt();
         }
-      }
-    } catch (IOException e) {
-      for (PageKey pageKey : addedPages) {
-        queue.remove(pageKey.fileId, pageKey.pageIndex);
 
-        final Set<Long> pages = filePages.get(pageKey.fileId);
-        pages.remove(pageKey.pageIndex);
-      }
+        queue.putToMRU(cacheEntry);
+        pageEntries.add(cacheEntry.getPageIndex());
 
-      throw OException.wrapException(new OLoadCacheStateException("Can not restore state of cache from file"), e);
+        removeColdPagesWithCacheLock();
+      }
     }
   }
 
   /**
    * Restores queues state if it is needed to load cache page from disk to cache.
-   * Following format is used to store queue state:
-   * <ol>
-   * <li>File id or -1 if end of queue is reached (int)</li>
-   * <li>Page index (long), is absent if end of the queue is reached</li>
-   * </ol>
    *
-   * @param dataInputStream Stream of file which contains state of the cache.
-   * @param queue           Queue, state of which should be restored.
-   * @param writeCache      Write cache is used to load data from disk if needed.
+   * @param pages      Pages of the queue from least recently used to most recently used one.
+   * @param queue      Queue, state of which should be restored.
+   * @param writeCache Write cache is used to load data from disk if needed.
    */
-  private void restoreQueueWithPageLoad(OWriteCache writeCache, LRUList queue, DataInputStream dataInputStream) throws IOException {
+  private void restoreQueueWithPageLoad(OWriteCache writeCache, LRUList queue, List<PageKey> pages) throws IOException {
     // used only for statistics, and there is passed merely as stub
     final OModifiableBoolean cacheHit = new OModifiableBoolean();
 
@@ -884,56 +1048,35 @@ public class O2QCache implements OReadCache {
     // then to put data into the queue to restore position of entries in LRU list.
     final TreeSet<PageKey> filePositions = new TreeSet<>();
 
-    try {
-      int internalFileId = dataInputStream.readInt();
-
-      while (internalFileId >= 0) {
-        final long pageIndex = dataInputStream.readLong();
-        try {
-          final long fileId = writeCache.externalFileId(internalFileId);
-
-          if (writeCache.fileNameById(fileId) == null) // skip potentially outdated information about unknown files
-            continue;
+    for (PageKey pageKey : pages) {
+      final long fileId = pageKey.fileId;
+      final long pageIndex = pageKey.pageIndex;
 
-          //we replace only pages which are not loaded yet
-          if (get(fileId, pageIndex) == null && !pinnedPages.containsKey(new PinnedPage(fileId, pageIndex))) {
-            filePositions.add(new PageKey(fileId, pageIndex));
+      //we replace only pages which are not loaded yet
+      if (get(fileId, pageIndex) == null && !pinnedPages.containsKey(new PinnedPage(fileId, pageIndex))) {
+        filePositions.add(pageKey);
 
-            //we put placeholder to the queue, later we will replace it with real data
-            //it is done to prevent cases when disk cache size will exceed limits
-            //set by configuration
-            final OCacheEntry cacheEntry = new OCacheEntryImpl(fileId, pageIndex, null, false);
-            queue.putToMRU(cacheEntry);
-
-            Set<Long> pages = filePages.get(fileId);
-            if (pages == null) {
-              pages = new HashSet<>();
-
-              Set<Long> op = filePages.putIfAbsent(fileId, pages);
-              if (op != null) {
-                pages = op;
-              }
-            }
+        //we put placeholder to the queue, later we will replace it with real data
+        //it is done to prevent cases when disk cache size will exceed limits
+        //set by configuration
+        final OCacheEntry cacheEntry = new OCacheEntryImpl(fileId, pageIndex, null, false);
+        queue.putToMRU(cacheEntry);
 
-            pages.add(pageIndex);
+        Set<Long> pageEntries = filePages.get(fileId);
+        if (pageEntries == null) {
+          pageEntries = new HashSet<>();
 
-            //remove part of the queue if queue size is bigger than allowed
-            removeColdPagesWithCacheLock();
+          Set<Long> op = filePages.putIfAbsent(fileId, pageEntries);
+          if (op != null) {
+            pageEntries = op;
           }
-        } finally {
-          internalFileId = dataInputStream.readInt();
         }
-      }
-    } catch (IOException e) {
-      for (PageKey pageKey : filePositions) {
-        //clear all place holders
-        queue.remove(pageKey.fileId, pageKey.pageIndex);
 
-        final Set<Long> pages = filePages.get(pageKey.fileId);
-        pages.remove(pageKey.pageIndex);
-      }
+        pageEntries.add(pageIndex);
 
-      throw OException.wrapException(new OLoadCacheStateException("Can not restore state of cache from file"), e);
+        //remove part of the queue if queue size is bigger than allowed
+        removeColdPagesWithCacheLock();
+      }
     }
 
     //second step: load pages sorted by position in a file and replace placeholders by real data
@@ -947,10 +1090,10 @@ public class O2QCache implements OReadCache {
         if (pointers.length == 0) {
           queue.remove(pageKey.fileId, pageKey.pageIndex);
 
-          final Set<Long> pages = filePages.get(pageKey.fileId);
+          final Set<Long> pageEntries = filePages.get(pageKey.fileId);
 
-          if (pages != null) {
-            pages.remove(pageKey.pageIndex);
+          if (pageEntries != null) {
+            pageEntries.remove(pageKey.pageIndex);
           }
           continue;
         }
@@ -1032,7 +1175,7 @@ public class O2QCache implements OReadCache {
    * @param dataOutputStream Output stream for state file
    * @param queue            Queue state of which should be stored
    */
-  private static void storeQueueState(OWriteCache writeCache, Set<Long> filesToStore, DataOutputStream dataOutputStream,
+  static void storeQueueState(OWriteCache writeCache, Set<Long> filesToStore, DataOutputStream dataOutputStream,
       LRUList queue) throws IOException {
     final Iterator<OCacheEntry> queueIterator = queue.reverseIterator();
 
@@ -1053,6 +1196,9 @@ public class O2QCache implements OReadCache {
   public void deleteStorage(OWriteCache writeCache) throws IOException {
     cacheLock.acquireWriteLock();
     try {
+      if (readAhead != null)
+        readAhead.forgetStorage(writeCache.getId());
+
       final long[] filesToClear = writeCache.delete();
       for (long fileId : filesToClear)
         clearFile(fileId);
@@ -1088,7 +1234,10 @@ public class O2QCache implements OReadCache {
     }
 
     cacheEntry = a1in.get(fileId, pageIndex);
-    return cacheEntry;
+    if (cacheEntry != null)
+      return cacheEntry;
+
+    return scanBuffer.get(fileId, pageIndex);
   }
 
   private void clearCacheContent() {
@@ -1110,9 +1259,19 @@ public class O2QCache implements OReadCache {
         throw new OStorageException("Page with index " + cacheEntry.getPageIndex() + " for file id " + cacheEntry.getFileId()
             + " is used and cannot be removed");
 
+    for (OCacheEntry cacheEntry : scanBuffer)
+      if (cacheEntry.getUsagesCount() == 0) {
+        final OCachePointer cachePointer = cacheEntry.getCachePointer();
+        cachePointer.decrementReadersReferrer();
+        cacheEntry.clearCachePointer();
+      } else
+        throw new OStorageException("Page with index " + cacheEntry.getPageIndex() + " for file id " + cacheEntry.getFileId()
+            + " is used and cannot be removed");
+
     a1out.clear();
     am.clear();
     a1in.clear();
+    scanBuffer.clear();
 
     for (Set<Long> pages : filePages.values())
       pages.clear();
@@ -1208,6 +1367,15 @@ public class O2QCache implements OReadCache {
       return new UpdateCacheResult(entryIsInAmQueue(fileId, pageIndex, cacheEntry), cacheEntry);
     }
 
+    cacheEntry = scanBuffer.remove(fileId, pageIndex);
+    if (cacheEntry != null) {
+      //page loaded by bulk operation is requested by regular one, so it is treated as just loaded page
+      cacheHit.setValue(true);
+      a1in.putToMRU(cacheEntry);
+
+      return new UpdateCacheResult(true, cacheEntry);
+    }
+
     boolean removeColdPages;
     OCachePointer[] dataPointers = null;
 
@@ -1249,7 +1417,7 @@ public class O2QCache implements OReadCache {
     final long fileId = dataPointer.getFileId();
     final long pageIndex = dataPointer.getPageIndex();
 
-    if (pinnedPages.containsKey(new PinnedPage(fileId, pageIndex))) {
+    if (pinnedPages.containsKey(new PinnedPage(fileId, pageIndex)) || scanBuffer.contains(fileId, pageIndex)) {
       dataPointer.decrementReadersReferrer();
 
       return removeColdPages;
@@ -1286,6 +1454,234 @@ public class O2QCache implements OReadCache {
     return removeColdPages;
   }
 
+  /**
+   * Loads pages which are read ahead into the cache. Pages which are already cached are skipped, so only the pages starting from
+   * the first one which is absent in the cache are read from the file by single vectored read. Amount of pages is limited by the
+   * quarter of a1in queue, otherwise read ahead pages would be evicted before they are used.
+   *
+   * @param fileId        Id of the file, which is already checked for compatibility with the write cache.
+   * @param scan          If <code>true</code> and scan buffer is enabled pages are put into scan buffer instead of a1in queue,
+   *                      in such case amount of pages is limited by the half of scan buffer.
+   * @param isFileTracked If not <code>null</code> it is checked under the lock of the file, pages are not loaded if it returns
+   *                      <code>false</code>.
+   *
+   * @see #processReadAheadPage(OCachePointer)
+   */
+  void prefetch(final long fileId, final long pageIndex, int pageCount, final OWriteCache writeCache,
+      final boolean verifyChecksums, boolean scan, final BooleanSupplier isFileTracked) throws IOException {
+    scan = scan && scanBufferSize > 0;
+    pageCount = Math.min(pageCount, scan ? scanBufferSize >> 1 : memoryDataContainer.get().K_IN >> 2);
+    if (pageCount < 1)
+      return;
+
+    boolean removeColdPages = false;
+
+    Lock fileLock;
+    Lock[] pageLocks;
+
+    cacheLock.acquireReadLock();
+    try {
+      fileLock = fileLockManager.acquireSharedLock(fileId);
+      try {
+        if (isFileTracked != null && !isFileTracked.getAsBoolean())
+          return;
+
+        final PageKey[] pageKeys = new PageKey[pageCount];
+        for (int i = 0; i < pageKeys.length; i++) {
+          pageKeys[i] = new PageKey(fileId, pageIndex + i);
+        }
+
+        pageLocks = pageLockManager.acquireExclusiveLocksInBatch(pageKeys);
+        try {
+          int firstAbsentPage = 0;
+          while (firstAbsentPage < pageCount && isCached(fileId, pageIndex + firstAbsentPage))
+            firstAbsentPage++;
+
+          if (firstAbsentPage == pageCount)
+            return;
+
+          final OCachePointer[] dataPointers = writeCache
+              .load(fileId, pageIndex + firstAbsentPage, pageCount - firstAbsentPage, false, new OModifiableBoolean(),
+                  verifyChecksums);
+
+          for (OCachePointer dataPointer : dataPointers) {
+            if (!scan)
+              removeColdPages = processReadAheadPage(dataPointer) || removeColdPages;
+            else if (isCached(dataPointer.getFileId(), dataPointer.getPageIndex()))
+              dataPointer.decrementReadersReferrer();
+            else
+              putToScanBuffer(dataPointer);
+          }
+        } finally {
+          for (Lock pageLock : pageLocks) {
+            pageLock.unlock();
+          }
+        }
+      } finally {
+        fileLock.unlock();
+      }
+    } finally {
+      cacheLock.releaseReadLock();
+    }
+
+    if (removeColdPages)
+      removeColdestPagesIfNeeded();
+
+    if (scan && scanBuffer.size() > scanBufferSize)
+      removeScanPagesIfNeeded();
+  }
+
+  private boolean isCached(final long fileId, final long pageIndex) {
+    return pinnedPages.containsKey(new PinnedPage(fileId, pageIndex)) || am.contains(fileId, pageIndex) || a1in
+        .contains(fileId, pageIndex) || scanBuffer.contains(fileId, pageIndex);
+  }
+
+  /**
+   * Puts page which is read ahead into the cache. Unlike {@link #processFetchedPage(boolean, OCachePointer)} page is never put
+   * into am queue, even if it was evicted recently, because it is not requested by anyone yet. Such page is put into a1in queue and
+   * stays there once it is read, so long scans do not push pages of the working set out of am queue.
+   */
+  private boolean processReadAheadPage(final OCachePointer dataPointer) {
+    final long fileId = dataPointer.getFileId();
+    final long pageIndex = dataPointer.getPageIndex();
+
+    if (isCached(fileId, pageIndex)) {
+      dataPointer.decrementReadersReferrer();
+      return false;
+    }
+
+    a1out.remove(fileId, pageIndex);
+
+    return entryIsAbsentInQueues(fileId, pageIndex, dataPointer).removeColdPages;
+  }
+
+  /**
+   * Serves read under {@link OScanAccessHint}. Pages of the main queues are served as usual, but absent pages, including the ones
+   * which were evicted recently, are put into {@link #scanBuffer}, so they do not take place of the pages used by other operations.
+   */
+  private UpdateCacheResult updateScanBuffer(final long fileId, final long pageIndex, final boolean addNewPages,
+      OWriteCache writeCache, final int pageCount, final OModifiableBoolean cacheHit, boolean verifyChecksums) throws IOException {
+    OCacheEntry cacheEntry = am.get(fileId, pageIndex);
+    if (cacheEntry != null) {
+      cacheHit.setValue(true);
+      scanCacheHits.incrementAndGet();
+
+      return new UpdateCacheResult(entryIsInAmQueue(fileId, pageIndex, cacheEntry), cacheEntry);
+    }
+
+    cacheEntry = a1in.get(fileId, pageIndex);
+    if (cacheEntry != null) {
+      cacheHit.setValue(true);
+      scanCacheHits.incrementAndGet();
+
+      return new UpdateCacheResult(entryIsInA1InQueue(fileId, pageIndex), cacheEntry);
+    }
+
+    cacheEntry = scanBuffer.get(fileId, pageIndex);
+    if (cacheEntry != null) {
+      cacheHit.setValue(true);
+      scanBufferHits.incrementAndGet();
+
+      return new UpdateCacheResult(false, cacheEntry);
+    }
+
+    final OCachePointer[] dataPointers = writeCache.load(fileId, pageIndex, pageCount, addNewPages, cacheHit, verifyChecksums);
+    if (dataPointers.length == 0)
+      return null;
+
+    cacheEntry = putToScanBuffer(dataPointers[0]);
+
+    for (int n = 1; n < dataPointers.length; n++) {
+      final OCachePointer dataPointer = dataPointers[n];
+
+      if (isCached(dataPointer.getFileId(), dataPointer.getPageIndex()))
+        dataPointer.decrementReadersReferrer();
+      else
+        putToScanBuffer(dataPointer);
+    }
+
+    return new UpdateCacheResult(false, cacheEntry);
+  }
+
+  private OCacheEntry putToScanBuffer(final OCachePointer dataPointer) {
+    final long fileId = dataPointer.getFileId();
+    final long pageIndex = dataPointer.getPageIndex();
+
+    //history of the page is dropped, otherwise page would be promoted into am queue by next regular read
+    a1out.remove(fileId, pageIndex);
+
+    final OCacheEntry cacheEntry = new OCacheEntryImpl(fileId, pageIndex, dataPointer, false);
+    scanBuffer.putToMRU(cacheEntry);
+
+    Set<Long> pages = filePages.get(fileId);
+    if (pages == null) {
+      pages = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+      Set<Long> oldPages = filePages.putIfAbsent(fileId, pages);
+
+      if (oldPages != null)
+        pages = oldPages;
+    }
+
+    pages.add(pageIndex);
+    scanBypassedPages.incrementAndGet();
+
+    return cacheEntry;
+  }
+
+  /**
+   * Evicts the oldest pages of {@link #scanBuffer} till its size fits {@link #scanBufferSize}. Pages which are in use are skipped,
+   * so size of the buffer may exceed the limit for a while if all its pages are used.
+   */
+  private void removeScanPagesIfNeeded() {
+    Lock fileLock;
+    Lock pageLock;
+    int iterationsCounter = 0;
+
+    cacheLock.acquireReadLock();
+    try {
+      while (scanBuffer.size() > scanBufferSize && iterationsCounter < scanBufferSize + MAX_CACHE_OVERFLOW) {
+        iterationsCounter++;
+
+        final OCacheEntry removedEntry = scanBuffer.getLRU();
+        if (removedEntry == null)
+          return;
+
+        fileLock = fileLockManager.acquireSharedLock(removedEntry.getFileId());
+        try {
+          final PageKey k = new PageKey(removedEntry.getFileId(), removedEntry.getPageIndex());
+          pageLock = pageLockManager.acquireExclusiveLock(k);
+          try {
+            if (scanBuffer.get(removedEntry.getFileId(), removedEntry.getPageIndex()) != removedEntry)
+              continue;
+
+            if (removedEntry.getUsagesCount() > 0) {
+              //move used page to the end of the queue, so next oldest page can be evicted
+              scanBuffer.putToMRU(removedEntry);
+              continue;
+            }
+
+            assert !removedEntry.isDirty();
+
+            scanBuffer.remove(removedEntry.getFileId(), removedEntry.getPageIndex());
+
+            final OCachePointer cachePointer = removedEntry.getCachePointer();
+            cachePointer.decrementReadersReferrer();
+            removedEntry.clearCachePointer();
+
+            final Set<Long> pageEntries = filePages.get(removedEntry.getFileId());
+            pageEntries.remove(removedEntry.getPageIndex());
+          } finally {
+            pageLock.unlock();
+          }
+        } finally {
+          fileLock.unlock();
+        }
+      }
+    } finally {
+      cacheLock.releaseReadLock();
+    }
+  }
+
   private void removeColdestPagesIfNeeded() {
     if (!coldPagesRemovalInProgress.compareAndSet(false, true))
       return;
@@ -1480,9 +1876,44 @@ public class O2QCache implements OReadCache {
     return memoryDataContainer.get().maxSize;
   }
 
+  /**
+   * Prevents any modification of the cache content till {@link #releaseExclusiveAccess()} is called. It is used by
+   * {@link OPartitioned2QCache} to store consistent state of all its partitions.
+   */
+  void acquireExclusiveAccess() {
+    cacheLock.acquireWriteLock();
+  }
+
+  void releaseExclusiveAccess() {
+    cacheLock.releaseWriteLock();
+  }
+
+  /**
+   * Prevents loading of pages of given file into the cache till {@link #releaseFileExclusiveLock(long)} is called. Locks are
+   * taken in the same order as file operations of this cache take them. It is used by {@link OPartitioned2QCache} to hold the
+   * file in all partitions while the file is changed inside of the write cache.
+   */
+  void acquireFileExclusiveLock(long fileId) {
+    cacheLock.acquireReadLock();
+    try {
+      fileLockManager.acquireExclusiveLock(fileId);
+    } catch (RuntimeException e) {
+      cacheLock.releaseReadLock();
+      throw e;
+    }
+  }
+
+  void releaseFileExclusiveLock(long fileId) {
+    try {
+      fileLockManager.releaseExclusiveLock(fileId);
+    } finally {
+      cacheLock.releaseReadLock();
+    }
+  }
+
   @Override
   public long getUsedMemory() {
-    return ((long) (am.size() + a1in.size())) * pageSize;
+    return ((long) (am.size() + a1in.size() + scanBuffer.size())) * pageSize;
   }
 
   private OCacheEntry remove(long fileId, long pageIndex) {
@@ -1498,6 +1929,9 @@ public class O2QCache implements OReadCache {
       return cacheEntry;
 
     cacheEntry = a1in.remove(fileId, pageIndex);
+    if (cacheEntry == null)
+      cacheEntry = scanBuffer.remove(fileId, pageIndex);
+
     if (cacheEntry != null && cacheEntry.getUsagesCount() > 1)
       throw new IllegalStateException("Record cannot be removed because it is used!");
 
@@ -1563,11 +1997,11 @@ public class O2QCache implements OReadCache {
     }
   }
 
-  private static final class PageKey implements Comparable<PageKey> {
-    private final long fileId;
-    private final long pageIndex;
+  static final class PageKey implements Comparable<PageKey> {
+    final long fileId;
+    final long pageIndex;
 
-    private PageKey(long fileId, long pageIndex) {
+    PageKey(long fileId, long pageIndex) {
       this.fileId = fileId;
       this.pageIndex = pageIndex;
     }
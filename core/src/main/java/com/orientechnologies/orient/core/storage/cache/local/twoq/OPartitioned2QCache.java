@@ -0,0 +1,614 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+
+package com.orientechnologies.orient.core.storage.cache.local.twoq;
+
+import com.orientechnologies.common.concur.lock.OPartitionedLockManager;
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.exception.OLoadCacheStateException;
+import com.orientechnologies.orient.core.exception.OStorageException;
+import com.orientechnologies.orient.core.storage.cache.OAbstractWriteCache;
+import com.orientechnologies.orient.core.storage.cache.OCacheEntry;
+import com.orientechnologies.orient.core.storage.cache.OReadCache;
+import com.orientechnologies.orient.core.storage.cache.OScanAccessHint;
+import com.orientechnologies.orient.core.storage.cache.OWriteCache;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Read cache which splits pages between several independent {@link O2QCache} partitions. Each partition has its own queues,
+ * cache lock, page locks and memory limit, so threads which access pages of different partitions do not contend with each other
+ * neither on the cache lock nor during eviction of cold pages. Its main purpose is read heavy workloads on servers with many cores
+ * where single cache lock of {@link O2QCache} becomes a bottleneck.
+ * <p>
+ * Pages are distributed between partitions by extents of {@link #EXTENT_SIZE} consecutive pages of the same file, so pages which
+ * are loaded together in a single {@link #loadForRead(long, long, boolean, OWriteCache, int, boolean)} call belong to the same
+ * partition. Because of that amount of pages loaded at once is limited by the boundary of the extent.
+ * <p>
+ * Sequential reads are detected for the whole cache, because consecutive pages belong to different partitions, and read ahead
+ * pages are loaded into the partitions which hold them, extent by extent.
+ * <p>
+ * Operations on the files are performed on the write cache only once, after that pages of the file are removed from each
+ * partition. State of the cache is stored in the same format as the one of {@link O2QCache}, so both implementations can restore
+ * state stored by other one.
+ *
+ * @see OGlobalConfiguration#DISK_CACHE_PARTITIONS
+ */
+public class OPartitioned2QCache implements OReadCache {
+  /**
+   * Binary logarithm of amount of consecutive pages of the same file which are kept inside of the same partition.
+   */
+  private static final int EXTENT_SHIFT = 6;
+
+  /**
+   * Amount of consecutive pages of the same file which are kept inside of the same partition.
+   */
+  private static final int EXTENT_SIZE = 1 << EXTENT_SHIFT;
+
+  private final O2QCache[] partitions;
+  private final int        partitionMask;
+  private final int        pageSize;
+
+  /**
+   * Serializes allocation of new pages and operations which change size of the files. Loading of the pages does not acquire this
+   * lock, they are protected by the locks of partitions.
+   */
+  private final OPartitionedLockManager<Object> fileLockManager = new OPartitionedLockManager<>(true);
+
+  /**
+   * Reads ahead pages of the files which are read sequentially, <code>null</code> if read ahead is disabled.
+   */
+  private final OReadAheadController readAhead;
+
+  /**
+   * @param readCacheMaxMemory   Maximum amount of direct memory which can allocated by disk cache in bytes.
+   * @param pageSize             Cache page size in bytes.
+   * @param checkMinSize         If this flat is set size of cache may be {@link O2QCache#MIN_CACHE_SIZE} or bigger.
+   * @param percentOfPinnedPages Maximum percent of pinned pages which may be hold by this cache.
+   * @param partitions           Amount of partitions, it is rounded to the closest power of two which is not less than passed
+   *                             value. It can be decreased if cache is too small, so each partition will have at least
+   *                             {@link O2QCache#MIN_CACHE_SIZE} pages.
+   */
+  public OPartitioned2QCache(final long readCacheMaxMemory, final int pageSize, final boolean checkMinSize,
+      final int percentOfPinnedPages, final int partitions) {
+    this(readCacheMaxMemory, pageSize, checkMinSize, percentOfPinnedPages, partitions, 0);
+  }
+
+  /**
+   * @param readCacheMaxMemory   Maximum amount of direct memory which can allocated by disk cache in bytes.
+   * @param pageSize             Cache page size in bytes.
+   * @param checkMinSize         If this flat is set size of cache may be {@link O2QCache#MIN_CACHE_SIZE} or bigger.
+   * @param percentOfPinnedPages Maximum percent of pinned pages which may be hold by this cache.
+   * @param partitions           Amount of partitions, it is rounded to the closest power of two which is not less than passed
+   *                             value. It can be decreased if cache is too small, so each partition will have at least
+   *                             {@link O2QCache#MIN_CACHE_SIZE} pages.
+   * @param readAheadMaxPages    Maximum amount of pages which are read ahead at once when file is read sequentially, 0 disables
+   *                             read ahead.
+   */
+  public OPartitioned2QCache(final long readCacheMaxMemory, final int pageSize, final boolean checkMinSize,
+      final int percentOfPinnedPages, final int partitions, final int readAheadMaxPages) {
+    this(readCacheMaxMemory, pageSize, checkMinSize, percentOfPinnedPages, partitions, readAheadMaxPages, 0);
+  }
+
+  /**
+   * @param readCacheMaxMemory   Maximum amount of direct memory which can allocated by disk cache in bytes.
+   * @param pageSize             Cache page size in bytes.
+   * @param checkMinSize         If this flat is set size of cache may be {@link O2QCache#MIN_CACHE_SIZE} or bigger.
+   * @param percentOfPinnedPages Maximum percent of pinned pages which may be hold by this cache.
+   * @param partitions           Amount of partitions, it is rounded to the closest power of two which is not less than passed
+   *                             value. It can be decreased if cache is too small, so each partition will have at least
+   *                             {@link O2QCache#MIN_CACHE_SIZE} pages.
+   * @param readAheadMaxPages    Maximum amount of pages which are read ahead at once when file is read sequentially, 0 disables
+   *                             read ahead.
+   * @param scanBufferSize       Maximum amount of pages loaded by reads under {@link OScanAccessHint} which are kept in the cache,
+   *                             it is split between partitions equally, 0 means that such reads are not distinguished from other
+   *                             reads.
+   */
+  public OPartitioned2QCache(final long readCacheMaxMemory, final int pageSize, final boolean checkMinSize,
+      final int percentOfPinnedPages, final int partitions, final int readAheadMaxPages, final int scanBufferSize) {
+    if (partitions < 1)
+      throw new IllegalArgumentException("Amount of partitions should be positive but passed value is " + partitions);
+
+    this.pageSize = pageSize;
+
+    long maxPages = readCacheMaxMemory / pageSize;
+    if (checkMinSize && maxPages < O2QCache.MIN_CACHE_SIZE)
+      maxPages = O2QCache.MIN_CACHE_SIZE;
+
+    int partitionsCount = 1;
+    while (partitionsCount < partitions)
+      partitionsCount = partitionsCount << 1;
+
+    while (partitionsCount > 1 && maxPages / partitionsCount < O2QCache.MIN_CACHE_SIZE)
+      partitionsCount = partitionsCount >> 1;
+
+    this.partitions = new O2QCache[partitionsCount];
+    this.partitionMask = partitionsCount - 1;
+
+    final int partitionScanBufferSize = (scanBufferSize + partitionsCount - 1) / partitionsCount;
+    for (int i = 0; i < partitionsCount; i++) {
+      this.partitions[i] = new O2QCache(partitionMemory(maxPages, i), pageSize, false, percentOfPinnedPages, 0,
+          partitionScanBufferSize);
+    }
+
+    readAhead = readAheadMaxPages > 0 ? new OReadAheadController(readAheadMaxPages, this::prefetch) : null;
+  }
+
+  /**
+   * @return Amount of partitions used by this cache.
+   */
+  public int getPartitionsCount() {
+    return partitions.length;
+  }
+
+  O2QCache[] getPartitions() {
+    return partitions;
+  }
+
+  @Override
+  public long getScanBypassedPages() {
+    long pages = 0;
+
+    for (O2QCache partition : partitions)
+      pages += partition.getScanBypassedPages();
+
+    return pages;
+  }
+
+  @Override
+  public long getScanBufferHits() {
+    long hits = 0;
+
+    for (O2QCache partition : partitions)
+      hits += partition.getScanBufferHits();
+
+    return hits;
+  }
+
+  @Override
+  public long getScanCacheHits() {
+    long hits = 0;
+
+    for (O2QCache partition : partitions)
+      hits += partition.getScanCacheHits();
+
+    return hits;
+  }
+
+  @Override
+  public long addFile(String fileName, OWriteCache writeCache) throws IOException {
+    return writeCache.addFile(fileName);
+  }
+
+  @Override
+  public long addFile(String fileName, long fileId, OWriteCache writeCache) throws IOException {
+    fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
+
+    return writeCache.addFile(fileName, fileId);
+  }
+
+  @Override
+  public OCacheEntry loadForWrite(long fileId, long pageIndex, boolean checkPinnedPages, OWriteCache writeCache, int pageCount,
+      boolean verifyChecksums) throws IOException {
+    fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
+
+    return partition(fileId, pageIndex)
+        .loadForWrite(fileId, pageIndex, checkPinnedPages, writeCache, pagesInExtent(pageIndex, pageCount), verifyChecksums);
+  }
+
+  @Override
+  public OCacheEntry loadForRead(long fileId, long pageIndex, boolean checkPinnedPages, OWriteCache writeCache, int pageCount,
+      boolean verifyChecksums) throws IOException {
+    fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
+
+    if (readAhead != null)
+      readAhead.onRead(fileId, pageIndex, writeCache, verifyChecksums, OScanAccessHint.isActive());
+
+    return partition(fileId, pageIndex)
+        .loadForRead(fileId, pageIndex, checkPinnedPages, writeCache, pagesInExtent(pageIndex, pageCount), verifyChecksums);
+  }
+
+  @Override
+  public void releaseFromRead(OCacheEntry cacheEntry, OWriteCache writeCache) {
+    partition(cacheEntry.getFileId(), cacheEntry.getPageIndex()).releaseFromRead(cacheEntry, writeCache);
+  }
+
+  @Override
+  public void releaseFromWrite(OCacheEntry cacheEntry, OWriteCache writeCache) {
+    partition(cacheEntry.getFileId(), cacheEntry.getPageIndex()).releaseFromWrite(cacheEntry, writeCache);
+  }
+
+  @Override
+  public void pinPage(OCacheEntry cacheEntry) {
+    partition(cacheEntry.getFileId(), cacheEntry.getPageIndex()).pinPage(cacheEntry);
+  }
+
+  @Override
+  public OCacheEntry allocateNewPage(long fileId, OWriteCache writeCache, boolean verifyChecksums) throws IOException {
+    fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
+
+    final Lock fileLock = fileLockManager.acquireExclusiveLock(fileId);
+    try {
+      final long filledUpTo = writeCache.getFilledUpTo(fileId);
+      assert filledUpTo >= 0;
+
+      return partition(fileId, filledUpTo).allocatePage(fileId, filledUpTo, writeCache, verifyChecksums);
+    } finally {
+      fileLock.unlock();
+    }
+  }
+
+  @Override
+  public long getUsedMemory() {
+    long usedMemory = 0;
+
+    for (O2QCache partition : partitions)
+      usedMemory += partition.getUsedMemory();
+
+    return usedMemory;
+  }
+
+  /**
+   * Changes amount of memory which may be used by given cache. Memory is split between partitions equally.
+   *
+   * @param readCacheMaxMemory New maximum size of cache in bytes.
+   *
+   * @throws IllegalStateException In case of new size of disk cache is too small to hold existing pinned pages.
+   * @see O2QCache#changeMaximumAmountOfMemory(long)
+   */
+  @Override
+  public void changeMaximumAmountOfMemory(final long readCacheMaxMemory) throws IllegalStateException {
+    for (int i = 0; i < partitions.length; i++)
+      partitions[i].changeMaximumAmountOfMemory(partitionMemory(readCacheMaxMemory / pageSize, i));
+  }
+
+  @Override
+  public void clear() {
+    if (readAhead != null)
+      readAhead.clear();
+
+    for (O2QCache partition : partitions)
+      partition.clear();
+  }
+
+  @Override
+  public void truncateFile(long fileId, OWriteCache writeCache) throws IOException {
+    fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
+
+    final Lock fileLock = fileLockManager.acquireExclusiveLock(fileId);
+    try {
+      lockFileInPartitions(fileId);
+      try {
+        if (readAhead != null)
+          readAhead.forgetFile(fileId);
+
+        writeCache.truncateFile(fileId);
+
+        clearFilePages(fileId, false);
+      } finally {
+        unlockFileInPartitions(fileId);
+      }
+    } finally {
+      fileLock.unlock();
+    }
+  }
+
+  @Override
+  public void closeFile(long fileId, boolean flush, OWriteCache writeCache) {
+    fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
+
+    final Lock fileLock = fileLockManager.acquireExclusiveLock(fileId);
+    try {
+      lockFileInPartitions(fileId);
+      try {
+        if (readAhead != null)
+          readAhead.forgetFile(fileId);
+
+        writeCache.close(fileId, flush);
+
+        clearFilePages(fileId, false);
+      } finally {
+        unlockFileInPartitions(fileId);
+      }
+    } finally {
+      fileLock.unlock();
+    }
+  }
+
+  @Override
+  public void deleteFile(long fileId, OWriteCache writeCache) throws IOException {
+    fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
+
+    final Lock fileLock = fileLockManager.acquireExclusiveLock(fileId);
+    try {
+      lockFileInPartitions(fileId);
+      try {
+        if (readAhead != null)
+          readAhead.forgetFile(fileId);
+
+        clearFilePages(fileId, true);
+
+        writeCache.deleteFile(fileId);
+      } finally {
+        unlockFileInPartitions(fileId);
+      }
+    } finally {
+      fileLock.unlock();
+    }
+  }
+
+  @Override
+  public void deleteStorage(OWriteCache writeCache) throws IOException {
+    if (readAhead != null)
+      readAhead.forgetStorage(writeCache.getId());
+
+    final long[] filesToClear = writeCache.delete();
+    for (long fileId : filesToClear)
+      clearFilePages(fileId, true);
+
+    final Path stateFile = writeCache.getRootDirectory().resolve(O2QCache.CACHE_STATE_FILE);
+
+    if (Files.exists(stateFile)) {
+      Files.delete(stateFile);
+    }
+  }
+
+  @Override
+  public void closeStorage(OWriteCache writeCache) throws IOException {
+    if (writeCache == null)
+      return;
+
+    if (readAhead != null)
+      readAhead.forgetStorage(writeCache.getId());
+
+    final long[] filesToClear = writeCache.close();
+    for (long fileId : filesToClear)
+      clearFilePages(fileId, false);
+  }
+
+  /**
+   * Loads state of the cache stored by {@link #storeCacheState(OWriteCache)} or by {@link O2QCache#storeCacheState(OWriteCache)}
+   * and passes pages of each queue to the partitions which hold them.
+   *
+   * @see O2QCache#loadCacheState(OWriteCache)
+   */
+  @Override
+  public void loadCacheState(final OWriteCache writeCache) {
+    if (!OGlobalConfiguration.STORAGE_KEEP_DISK_CACHE_STATE.getValueAsBoolean()) {
+      return;
+    }
+
+    final Path statePath = writeCache.getRootDirectory().resolve(O2QCache.CACHE_STATE_FILE);
+    if (!Files.exists(statePath))
+      return;
+
+    try (FileChannel channel = FileChannel.open(statePath, StandardOpenOption.READ)) {
+      final InputStream stream = Channels.newInputStream(channel);
+      final BufferedInputStream bufferedInputStream = new BufferedInputStream(stream, 64 * 1024);
+      try (DataInputStream dataInputStream = new DataInputStream(bufferedInputStream)) {
+        final long maxCacheSize;
+
+        try {
+          maxCacheSize = dataInputStream.readLong();
+        } catch (IOException ioe) {
+          throw OException.wrapException(new OLoadCacheStateException("Can not restore state of cache from file"), ioe);
+        }
+
+        final long currentMaxCacheSize = getMaxSize();
+
+        if (maxCacheSize > currentMaxCacheSize) {
+          OLogManager.instance().info(this,
+              "Previous maximum cache size was %d current maximum cache size is %d. Cache state for storage %s will not be restored.",
+              maxCacheSize, currentMaxCacheSize, writeCache.getRootDirectory());
+          return;
+        }
+
+        final List<List<O2QCache.PageKey>> am = splitQueueState(O2QCache.readQueueState(writeCache, dataInputStream));
+        final List<List<O2QCache.PageKey>> a1in = splitQueueState(O2QCache.readQueueState(writeCache, dataInputStream));
+        final List<List<O2QCache.PageKey>> a1out = splitQueueState(O2QCache.readQueueState(writeCache, dataInputStream));
+
+        for (int i = 0; i < partitions.length; i++) {
+          final O2QCache partition = partitions[i];
+
+          partition.restoreQueueState(writeCache, partition.getAm(), am.get(i), true);
+          partition.restoreQueueState(writeCache, partition.getA1in(), a1in.get(i), true);
+          partition.restoreQueueState(writeCache, partition.getA1out(), a1out.get(i), false);
+        }
+      }
+    } catch (OLoadCacheStateException lcsException) {
+      OLogManager.instance()
+          .warn(this, "Cannot restore state of cache for storage placed under " + writeCache.getRootDirectory(), lcsException);
+    } catch (Exception e) {
+      throw OException.wrapException(
+          new OStorageException("Cannot restore state of cache for storage placed under " + writeCache.getRootDirectory()), e);
+    }
+  }
+
+  /**
+   * Stores state of queues of all partitions inside of {@link O2QCache#CACHE_STATE_FILE} file. Queues of the same type of all
+   * partitions are stored one after another as single queue, so format of the file is the same as one used by {@link O2QCache}.
+   *
+   * @see O2QCache#storeCacheState(OWriteCache)
+   */
+  @Override
+  public void storeCacheState(OWriteCache writeCache) {
+    if (!OGlobalConfiguration.STORAGE_KEEP_DISK_CACHE_STATE.getValueAsBoolean()) {
+      return;
+    }
+
+    if (writeCache == null)
+      return;
+
+    for (O2QCache partition : partitions)
+      partition.acquireExclusiveAccess();
+    try {
+      final Path stateFile = writeCache.getRootDirectory().resolve(O2QCache.CACHE_STATE_FILE);
+
+      if (Files.exists(stateFile)) {
+        Files.delete(stateFile);
+      }
+
+      final Set<Long> filesToStore = new HashSet<>(writeCache.files().values());
+
+      try (final FileChannel channel = FileChannel.open(stateFile, StandardOpenOption.WRITE, StandardOpenOption.CREATE)) {
+        final OutputStream channelStream = Channels.newOutputStream(channel);
+        final BufferedOutputStream bufferedOutputStream = new BufferedOutputStream(channelStream, 64 * 1024);
+
+        try (DataOutputStream dataOutputStream = new DataOutputStream(bufferedOutputStream)) {
+          dataOutputStream.writeLong(getMaxSize());
+
+          for (O2QCache partition : partitions)
+            O2QCache.storeQueueState(writeCache, filesToStore, dataOutputStream, partition.getAm());
+          dataOutputStream.writeInt(-1);
+
+          for (O2QCache partition : partitions)
+            O2QCache.storeQueueState(writeCache, filesToStore, dataOutputStream, partition.getA1in());
+          dataOutputStream.writeInt(-1);
+
+          for (O2QCache partition : partitions)
+            O2QCache.storeQueueState(writeCache, filesToStore, dataOutputStream, partition.getA1out());
+          dataOutputStream.writeInt(-1);
+        }
+      }
+    } catch (Exception e) {
+      OLogManager.instance()
+          .error(this, "Cannot store state of cache for storage placed under %s", e, writeCache.getRootDirectory());
+    } finally {
+      for (int i = partitions.length - 1; i >= 0; i--)
+        partitions[i].releaseExclusiveAccess();
+    }
+  }
+
+  /**
+   * Locks given file in all partitions, so pages of the file can not be loaded by any partition while the file is changed
+   * inside of the write cache. Partitions are always locked in order of their indexes.
+   */
+  private void lockFileInPartitions(long fileId) {
+    int locked = 0;
+    try {
+      for (; locked < partitions.length; locked++)
+        partitions[locked].acquireFileExclusiveLock(fileId);
+    } catch (RuntimeException e) {
+      for (int i = locked - 1; i >= 0; i--)
+        partitions[i].releaseFileExclusiveLock(fileId);
+
+      throw e;
+    }
+  }
+
+  private void unlockFileInPartitions(long fileId) {
+    for (int i = partitions.length - 1; i >= 0; i--)
+      partitions[i].releaseFileExclusiveLock(fileId);
+  }
+
+  private void clearFilePages(long fileId, boolean removeFile) {
+    for (O2QCache partition : partitions)
+      partition.clearFilePages(fileId, removeFile);
+  }
+
+  private List<List<O2QCache.PageKey>> splitQueueState(List<O2QCache.PageKey> pages) {
+    final List<List<O2QCache.PageKey>> result = new ArrayList<>(partitions.length);
+    for (int i = 0; i < partitions.length; i++)
+      result.add(new ArrayList<>());
+
+    for (O2QCache.PageKey pageKey : pages)
+      result.get(partitionIndex(pageKey.fileId, pageKey.pageIndex)).add(pageKey);
+
+    return result;
+  }
+
+  /**
+   * @return Maximum size of the cache in pages.
+   */
+  private long getMaxSize() {
+    long maxSize = 0;
+
+    for (O2QCache partition : partitions)
+      maxSize += partition.getMaxSize();
+
+    return maxSize;
+  }
+
+  /**
+   * @param maxPages Maximum size of the whole cache in pages.
+   *
+   * @return Maximum size of memory which may be consumed by given partition in bytes.
+   */
+  private long partitionMemory(long maxPages, int partitionIndex) {
+    long partitionPages = maxPages / partitions.length;
+
+    if (partitionIndex < maxPages % partitions.length)
+      partitionPages++;
+
+    return partitionPages * pageSize;
+  }
+
+  /**
+   * Passes pages which are read ahead to the partitions which hold them. Each partition checks under its own file lock whether the
+   * file is still tracked, pages of the file are removed from partitions after it stops to be tracked, so read ahead pages are
+   * never left in the cache after the file is closed.
+   */
+  private void prefetch(final long fileId, long pageIndex, int pageCount, final OWriteCache writeCache,
+      final boolean verifyChecksums, final boolean scan, final BooleanSupplier isFileTracked) throws IOException {
+    while (pageCount > 0) {
+      final int pagesInExtent = pagesInExtent(pageIndex, pageCount);
+      partition(fileId, pageIndex).prefetch(fileId, pageIndex, pagesInExtent, writeCache, verifyChecksums, scan, isFileTracked);
+
+      pageIndex += pagesInExtent;
+      pageCount -= pagesInExtent;
+    }
+  }
+
+  /**
+   * @return Amount of pages which can be loaded starting from given page without crossing the boundary of the extent.
+   */
+  private static int pagesInExtent(long pageIndex, int pageCount) {
+    final int pagesLeft = EXTENT_SIZE - (int) (pageIndex & (EXTENT_SIZE - 1));
+    return Math.min(pagesLeft, pageCount);
+  }
+
+  private O2QCache partition(long fileId, long pageIndex) {
+    return partitions[partitionIndex(fileId, pageIndex)];
+  }
+
+  private int partitionIndex(long fileId, long pageIndex) {
+    final long extent = pageIndex >>> EXTENT_SHIFT;
+
+    long hash = fileId * 31 + extent;
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+
+    return (int) hash & partitionMask;
+  }
+}
@@ -0,0 +1,251 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+
+package com.orientechnologies.orient.core.storage.cache.local.twoq;
+
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.thread.OThreadPoolExecutorWithLogging;
+import com.orientechnologies.common.util.OUncaughtExceptionHandler;
+import com.orientechnologies.orient.core.storage.cache.OAbstractWriteCache;
+import com.orientechnologies.orient.core.storage.cache.OWriteCache;
+import com.orientechnologies.orient.core.storage.OStorageAbstract;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Detects sequential reads of the files, like full scans of the clusters, and reads ahead pages which are going to be requested
+ * next. Once {@link #SEQUENTIAL_READS_THRESHOLD} consecutive pages of the file are read, pages which follow them are loaded
+ * asynchronously by windows of consecutive pages. Size of the window starts from {@link #MIN_WINDOW_SIZE} pages and is doubled
+ * with every next window up to the configured limit. Next window is requested when reader reaches the middle of the previous one,
+ * so loading of pages overlaps with their processing. Any non sequential read of the file stops read ahead of it.
+ * <p>
+ * Pages are loaded by the background threads shared by all caches. Read ahead is only a hint, so it is skipped if there are too
+ * many pending requests and errors are ignored.
+ * <p>
+ * Detection does not take any locks, because it is performed on every read of the page. State of the reads of the file is
+ * immutable and is replaced by CAS operation, if several threads read the same file concurrently and one of them loses the race it
+ * repeats detection on the state written by the winner.
+ *
+ * @see com.orientechnologies.orient.core.config.OGlobalConfiguration#DISK_CACHE_READ_AHEAD_MAX_PAGES
+ */
+final class OReadAheadController {
+  /**
+   * Amount of consecutive pages which should be read to consider access to the file as sequential.
+   */
+  static final int SEQUENTIAL_READS_THRESHOLD = 3;
+
+  /**
+   * Size of the first read ahead window in pages.
+   */
+  static final int MIN_WINDOW_SIZE = 4;
+
+  /**
+   * Maximum amount of read ahead requests which wait to be executed.
+   */
+  private static final int MAX_PENDING_REQUESTS = 1024;
+
+  private static final OThreadPoolExecutorWithLogging readAheadExecutor;
+
+  static {
+    final int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    readAheadExecutor = new OThreadPoolExecutorWithLogging(threads, threads, 60L, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(MAX_PENDING_REQUESTS), new ReadAheadThreadFactory(), new ThreadPoolExecutor.DiscardPolicy());
+    readAheadExecutor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Loads read ahead pages into the cache.
+   */
+  interface OPrefetcher {
+    /**
+     * @param fileId        Id of the file, which is already checked for compatibility with the write cache.
+     * @param pageIndex     Index of the first page to load.
+     * @param pageCount     Amount of pages to load.
+     * @param scan          <code>true</code> if pages are read under {@link com.orientechnologies.orient.core.storage.cache.OScanAccessHint}.
+     * @param isFileTracked Should be checked under the lock of the file before the pages are loaded, if it returns
+     *                      <code>false</code> file was closed, truncated or deleted after the request was made and pages should not
+     *                      be loaded.
+     */
+    void prefetch(long fileId, long pageIndex, int pageCount, OWriteCache writeCache, boolean verifyChecksums, boolean scan,
+        BooleanSupplier isFileTracked) throws IOException;
+  }
+
+  /**
+   * State of the reads of the single file.
+   */
+  private static final class OFileState {
+    private static final OFileState INITIAL = new OFileState(-1, 0, 0, 0);
+
+    private final long lastPageIndex;
+    private final int  sequentialReads;
+    private final int  windowSize;
+
+    /**
+     * Index of the page which follows the last page requested to be read ahead.
+     */
+    private final long readAheadUpTo;
+
+    private OFileState(final long lastPageIndex, final int sequentialReads, final int windowSize, final long readAheadUpTo) {
+      this.lastPageIndex = lastPageIndex;
+      this.sequentialReads = sequentialReads;
+      this.windowSize = windowSize;
+      this.readAheadUpTo = readAheadUpTo;
+    }
+  }
+
+  private final int                                           maxWindowSize;
+  private final OPrefetcher                                   prefetcher;
+  private final ConcurrentMap<Long, AtomicReference<OFileState>> files = new ConcurrentHashMap<>();
+
+  /**
+   * @param maxWindowSize Maximum amount of pages which are read ahead at once.
+   * @param prefetcher    Loads read ahead pages into the cache.
+   */
+  OReadAheadController(final int maxWindowSize, final OPrefetcher prefetcher) {
+    if (maxWindowSize < 1)
+      throw new IllegalArgumentException("Size of read ahead window should be positive but passed value is " + maxWindowSize);
+
+    this.maxWindowSize = maxWindowSize;
+    this.prefetcher = prefetcher;
+  }
+
+  /**
+   * Registers read of the page and requests read ahead of the next pages if the file is read sequentially.
+   *
+   * @param fileId Id of the file, which is already checked for compatibility with the write cache.
+   * @param scan   <code>true</code> if page is read under {@link com.orientechnologies.orient.core.storage.cache.OScanAccessHint},
+   *               pages which are read ahead for it are treated the same way.
+   */
+  void onRead(final long fileId, final long pageIndex, final OWriteCache writeCache, final boolean verifyChecksums,
+      final boolean scan) {
+    AtomicReference<OFileState> fileState = files.get(fileId);
+    if (fileState == null) {
+      final AtomicReference<OFileState> newFileState = new AtomicReference<>(OFileState.INITIAL);
+      fileState = files.putIfAbsent(fileId, newFileState);
+
+      if (fileState == null)
+        fileState = newFileState;
+    }
+
+    long startPageIndex;
+    int pageCount;
+
+    while (true) {
+      final OFileState state = fileState.get();
+
+      if (pageIndex == state.lastPageIndex)
+        return;
+
+      final int sequentialReads;
+      int windowSize;
+      long readAheadUpTo;
+
+      //pages which are inside of already requested window are considered as sequential too,
+      //because some of them may be skipped by reader, for example if all records of the page are deleted
+      if (pageIndex > state.lastPageIndex && pageIndex <= Math.max(state.lastPageIndex + 1, state.readAheadUpTo)) {
+        sequentialReads = state.sequentialReads + 1;
+        windowSize = state.windowSize;
+        readAheadUpTo = state.readAheadUpTo;
+      } else {
+        sequentialReads = 1;
+        windowSize = 0;
+        readAheadUpTo = 0;
+      }
+
+      startPageIndex = -1;
+      pageCount = 0;
+
+      if (sequentialReads >= SEQUENTIAL_READS_THRESHOLD) {
+        if (readAheadUpTo <= pageIndex)
+          readAheadUpTo = pageIndex + 1;
+
+        //wait till reader reaches the middle of the previous window
+        if (windowSize == 0 || readAheadUpTo - pageIndex <= windowSize / 2) {
+          windowSize = windowSize == 0 ? Math.min(MIN_WINDOW_SIZE, maxWindowSize) : Math.min(windowSize << 1, maxWindowSize);
+
+          startPageIndex = readAheadUpTo;
+          pageCount = windowSize;
+
+          readAheadUpTo += pageCount;
+        }
+      }
+
+      if (fileState.compareAndSet(state, new OFileState(pageIndex, sequentialReads, windowSize, readAheadUpTo)))
+        break;
+    }
+
+    if (pageCount == 0)
+      return;
+
+    final AtomicReference<OFileState> requestFileState = fileState;
+    final long requestStartPageIndex = startPageIndex;
+    final int requestPageCount = pageCount;
+
+    readAheadExecutor.execute(() -> {
+      try {
+        prefetcher.prefetch(fileId, requestStartPageIndex, requestPageCount, writeCache, verifyChecksums, scan,
+            () -> files.get(fileId) == requestFileState);
+      } catch (IOException | RuntimeException e) {
+        OLogManager.instance().debug(this, "Read ahead of pages %d-%d of file %d failed", e, requestStartPageIndex,
+            requestStartPageIndex + requestPageCount - 1, fileId);
+      }
+    });
+  }
+
+  /**
+   * Stops read ahead of the file. Should be called under the exclusive lock of the file before it is closed, truncated or deleted,
+   * so read ahead requests which are not executed yet are ignored.
+   */
+  void forgetFile(final long fileId) {
+    files.remove(fileId);
+  }
+
+  /**
+   * Stops read ahead of all files of the storage.
+   */
+  void forgetStorage(final int storageId) {
+    files.keySet().removeIf(fileId -> OAbstractWriteCache.extractStorageId(fileId) == storageId);
+  }
+
+  void clear() {
+    files.clear();
+  }
+
+  private static final class ReadAheadThreadFactory implements ThreadFactory {
+    @Override
+    public Thread newThread(Runnable r) {
+      final Thread thread = new Thread(OStorageAbstract.storageThreadGroup, r);
+
+      thread.setDaemon(true);
+      thread.setName("OrientDB Read Cache Read Ahead");
+      thread.setUncaughtExceptionHandler(new OUncaughtExceptionHandler());
+
+      return thread;
+    }
+  }
+}
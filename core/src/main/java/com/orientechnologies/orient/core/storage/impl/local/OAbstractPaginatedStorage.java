@@ -33,6 +33,7 @@ import com.orientechnologies.common.thread.OScheduledThreadPoolExecutorWithLoggi
 import com.orientechnologies.common.types.OModifiableBoolean;
 import com.orientechnologies.common.util.OCommonConst;
 import com.orientechnologies.common.util.OPair;
+import com.orientechnologies.common.util.ORawPair;
 import com.orientechnologies.common.util.OUncaughtExceptionHandler;
 import com.orientechnologies.orient.core.OConstants;
 import com.orientechnologies.orient.core.Orient;
@@ -193,6 +194,7 @@ import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -305,6 +307,12 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
   private volatile   OLowDiskSpaceInformation lowDiskSpace                               = null;
   private volatile   boolean                  modificationLock                           = false;
   private volatile   boolean                  readLock                                   = false;
+  /**
+   * If <code>true</code> commit of transaction waits till its records are forced to the disk.
+   *
+   * @see OGlobalConfiguration#WAL_GROUP_COMMIT
+   */
+  private volatile   boolean                  groupCommit                                = false;
   /**
    * Set of pages which were detected as broken and need to be repaired.
    */
@@ -373,6 +381,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
           throw new OStorageException("Cannot open the storage '" + name + "' because it does not exist in path: " + url);
 
         initLockingStrategy(contextConfiguration);
+        groupCommit = contextConfiguration.getValueAsBoolean(OGlobalConfiguration.WAL_GROUP_COMMIT);
 
         transaction = new ThreadLocal<>();
         ((OStorageConfigurationImpl) configuration).load(contextConfiguration);
@@ -578,6 +587,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
           throw new OStorageExistsException("Cannot create new storage '" + getURL() + "' because it already exists");
 
         initLockingStrategy(contextConfiguration);
+        groupCommit = contextConfiguration.getValueAsBoolean(OGlobalConfiguration.WAL_GROUP_COMMIT);
 
         ((OStorageConfigurationImpl) configuration).initConfiguration(contextConfiguration);
         componentsFactory = new OCurrentStorageComponentsFactory(getConfiguration());
@@ -2075,6 +2085,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
       }
 
       final List<ORecordOperation> result = new ArrayList<>();
+      OLogSequenceNumber commitLsn = null;
       stateLock.acquireReadLock();
       try {
         if (modificationLock) {
@@ -2161,6 +2172,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
             commitIndexes(indexOperations);
 
             final OLogSequenceNumber lsn = endStorageTx();
+            commitLsn = lsn;
             final DataOutputStream journaledStream = OAbstractPaginatedStorage.journaledStream;
             if (journaledStream != null) { // send event to journaled tx stream if the streaming is on
               final int txId = transaction.getClientTransactionId();
@@ -2216,6 +2228,10 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         }
       }
 
+      // LOCKS ARE RELEASED ALREADY, SO TRANSACTIONS WHICH ARE COMMITTED IN THE MEANTIME ARE FORCED TO THE DISK TOGETHER
+      if (groupCommit && commitLsn != null && writeAheadLog != null)
+        awaitDurability(commitLsn);
+
       if (OLogManager.instance().isDebugEnabled())
         OLogManager.instance()
             .debug(this, "%d Committed transaction %d on database '%s' (result=%s)", Thread.currentThread().getId(),
@@ -2904,6 +2920,66 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     }
   }
 
+  public boolean isIndexBulkLoadSupported(int indexId) throws OInvalidIndexEngineIdException {
+    try {
+      checkOpenness();
+
+      stateLock.acquireReadLock();
+      try {
+        checkOpenness();
+
+        checkIndexId(indexId);
+        return indexEngines.get(indexId).isBulkLoadSupported();
+      } finally {
+        stateLock.releaseReadLock();
+      }
+    } catch (OInvalidIndexEngineIdException ie) {
+      throw logAndPrepareForRethrow(ie);
+    } catch (RuntimeException ee) {
+      throw logAndPrepareForRethrow(ee);
+    } catch (Error ee) {
+      throw logAndPrepareForRethrow(ee);
+    } catch (Throwable t) {
+      throw logAndPrepareForRethrow(t);
+    }
+  }
+
+  /**
+   * Fills the empty index at once by the given entries.
+   *
+   * @see OIndexEngine#bulkLoad(Iterator, OIndexEngine.Validator)
+   */
+  public long bulkLoadIndex(int indexId, Iterator<ORawPair<Object, OIdentifiable>> entries,
+      OIndexEngine.Validator<Object, OIdentifiable> validator) throws OInvalidIndexEngineIdException {
+    try {
+      checkOpenness();
+
+      stateLock.acquireReadLock();
+      try {
+        checkOpenness();
+
+        checkLowDiskSpaceRequestsAndReadOnlyConditions();
+
+        checkIndexId(indexId);
+
+        final OIndexEngine engine = indexEngines.get(indexId);
+        makeStorageDirty();
+
+        return engine.bulkLoad(entries, validator);
+      } finally {
+        stateLock.releaseReadLock();
+      }
+    } catch (OInvalidIndexEngineIdException ie) {
+      throw logAndPrepareForRethrow(ie);
+    } catch (RuntimeException ee) {
+      throw logAndPrepareForRethrow(ee);
+    } catch (Error ee) {
+      throw logAndPrepareForRethrow(ee);
+    } catch (Throwable t) {
+      throw logAndPrepareForRethrow(t);
+    }
+  }
+
   public Object getIndexFirstKey(int indexId) throws OInvalidIndexEngineIdException {
     try {
       if (transaction.get() != null)
@@ -4317,6 +4393,20 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     }
   }
 
+  /**
+   * Waits till all the records of the WAL up to the passed in LSN are forced to the disk.
+   */
+  private void awaitDurability(OLogSequenceNumber lsn) {
+    try {
+      writeAheadLog.flushTill(lsn).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw OException.wrapException(new OStorageException("Waiting for the commit to be forced to the disk was interrupted"), e);
+    } catch (ExecutionException e) {
+      throw OException.wrapException(new OStorageException("Error during forcing of the commit to the disk"), e.getCause());
+    }
+  }
+
   private OLogSequenceNumber endStorageTx() throws IOException {
     final OLogSequenceNumber lsn = atomicOperationsManager.endAtomicOperation(false, null);
     assert atomicOperationsManager.getCurrentOperation() == null;
@@ -20,6 +20,7 @@
 
 package com.orientechnologies.orient.core.storage.impl.local.paginated.base;
 
+import com.orientechnologies.common.comparator.ODefaultComparator;
 import com.orientechnologies.common.serialization.types.OBinarySerializer;
 import com.orientechnologies.common.serialization.types.OByteSerializer;
 import com.orientechnologies.common.serialization.types.OIntegerSerializer;
@@ -184,6 +185,23 @@ public class ODurablePage {
     return binarySerializer.deserializeFromByteBufferObject(buffer, changes, offset);
   }
 
+  /**
+   * Compares object serialized at given offset with the given object without deserialization, see
+   * {@link OBinarySerializer#compareInByteBuffer(ByteBuffer, Object)}. If page is changed inside of atomic operation, serialized
+   * object is deserialized taking changes into account and compared by {@link ODefaultComparator}.
+   */
+  protected <T> int compareInDirectMemory(OBinarySerializer<T> binarySerializer, int offset, T object) {
+    assert cacheEntry.getCachePointer().getBuffer() == null || cacheEntry.isLockAcquiredByCurrentThread();
+
+    final ByteBuffer buffer = pointer.getBufferDuplicate();
+    if (changes == null) {
+      buffer.position(offset);
+      return binarySerializer.compareInByteBuffer(buffer, object);
+    }
+
+    return ODefaultComparator.INSTANCE.compare(binarySerializer.deserializeFromByteBufferObject(buffer, changes, offset), object);
+  }
+
   protected byte getByteValue(int pageOffset) {
     assert cacheEntry.getCachePointer().getBuffer() == null || cacheEntry.isLockAcquiredByCurrentThread();
 
@@ -64,9 +64,14 @@ import java.util.ListIterator;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentNavigableMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Condition;
 import java.util.stream.Stream;
 import java.util.zip.CRC32;
@@ -82,6 +87,11 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
   private static final int    ONE_KB                  = 1024;
   private static final int    ONE_MB                  = ONE_KB * ONE_KB;
 
+  /**
+   * Minimum interval (in ns.) the group commit waits for other transactions once concurrent commits are detected.
+   */
+  private static final long MIN_GROUP_COMMIT_DELAY = TimeUnit.MICROSECONDS.toNanos(10);
+
   private final long walSizeHardLimit = OGlobalConfiguration.WAL_MAX_SIZE.getValueAsLong() * ONE_KB * ONE_KB;
   private       long walSizeLimit     = walSizeHardLimit;
 
@@ -131,6 +141,7 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
 
   private static final OScheduledThreadPoolExecutorWithLogging autoFileCloser;
   private static final OScheduledThreadPoolExecutorWithLogging commitExecutor;
+  private static final OScheduledThreadPoolExecutorWithLogging groupCommitExecutor;
 
   static {
     autoFileCloser = new OScheduledThreadPoolExecutorWithLogging(1, r -> {
@@ -152,10 +163,33 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
     });
 
     commitExecutor.setMaximumPoolSize(1);
+
+    groupCommitExecutor = new OScheduledThreadPoolExecutorWithLogging(1, r -> {
+      final Thread thread = new Thread(OStorageAbstract.storageThreadGroup, r);
+      thread.setDaemon(true);
+      thread.setName("OrientDB WAL Group Commit Task");
+      thread.setUncaughtExceptionHandler(new OUncaughtExceptionHandler());
+      return thread;
+    });
+
+    groupCommitExecutor.setMaximumPoolSize(1);
   }
 
   private final ConcurrentNavigableMap<OLogSequenceNumber, Runnable> events = new ConcurrentSkipListMap<>();
 
+  /**
+   * Futures returned by {@link #flushTill(OLogSequenceNumber)} which are not completed yet.
+   */
+  private final ConcurrentNavigableMap<OLogSequenceNumber, CompletableFuture<Void>> flushFutures = new ConcurrentSkipListMap<>();
+
+  private final    long          groupCommitMaxDelay  = TimeUnit.MICROSECONDS
+      .toNanos(OGlobalConfiguration.WAL_GROUP_COMMIT_MAX_DELAY.getValueAsInteger());
+  private volatile long          groupCommitDelay     = 0;
+  private final    AtomicBoolean groupCommitScheduled = new AtomicBoolean();
+  private final    AtomicInteger groupCommitRequests  = new AtomicInteger();
+  private final    LongAdder     groupCommitFsyncs    = new LongAdder();
+  private final    LongAdder     groupCommitTxs       = new LongAdder();
+
   public ODiskWriteAheadLog(OLocalPaginatedStorage storage) throws IOException {
     this(storage.getConfiguration().getContextConfiguration().getValueAsInteger(OGlobalConfiguration.WAL_CACHE_SIZE),
         storage.getConfiguration().getContextConfiguration().getValueAsInteger(OGlobalConfiguration.WAL_COMMIT_TIMEOUT),
@@ -798,6 +832,8 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
         assert false;
       }
 
+      failFlushFutures(new OStorageException("WAL of storage '" + storage.getName() + "' is closed"));
+
 
       masterRecordLSNHolder.close();
     } finally {
@@ -1153,6 +1189,7 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
     this.flushedLsn = newLsn;
 
     fireEventsFor(newLsn);
+    completeFlushFutures(newLsn);
   }
 
   public void checkFreeSpace() throws IOException {
@@ -1193,6 +1230,106 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
     }
   }
 
+  @Override
+  public CompletableFuture<Void> flushTill(OLogSequenceNumber lsn) {
+    final OLogSequenceNumber localFlushedLsn = flushedLsn;
+    if (localFlushedLsn != null && lsn.compareTo(localFlushedLsn) <= 0)
+      return CompletableFuture.completedFuture(null);
+
+    final CompletableFuture<Void> future = flushFutures.computeIfAbsent(lsn, k -> new CompletableFuture<>());
+
+    // FLUSHED LSN COULD BE CHANGED BEFORE THE FUTURE WAS REGISTERED
+    final OLogSequenceNumber potentiallyUpdatedLocalFlushedLsn = flushedLsn;
+    if (potentiallyUpdatedLocalFlushedLsn != null && lsn.compareTo(potentiallyUpdatedLocalFlushedLsn) <= 0)
+      completeFlushFutures(potentiallyUpdatedLocalFlushedLsn);
+    else {
+      groupCommitRequests.incrementAndGet();
+      if (groupCommitScheduled.compareAndSet(false, true))
+        groupCommitExecutor.schedule(this::groupCommit, groupCommitDelay, TimeUnit.NANOSECONDS);
+    }
+
+    return future;
+  }
+
+  /**
+   * @return Amount of fsyncs performed by the group commit.
+   */
+  public long getGroupCommitFsyncCount() {
+    return groupCommitFsyncs.sum();
+  }
+
+  /**
+   * @return Amount of transactions which were made durable by the group commit.
+   */
+  public long getGroupCommitTxCount() {
+    return groupCommitTxs.sum();
+  }
+
+  /**
+   * Forces the log to the disk once for all the requests of {@link #flushTill(OLogSequenceNumber)} which are received till now.
+   * Requests which are received while the log is forced are served by the next run, which is scheduled after the current one.
+   */
+  private void groupCommit() {
+    groupCommitScheduled.set(false);
+
+    final int requests = groupCommitRequests.getAndSet(0);
+    // ALL THE REQUESTS COULD BE SERVED BY THE PREVIOUS RUN
+    if (requests == 0 || flushFutures.isEmpty())
+      return;
+
+    try {
+      final long start = System.nanoTime();
+      flush();
+      final long fsyncTime = System.nanoTime() - start;
+
+      groupCommitFsyncs.increment();
+      groupCommitTxs.add(requests);
+
+      adaptGroupCommitDelay(requests, fsyncTime);
+    } catch (RuntimeException e) {
+      OLogManager.instance().error(this, "Error during WAL group commit", e);
+      failFlushFutures(e);
+    }
+  }
+
+  /**
+   * Transactions are not delayed while they are committed one by one. Once concurrent commits are detected the interval is
+   * doubled till the maximum one, but it is never longer than the fsync itself, because waiting longer is more expensive than one
+   * more fsync.
+   */
+  private void adaptGroupCommitDelay(int requests, long fsyncTime) {
+    long delay = groupCommitDelay;
+
+    if (requests > 1)
+      delay = Math.min(Math.min(groupCommitMaxDelay, fsyncTime), Math.max(delay * 2, MIN_GROUP_COMMIT_DELAY));
+    else
+      delay = delay / 2;
+
+    groupCommitDelay = delay;
+  }
+
+  private void completeFlushFutures(OLogSequenceNumber lsn) {
+    final Iterator<CompletableFuture<Void>> futures = flushFutures.headMap(lsn, true).values().iterator();
+    while (futures.hasNext()) {
+      final CompletableFuture<Void> future = futures.next();
+      futures.remove();
+      future.complete(null);
+    }
+  }
+
+  /**
+   * Completes exceptionally all the futures returned by {@link #flushTill(OLogSequenceNumber)} which are not completed yet, when the
+   * log can not be forced to the disk. Next requests try to force the log again.
+   */
+  void failFlushFutures(Throwable cause) {
+    final Iterator<CompletableFuture<Void>> futures = flushFutures.values().iterator();
+    while (futures.hasNext()) {
+      final CompletableFuture<Void> future = futures.next();
+      futures.remove();
+      future.completeExceptionally(cause);
+    }
+  }
+
   /**
    * @inheritDoc
    */
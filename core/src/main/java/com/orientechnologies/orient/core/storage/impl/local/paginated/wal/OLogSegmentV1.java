@@ -189,12 +189,15 @@ public class OLogSegmentV1 implements OLogSegment {
           return;
 
         if (synced == null || synced.compareTo(stored) < 0) { // nothing synced yet or we have new data to sync
-          syncedUpTo = stored;
           segmentCache.sync();
+          syncedUpTo = stored;
           writeAheadLog.setFlushedLsn(stored);
         }
       } catch (IOException ioe) {
         OLogManager.instance().error(this, "Can not force sync content of file " + path, ioe);
+        // FLUSHED LSN IS NOT CHANGED, SO COMMITS WHICH WAIT FOR IT WOULD WAIT FOREVER
+        writeAheadLog
+            .failFlushFutures(OException.wrapException(new OStorageException("Can not force sync content of file " + path), ioe));
       }
     }
   }
@@ -218,6 +218,9 @@ final class OLogSegmentV2 implements OLogSegment {
         }
       } catch (IOException ioe) {
         OLogManager.instance().error(this, "Can not force sync content of file " + path, ioe);
+        // FLUSHED LSN IS NOT CHANGED, SO COMMITS WHICH WAIT FOR IT WOULD WAIT FOREVER
+        writeAheadLog
+            .failFlushFutures(OException.wrapException(new OStorageException("Can not force sync content of file " + path), ioe));
       }
     }
   }
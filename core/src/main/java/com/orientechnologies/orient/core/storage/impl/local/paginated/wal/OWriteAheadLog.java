@@ -27,6 +27,7 @@ import com.orientechnologies.orient.core.storage.impl.local.paginated.atomicoper
 import java.io.File;
 import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author Andrey Lomakin (a.lomakin-at-orientdb.com)
@@ -145,6 +146,16 @@ public interface OWriteAheadLog {
    */
   void addEventAt(OLogSequenceNumber lsn, Runnable event);
 
+  /**
+   * Requests to force all the records till the given LSN to the disk. Requests of several threads which are issued at the same
+   * time are served by a single fsync, so it is cheaper than {@link #flush()} called by each of them.
+   *
+   * @param lsn the LSN of the last record which should be forced to the disk.
+   *
+   * @return future which is completed once the record with the given LSN is forced to the disk.
+   */
+  CompletableFuture<Void> flushTill(OLogSequenceNumber lsn);
+
   /**
    * Adds new segment so all subsequent log entries will be added to this new segment.
    * New segment can not be appended if:
@@ -30,6 +30,7 @@ import com.orientechnologies.orient.core.storage.cache.OReadCache;
 import com.orientechnologies.orient.core.storage.cache.OWriteCache;
 import com.orientechnologies.orient.core.storage.cache.local.OWOWCache;
 import com.orientechnologies.orient.core.storage.cache.local.twoq.O2QCache;
+import com.orientechnologies.orient.core.storage.cache.local.twoq.OPartitioned2QCache;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.ODiskWriteAheadLog;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWriteAheadLog;
@@ -181,6 +182,13 @@ public class OPerformanceStatisticManager {
    */
   private long walCacheOverflowCount = -1;
 
+  /**
+   * Average amount of transactions which are forced to the disk by single fsync of WAL group commit.
+   * Value is updated on demand if monitoring is switched on.
+   * Supported only for disk based storage.
+   */
+  private double walGroupCommitTxPerFsync = -1;
+
   /**
    * Size of read cache in bytes.
    * Value is updated on demand if monitoring is switched on.
@@ -236,7 +244,7 @@ public class OPerformanceStatisticManager {
    * disk based storage.
    * Initialized on demand.
    */
-  private volatile O2QCache readCache;
+  private volatile OReadCache readCache;
 
   /**
    * Flags which indicates whether {@link #writeAheadLog} field is initialized on demand.
@@ -283,13 +291,13 @@ public class OPerformanceStatisticManager {
   /**
    * @return Returns current instance of read cache and initializes local reference if such one is not initialized yet.
    */
-  private O2QCache gerReadCache() {
+  private OReadCache gerReadCache() {
     if (readCacheInitialized)
       return readCache;
 
     final OReadCache cache = storage.getReadCache();
-    if (cache instanceof O2QCache) {
-      this.readCache = (O2QCache) cache;
+    if (cache instanceof O2QCache || cache instanceof OPartitioned2QCache) {
+      this.readCache = cache;
     } else {
       this.readCache = null;
     }
@@ -927,7 +935,7 @@ public class OPerformanceStatisticManager {
     switchLock.acquireReadLock();
     try {
       if (enabled) {
-        final O2QCache cache = gerReadCache();
+        final OReadCache cache = gerReadCache();
         if (cache != null)
           readCacheSize = cache.getUsedMemory();
 
@@ -1047,6 +1055,30 @@ public class OPerformanceStatisticManager {
     }
   }
 
+  /**
+   * @return Average amount of transactions which are forced to the disk by single fsync of WAL group commit or <code>-1</code>
+   * if value is undefined
+   */
+  public double getWALGroupCommitTxPerFsync() {
+    switchLock.acquireReadLock();
+    try {
+      if (enabled) {
+        final ODiskWriteAheadLog wal = getWriteAheadLog();
+        if (wal != null) {
+          final long fsyncs = wal.getGroupCommitFsyncCount();
+          if (fsyncs > 0)
+            walGroupCommitTxPerFsync = ((double) wal.getGroupCommitTxCount()) / fsyncs;
+        }
+
+        return walGroupCommitTxPerFsync;
+      } else {
+        return walGroupCommitTxPerFsync;
+      }
+    } finally {
+      switchLock.releaseReadLock();
+    }
+  }
+
   /**
    * @return time which is spent on logging of single record or <code>-1</code> if value is undefined.
    */
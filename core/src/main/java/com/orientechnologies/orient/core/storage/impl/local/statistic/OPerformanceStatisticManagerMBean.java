@@ -132,6 +132,11 @@ public class OPerformanceStatisticManagerMBean implements DynamicMBean {
    */
   private static final String WAL_CACHE_OVERFLOW_COUNT = "walCacheOverflowCount";
 
+  /**
+   * Name of "walGroupCommitTxPerFsync" performance attribute
+   */
+  private static final String WAL_GROUP_COMMIT_TX_PER_FSYNC = "walGroupCommitTxPerFsync";
+
   /**
    * Name of "walLogTime" performance attribute
    */
@@ -291,6 +296,12 @@ public class OPerformanceStatisticManagerMBean implements DynamicMBean {
       else
         throwComponentsAreNotSupported(WAL_CACHE_OVERFLOW_COUNT);
       break;
+    case WAL_GROUP_COMMIT_TX_PER_FSYNC:
+      if (componentName == null)
+        return manager.getWALGroupCommitTxPerFsync();
+      else
+        throwComponentsAreNotSupported(WAL_GROUP_COMMIT_TX_PER_FSYNC);
+      break;
     case WAL_LOG_TIME:
       if (componentName == null)
         return manager.getWALLogRecordTime();
@@ -433,6 +444,7 @@ public class OPerformanceStatisticManagerMBean implements DynamicMBean {
 
     populateWALSize(performanceAttributes);
     populateWALCacheOverflowCount(performanceAttributes);
+    populateWALGroupCommitTxPerFsync(performanceAttributes);
     populateWALLogTime(performanceAttributes);
     populateWALEndAOLogTime(performanceAttributes);
     populateWALStartAOLogTime(performanceAttributes);
@@ -582,6 +594,14 @@ public class OPerformanceStatisticManagerMBean implements DynamicMBean {
     performanceAttributes.add(walCacheOverflowCount);
   }
 
+  private void populateWALGroupCommitTxPerFsync(List<MBeanAttributeInfo> performanceAttributes) {
+    final MBeanAttributeInfo walGroupCommitTxPerFsync = new ModelMBeanAttributeInfo(WAL_GROUP_COMMIT_TX_PER_FSYNC,
+        double.class.getName(), "Average amount of transactions which are forced to the disk by single fsync of WAL group commit",
+        true, false, false);
+
+    performanceAttributes.add(walGroupCommitTxPerFsync);
+  }
+
   private void populateWALLogTime(List<MBeanAttributeInfo> performanceAttributes) {
     final MBeanAttributeInfo walLogTime = new ModelMBeanAttributeInfo(WAL_LOG_TIME, long.class.getName(),
         "Time which is spent to log single record in WAL", true, false, false);
@@ -583,6 +583,28 @@ public class ODirectMemoryOnlyDiskCache extends OAbstractWriteCache implements O
     return totalPages * pageSize;
   }
 
+  /**
+   * Pages of in-memory storage are never evicted, so size of this cache is not limited.
+   */
+  @Override
+  public void changeMaximumAmountOfMemory(long readCacheMaxMemory) {
+  }
+
+  @Override
+  public long getScanBypassedPages() {
+    return 0;
+  }
+
+  @Override
+  public long getScanBufferHits() {
+    return 0;
+  }
+
+  @Override
+  public long getScanCacheHits() {
+    return 0;
+  }
+
   @Override
   public boolean checkLowDiskSpace() throws IOException {
     return true;
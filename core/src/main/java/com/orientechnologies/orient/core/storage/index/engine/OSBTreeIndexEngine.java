@@ -21,6 +21,7 @@
 package com.orientechnologies.orient.core.storage.index.engine;
 
 import com.orientechnologies.common.serialization.types.OBinarySerializer;
+import com.orientechnologies.common.util.ORawPair;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.encryption.OEncryption;
 import com.orientechnologies.orient.core.index.OIndexAbstractCursor;
@@ -172,6 +173,17 @@ public class OSBTreeIndexEngine implements OIndexEngine {
     return sbTree.validatedPut(key, value, (Validator) validator);
   }
 
+  @Override
+  public boolean isBulkLoadSupported() {
+    return true;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public long bulkLoad(Iterator<ORawPair<Object, OIdentifiable>> entries, Validator<Object, OIdentifiable> validator) {
+    return sbTree.bulkLoad((Iterator) entries, (Validator) validator);
+  }
+
   @Override
   public Object getFirstKey() {
     return sbTree.firstKey();
@@ -24,6 +24,7 @@ import com.orientechnologies.common.comparator.ODefaultComparator;
 import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.common.serialization.types.OBinarySerializer;
+import com.orientechnologies.common.util.ORawPair;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.encryption.OEncryption;
 import com.orientechnologies.orient.core.exception.OTooBigIndexKeyException;
@@ -38,10 +39,12 @@ import com.orientechnologies.orient.core.iterator.OEmptyMapEntryIterator;
 import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.storage.cache.OCacheEntry;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.OLocalPaginatedStorage;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.atomicoperations.OAtomicOperation;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.base.ODurableComponent;
 import com.orientechnologies.orient.core.storage.impl.local.statistic.OSessionStoragePerformanceStatistic;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -85,6 +88,9 @@ public class OSBTree<K, V> extends ODurableComponent {
 
   private static final int MAX_PATH_LENGTH = OGlobalConfiguration.SBTREE_MAX_DEPTH.getValueAsInteger();
 
+  // POINTER TO THE ENTRY AND ITS LINK FLAG IN THE BUCKET
+  private static final int BULK_LOAD_ENTRY_OVERHEAD = 5;
+
   private final static long                  ROOT_INDEX       = 0;
   private final        Comparator<? super K> comparator       = ODefaultComparator.INSTANCE;
   private final        String                nullFileExtension;
@@ -455,6 +461,82 @@ public class OSBTree<K, V> extends ODurableComponent {
     }
   }
 
+  /**
+   * Fills the empty tree by the passed in entries. Instead of insertion of entries one by one, entries are sorted externally and
+   * then leaf and non-leaf buckets are built from the bottom to the top. Buckets are filled only up to {@link
+   * OGlobalConfiguration#INDEX_BULK_LOAD_FILL_FACTOR}, so the rest of the page is left for further insertions.
+   * <p>
+   * All buckets are written in a single atomic operation, so pages are logged only once as a whole and the tree never becomes
+   * visible in partially built state, but all pages of the tree are kept in memory until the operation is completed. So the tree is
+   * built bottom-up only if its pages, estimated from the size of the sorted entries, fit into {@link
+   * OGlobalConfiguration#INDEX_BULK_LOAD_MAX_HEAP_PERCENT} of the heap. Otherwise, or if the tree is not empty, for example because
+   * of concurrent insertions during sorting, sorted entries are put one by one, each in its own atomic operation. Temporary files of
+   * the sort are kept in the storage directory.
+   *
+   * @param entries   entries to put in the tree in any order, null keys are not accepted
+   * @param validator resolves entries with equal keys, is called with the value of already processed entry as old value, if it
+   *                  is {@code null} the value of the last entry wins
+   *
+   * @return amount of entries in the tree
+   */
+  public long bulkLoad(Iterator<ORawPair<K, V>> entries, OIndexEngine.Validator<K, V> validator) {
+    startOperation();
+    final File sortDirectory = storage instanceof OLocalPaginatedStorage ?
+        ((OLocalPaginatedStorage) storage).getStoragePath().toFile() :
+        null;
+    try (OSBTreeBulkLoadSorter<K, V> sorter = new OSBTreeBulkLoadSorter<>(this, keySerializer, keyTypes, valueSerializer,
+        OGlobalConfiguration.INDEX_BULK_LOAD_SORT_BUFFER_SIZE.getValueAsInteger(), sortDirectory)) {
+      long entriesSize = 0;
+      // ENTRIES ARE SORTED WITHOUT LOCK, BECAUSE THEIR SOURCE MAY BE SLOW AND MAY NEED LOCKS OF OTHER COMPONENTS
+      while (entries.hasNext()) {
+        final ORawPair<K, V> entry = entries.next();
+        final K key = entry.getFirst();
+        if (key == null)
+          throw new OSBTreeException("Null keys can not be bulk loaded into sbtree", this);
+
+        final int keySize = keySerializer.getObjectSize(key, (Object[]) keyTypes);
+        if (keySize > MAX_KEY_SIZE) {
+          OLogManager.instance()
+              .error(this, "Key %s is skipped during bulk load of sbtree %s, key size %d is more than allowed %d", null, key,
+                  getName(), keySize, MAX_KEY_SIZE);
+          continue;
+        }
+
+        entriesSize += keySize + valueSerializer.getObjectSize(entry.getSecond()) + BULK_LOAD_ENTRY_OVERHEAD;
+        sorter.add(keySerializer.preprocess(key, (Object[]) keyTypes), entry.getSecond());
+      }
+
+      if (isBulkLoadInMemoryBudget(entriesSize)) {
+        final OAtomicOperation atomicOperation = startAtomicOperation(true);
+        acquireExclusiveLock();
+        try {
+          if (isEmptyForBulkLoad(atomicOperation)) {
+            final long size = bulkLoadSorted(sorter.sorted(), validator, atomicOperation);
+            endAtomicOperation(false, null);
+            return size;
+          }
+
+          endAtomicOperation(false, null);
+        } catch (IOException | RuntimeException e) {
+          rollback(e);
+          throw e;
+        } finally {
+          releaseExclusiveLock();
+        }
+      } else
+        OLogManager.instance()
+            .info(this, "Sbtree %s is too big to be built in memory (about %d bytes of entries), sorted keys are put one by one",
+                getName(), entriesSize);
+
+      // EVERY PUT IS A SEPARATE ATOMIC OPERATION, SO ONLY PAGES OF A SINGLE PUT ARE KEPT IN MEMORY
+      return putSorted(sorter.sorted(), validator);
+    } catch (IOException e) {
+      throw OException.wrapException(new OSBTreeException("Error during bulk load of sbtree with name " + getName(), this), e);
+    } finally {
+      completeOperation();
+    }
+  }
+
   public void close(boolean flush) {
     startOperation();
     try {
@@ -997,6 +1079,226 @@ public class OSBTree<K, V> extends ODurableComponent {
     atomicOperationsManager.acquireExclusiveLockTillOperationComplete(this);
   }
 
+  private boolean isEmptyForBulkLoad(OAtomicOperation atomicOperation) throws IOException {
+    final OCacheEntry rootCacheEntry = loadPageForRead(atomicOperation, fileId, ROOT_INDEX, false);
+    try {
+      final OSBTreeBucket<K, V> rootBucket = new OSBTreeBucket<K, V>(rootCacheEntry, keySerializer, keyTypes, valueSerializer,
+          encryption);
+      return rootBucket.isLeaf() && rootBucket.isEmpty();
+    } finally {
+      releasePageFromRead(atomicOperation, rootCacheEntry);
+    }
+  }
+
+  /**
+   * Estimates the amount of pages of the tree built by {@link #bulkLoadSorted(Iterator, OIndexEngine.Validator, OAtomicOperation)}
+   * from the size of the serialized entries. The atomic operation keeps both the page and its changes for every page of the tree.
+   */
+  private static boolean isBulkLoadInMemoryBudget(long entriesSize) {
+    final float fillFactor = Math.min(Math.max(OGlobalConfiguration.INDEX_BULK_LOAD_FILL_FACTOR.getValueAsFloat(), 0.1f), 1.0f);
+    final long pages = (long) (entriesSize / (OSBTreeBucket.MAX_PAGE_SIZE_BYTES * fillFactor)) + 1;
+    final long budget = Runtime.getRuntime().maxMemory() / 100 * Math.max(
+        OGlobalConfiguration.INDEX_BULK_LOAD_MAX_HEAP_PERCENT.getValueAsInteger(), 0);
+
+    return pages * 2 * OSBTreeBucket.MAX_PAGE_SIZE_BYTES <= budget;
+  }
+
+  private long putSorted(Iterator<ORawPair<K, V>> sorted, OIndexEngine.Validator<K, V> validator) {
+    while (sorted.hasNext()) {
+      final ORawPair<K, V> entry = sorted.next();
+      put(entry.getFirst(), entry.getSecond(), validator);
+    }
+
+    return size();
+  }
+
+  @SuppressWarnings("unchecked")
+  private long bulkLoadSorted(Iterator<ORawPair<K, V>> sorted, OIndexEngine.Validator<K, V> validator,
+      OAtomicOperation atomicOperation) throws IOException {
+    final float fillFactor = Math.min(Math.max(OGlobalConfiguration.INDEX_BULK_LOAD_FILL_FACTOR.getValueAsFloat(), 0.1f), 1.0f);
+    final int reservedSpace = (int) ((1 - fillFactor) * OSBTreeBucket.MAX_PAGE_SIZE_BYTES);
+
+    final List<BulkLoadNode<K>> leaves = new ArrayList<>();
+    long treeSize = 0;
+
+    OCacheEntry leafCacheEntry = null;
+    OSBTreeBucket<K, V> leaf = null;
+
+    ORawPair<K, V> pending = sorted.hasNext() ? sorted.next() : null;
+    while (pending != null) {
+      final K key = pending.getFirst();
+      V value = pending.getSecond();
+
+      // ENTRIES WITH EQUAL KEYS ARE MERGED THE SAME WAY AS VALIDATED PUT DOES
+      pending = null;
+      while (sorted.hasNext()) {
+        final ORawPair<K, V> next = sorted.next();
+        if (comparator.compare(key, next.getFirst()) != 0) {
+          pending = next;
+          break;
+        }
+
+        if (validator == null)
+          value = next.getSecond();
+        else {
+          final Object result = validator.validate(key, value, next.getSecond());
+          if (result != OIndexEngine.Validator.IGNORE)
+            value = (V) result;
+        }
+      }
+
+      final boolean createLinkToTheValue = valueSerializer.getObjectSize(value) > MAX_EMBEDDED_VALUE_SIZE;
+      final long valueLink;
+      if (createLinkToTheValue) {
+        // VALUE PAGES ARE TAKEN FROM THE FREE LIST KEPT IN THE ROOT, SO THE ROOT CAN NOT BE HELD WHILE THE LINK IS CREATED
+        if (leafCacheEntry != null && leafCacheEntry.getPageIndex() == ROOT_INDEX) {
+          releasePageFromWrite(atomicOperation, leafCacheEntry);
+          valueLink = createLinkToTheValue(value, atomicOperation);
+          leafCacheEntry = loadPageForWrite(atomicOperation, fileId, ROOT_INDEX, false);
+          leaf = new OSBTreeBucket<K, V>(leafCacheEntry, keySerializer, keyTypes, valueSerializer, encryption);
+        } else
+          valueLink = createLinkToTheValue(value, atomicOperation);
+      } else
+        valueLink = -1;
+
+      final OSBTreeBucket.SBTreeEntry<K, V> entry = new OSBTreeBucket.SBTreeEntry<K, V>(-1, -1, key,
+          new OSBTreeValue<V>(createLinkToTheValue, valueLink, createLinkToTheValue ? null : value));
+
+      if (leaf == null) {
+        // THE FIRST LEAF IS BUILT IN THE EMPTY ROOT, SO NO PAGE IS ALLOCATED IF ALL ENTRIES FIT INTO THE SINGLE BUCKET
+        leafCacheEntry = loadPageForWrite(atomicOperation, fileId, ROOT_INDEX, false);
+        leaf = new OSBTreeBucket<K, V>(leafCacheEntry, keySerializer, keyTypes, valueSerializer, encryption);
+        leaves.add(new BulkLoadNode<>(ROOT_INDEX, key));
+      }
+
+      if ((!leaf.isEmpty() && leaf.getFreeSpace() < reservedSpace) || !leaf.addEntry(leaf.size(), entry, false)) {
+        if (leaf.isEmpty())
+          throw new OSBTreeException("Entry with key " + key + " does not fit into the empty bucket", this);
+
+        if (leafCacheEntry.getPageIndex() == ROOT_INDEX) {
+          // ROOT BECOMES NON-LEAF BUCKET, SO ENTRIES OF THE FIRST LEAF ARE MOVED TO THE NEWLY ALLOCATED PAGE
+          final List<OSBTreeBucket.SBTreeEntry<K, V>> rootEntries = new ArrayList<>(leaf.size());
+          for (int i = 0; i < leaf.size(); i++)
+            rootEntries.add(leaf.getEntry(i));
+          releasePageFromWrite(atomicOperation, leafCacheEntry);
+
+          leafCacheEntry = addPage(atomicOperation, fileId);
+          leaf = new OSBTreeBucket<K, V>(leafCacheEntry, true, keySerializer, keyTypes, valueSerializer, encryption);
+          leaf.addAll(rootEntries);
+          leaves.set(0, new BulkLoadNode<>(leafCacheEntry.getPageIndex(), leaves.get(0).minKey));
+        }
+
+        final OCacheEntry newLeafCacheEntry = addPage(atomicOperation, fileId);
+        final OSBTreeBucket<K, V> newLeaf = new OSBTreeBucket<K, V>(newLeafCacheEntry, true, keySerializer, keyTypes,
+            valueSerializer, encryption);
+
+        leaf.setRightSibling(newLeafCacheEntry.getPageIndex());
+        newLeaf.setLeftSibling(leafCacheEntry.getPageIndex());
+        releasePageFromWrite(atomicOperation, leafCacheEntry);
+
+        leafCacheEntry = newLeafCacheEntry;
+        leaf = newLeaf;
+        leaves.add(new BulkLoadNode<>(leafCacheEntry.getPageIndex(), key));
+
+        if (!leaf.addEntry(0, entry, false))
+          throw new OSBTreeException("Entry with key " + key + " does not fit into the empty bucket", this);
+      }
+
+      treeSize++;
+    }
+
+    if (leafCacheEntry != null) {
+      if (leafCacheEntry.getPageIndex() == ROOT_INDEX)
+        leaf.setTreeSize(treeSize);
+
+      releasePageFromWrite(atomicOperation, leafCacheEntry);
+    }
+
+    if (leaves.size() > 1) {
+      List<BulkLoadNode<K>> level = leaves;
+      while (!writeRootForBulkLoad(level, treeSize, atomicOperation))
+        level = bulkLoadLevel(level, reservedSpace, atomicOperation);
+    }
+
+    return treeSize;
+  }
+
+  /**
+   * Builds the level of non-leaf buckets on top of passed in buckets. Separator of every child is the smallest key of its subtree.
+   * Every non-leaf bucket has one child more than entries, the smallest key of the leftmost child is used as separator of the
+   * bucket itself on the next level.
+   */
+  private List<BulkLoadNode<K>> bulkLoadLevel(List<BulkLoadNode<K>> children, int reservedSpace, OAtomicOperation atomicOperation)
+      throws IOException {
+    final List<BulkLoadNode<K>> parents = new ArrayList<>();
+
+    int index = 0;
+    while (index < children.size()) {
+      final BulkLoadNode<K> leftmostChild = children.get(index);
+      index++;
+
+      final OCacheEntry cacheEntry = addPage(atomicOperation, fileId);
+      try {
+        final OSBTreeBucket<K, V> bucket = new OSBTreeBucket<K, V>(cacheEntry, false, keySerializer, keyTypes, valueSerializer,
+            encryption);
+        parents.add(new BulkLoadNode<>(cacheEntry.getPageIndex(), leftmostChild.minKey));
+
+        while (index < children.size()) {
+          final int size = bucket.size();
+          // THE LAST CHILD CAN NOT BE THE ONLY CHILD OF THE NEXT BUCKET
+          final boolean canStartNextBucket = children.size() - index >= 2;
+          if (size > 0 && canStartNextBucket && bucket.getFreeSpace() < reservedSpace)
+            break;
+
+          final BulkLoadNode<K> child = children.get(index);
+          final OSBTreeBucket.SBTreeEntry<K, V> entry = new OSBTreeBucket.SBTreeEntry<K, V>(children.get(index - 1).pageIndex,
+              child.pageIndex, child.minKey, null);
+          if (!bucket.addEntry(size, entry, false)) {
+            assert size > 1;
+
+            if (!canStartNextBucket) {
+              // THE LAST ENTRY IS MOVED TO THE NEXT BUCKET TOGETHER WITH THE LAST CHILD
+              bucket.shrink(size - 1);
+              index--;
+            }
+            break;
+          }
+
+          index++;
+        }
+      } finally {
+        releasePageFromWrite(atomicOperation, cacheEntry);
+      }
+    }
+
+    return parents;
+  }
+
+  private boolean writeRootForBulkLoad(List<BulkLoadNode<K>> children, long treeSize, OAtomicOperation atomicOperation)
+      throws IOException {
+    final OCacheEntry rootCacheEntry = loadPageForWrite(atomicOperation, fileId, ROOT_INDEX, false);
+    try {
+      final long freeListPage = new OSBTreeBucket<K, V>(rootCacheEntry, keySerializer, keyTypes, valueSerializer, encryption)
+          .getValuesFreeListFirstIndex();
+
+      final OSBTreeBucket<K, V> rootBucket = new OSBTreeBucket<K, V>(rootCacheEntry, false, keySerializer, keyTypes,
+          valueSerializer, encryption);
+      rootBucket.setTreeSize(treeSize);
+      rootBucket.setValuesFreeListFirstIndex(freeListPage);
+
+      for (int i = 1; i < children.size(); i++) {
+        final BulkLoadNode<K> child = children.get(i);
+        if (!rootBucket.addEntry(i - 1,
+            new OSBTreeBucket.SBTreeEntry<K, V>(children.get(i - 1).pageIndex, child.pageIndex, child.minKey, null), false))
+          return false;
+      }
+
+      return true;
+    } finally {
+      releasePageFromWrite(atomicOperation, rootCacheEntry);
+    }
+  }
+
   private void checkNullSupport(K key) {
     if (key == null && !nullPointerSupport)
       throw new OSBTreeException("Null keys are not supported.", this);
@@ -1869,6 +2171,16 @@ public class OSBTree<K, V> extends ODurableComponent {
     }
   }
 
+  private static final class BulkLoadNode<K> {
+    private final long pageIndex;
+    private final K    minKey;
+
+    private BulkLoadNode(long pageIndex, K minKey) {
+      this.pageIndex = pageIndex;
+      this.minKey = minKey;
+    }
+  }
+
   public class OSBTreeFullKeyCursor implements OSBTreeKeyCursor<K> {
     private long pageIndex;
     private int  itemIndex;
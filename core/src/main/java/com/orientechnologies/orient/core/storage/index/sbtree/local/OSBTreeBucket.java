@@ -134,8 +134,7 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
 
     while (low <= high) {
       int mid = (low + high) >>> 1;
-      K midVal = getKey(mid);
-      int cmp = comparator.compare(midVal, key);
+      int cmp = compareKey(mid, key);
 
       if (cmp < 0)
         low = mid + 1;
@@ -147,6 +146,21 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
     return -(low + 1); // key not found.
   }
 
+  /**
+   * Compares key stored under the given index with the given key. Not encrypted keys are compared in serialized form without
+   * deserialization, see {@link OBinarySerializer#compareInByteBuffer(java.nio.ByteBuffer, Object)}.
+   */
+  private int compareKey(int index, K key) {
+    if (encryption != null)
+      return comparator.compare(getKey(index), key);
+
+    int entryPosition = getIntValue(index * OIntegerSerializer.INT_SIZE + POSITIONS_ARRAY_OFFSET);
+    if (!isLeaf)
+      entryPosition += 2 * OLongSerializer.LONG_SIZE;
+
+    return compareInDirectMemory(keySerializer, entryPosition, key);
+  }
+
   public long remove(int entryIndex) throws IOException {
     int entryPosition = getIntValue(POSITIONS_ARRAY_OFFSET + entryIndex * OIntegerSerializer.INT_SIZE);
     int keySize;
@@ -210,6 +224,13 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
     return getIntValue(SIZE_OFFSET);
   }
 
+  /**
+   * @return amount of bytes which are still available for entries and their positions
+   */
+  public int getFreeSpace() {
+    return getIntValue(FREE_POINTER_OFFSET) - size() * OIntegerSerializer.INT_SIZE - POSITIONS_ARRAY_OFFSET;
+  }
+
   public SBTreeEntry<K, V> getEntry(int entryIndex) {
     int entryPosition = getIntValue(entryIndex * OIntegerSerializer.INT_SIZE + POSITIONS_ARRAY_OFFSET);
 
@@ -0,0 +1,256 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.storage.index.sbtree.local;
+
+import com.orientechnologies.common.comparator.ODefaultComparator;
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.serialization.types.OBinarySerializer;
+import com.orientechnologies.common.util.ORawPair;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * External merge sort of the entries which are bulk loaded into the {@link OSBTree}. Entries are sorted in memory in chunks of
+ * limited size, every sorted chunk is spilled into the temporary file in native format of key and value serializers and then all
+ * chunks are merged in a single sorted stream. Temporary files are created in the passed in directory, usually the directory of the
+ * storage, and are deleted when the sorter is closed.
+ * <p>
+ * Sort is stable, entries with equal keys are returned in the same order in which they were added.
+ *
+ * @see com.orientechnologies.orient.core.config.OGlobalConfiguration#INDEX_BULK_LOAD_SORT_BUFFER_SIZE
+ */
+final class OSBTreeBulkLoadSorter<K, V> implements Closeable {
+  private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+  private final OSBTree<K, V>        tree;
+  private final OBinarySerializer<K> keySerializer;
+  private final OType[]              keyTypes;
+  private final OBinarySerializer<V> valueSerializer;
+  private final int                  bufferSize;
+  private final File                 directory;
+
+  private final Comparator<? super K> comparator = ODefaultComparator.INSTANCE;
+
+  private final List<ORawPair<K, V>> buffer;
+  private final List<File>           runs    = new ArrayList<>();
+  private final List<RunReader>      readers = new ArrayList<>();
+
+  OSBTreeBulkLoadSorter(OSBTree<K, V> tree, OBinarySerializer<K> keySerializer, OType[] keyTypes,
+      OBinarySerializer<V> valueSerializer, int bufferSize, File directory) {
+    this.tree = tree;
+    this.keySerializer = keySerializer;
+    this.keyTypes = keyTypes;
+    this.valueSerializer = valueSerializer;
+    this.bufferSize = Math.max(bufferSize, 1);
+    this.buffer = new ArrayList<>(Math.min(this.bufferSize, 1024));
+    this.directory = directory;
+  }
+
+  void add(K key, V value) throws IOException {
+    buffer.add(new ORawPair<>(key, value));
+
+    if (buffer.size() >= bufferSize)
+      spill();
+  }
+
+  /**
+   * @return all added entries sorted by key, iterator throws {@link OSBTreeException} if the temporary files cannot be read
+   */
+  Iterator<ORawPair<K, V>> sorted() throws IOException {
+    buffer.sort((first, second) -> comparator.compare(first.getFirst(), second.getFirst()));
+
+    if (runs.isEmpty())
+      return buffer.iterator();
+
+    final PriorityQueue<RunCursor> queue = new PriorityQueue<>(runs.size() + 1, (first, second) -> {
+      final int result = comparator.compare(first.current.getFirst(), second.current.getFirst());
+      if (result != 0)
+        return result;
+
+      // KEEPS ORDER OF ADDITION OF EQUAL KEYS
+      return Integer.compare(first.order, second.order);
+    });
+
+    for (int i = 0; i < runs.size(); i++) {
+      final RunReader reader = new RunReader(runs.get(i));
+      readers.add(reader);
+
+      final RunCursor cursor = new RunCursor(reader, i);
+      if (cursor.advance())
+        queue.add(cursor);
+    }
+
+    final RunCursor memoryCursor = new RunCursor(buffer.iterator(), runs.size());
+    if (memoryCursor.advance())
+      queue.add(memoryCursor);
+
+    return new Iterator<ORawPair<K, V>>() {
+      @Override
+      public boolean hasNext() {
+        return !queue.isEmpty();
+      }
+
+      @Override
+      public ORawPair<K, V> next() {
+        final RunCursor cursor = queue.poll();
+        if (cursor == null)
+          throw new NoSuchElementException();
+
+        final ORawPair<K, V> result = cursor.current;
+        if (cursor.advance())
+          queue.add(cursor);
+
+        return result;
+      }
+    };
+  }
+
+  @Override
+  public void close() {
+    buffer.clear();
+
+    for (RunReader reader : readers)
+      reader.close();
+    readers.clear();
+
+    for (File run : runs) {
+      if (run.exists() && !run.delete())
+        OLogManager.instance().warn(this, "Temporary file %s of bulk load of sbtree %s can not be deleted", run, tree.getName());
+    }
+    runs.clear();
+  }
+
+  private void spill() throws IOException {
+    buffer.sort((first, second) -> comparator.compare(first.getFirst(), second.getFirst()));
+
+    final File run = File.createTempFile("sbtree-bulk-load", ".run", directory);
+    runs.add(run);
+
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run), IO_BUFFER_SIZE))) {
+      for (ORawPair<K, V> entry : buffer) {
+        final byte[] key = new byte[keySerializer.getObjectSize(entry.getFirst(), (Object[]) keyTypes)];
+        keySerializer.serializeNativeObject(entry.getFirst(), key, 0, (Object[]) keyTypes);
+
+        final byte[] value = new byte[valueSerializer.getObjectSize(entry.getSecond())];
+        valueSerializer.serializeNativeObject(entry.getSecond(), value, 0);
+
+        out.writeInt(key.length);
+        out.write(key);
+        out.writeInt(value.length);
+        out.write(value);
+      }
+    }
+
+    buffer.clear();
+  }
+
+  private final class RunReader implements Iterator<ORawPair<K, V>> {
+    private final File            file;
+    private final DataInputStream in;
+    private       ORawPair<K, V>  next;
+
+    private RunReader(File file) throws IOException {
+      this.file = file;
+      this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), IO_BUFFER_SIZE));
+      next = read();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public ORawPair<K, V> next() {
+      if (next == null)
+        throw new NoSuchElementException();
+
+      final ORawPair<K, V> result = next;
+      try {
+        next = read();
+      } catch (IOException e) {
+        throw OException.wrapException(new OSBTreeException("Error during reading of the sorted keys from " + file, tree), e);
+      }
+
+      return result;
+    }
+
+    private ORawPair<K, V> read() throws IOException {
+      final int keySize;
+      try {
+        keySize = in.readInt();
+      } catch (EOFException ignore) {
+        return null;
+      }
+
+      final byte[] key = new byte[keySize];
+      in.readFully(key);
+
+      final byte[] value = new byte[in.readInt()];
+      in.readFully(value);
+
+      return new ORawPair<>(keySerializer.deserializeNativeObject(key, 0), valueSerializer.deserializeNativeObject(value, 0));
+    }
+
+    private void close() {
+      try {
+        in.close();
+      } catch (IOException ignore) {
+        // THE FILE IS DELETED ANYWAY
+      }
+    }
+  }
+
+  private final class RunCursor {
+    private final Iterator<ORawPair<K, V>> iterator;
+    private final int                      order;
+    private       ORawPair<K, V>           current;
+
+    private RunCursor(Iterator<ORawPair<K, V>> iterator, int order) {
+      this.iterator = iterator;
+      this.order = order;
+    }
+
+    private boolean advance() {
+      if (!iterator.hasNext())
+        return false;
+
+      current = iterator.next();
+      return true;
+    }
+  }
+}
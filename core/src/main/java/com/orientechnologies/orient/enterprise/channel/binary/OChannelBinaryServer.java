@@ -25,6 +25,8 @@ import java.io.BufferedOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.Socket;
 
 import com.orientechnologies.orient.core.config.OContextConfiguration;
@@ -46,4 +48,25 @@ public class OChannelBinaryServer extends OChannelBinary {
     in = new DataInputStream(inStream);
     connected();
   }
+
+  /**
+   * Creates a channel which reads and writes data through passed streams instead of the streams of the socket. It is used by
+   * transports which do not work with socket in blocking mode.
+   */
+  public OChannelBinaryServer(final Socket iSocket, final InputStream iInput, final OutputStream iOutput,
+      final OContextConfiguration iConfig) throws IOException {
+    super(iSocket, iConfig);
+
+    if (socketBufferSize > 0) {
+      inStream = new BufferedInputStream(iInput, socketBufferSize);
+      outStream = new BufferedOutputStream(iOutput, socketBufferSize);
+    } else {
+      inStream = new BufferedInputStream(iInput);
+      outStream = new BufferedOutputStream(iOutput);
+    }
+
+    out = new DataOutputStream(outStream);
+    in = new DataInputStream(inStream);
+    connected();
+  }
 }
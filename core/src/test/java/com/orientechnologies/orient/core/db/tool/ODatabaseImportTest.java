@@ -4,11 +4,15 @@ import com.orientechnologies.orient.core.command.OCommandOutputListener;
 import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.OElement;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 
 /**
@@ -78,4 +82,48 @@ public class ODatabaseImportTest {
     dbImp.drop();
   }
 
+  @Test
+  public void exportImportBinaryRecords() throws IOException {
+    ODatabaseDocument db = new ODatabaseDocumentTx("memory:" + ODatabaseImportTest.class.getSimpleName() + "_binary");
+    db.create();
+    db.getMetadata().getSchema().createClass("City").createProperty("name", OType.STRING);
+    db.getMetadata().getSchema().createClass("Person");
+    OElement city = db.newElement("City");
+    city.setProperty("name", "Rome");
+    city.save();
+    for (int i = 0; i < 100; i++) {
+      OElement person = db.newElement("Person");
+      person.setProperty("name", "name" + i);
+      person.setProperty("city", city);
+      person.save();
+    }
+
+    String fileName = "./target/" + ODatabaseImportTest.class.getSimpleName() + "_binary.json.gz";
+    ODatabaseExport export = new ODatabaseExport((ODatabaseDocumentInternal) db, fileName, new OCommandOutputListener() {
+      @Override
+      public void onMessage(String iText) {
+      }
+    });
+    export.setOptions(" -binaryRecords=true -threads=2");
+    export.exportDatabase();
+    db.drop();
+    Assert.assertTrue(new File(OBinaryRecordStream.getDirectory(fileName), OBinaryRecordStream.MANIFEST_NAME).exists());
+
+    ODatabaseDocument dbImp = new ODatabaseDocumentTx("memory:import_" + ODatabaseImportTest.class.getSimpleName() + "_binary");
+    dbImp.create();
+    ODatabaseImport importer = new ODatabaseImport((ODatabaseDocumentInternal) dbImp, fileName, new OCommandOutputListener() {
+      @Override
+      public void onMessage(String iText) {
+      }
+    });
+    importer.setOptions(" -threads=2");
+    importer.importDatabase();
+
+    Assert.assertEquals(100, dbImp.countClass("Person"));
+    try (OResultSet result = dbImp.query("select city.name as cityName from Person where name = 'name42'")) {
+      Assert.assertEquals("Rome", result.next().getProperty("cityName"));
+    }
+    dbImp.drop();
+  }
+
 }
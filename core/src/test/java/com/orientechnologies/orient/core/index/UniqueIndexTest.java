@@ -1,7 +1,9 @@
 package com.orientechnologies.orient.core.index;
 
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.metadata.schema.OClass;
 import com.orientechnologies.orient.core.metadata.schema.OSchema;
@@ -14,7 +16,10 @@ import org.junit.Before;
 import org.junit.After;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Created by tglman on 01/02/16.
@@ -93,6 +98,70 @@ public class UniqueIndexTest {
     Assert.assertEquals(result.size(), 1);
   }
 
+  @Test
+  public void testBulkLoadOnCreateAndRebuild() {
+    final int sortBufferSize = OGlobalConfiguration.INDEX_BULK_LOAD_SORT_BUFFER_SIZE.getValueAsInteger();
+    // FORCES SPILLING OF SORTED KEYS TO TEMPORARY FILES
+    OGlobalConfiguration.INDEX_BULK_LOAD_SORT_BUFFER_SIZE.setValue(1000);
+    try {
+      final OSchema schema = db.getMetadata().getSchema();
+      final OClass userClass = schema.createClass("User");
+      userClass.createProperty("Id", OType.INTEGER);
+
+      final int count = 20000;
+      final List<Integer> ids = new ArrayList<>();
+      for (int i = 0; i < count; i++)
+        ids.add(i);
+      Collections.shuffle(ids);
+
+      for (int id : ids) {
+        final ODocument user = new ODocument("User");
+        user.field("Id", id);
+        db.save(user);
+      }
+
+      final OIndex<?> index = userClass.getProperty("Id").createIndex(OClass.INDEX_TYPE.UNIQUE);
+      assertIndexContent(index, count);
+
+      index.rebuild();
+      assertIndexContent(index, count);
+
+      final ODocument user = new ODocument("User");
+      user.field("Id", count);
+      db.save(user);
+      Assert.assertEquals(user.getIdentity(), index.get(count));
+
+      try {
+        final ODocument duplicate = new ODocument("User");
+        duplicate.field("Id", 42);
+        db.save(duplicate);
+        Assert.fail("Expected record duplicate exception");
+      } catch (ORecordDuplicatedException ex) {
+      }
+    } finally {
+      OGlobalConfiguration.INDEX_BULK_LOAD_SORT_BUFFER_SIZE.setValue(sortBufferSize);
+    }
+  }
+
+  private void assertIndexContent(OIndex<?> index, int count) {
+    Assert.assertEquals(count, index.getSize());
+
+    for (int i = 0; i < count; i++) {
+      final OIdentifiable rid = (OIdentifiable) index.get(i);
+      Assert.assertNotNull(rid);
+      Assert.assertEquals(i, (int) ((ODocument) rid.getRecord()).<Integer>field("Id"));
+    }
+
+    final OIndexCursor cursor = index.cursor();
+    int expected = 0;
+    Map.Entry<Object, OIdentifiable> entry;
+    while ((entry = cursor.nextEntry()) != null) {
+      Assert.assertEquals(expected, entry.getKey());
+      expected++;
+    }
+    Assert.assertEquals(count, expected);
+  }
+
   @After
   public void after() {
     db.drop();
@@ -0,0 +1,87 @@
+package com.orientechnologies.orient.core.query.live;
+
+import com.orientechnologies.orient.core.db.record.ORecordOperation;
+import com.orientechnologies.orient.core.sql.executor.OResultInternal;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+
+public class OLiveQuerySubscriptionIndexTest {
+
+  private OLiveQuerySubscriptionIndex index;
+
+  @Before
+  public void before() {
+    index = new OLiveQuerySubscriptionIndex();
+    index.add(1, null);
+    index.add(2, new OLiveQueryFilter("Person", null));
+    index.add(3, new OLiveQueryFilter("Person", Collections.singletonList(OLiveQueryFilter.OFieldCondition.equalTo("name", "foo"))));
+    index.add(4, new OLiveQueryFilter("Person",
+        Collections.singletonList(OLiveQueryFilter.OFieldCondition.range("age", 10, false, 20L, true))));
+    index.add(5, new OLiveQueryFilter("Employee", Arrays
+        .asList(OLiveQueryFilter.OFieldCondition.equalTo("age", 5), OLiveQueryFilter.OFieldCondition.range("age", null, false, 0, false))));
+  }
+
+  @Test
+  public void testEquality() {
+    Assert.assertEquals(ids(1, 2, 3), index.getCandidates(op(ORecordOperation.CREATED, "name", "foo", "person")));
+    Assert.assertEquals(ids(1, 2, 3), index.getCandidates(op(ORecordOperation.CREATED, "name", "FOO", "person")));
+    Assert.assertEquals(ids(1, 2), index.getCandidates(op(ORecordOperation.CREATED, "name", "bar", "person")));
+    Assert.assertEquals(ids(1), index.getCandidates(op(ORecordOperation.CREATED, "name", "foo", "other")));
+  }
+
+  @Test
+  public void testRange() {
+    Assert.assertEquals(ids(1, 2), index.getCandidates(op(ORecordOperation.UPDATED, "age", 10, "person")));
+    Assert.assertEquals(ids(1, 2, 4), index.getCandidates(op(ORecordOperation.UPDATED, "age", 10.5d, "person")));
+    Assert.assertEquals(ids(1, 2, 4), index.getCandidates(op(ORecordOperation.UPDATED, "age", "20", "person")));
+    Assert.assertEquals(ids(1, 2), index.getCandidates(op(ORecordOperation.UPDATED, "age", 21L, "person")));
+  }
+
+  @Test
+  public void testSuperClassesAndAlternatives() {
+    Assert.assertEquals(ids(1, 2, 5), index.getCandidates(op(ORecordOperation.CREATED, "age", 5L, "employee", "person")));
+    Assert.assertEquals(ids(1, 2, 5), index.getCandidates(op(ORecordOperation.CREATED, "age", -3, "employee", "person")));
+    Assert.assertEquals(ids(1, 2, 4), index.getCandidates(op(ORecordOperation.CREATED, "age", 15, "employee", "person")));
+  }
+
+  @Test
+  public void testValuesNotNormalizedAreCandidates() {
+    Assert.assertEquals(ids(1, 2, 3), index.getCandidates(op(ORecordOperation.CREATED, "name", new Date(), "person")));
+    Assert.assertEquals(ids(1, 2, 4), index.getCandidates(op(ORecordOperation.CREATED, "age", "young", "person")));
+  }
+
+  @Test
+  public void testDeleteUsesRecordBefore() {
+    OResultInternal before = new OResultInternal();
+    before.setProperty("name", "foo");
+    OLiveQueryHookV2.OLiveQueryOp op = new OLiveQueryHookV2.OLiveQueryOp(null, before, null, ORecordOperation.DELETED);
+    op.classNames = ids("person");
+    Assert.assertEquals(ids(1, 2, 3), index.getCandidates(op));
+  }
+
+  @Test
+  public void testRemove() {
+    index.remove(3);
+    index.remove(1);
+    Assert.assertEquals(ids(2), index.getCandidates(op(ORecordOperation.CREATED, "name", "foo", "person")));
+  }
+
+  private static OLiveQueryHookV2.OLiveQueryOp op(byte type, String field, Object value, String... classNames) {
+    OResultInternal after = new OResultInternal();
+    after.setProperty(field, value);
+    OLiveQueryHookV2.OLiveQueryOp op = new OLiveQueryHookV2.OLiveQueryOp(null, null, after, type);
+    op.classNames = ids(classNames);
+    return op;
+  }
+
+  private static <T> Set<T> ids(T... ids) {
+    return new HashSet<T>(Arrays.asList(ids));
+  }
+}
@@ -125,6 +125,56 @@ public class OLiveQueryV2Test {
     }
   }
 
+  @Test
+  public void testLiveWithIndexedConditions() throws InterruptedException {
+
+    ODatabaseDocumentTx db = new ODatabaseDocumentTx("memory:OLiveQueryV2TestIndexed");
+    db.activateOnCurrentThread();
+    db.create();
+    try {
+      OClass test = db.getMetadata().getSchema().createClass("test");
+      db.getMetadata().getSchema().createClass("testSub", test);
+
+      MyLiveQueryListener byName = new MyLiveQueryListener(new CountDownLatch(2));
+      MyLiveQueryListener byAge = new MyLiveQueryListener(new CountDownLatch(2));
+      MyLiveQueryListener byNameOrAge = new MyLiveQueryListener(new CountDownLatch(3));
+
+      OLiveQueryMonitor monitor1 = db.live("select from test where name = 'foo'", byName);
+      OLiveQueryMonitor monitor2 = db.live("select from test where age > ? and age <= 30", byAge, 10);
+      OLiveQueryMonitor monitor3 = db.live("select from test where name = 'foo' or age < 0", byNameOrAge);
+
+      db.command("insert into test set name = 'foo', age = 5").close();
+      db.command("insert into testSub set name = 'bar', age = 20").close();
+      db.command("insert into test set name = 'bar', age = -1").close();
+      db.command("insert into test set name = 'bar', age = 40").close();
+      // DELIVERED TO ALL THE SUBSCRIBERS, AFTER ALL THE PREVIOUS CHANGES
+      db.command("insert into testSub set name = 'foo', age = 30").close();
+
+      Assert.assertTrue(byName.latch.await(1, TimeUnit.MINUTES));
+      Assert.assertTrue(byAge.latch.await(1, TimeUnit.MINUTES));
+      Assert.assertTrue(byNameOrAge.latch.await(1, TimeUnit.MINUTES));
+
+      Assert.assertEquals(2, byName.ops.size());
+      Assert.assertEquals(5, (int) byName.ops.get(0).getProperty("age"));
+      Assert.assertEquals(30, (int) byName.ops.get(1).getProperty("age"));
+
+      Assert.assertEquals(2, byAge.ops.size());
+      Assert.assertEquals(20, (int) byAge.ops.get(0).getProperty("age"));
+      Assert.assertEquals(30, (int) byAge.ops.get(1).getProperty("age"));
+
+      Assert.assertEquals(3, byNameOrAge.ops.size());
+      Assert.assertEquals(5, (int) byNameOrAge.ops.get(0).getProperty("age"));
+      Assert.assertEquals(-1, (int) byNameOrAge.ops.get(1).getProperty("age"));
+      Assert.assertEquals(30, (int) byNameOrAge.ops.get(2).getProperty("age"));
+
+      monitor1.unSubscribe();
+      monitor2.unSubscribe();
+      monitor3.unSubscribe();
+    } finally {
+      db.drop();
+    }
+  }
+
   @Test
   public void testRestrictedLiveInsert() throws ExecutionException, InterruptedException {
     ODatabaseDocumentTx db = new ODatabaseDocumentTx("memory:OLiveQueryTest");
@@ -0,0 +1,143 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.common.concur.OTimeoutException;
+import com.orientechnologies.orient.core.command.OBasicCommandContext;
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.sql.OSQLEngine;
+import com.orientechnologies.orient.core.sql.parser.OSelectStatement;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.*;
+
+public class AggregateProjectionCalculationStepTest {
+  private static final String[] AGGREGATES = { "cnt", "total", "lowest", "highest", "average" };
+
+  static ODatabaseDocumentInternal db;
+
+  @BeforeClass
+  public static void beforeClass() {
+    db = new ODatabaseDocumentTx("memory:AggregateProjectionCalculationStepTest");
+    db.create();
+  }
+
+  @AfterClass
+  public static void afterClass() {
+    db.close();
+  }
+
+  @Test
+  public void testPartialAndFinalEqualSinglePass() {
+    testPartialAndFinal(100, null);
+  }
+
+  @Test
+  public void testPartialAndFinalEqualSinglePassAfterSpill() {
+    testPartialAndFinal(20000, 1);
+  }
+
+  private void testPartialAndFinal(int groups, Integer memoryBudgetMB) {
+    OSelectStatement statement = (OSelectStatement) OSQLEngine.parse(
+        "select type, count(*) as cnt, sum(val) as total, min(val) as lowest, max(val) as highest, avg(val) as average "
+            + "from Foo group by type", db);
+
+    List<OResult> firstHalf = new ArrayList<>();
+    List<OResult> secondHalf = new ArrayList<>();
+    List<OResult> all = new ArrayList<>();
+    for (int i = 0; i < groups * 4; i++) {
+      OResultInternal item = new OResultInternal();
+      item.setProperty("type", "type" + (i % groups));
+      // no values at all for some groups in the first half
+      item.setProperty("val", (i % groups) % 7 == 0 && i < groups * 2 ? null : i);
+      (i < groups * 2 ? firstHalf : secondHalf).add(item);
+      all.add(item);
+    }
+
+    OCommandContext ctx = newContext(memoryBudgetMB);
+    Map<Object, OResult> expected = byType(execute(
+        new AggregateProjectionCalculationStep(statement.getProjection(), statement.getGroupBy(), ctx, false), all, ctx));
+
+    List<OResult> partialResults = new ArrayList<>();
+    for (List<OResult> half : Arrays.asList(firstHalf, secondHalf)) {
+      OCommandContext partialCtx = newContext(memoryBudgetMB);
+      AggregateProjectionCalculationStep partial = new AggregateProjectionCalculationStep(statement.getProjection(),
+          statement.getGroupBy(), AggregateProjectionCalculationStep.Mode.PARTIAL, partialCtx, false);
+      List<OResult> result = execute(partial, half, partialCtx);
+      Assert.assertEquals(groups, result.size());
+      for (OResult item : result) {
+        Assert.assertNotNull(item.getMetadata(AggregateProjectionCalculationStep.GROUP_KEY_METADATA));
+      }
+      partialResults.addAll(result);
+      if (memoryBudgetMB != null) {
+        Assert.assertTrue(partial.prettyPrint(0, 2).contains("spilled to disk"));
+      }
+    }
+
+    OCommandContext finalCtx = newContext(memoryBudgetMB);
+    AggregateProjectionCalculationStep merge = new AggregateProjectionCalculationStep(statement.getProjection(),
+        statement.getGroupBy(), AggregateProjectionCalculationStep.Mode.FINAL, finalCtx, false);
+    Map<Object, OResult> merged = byType(execute(merge, partialResults, finalCtx));
+    if (memoryBudgetMB != null) {
+      Assert.assertTrue(merge.prettyPrint(0, 2).contains("spilled to disk"));
+    }
+
+    Assert.assertEquals(groups, expected.size());
+    Assert.assertEquals(expected.keySet(), merged.keySet());
+    for (Map.Entry<Object, OResult> entry : expected.entrySet()) {
+      OResult mergedItem = merged.get(entry.getKey());
+      for (String aggregate : AGGREGATES) {
+        Assert.assertEquals(entry.getKey() + "." + aggregate, entry.getValue().<Object>getProperty(aggregate),
+            mergedItem.<Object>getProperty(aggregate));
+      }
+    }
+  }
+
+  private OCommandContext newContext(Integer memoryBudgetMB) {
+    OBasicCommandContext ctx = new OBasicCommandContext();
+    ctx.setDatabase(db);
+    if (memoryBudgetMB != null) {
+      ctx.setVariable(AggregateProjectionCalculationStep.MEMORY_BUDGET_VARIABLE, memoryBudgetMB);
+    }
+    return ctx;
+  }
+
+  private List<OResult> execute(AggregateProjectionCalculationStep step, List<OResult> input, OCommandContext ctx) {
+    step.setPrevious(new AbstractExecutionStep(ctx, false) {
+      int next = 0;
+
+      @Override
+      public OResultSet syncPull(OCommandContext ctx, int nRecords) throws OTimeoutException {
+        OInternalResultSet result = new OInternalResultSet();
+        for (int i = 0; i < nRecords && next < input.size(); i++) {
+          result.add(input.get(next++));
+        }
+        return result;
+      }
+    });
+    List<OResult> result = new ArrayList<>();
+    try {
+      OResultSet rs = step.syncPull(ctx, 100);
+      while (rs.hasNext()) {
+        while (rs.hasNext()) {
+          result.add(rs.next());
+        }
+        rs = step.syncPull(ctx, 100);
+      }
+    } finally {
+      step.close();
+    }
+    return result;
+  }
+
+  private Map<Object, OResult> byType(List<OResult> results) {
+    Map<Object, OResult> result = new HashMap<>();
+    for (OResult item : results) {
+      Assert.assertNull(result.put(item.getProperty("type"), item));
+    }
+    return result;
+  }
+}
\ No newline at end of file
@@ -171,4 +171,51 @@ public class OCreateViewStatementExecutionTest {
     result.close();
   }
 
+  @Test
+  public void testLiveUpdateInPlace() throws InterruptedException {
+    String className = "testLiveUpdateInPlaceClass";
+    String viewName = "testLiveUpdateInPlace";
+    db.createClass(className);
+
+    for (int i = 0; i < 10; i++) {
+      OElement elem = db.newElement(className);
+      elem.setProperty("name", "name" + i);
+      elem.setProperty("surname", "surname" + i);
+      elem.save();
+    }
+
+    String statement =
+        "CREATE VIEW " + viewName + " FROM (SELECT name, surname FROM " + className + " WHERE name <> 'name0') METADATA {";
+    statement += "updateStrategy:\"live\", ";
+    statement += "originRidField:'origin'";
+    statement += "}";
+
+    db.command(statement);
+
+    Thread.sleep(1000);
+
+    OResultSet result = db.query("SELECT FROM " + viewName);
+    Assert.assertEquals(9, result.stream().count());
+    result.close();
+
+    db.command("update " + className + " set surname = 'changed' where name = 'name1'");
+    db.command("update " + className + " set name = 'name0' where name = 'name2'");
+    db.command("update " + className + " set name = 'name20' where name = 'name0' and surname = 'surname0'");
+    db.command("delete from " + className + " where name = 'name3'");
+
+    Thread.sleep(1000);
+    result = db.query("SELECT FROM " + viewName);
+    Assert.assertEquals(8, result.stream().count());
+    result.close();
+
+    result = db.query("SELECT FROM " + viewName + " WHERE name = 'name1'");
+    Assert.assertEquals("changed", result.next().getProperty("surname"));
+    Assert.assertFalse(result.hasNext());
+    result.close();
+
+    result = db.query("SELECT FROM " + viewName + " WHERE name = 'name20'");
+    Assert.assertTrue(result.hasNext());
+    result.close();
+  }
+
 }
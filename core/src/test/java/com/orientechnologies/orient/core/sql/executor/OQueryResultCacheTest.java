@@ -0,0 +1,204 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.ODatabaseType;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.record.OElement;
+import com.orientechnologies.orient.core.record.OVertex;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class OQueryResultCacheTest {
+
+  private OrientDB          orientDB;
+  private ODatabaseSession  db;
+  private OQueryResultCache cache;
+
+  @Before
+  public void before() {
+    orientDB = new OrientDB("embedded:",
+        OrientDBConfig.builder().addConfig(OGlobalConfiguration.QUERY_RESULT_CACHE_ENABLED, true)
+            .addConfig(OGlobalConfiguration.QUERY_RESULT_CACHE_MAX_RESULTS, 10).build());
+    orientDB.create("test", ODatabaseType.MEMORY);
+    db = orientDB.open("test", "admin", "admin");
+    cache = ((ODatabaseDocumentInternal) db).getSharedContext().getQueryResultCache();
+
+    db.createClass("Person");
+    for (int i = 0; i < 5; i++) {
+      OElement person = db.newElement("Person");
+      person.setProperty("name", "name" + i);
+      person.setProperty("age", i);
+      person.save();
+    }
+  }
+
+  @After
+  public void after() {
+    db.close();
+    orientDB.close();
+  }
+
+  @Test
+  public void testHitAndMiss() {
+    List<String> first = names(db.query("select from Person where age < ? order by name", 3));
+    Assert.assertEquals(1, cache.getMisses());
+    Assert.assertEquals(0, cache.getHits());
+    Assert.assertEquals(1, cache.size());
+    Assert.assertTrue(cache.getUsedMemory() > 0);
+
+    List<String> second = names(db.query("select from Person where age < ? order by name", 3));
+    Assert.assertEquals(1, cache.getHits());
+    Assert.assertEquals(first, second);
+
+    names(db.query("select from Person where age < ? order by name", 4));
+    Assert.assertEquals(2, cache.getMisses());
+    Assert.assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void testCachedRecordsAreUsable() {
+    names(db.query("select from Person where name = 'name1'"));
+    try (OResultSet result = db.query("select from Person where name = 'name1'")) {
+      OResult item = result.next();
+      Assert.assertEquals(1, cache.getHits());
+      Assert.assertTrue(item.isElement());
+      Assert.assertEquals(1, (int) item.getProperty("age"));
+      Assert.assertEquals("Person", item.getElement().get().getSchemaType().get().getName());
+      Assert.assertFalse(result.hasNext());
+    }
+  }
+
+  @Test
+  public void testInvalidatedOnChange() {
+    Assert.assertEquals(5, names(db.query("select from Person")).size());
+
+    OElement person = db.newElement("Person");
+    person.setProperty("name", "name5");
+    person.save();
+    Assert.assertEquals(0, cache.size());
+    Assert.assertEquals(6, names(db.query("select from Person")).size());
+
+    db.command("delete from Person where name = 'name5'").close();
+    Assert.assertEquals(5, names(db.query("select from Person")).size());
+    Assert.assertEquals(0, cache.getHits());
+  }
+
+  @Test
+  public void testAggregates() {
+    Assert.assertEquals(5L, (long) count(db.query("select count(*) as count from Person")));
+    Assert.assertEquals(5L, (long) count(db.query("select count(*) as count from Person")));
+    Assert.assertEquals(1, cache.getHits());
+
+    try (OResultSet result = db.query("select sum(age) as total, avg(age) as average from Person group by name")) {
+      Assert.assertEquals(5, result.stream().count());
+    }
+    Assert.assertEquals(2, cache.size());
+
+    OElement person = db.newElement("Person");
+    person.setProperty("name", "name5");
+    person.save();
+    Assert.assertEquals(0, cache.size());
+    Assert.assertEquals(6L, (long) count(db.query("select count(*) as count from Person")));
+    Assert.assertEquals(1, cache.getHits());
+  }
+
+  @Test
+  public void testNotDeterministicFunctions() {
+    names(db.query("select name, sysdate() as now from Person"));
+    names(db.query("select name, uuid() as id from Person"));
+    names(db.query("select name, date() as today from Person"));
+    Assert.assertEquals(0, cache.size());
+
+    names(db.query("select name, date('2020-01-01', 'yyyy-MM-dd') as day from Person"));
+    Assert.assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testNotInvalidatedByOtherClasses() {
+    db.createClass("Other");
+    names(db.query("select from Person"));
+
+    db.newElement("Other").save();
+    names(db.query("select from Person"));
+    Assert.assertEquals(1, cache.getHits());
+  }
+
+  @Test
+  public void testInvalidatedByReadRecords() {
+    db.createVertexClass("City");
+    db.createVertexClass("Country");
+    db.createEdgeClass("IsIn");
+    OVertex city = db.newVertex("City");
+    city.setProperty("name", "Rome");
+    city.save();
+    OVertex country = db.newVertex("Country");
+    country.setProperty("name", "Italy");
+    country.save();
+    db.newEdge(city, country, "IsIn").save();
+
+    try (OResultSet result = db.query("select out().name as countries from City")) {
+      Assert.assertEquals("[Italy]", result.next().getProperty("countries").toString());
+    }
+
+    country.setProperty("name", "Italia");
+    country.save();
+    try (OResultSet result = db.query("select out().name as countries from City")) {
+      Assert.assertEquals("[Italia]", result.next().getProperty("countries").toString());
+    }
+    Assert.assertEquals(0, cache.getHits());
+  }
+
+  @Test
+  public void testMatch() {
+    names(db.query("match {class: Person, as: p, where: (age > 2)} return p.name as name"));
+    names(db.query("match {class: Person, as: p, where: (age > 2)} return p.name as name"));
+    Assert.assertEquals(1, cache.getHits());
+  }
+
+  @Test
+  public void testNotCachedInTransaction() {
+    db.begin();
+    OElement person = db.newElement("Person");
+    person.setProperty("name", "name5");
+    person.save();
+    Assert.assertEquals(6, names(db.query("select from Person")).size());
+    db.rollback();
+
+    Assert.assertEquals(0, cache.size());
+    Assert.assertEquals(5, names(db.query("select from Person")).size());
+  }
+
+  @Test
+  public void testTooManyResults() {
+    for (int i = 5; i < 20; i++) {
+      OElement person = db.newElement("Person");
+      person.setProperty("name", "name" + i);
+      person.save();
+    }
+    Assert.assertEquals(20, names(db.query("select from Person")).size());
+    Assert.assertEquals(0, cache.size());
+  }
+
+  private Long count(OResultSet result) {
+    Long count = result.next().getProperty("count");
+    result.close();
+    return count;
+  }
+
+  private List<String> names(OResultSet result) {
+    List<String> names = new ArrayList<>();
+    while (result.hasNext()) {
+      names.add(result.next().getProperty("name"));
+    }
+    result.close();
+    return names;
+  }
+}
@@ -312,6 +312,46 @@ public class OSelectStatementExecutionTest {
     result.close();
   }
 
+  @Test
+  public void testSelectOrderBySpillToDisk() {
+    String className = "testSelectOrderBySpillToDisk";
+    db.getMetadata().getSchema().createClass(className);
+    String padding = String.format("%0200d", 0);
+    for (int i = 0; i < 20000; i++) {
+      ODocument doc = db.newInstance(className);
+      doc.setProperty("name", "name" + i);
+      doc.setProperty("surname", "surname" + (i * 7) % 20000);
+      doc.setProperty("padding", padding);
+      doc.save();
+    }
+    OResultSet result = db.query("select from " + className + " let $orderByMemoryBudget = 1 order by surname asc");
+    printExecutionPlan(result);
+
+    String lastSurname = null;
+    for (int i = 0; i < 20000; i++) {
+      Assert.assertTrue(result.hasNext());
+      OResult item = result.next();
+      Assert.assertNotNull(item);
+      String surname = item.getProperty("surname");
+      Assert.assertEquals(padding, item.getProperty("padding"));
+      if (lastSurname != null) {
+        Assert.assertTrue(surname.compareTo(lastSurname) >= 0);
+      }
+      lastSurname = surname;
+    }
+    Assert.assertFalse(result.hasNext());
+    Assert.assertTrue(result.getExecutionPlan().get().prettyPrint(0, 2).contains("spilled to disk"));
+    result.close();
+
+    result = db.query("select name, surname from " + className + " let $orderByMemoryBudget = 1 order by surname desc limit 10");
+    for (int i = 0; i < 10; i++) {
+      Assert.assertTrue(result.hasNext());
+      Assert.assertNotNull(result.next().getProperty("name"));
+    }
+    Assert.assertFalse(result.hasNext());
+    result.close();
+  }
+
   @Test
   public void testSelectOrderWithProjections() {
     String className = "testSelectOrderWithProjections";
@@ -701,6 +741,37 @@ public class OSelectStatementExecutionTest {
     result.close();
   }
 
+  @Test
+  public void testAggregateGroupBySpillToDisk() {
+    String className = "testAggregateGroupBySpillToDisk";
+    db.getMetadata().getSchema().createClass(className);
+    String padding = String.format("%0200d", 0);
+    for (int i = 0; i < 20000; i++) {
+      ODocument doc = db.newInstance(className);
+      doc.setProperty("type", "type" + (i % 5000));
+      doc.setProperty("val", i % 5000);
+      doc.setProperty("padding", padding);
+      doc.save();
+    }
+    OResultSet result = db.query(
+        "select type, count(*) as count, sum(val) as sum, max(padding) as padding from " + className
+            + " let $groupByMemoryBudget = 1 group by type");
+    printExecutionPlan(result);
+    Set<String> types = new HashSet<>();
+    while (result.hasNext()) {
+      OResult item = result.next();
+      String type = item.getProperty("type");
+      int val = Integer.parseInt(type.substring(4));
+      Assert.assertTrue(types.add(type));
+      Assert.assertEquals(4L, (long) item.<Long>getProperty("count"));
+      Assert.assertEquals(val * 4, item.<Number>getProperty("sum").intValue());
+      Assert.assertEquals(padding, item.getProperty("padding"));
+    }
+    Assert.assertEquals(5000, types.size());
+    Assert.assertTrue(result.getExecutionPlan().get().prettyPrint(0, 2).contains("spilled to disk"));
+    result.close();
+  }
+
   @Test
   public void testAggregateSumNoGroupByInProjection() {
     String className = "testAggregateSumNoGroupByInProjection";
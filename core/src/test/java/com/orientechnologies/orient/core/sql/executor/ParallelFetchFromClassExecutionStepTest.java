@@ -0,0 +1,120 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.record.OElement;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class ParallelFetchFromClassExecutionStepTest {
+  private static final String CLASS_NAME = "ParallelFetchFromClassExecutionStepTest";
+
+  static ODatabaseDocument db;
+
+  @BeforeClass
+  public static void beforeClass() {
+    db = new ODatabaseDocumentTx("memory:ParallelFetchFromClassExecutionStepTest");
+    db.create();
+    db.getMetadata().getSchema().createClass(CLASS_NAME, 4);
+    for (int i = 0; i < 1000; i++) {
+      OElement element = db.newElement(CLASS_NAME);
+      element.setProperty("name", "name" + i);
+      element.setProperty("value", i);
+      element.save();
+    }
+  }
+
+  @AfterClass
+  public static void afterClass() {
+    db.close();
+  }
+
+  @Test
+  public void testParallelScan() {
+    OResultSet result = db.query("select from " + CLASS_NAME + " parallel");
+    Assert.assertTrue(result.getExecutionPlan().get().prettyPrint(0, 2).contains("PARALLEL FETCH FROM CLASS"));
+    Set<Integer> values = new HashSet<>();
+    while (result.hasNext()) {
+      values.add(result.next().getProperty("value"));
+    }
+    Assert.assertEquals(1000, values.size());
+    result.close();
+  }
+
+  @Test
+  public void testParallelScanWithFilterAndProjection() {
+    OResultSet result = db.query("select name, value * 2 as double from " + CLASS_NAME + " where value < 100 parallel");
+    int count = 0;
+    while (result.hasNext()) {
+      OResult item = result.next();
+      Assert.assertFalse(item.isElement());
+      int value = Integer.parseInt(item.<String>getProperty("name").substring(4));
+      Assert.assertTrue(value < 100);
+      Assert.assertEquals(value * 2, (int) item.<Integer>getProperty("double"));
+      count++;
+    }
+    Assert.assertEquals(100, count);
+    result.close();
+  }
+
+  @Test
+  public void testParallelScanOrderByRid() {
+    OResultSet result = db.query("select from " + CLASS_NAME + " order by @rid desc parallel");
+    ORID last = null;
+    int count = 0;
+    while (result.hasNext()) {
+      ORID rid = result.next().getIdentity().get();
+      if (last != null) {
+        Assert.assertTrue(rid.compareTo(last) < 0);
+      }
+      last = rid;
+      count++;
+    }
+    Assert.assertEquals(1000, count);
+    result.close();
+  }
+
+  @Test
+  public void testParallelScanWithLimit() {
+    OResultSet result = db.query("select from " + CLASS_NAME + " where value >= 10 limit 20 parallel");
+    int count = 0;
+    while (result.hasNext()) {
+      Assert.assertTrue(result.next().<Integer>getProperty("value") >= 10);
+      count++;
+    }
+    Assert.assertEquals(20, count);
+    result.close();
+  }
+
+  @Test
+  public void testCloseBeforeAllResultsAreRead() {
+    OResultSet result = db.query("select from " + CLASS_NAME + " parallel");
+    Assert.assertTrue(result.hasNext());
+    result.next();
+    result.close();
+
+    Assert.assertTrue(db.isActiveOnCurrentThread());
+
+    result = db.query("select count(*) as count from " + CLASS_NAME);
+    Assert.assertEquals(1000L, (long) result.next().<Long>getProperty("count"));
+    result.close();
+  }
+
+  @Test
+  public void testNoParallelScanInTx() {
+    db.begin();
+    try {
+      OResultSet result = db.query("select from " + CLASS_NAME + " parallel");
+      Assert.assertFalse(result.getExecutionPlan().get().prettyPrint(0, 2).contains("PARALLEL FETCH FROM CLASS"));
+      result.close();
+    } finally {
+      db.rollback();
+    }
+  }
+}
@@ -5,6 +5,7 @@ import com.orientechnologies.orient.core.db.ODatabaseType;
 import com.orientechnologies.orient.core.db.OrientDB;
 import com.orientechnologies.orient.core.db.OrientDBConfig;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.db.record.ridbag.ORidBag;
 import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.record.OVertex;
 import org.junit.After;
@@ -163,4 +164,56 @@ public class OSQLFunctionShortestPathTest {
 
     Assert.assertEquals(0, result.size());
   }
+
+  @Test
+  public void testMaxVisited() throws Exception {
+    Map<String, Object> additionalParams = new HashMap<String, Object>();
+    additionalParams.put(OSQLFunctionShortestPath.PARAM_MAX_VISITED, 4);
+    List<ORID> result = function
+        .execute(null, null, null, new Object[] { vertices.get(1), vertices.get(20), null, null, additionalParams },
+            new OBasicCommandContext());
+
+    Assert.assertEquals(0, result.size());
+
+    additionalParams.put(OSQLFunctionShortestPath.PARAM_MAX_VISITED, 1000);
+    result = function
+        .execute(null, null, null, new Object[] { vertices.get(1), vertices.get(20), null, null, additionalParams },
+            new OBasicCommandContext());
+
+    Assert.assertEquals(11, result.size());
+  }
+
+  @Test
+  public void testLightweightEdges() throws Exception {
+    final OVertex first = graph.newVertex().save();
+    final OVertex second = graph.newVertex().save();
+    final OVertex third = graph.newVertex().save();
+
+    // LINK THE VERTICES DIRECTLY LIKE LIGHTWEIGHT EDGES DO
+    first.setProperty("out_E", new ORidBag());
+    first.<ORidBag>getProperty("out_E").add(second);
+    first.save();
+    second.setProperty("out_E", new ORidBag());
+    second.<ORidBag>getProperty("out_E").add(third);
+    second.save();
+
+    final List<ORID> result = function
+        .execute(null, null, null, new Object[] { first, third, "out", null }, new OBasicCommandContext());
+
+    Assert.assertEquals(3, result.size());
+    Assert.assertEquals(first.getIdentity(), result.get(0));
+    Assert.assertEquals(second.getIdentity(), result.get(1));
+    Assert.assertEquals(third.getIdentity(), result.get(2));
+  }
+
+  @Test
+  public void testRecordMetrics() throws Exception {
+    final OBasicCommandContext context = new OBasicCommandContext();
+    context.setRecordingMetrics(true);
+
+    function.execute(null, null, null, new Object[] { vertices.get(1), vertices.get(20) }, context);
+
+    Assert.assertNotNull(context.getVariable("shortestPathTime"));
+    Assert.assertTrue((Long) context.getVariable("shortestPathVisited") > 0);
+  }
 }
@@ -154,4 +154,73 @@ public class ORidSetTest extends OParserTestAbstract {
 
   }
 
+  @Test public void testDenseAndSparse() {
+    Set<ORID> control = new HashSet<>();
+    ORidSet set = new ORidSet();
+
+    for (long id = 0; id < 10000; id++) {
+      ORecordId rid = new ORecordId(3, id);
+      Assert.assertTrue(set.add(rid));
+      control.add(rid);
+    }
+    for (long id = 0; id < 100; id++) {
+      ORecordId rid = new ORecordId(3, id * 1000 * 1000);
+      Assert.assertEquals(control.add(rid), set.add(rid));
+    }
+    Assert.assertEquals(control.size(), set.size());
+
+    for (long id = 0; id < 10000; id += 2) {
+      ORecordId rid = new ORecordId(3, id);
+      Assert.assertEquals(control.remove(rid), set.remove(rid));
+    }
+    Assert.assertFalse(set.remove(new ORecordId(3, 0)));
+    Assert.assertEquals(control.size(), set.size());
+
+    ORID last = null;
+    int count = 0;
+    for (ORID rid : set) {
+      Assert.assertTrue(control.contains(rid));
+      if (last != null) {
+        Assert.assertTrue(rid.compareTo(last) > 0);
+      }
+      last = rid;
+      count++;
+    }
+    Assert.assertEquals(control.size(), count);
+  }
+
+  @Test public void testAddAll() {
+    ORidSet set = new ORidSet();
+    ORidSet other = new ORidSet();
+    for (long id = 0; id < 5000; id++) {
+      set.add(new ORecordId(1, id * 2));
+      other.add(new ORecordId(1, id * 3));
+      other.add(new ORecordId(20, id));
+    }
+    Assert.assertTrue(set.addAll(other));
+    for (long id = 0; id < 15000; id++) {
+      Assert.assertEquals((id % 2 == 0 && id < 10000) || id % 3 == 0, set.contains(new ORecordId(1, id)));
+    }
+    Assert.assertTrue(set.contains(new ORecordId(20, 4999)));
+    Assert.assertEquals(5000 + 5000 - 1667 + 5000, set.size());
+    Assert.assertFalse(set.addAll(other));
+  }
+
+  @Test public void testRetainAll() {
+    ORidSet set = new ORidSet();
+    ORidSet other = new ORidSet();
+    for (long id = 0; id < 10000; id++) {
+      set.add(new ORecordId(1, id * 2));
+      other.add(new ORecordId(1, id * 3));
+      set.add(new ORecordId(5, id));
+    }
+    Assert.assertTrue(set.retainAll(other));
+    for (long id = 0; id < 30000; id++) {
+      Assert.assertEquals(id < 20000 && id % 6 == 0, set.contains(new ORecordId(1, id)));
+    }
+    Assert.assertFalse(set.contains(new ORecordId(5, 1)));
+    Assert.assertEquals(3334, set.size());
+    Assert.assertEquals(3334, set.toArray().length);
+  }
+
 }
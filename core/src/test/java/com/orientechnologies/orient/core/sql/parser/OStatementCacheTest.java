@@ -2,6 +2,12 @@ package com.orientechnologies.orient.core.sql.parser;
 
 import org.junit.Assert; import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 public class OStatementCacheTest {
 
 
@@ -26,5 +32,29 @@ public class OStatementCacheTest {
 
   }
 
+  @Test
+  public void testConcurrentAccess() throws Exception {
+    OStatementCache cache = new OStatementCache(10);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        futures.add(executor.submit(() -> {
+          for (int j = 0; j < 1000; j++) {
+            String statement = "select from foo" + (j % 50);
+            Assert.assertEquals(statement, cache.get(statement).getOriginalStatement());
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    Assert.assertTrue(cache.map.size() <= 10);
+  }
+
 
 }
@@ -0,0 +1,244 @@
+package com.orientechnologies.orient.core.storage.cache.local.twoq;
+
+import com.orientechnologies.common.collection.closabledictionary.OClosableLinkedContainer;
+import com.orientechnologies.common.directmemory.OByteBufferPool;
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
+import com.orientechnologies.common.serialization.types.OLongSerializer;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.config.OContextConfiguration;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.storage.OChecksumMode;
+import com.orientechnologies.orient.core.storage.cache.OCacheEntry;
+import com.orientechnologies.orient.core.storage.cache.OScanAccessHint;
+import com.orientechnologies.orient.core.storage.cache.local.OWOWCache;
+import com.orientechnologies.orient.core.storage.fs.OFileClassic;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.OLocalPaginatedStorage;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public class OPartitioned2QCacheTest {
+  private static final int systemOffset = OIntegerSerializer.INT_SIZE + 3 * OLongSerializer.LONG_SIZE;
+  private static final int PAGE_SIZE    = 8 + systemOffset;
+  private static final int PARTITIONS   = 4;
+  private static final int PAGES        = 256;
+
+  private static final OClosableLinkedContainer<Long, OFileClassic> files       = new OClosableLinkedContainer<>(1024);
+  private static final OByteBufferPool                              BUFFER_POOL = new OByteBufferPool(PAGE_SIZE);
+
+  private static OLocalPaginatedStorage storageLocal;
+
+  private OPartitioned2QCache readBuffer;
+  private OWOWCache           writeBuffer;
+
+  @BeforeClass
+  public static void beforeClass() throws IOException {
+    OGlobalConfiguration.FILE_LOCK.setValue(Boolean.FALSE);
+    OGlobalConfiguration.STORAGE_EXCLUSIVE_FILE_ACCESS.setValue(Boolean.FALSE);
+
+    String buildDirectory = System.getProperty("buildDirectory");
+    if (buildDirectory == null)
+      buildDirectory = ".";
+
+    storageLocal = (OLocalPaginatedStorage) Orient.instance().getRunningEngine("plocal")
+        .createStorage(buildDirectory + "/OPartitioned2QCacheTest", null);
+    storageLocal.create(new OContextConfiguration());
+    storageLocal.close(true, false);
+  }
+
+  @AfterClass
+  public static void afterClass() throws IOException {
+    storageLocal.delete();
+
+    BUFFER_POOL.clear();
+    OGlobalConfiguration.FILE_LOCK.setValue(Boolean.TRUE);
+    OGlobalConfiguration.STORAGE_EXCLUSIVE_FILE_ACCESS.setValue(Boolean.TRUE);
+  }
+
+  @Before
+  public void beforeMethod() throws Exception {
+    writeBuffer = new OWOWCache(PAGE_SIZE, BUFFER_POOL, null, -1, 15000 * PAGE_SIZE, storageLocal, false, files, 1,
+        OChecksumMode.StoreAndThrow);
+    writeBuffer.loadRegisteredFiles();
+
+    readBuffer = new OPartitioned2QCache(PARTITIONS * O2QCache.MIN_CACHE_SIZE * PAGE_SIZE, PAGE_SIZE, false, 20, PARTITIONS);
+  }
+
+  @After
+  public void afterMethod() throws Exception {
+    readBuffer.deleteStorage(writeBuffer);
+    readBuffer.clear();
+    files.clear();
+  }
+
+  @Test
+  public void testPartitionsCountIsPowerOfTwoAndLimitedBySize() {
+    Assert.assertEquals(PARTITIONS, readBuffer.getPartitionsCount());
+    Assert.assertEquals(4, new OPartitioned2QCache(PARTITIONS * O2QCache.MIN_CACHE_SIZE * PAGE_SIZE, PAGE_SIZE, false, 20, 3)
+        .getPartitionsCount());
+    Assert.assertEquals(2, new OPartitioned2QCache(2 * O2QCache.MIN_CACHE_SIZE * PAGE_SIZE, PAGE_SIZE, false, 20, 16)
+        .getPartitionsCount());
+    Assert.assertEquals(1, new OPartitioned2QCache(PAGE_SIZE, PAGE_SIZE, false, 20, 16).getPartitionsCount());
+  }
+
+  @Test
+  public void testWriteAndReadPagesOfSeveralPartitions() throws IOException {
+    final long fileId = readBuffer.addFile("partitionedCacheTest.tst", writeBuffer);
+
+    for (int i = 0; i < PAGES; i++) {
+      OCacheEntry cacheEntry = readBuffer.loadForWrite(fileId, i, false, writeBuffer, 1, true);
+      if (cacheEntry == null) {
+        cacheEntry = readBuffer.allocateNewPage(fileId, writeBuffer, true);
+        Assert.assertEquals(i, cacheEntry.getPageIndex());
+      }
+
+      cacheEntry.markDirty();
+
+      final ByteBuffer buffer = cacheEntry.getCachePointer().getBuffer();
+      buffer.position(systemOffset);
+      buffer.putLong(i);
+
+      readBuffer.releaseFromWrite(cacheEntry, writeBuffer);
+    }
+
+    Assert.assertEquals(PAGES, writeBuffer.getFilledUpTo(fileId));
+    Assert.assertEquals(PAGES * (long) PAGE_SIZE, readBuffer.getUsedMemory());
+
+    long usedMemory = 0;
+    for (O2QCache partition : readBuffer.getPartitions())
+      usedMemory += partition.getUsedMemory();
+    Assert.assertEquals(readBuffer.getUsedMemory(), usedMemory);
+
+    for (int i = 0; i < PAGES; i++) {
+      final OCacheEntry cacheEntry = readBuffer.loadForRead(fileId, i, false, writeBuffer, 8, true);
+
+      final ByteBuffer buffer = cacheEntry.getCachePointer().getBufferDuplicate();
+      buffer.position(systemOffset);
+      Assert.assertEquals(i, buffer.getLong());
+
+      readBuffer.releaseFromRead(cacheEntry, writeBuffer);
+    }
+
+    readBuffer.truncateFile(fileId, writeBuffer);
+
+    Assert.assertEquals(0, writeBuffer.getFilledUpTo(fileId));
+    Assert.assertEquals(0, readBuffer.getUsedMemory());
+  }
+
+  @Test
+  public void testSequentialReadLoadsNextPagesIntoA1in() throws Exception {
+    final long fileId = readBuffer.addFile("partitionedCacheTest.tst", writeBuffer);
+
+    for (int i = 0; i < PAGES; i++) {
+      final OCacheEntry cacheEntry = readBuffer.allocateNewPage(fileId, writeBuffer, true);
+      cacheEntry.markDirty();
+      readBuffer.releaseFromWrite(cacheEntry, writeBuffer);
+    }
+
+    final OPartitioned2QCache readAheadBuffer = new OPartitioned2QCache(PARTITIONS * O2QCache.MIN_CACHE_SIZE * PAGE_SIZE,
+        PAGE_SIZE, false, 20, PARTITIONS, 16);
+    try {
+      for (int i = 0; i < OReadAheadController.SEQUENTIAL_READS_THRESHOLD; i++) {
+        final OCacheEntry cacheEntry = readAheadBuffer.loadForRead(fileId, i, false, writeBuffer, 1, true);
+        readAheadBuffer.releaseFromRead(cacheEntry, writeBuffer);
+      }
+
+      final long firstPage = OReadAheadController.SEQUENTIAL_READS_THRESHOLD;
+      final long lastPage = firstPage + OReadAheadController.MIN_WINDOW_SIZE - 1;
+
+      final long deadline = System.currentTimeMillis() + 10000;
+      while (!(isInA1in(readAheadBuffer, fileId, firstPage) && isInA1in(readAheadBuffer, fileId, lastPage))
+          && System.currentTimeMillis() < deadline)
+        Thread.sleep(10);
+
+      for (long pageIndex = firstPage; pageIndex <= lastPage; pageIndex++) {
+        Assert.assertTrue(isInA1in(readAheadBuffer, fileId, pageIndex));
+        Assert.assertFalse(isInAm(readAheadBuffer, fileId, pageIndex));
+      }
+
+      Assert.assertFalse(isInA1in(readAheadBuffer, fileId, lastPage + 1));
+    } finally {
+      readAheadBuffer.clear();
+    }
+  }
+
+  @Test
+  public void testScanHintLoadsPagesIntoScanBuffer() throws Exception {
+    final long fileId = readBuffer.addFile("partitionedCacheTest.tst", writeBuffer);
+
+    for (int i = 0; i < PAGES; i++) {
+      final OCacheEntry cacheEntry = readBuffer.allocateNewPage(fileId, writeBuffer, true);
+      cacheEntry.markDirty();
+      readBuffer.releaseFromWrite(cacheEntry, writeBuffer);
+    }
+
+    final int scanBufferSize = 2 * PARTITIONS;
+    final OPartitioned2QCache scanBuffer = new OPartitioned2QCache(PARTITIONS * O2QCache.MIN_CACHE_SIZE * PAGE_SIZE, PAGE_SIZE,
+        false, 20, PARTITIONS, 0, scanBufferSize);
+    try {
+      OCacheEntry cacheEntry = scanBuffer.loadForRead(fileId, 0, false, writeBuffer, 1, true);
+      scanBuffer.releaseFromRead(cacheEntry, writeBuffer);
+
+      OScanAccessHint.begin();
+      try {
+        for (int i = 0; i < PAGES; i++) {
+          cacheEntry = scanBuffer.loadForRead(fileId, i, false, writeBuffer, 1, true);
+          Assert.assertEquals(i, cacheEntry.getPageIndex());
+          scanBuffer.releaseFromRead(cacheEntry, writeBuffer);
+        }
+
+        cacheEntry = scanBuffer.loadForRead(fileId, PAGES - 1, false, writeBuffer, 1, true);
+        scanBuffer.releaseFromRead(cacheEntry, writeBuffer);
+      } finally {
+        OScanAccessHint.end();
+      }
+
+      Assert.assertTrue(isInA1in(scanBuffer, fileId, 0));
+      for (int i = 1; i < PAGES; i++) {
+        Assert.assertFalse(isInA1in(scanBuffer, fileId, i));
+        Assert.assertFalse(isInAm(scanBuffer, fileId, i));
+      }
+
+      Assert.assertEquals(PAGES - 1, scanBuffer.getScanBypassedPages());
+      Assert.assertEquals(1, scanBuffer.getScanCacheHits());
+      Assert.assertEquals(1, scanBuffer.getScanBufferHits());
+
+      int scanPages = 0;
+      for (O2QCache partition : scanBuffer.getPartitions())
+        scanPages += partition.getScanBuffer().size();
+
+      Assert.assertTrue(scanPages > 0);
+      Assert.assertTrue(scanPages <= scanBufferSize);
+
+      //page requested by regular read is moved out of scan buffer
+      cacheEntry = scanBuffer.loadForRead(fileId, PAGES - 1, false, writeBuffer, 1, true);
+      scanBuffer.releaseFromRead(cacheEntry, writeBuffer);
+
+      Assert.assertTrue(isInA1in(scanBuffer, fileId, PAGES - 1));
+    } finally {
+      scanBuffer.clear();
+    }
+  }
+
+  private static boolean isInA1in(OPartitioned2QCache cache, long fileId, long pageIndex) {
+    for (O2QCache partition : cache.getPartitions())
+      if (partition.getA1in().contains(fileId, pageIndex))
+        return true;
+
+    return false;
+  }
+
+  private static boolean isInAm(OPartitioned2QCache cache, long fileId, long pageIndex) {
+    for (O2QCache partition : cache.getPartitions())
+      if (partition.getAm().contains(fileId, pageIndex))
+        return true;
+
+    return false;
+  }
+}
@@ -0,0 +1,122 @@
+package com.orientechnologies.orient.core.storage.cache.local.twoq;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class OReadAheadControllerTest {
+  private static final long FILE_ID = 42;
+
+  private BlockingQueue<long[]>  requests;
+  private BlockingQueue<Boolean> tracked;
+  private OReadAheadController   controller;
+
+  @Before
+  public void before() {
+    requests = new LinkedBlockingQueue<>();
+    tracked = new LinkedBlockingQueue<>();
+    controller = new OReadAheadController(8, (fileId, pageIndex, pageCount, writeCache, verifyChecksums, scan, isFileTracked) -> {
+      tracked.add(isFileTracked.getAsBoolean());
+      requests.add(new long[] { fileId, pageIndex, pageCount });
+    });
+  }
+
+  @Test
+  public void testWindowGrowsWhileReadIsSequential() throws Exception {
+    read(0, 1);
+    read(1, 1);
+    assertNoRequest();
+
+    read(2, 1);
+    assertRequest(3, 4);
+
+    read(3, 1);
+    read(4, 1);
+    assertNoRequest();
+
+    read(5, 1);
+    assertRequest(7, 8);
+
+    for (int i = 6; i < 11; i++)
+      read(i, 1);
+    assertNoRequest();
+
+    read(11, 1);
+    assertRequest(15, 8);
+  }
+
+  @Test
+  public void testRandomReadStopsReadAhead() throws Exception {
+    read(0, 3);
+    assertRequest(3, 4);
+
+    read(100, 1);
+    read(101, 1);
+    read(50, 1);
+    read(51, 1);
+    assertNoRequest();
+
+    read(52, 1);
+    assertRequest(53, 4);
+  }
+
+  @Test
+  public void testPagesSkippedInsideOfReadAheadWindowAreSequential() throws Exception {
+    read(0, 3);
+    assertRequest(3, 4);
+
+    read(5, 1);
+    assertRequest(7, 8);
+  }
+
+  @Test
+  public void testPendingRequestOfForgottenFileIsIgnored() throws Exception {
+    final CountDownLatch latch = new CountDownLatch(1);
+    controller = new OReadAheadController(8, (fileId, pageIndex, pageCount, writeCache, verifyChecksums, scan, isFileTracked) -> {
+      try {
+        latch.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      tracked.add(isFileTracked.getAsBoolean());
+      requests.add(new long[] { fileId, pageIndex, pageCount });
+    });
+
+    read(0, 3);
+    controller.forgetFile(FILE_ID);
+    latch.countDown();
+
+    assertRequest(3, 4);
+    Assert.assertFalse(tracked.poll(10, TimeUnit.SECONDS));
+
+    read(3, 3);
+    assertRequest(6, 4);
+    Assert.assertTrue(tracked.poll(10, TimeUnit.SECONDS));
+
+    controller.forgetStorage(0);
+    read(6, 2);
+    assertNoRequest();
+  }
+
+  private void read(long pageIndex, int pages) {
+    for (int i = 0; i < pages; i++) {
+      controller.onRead(FILE_ID, pageIndex + i, null, true, false);
+      controller.onRead(FILE_ID, pageIndex + i, null, true, false);
+    }
+  }
+
+  private void assertRequest(long pageIndex, int pageCount) throws InterruptedException {
+    final long[] request = requests.poll(10, TimeUnit.SECONDS);
+    Assert.assertNotNull(request);
+    Assert.assertArrayEquals(new long[] { FILE_ID, pageIndex, pageCount }, request);
+  }
+
+  private void assertNoRequest() throws InterruptedException {
+    Assert.assertNull(requests.poll(100, TimeUnit.MILLISECONDS));
+  }
+}
@@ -15,6 +15,9 @@ import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -851,6 +854,52 @@ public class WriteAheadLogTest {
     Assert.assertEquals(writeAheadLog.size(), duration);
   }
 
+  @Test
+  public void testGroupCommitFlushesRequestedRecords() throws Exception {
+    TestRecord firstRecord = new TestRecord(0, SEGMENT_SIZE, ONE_KB, false, false);
+    writeAheadLog.log(firstRecord);
+
+    TestRecord secondRecord = new TestRecord(firstRecord.nextStart, SEGMENT_SIZE, ONE_KB, false, false);
+    writeAheadLog.log(secondRecord);
+
+    Assert.assertNull(writeAheadLog.getFlushedLsn());
+
+    final CompletableFuture<Void> firstFlush = writeAheadLog.flushTill(firstRecord.getLsn());
+    final CompletableFuture<Void> secondFlush = writeAheadLog.flushTill(secondRecord.getLsn());
+
+    secondFlush.get(10, TimeUnit.SECONDS);
+    Assert.assertTrue(firstFlush.isDone());
+
+    Assert.assertEquals(writeAheadLog.getFlushedLsn(), secondRecord.getLsn());
+    Assert.assertTrue(writeAheadLog.getGroupCommitFsyncCount() >= 1);
+    Assert.assertTrue(writeAheadLog.getGroupCommitFsyncCount() <= 2);
+
+    // RECORD IS ON DISK ALREADY
+    Assert.assertTrue(writeAheadLog.flushTill(firstRecord.getLsn()).isDone());
+  }
+
+  @Test
+  public void testFailedSyncFailsPendingFlushes() throws Exception {
+    TestRecord record = new TestRecord(0, SEGMENT_SIZE, ONE_KB, false, false);
+    writeAheadLog.log(record);
+
+    // LSN WHICH IS NOT WRITTEN YET, SO THE FLUSH CAN NOT BE COMPLETED BY THE GROUP COMMIT
+    final OLogSequenceNumber notWritten = new OLogSequenceNumber(record.getLsn().getSegment() + 1, 0);
+    final CompletableFuture<Void> flush = writeAheadLog.flushTill(notWritten);
+
+    writeAheadLog.failFlushFutures(new OStorageException("Can not force sync content of WAL segment"));
+    try {
+      flush.get(10, TimeUnit.SECONDS);
+      Assert.fail();
+    } catch (ExecutionException e) {
+      Assert.assertTrue(e.getCause() instanceof OStorageException);
+    }
+
+    // NEXT REQUESTS FORCE THE LOG AGAIN
+    writeAheadLog.flushTill(record.getLsn()).get(10, TimeUnit.SECONDS);
+    Assert.assertEquals(writeAheadLog.getFlushedLsn(), record.getLsn());
+  }
+
   @Test
   public void testFlushedLSNOnePageWithLessThanMinRecordSpace() throws Exception {
     long duration;
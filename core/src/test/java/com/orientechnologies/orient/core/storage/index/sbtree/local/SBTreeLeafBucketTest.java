@@ -4,6 +4,9 @@ import com.orientechnologies.common.directmemory.OByteBufferPool;
 import com.orientechnologies.common.serialization.types.OLongSerializer;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.index.OCompositeKey;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.serialization.serializer.binary.impl.index.OCompositeKeySerializer;
 import com.orientechnologies.orient.core.serialization.serializer.binary.impl.OLinkSerializer;
 import com.orientechnologies.orient.core.storage.cache.OCacheEntry;
 import com.orientechnologies.orient.core.storage.cache.OCacheEntryImpl;
@@ -94,6 +97,68 @@ public class SBTreeLeafBucketTest {
     cachePointer.decrementReferrer();
   }
 
+  @Test
+  public void testSearchCompositeKeys() throws Exception {
+    long seed = System.currentTimeMillis();
+    System.out.println("testSearchCompositeKeys seed : " + seed);
+
+    final OType[] keyTypes = new OType[] { OType.STRING, OType.LONG };
+
+    TreeSet<OCompositeKey> keys = new TreeSet<OCompositeKey>();
+    Random random = new Random(seed);
+
+    while (keys.size() < OSBTreeBucket.MAX_PAGE_SIZE_BYTES / 16) {
+      keys.add(new OCompositeKey(randomString(random), random.nextLong()));
+    }
+
+    OByteBufferPool bufferPool = OByteBufferPool.instance();
+    ByteBuffer buffer = bufferPool.acquireDirect(true);
+
+    OCachePointer cachePointer = new OCachePointer(buffer, bufferPool, 0, 0);
+    OCacheEntry cacheEntry = new OCacheEntryImpl(0, 0, cachePointer, false);
+    cacheEntry.acquireExclusiveLock();
+
+    cachePointer.incrementReferrer();
+
+    OSBTreeBucket<OCompositeKey, OIdentifiable> treeBucket = new OSBTreeBucket<OCompositeKey, OIdentifiable>(cacheEntry, true,
+        OCompositeKeySerializer.INSTANCE, keyTypes, OLinkSerializer.INSTANCE, null);
+
+    int index = 0;
+    TreeSet<OCompositeKey> addedKeys = new TreeSet<OCompositeKey>();
+    for (OCompositeKey key : keys) {
+      if (!treeBucket.addEntry(index, new OSBTreeBucket.SBTreeEntry<OCompositeKey, OIdentifiable>(-1, -1, key,
+          new OSBTreeValue<OIdentifiable>(false, -1, new ORecordId(index, index))), true))
+        break;
+      addedKeys.add(key);
+      index++;
+    }
+
+    index = 0;
+    for (OCompositeKey key : addedKeys) {
+      Assert.assertEquals(index, treeBucket.find(key));
+      index++;
+    }
+
+    for (int i = 0; i < 1000; i++) {
+      final OCompositeKey key = new OCompositeKey(randomString(random), random.nextLong());
+      if (addedKeys.contains(key))
+        continue;
+
+      Assert.assertEquals(-(addedKeys.headSet(key).size() + 1), treeBucket.find(key));
+    }
+
+    cacheEntry.releaseExclusiveLock();
+    cachePointer.decrementReferrer();
+  }
+
+  private static String randomString(Random random) {
+    final char[] chars = new char[random.nextInt(8) + 1];
+    for (int i = 0; i < chars.length; i++)
+      // MIX OF ASCII AND NON ASCII CHARACTERS TO CHECK ORDER OF BOTH BYTES OF EVERY CHARACTER
+      chars[i] = (char) (random.nextBoolean() ? 'a' + random.nextInt(4) : random.nextInt(Character.MIN_SURROGATE));
+    return new String(chars);
+  }
+
   @Test
   public void testUpdateValue() throws Exception {
     long seed = System.currentTimeMillis();
@@ -2,6 +2,8 @@ package com.orientechnologies.orient.core.storage.index.sbtree.local;
 
 import com.orientechnologies.common.io.OFileUtils;
 import com.orientechnologies.common.serialization.types.OIntegerSerializer;
+import com.orientechnologies.common.util.ORawPair;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.ODatabaseInternal;
 import com.orientechnologies.orient.core.db.ODatabaseSession;
 import com.orientechnologies.orient.core.db.ODatabaseType;
@@ -18,8 +20,10 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.NavigableSet;
@@ -85,6 +89,77 @@ public class SBTreeTestIT {
 
   }
 
+  @Test
+  public void testBulkLoad() throws Exception {
+    final NavigableSet<Integer> keys = new TreeSet<>();
+    final List<ORawPair<Integer, OIdentifiable>> entries = new ArrayList<>();
+    final Random random = new Random();
+
+    while (keys.size() < KEYS_COUNT) {
+      final int key = random.nextInt(Integer.MAX_VALUE);
+      if (keys.add(key))
+        entries.add(new ORawPair<>(key, new ORecordId(key % 32000, key)));
+    }
+
+    Assert.assertEquals(KEYS_COUNT, sbTree.bulkLoad(entries.iterator(), null));
+    Assert.assertEquals(KEYS_COUNT, sbTree.size());
+
+    Assert.assertEquals(sbTree.firstKey(), keys.first());
+    Assert.assertEquals(sbTree.lastKey(), keys.last());
+
+    for (int key : keys) {
+      Assert.assertEquals(sbTree.get(key), new ORecordId(key % 32000, key));
+    }
+
+    final OSBTree.OSBTreeCursor<Integer, OIdentifiable> cursor = sbTree.iterateEntriesMajor(keys.first(), true, true);
+    for (int key : keys) {
+      Assert.assertEquals(key, (int) cursor.next(-1).getKey());
+    }
+    Assert.assertNull(cursor.next(-1));
+
+    // BUCKETS ARE STILL SPLIT AS USUAL AFTER THE BULK LOAD
+    for (int i = 0; i < KEYS_COUNT / 10; i++) {
+      final int key = random.nextInt(Integer.MAX_VALUE);
+      sbTree.put(key, new ORecordId(key % 32000, key));
+      keys.add(key);
+    }
+
+    for (int key : keys) {
+      Assert.assertEquals(sbTree.get(key), new ORecordId(key % 32000, key));
+    }
+  }
+
+  @Test
+  public void testBulkLoadOverMemoryBudget() throws Exception {
+    final int keysCount = KEYS_COUNT / 10;
+    final NavigableSet<Integer> keys = new TreeSet<>();
+    final List<ORawPair<Integer, OIdentifiable>> entries = new ArrayList<>();
+    final Random random = new Random();
+
+    while (keys.size() < keysCount) {
+      final int key = random.nextInt(Integer.MAX_VALUE);
+      if (keys.add(key))
+        entries.add(new ORawPair<>(key, new ORecordId(key % 32000, key)));
+    }
+
+    final int maxHeapPercent = OGlobalConfiguration.INDEX_BULK_LOAD_MAX_HEAP_PERCENT.getValueAsInteger();
+    // SORTED KEYS ARE PUT ONE BY ONE
+    OGlobalConfiguration.INDEX_BULK_LOAD_MAX_HEAP_PERCENT.setValue(0);
+    try {
+      Assert.assertEquals(keysCount, sbTree.bulkLoad(entries.iterator(), null));
+    } finally {
+      OGlobalConfiguration.INDEX_BULK_LOAD_MAX_HEAP_PERCENT.setValue(maxHeapPercent);
+    }
+    Assert.assertEquals(keysCount, sbTree.size());
+
+    Assert.assertEquals(sbTree.firstKey(), keys.first());
+    Assert.assertEquals(sbTree.lastKey(), keys.last());
+
+    for (int key : keys) {
+      Assert.assertEquals(sbTree.get(key), new ORecordId(key % 32000, key));
+    }
+  }
+
   @Test
   public void testKeyPutRandomUniform() throws Exception {
     final NavigableSet<Integer> keys = new TreeSet<>();
@@ -22,7 +22,6 @@ package com.orientechnologies.orient.server.distributed.impl;
 import com.hazelcast.core.HazelcastException;
 import com.hazelcast.core.HazelcastInstanceNotActiveException;
 import com.hazelcast.core.Member;
-import com.orientechnologies.common.collection.OMultiValue;
 import com.orientechnologies.common.concur.OOfflineNodeException;
 import com.orientechnologies.common.console.OConsoleReader;
 import com.orientechnologies.common.console.ODefaultConsoleReader;
@@ -1505,21 +1504,21 @@ public abstract class ODistributedAbstractPlugin extends OServerPluginAbstract
         .info(this, localNodeName, iNode, DIRECTION.IN, "Copying remote database '%s' to: %s", databaseName, fileName);
 
     final File file = new File(fileName);
-    if (file.exists())
-      file.delete();
-
-    try {
-      file.getParentFile().mkdirs();
-      file.createNewFile();
-    } catch (IOException e) {
-      throw OException.wrapException(new ODistributedException("Error on creating temp database file to install locally"), e);
-    }
 
     // DELETE ANY PREVIOUS .COMPLETED FILE
     final File completedFile = new File(file.getAbsolutePath() + ".completed");
     if (completedFile.exists())
       completedFile.delete();
 
+    // KEEPS THE CHUNKS ALREADY RECEIVED FROM THE SAME BACKUP BY A PREVIOUS SESSION
+    final ODistributedDatabaseChunkFetcher fetcher = new ODistributedDatabaseChunkFetcher(this, databaseName, iNode);
+    final OutputStream fOut;
+    try {
+      fOut = fetcher.open(file, firstChunk);
+    } catch (IOException e) {
+      throw OException.wrapException(new ODistributedException("Error on creating temp database file to install locally"), e);
+    }
+
     final AtomicReference<ODistributedMomentum> momentum = new AtomicReference<ODistributedMomentum>();
 
     try {
@@ -1528,31 +1527,11 @@ public abstract class ODistributedAbstractPlugin extends OServerPluginAbstract
         public void run() {
           try {
             Thread.currentThread().setName("OrientDB installDatabase node=" + nodeName + " db=" + databaseName);
-            ODistributedDatabaseChunk chunk = firstChunk;
-
-            momentum.set(chunk.getMomentum());
+            momentum.set(firstChunk.getMomentum());
 
-            final OutputStream fOut = new FileOutputStream(fileName, false);
             try {
 
-              long fileSize = writeDatabaseChunk(1, chunk, fOut);
-              for (int chunkNum = 2; !chunk.last; chunkNum++) {
-                final ODistributedResponse response = sendRequest(databaseName, null, OMultiValue.getSingletonList(iNode),
-                    new OCopyDatabaseChunkTask(chunk.filePath, chunkNum, chunk.offset + chunk.buffer.length, false),
-                    getNextMessageIdCounter(), ODistributedRequest.EXECUTION_MODE.RESPONSE, null, null, null);
-
-                final Object result = response.getPayload();
-                if (result instanceof Boolean)
-                  continue;
-                else if (result instanceof Exception) {
-                  ODistributedServerLog
-                      .error(this, nodeName, iNode, DIRECTION.IN, "error on installing database %s in %s (chunk #%d)",
-                          (Exception) result, databaseName, dbPath, chunkNum);
-                } else if (result instanceof ODistributedDatabaseChunk) {
-                  chunk = (ODistributedDatabaseChunk) result;
-                  fileSize += writeDatabaseChunk(chunkNum, chunk, fOut);
-                }
-              }
+              final long fileSize = fetcher.fetch(firstChunk, fOut);
 
               fOut.flush();
 
@@ -1907,17 +1886,6 @@ public abstract class ODistributedAbstractPlugin extends OServerPluginAbstract
     }
   }
 
-  protected long writeDatabaseChunk(final int iChunkId, final ODistributedDatabaseChunk chunk, final OutputStream out)
-      throws IOException {
-
-    ODistributedServerLog
-        .info(this, nodeName, null, DIRECTION.NONE, "- writing chunk #%d offset=%d size=%s", iChunkId, chunk.offset,
-            OFileUtils.getSizeAsString(chunk.buffer.length));
-    out.write(chunk.buffer);
-
-    return chunk.buffer.length;
-  }
-
   protected ODatabaseDocumentInternal installDatabaseOnLocalNode(final String databaseName, final String dbPath, final String iNode,
       final String iDatabaseCompressedFile, final boolean delta, final File uniqueClustersBackupDirectory,
       final OModifiableDistributedConfiguration cfg, boolean incremental, long walSegment, long walPosition) {
@@ -24,9 +24,20 @@ import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSe
 import com.orientechnologies.orient.server.distributed.ODistributedMomentum;
 
 import java.io.*;
+import java.util.zip.CRC32;
 import java.util.zip.GZIPInputStream;
 
+/**
+ * Chunk of the file of the database deployed to another node. This class keeps the format of the chunk sent to the nodes which use
+ * the protocol older than v3, the chunk sent to the other nodes carries also its checksum and the size of the file, see {@link
+ * ODistributedDatabaseChunkV3}.
+ */
 public class ODistributedDatabaseChunk implements OStreamable {
+  /**
+   * Value of {@link #checksum} of the chunk which was received from a node which does not send the checksum.
+   */
+  public static final long NO_CHECKSUM = -1;
+
   public  String               filePath;
   public  long                 offset;
   public  byte[]               buffer;
@@ -36,6 +47,11 @@ public class ODistributedDatabaseChunk implements OStreamable {
   public  boolean              incremental;
   public  long                 walSegment;
   public  long                 walPosition;
+  public  long                 checksum = NO_CHECKSUM;
+  /**
+   * Size of the file when the chunk was read, -1 if it is not known.
+   */
+  public  long                 fileSize = -1;
 
   public ODistributedDatabaseChunk() {
   }
@@ -59,47 +75,89 @@ public class ODistributedDatabaseChunk implements OStreamable {
 
     final File completedFile = new File(iFile.getAbsolutePath() + ".completed");
 
-    // WHILE UNTIL THE CHUNK IS AVAILABLE
-    for (int retry = 0; fileSize <= iOffset; ++retry) {
-      if (fileSize == 0 || iOffset > fileSize)
-        try {
-          // WAIT FOR ASYNCH WRITE
-          Thread.sleep(300);
-        } catch (InterruptedException e) {
-        }
+    // WAIT UNTIL THE CHUNK IS AVAILABLE OR THE BACKUP IS FINISHED
+    while (fileSize <= iOffset && !completedFile.exists()) {
+      try {
+        // WAIT FOR ASYNCH WRITE
+        Thread.sleep(300);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
 
       // UPDATE FILE SIZE
       fileSize = iFile.length();
-
-      if (completedFile.exists())
-        // BACKUP FINISHED
-        break;
     }
 
-    final int toRead = (int) Math.min(iMaxSize, fileSize - offset);
-    buffer = new byte[toRead];
+    // THE BACKUP COULD BE FINISHED AFTER THE SIZE WAS READ
+    fileSize = iFile.length();
 
-    final InputStream in = gzipCompressed ? new GZIPInputStream(new FileInputStream(iFile)) : new FileInputStream(iFile);
-    try {
-      in.skip(offset);
-      in.read(buffer);
+    // THE OFFSET CAN BE AFTER THE END OF THE FILE IF THE CHUNK WAS REQUESTED IN ADVANCE
+    final int toRead = (int) Math.max(0, Math.min(iMaxSize, fileSize - offset));
+    buffer = new byte[toRead];
 
-    } finally {
+    if (toRead == 0) {
+      // NOTHING TO READ
+    } else if (gzipCompressed) {
+      final DataInputStream in = new DataInputStream(new GZIPInputStream(new FileInputStream(iFile)));
       try {
-        in.close();
-      } catch (IOException e) {
+        skipFully(in, offset);
+        in.readFully(buffer);
+      } finally {
+        try {
+          in.close();
+        } catch (IOException e) {
+        }
+      }
+    } else {
+      final RandomAccessFile in = new RandomAccessFile(iFile, "r");
+      try {
+        in.seek(offset);
+        in.readFully(buffer);
+      } finally {
+        try {
+          in.close();
+        } catch (IOException e) {
+        }
       }
     }
 
+    checksum = calculateChecksum();
+
     // UPDATE FILE SIZE
     fileSize = iFile.length();
+    this.fileSize = fileSize;
 
-    if (completedFile.exists() && fileSize - (offset + toRead) == 0) {
+    if (completedFile.exists() && fileSize - (offset + toRead) <= 0) {
       // BACKUP COMPLETED
       last = true;
     }
   }
 
+  protected ODistributedDatabaseChunk(final ODistributedDatabaseChunk chunk) {
+    filePath = chunk.filePath;
+    offset = chunk.offset;
+    buffer = chunk.buffer;
+    gzipCompressed = chunk.gzipCompressed;
+    last = chunk.last;
+    momentum = chunk.momentum;
+    incremental = chunk.incremental;
+    walSegment = chunk.walSegment;
+    walPosition = chunk.walPosition;
+    checksum = chunk.checksum;
+    fileSize = chunk.fileSize;
+  }
+
+  /**
+   * @return chunk in the format supported by the node which uses given version of the distributed protocol.
+   */
+  public ODistributedDatabaseChunk toProtocolVersion(final int protocolVersion) {
+    if (protocolVersion >= ODistributedDatabaseChunkV3.PROTOCOL_VERSION)
+      return new ODistributedDatabaseChunkV3(this);
+
+    return this;
+  }
+
   @Override
   public String toString() {
     return filePath + "[" + offset + "-" + buffer.length + "] (last=" + last + ")";
@@ -149,6 +207,33 @@ public class ODistributedDatabaseChunk implements OStreamable {
     return momentum;
   }
 
+  /**
+   * @return <code>true</code> if content of the chunk was not corrupted during the transfer, chunks received without checksum are
+   * always considered valid.
+   */
+  public boolean isValid() {
+    return checksum == NO_CHECKSUM || checksum == calculateChecksum();
+  }
+
+  private static void skipFully(final InputStream in, long toSkip) throws IOException {
+    // SKIP() OF THE GZIP STREAM CAN SKIP LESS BYTES THAN REQUESTED
+    while (toSkip > 0) {
+      final long skipped = in.skip(toSkip);
+      if (skipped > 0)
+        toSkip -= skipped;
+      else if (in.read() >= 0)
+        toSkip--;
+      else
+        throw new EOFException("Offset is after the end of the file");
+    }
+  }
+
+  protected long calculateChecksum() {
+    final CRC32 crc32 = new CRC32();
+    crc32.update(buffer, 0, buffer.length);
+    return crc32.getValue();
+  }
+
   public OLogSequenceNumber getLastWal() {
     return new OLogSequenceNumber(walSegment, walPosition);
   }
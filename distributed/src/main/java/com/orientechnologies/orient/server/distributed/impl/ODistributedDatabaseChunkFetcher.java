@@ -0,0 +1,366 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.server.distributed.impl;
+
+import com.orientechnologies.common.collection.OMultiValue;
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.server.distributed.ODistributedException;
+import com.orientechnologies.orient.server.distributed.ODistributedRequest;
+import com.orientechnologies.orient.server.distributed.ODistributedServerLog;
+import com.orientechnologies.orient.server.distributed.ODistributedServerLog.DIRECTION;
+import com.orientechnologies.orient.server.distributed.ODistributedServerManager;
+import com.orientechnologies.orient.server.distributed.impl.task.OCopyDatabaseChunkTask;
+import com.orientechnologies.orient.server.distributed.impl.task.OSyncDatabaseTask;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Receives the file of the database deployed by a remote node. Several chunks are requested at once, so the transfer is not
+ * limited by the round trip of every single chunk, but chunks are written in order, so the file can be restored while it is
+ * received. Chunks are requested in advance only up to the size of the remote file known from the last received chunk, so no
+ * request waits on the remote node for the backup to grow, apart from the request of the next chunk. Every chunk is verified by
+ * its checksum. A chunk which is lost or corrupted is requested again from the last written offset instead of restarting the whole
+ * deployment.
+ * <p>
+ * The offset and the checksum of the last verified chunk are kept next to the received file, see {@link #open(File,
+ * ODistributedDatabaseChunk)}, so a new deployment session of the same backup resumes after it instead of transferring the whole
+ * database again.
+ * <p>
+ * Nodes which use the distributed protocol older than v3 do not send the checksum and the size of the file, chunks are requested
+ * from them one by one.
+ *
+ * @see OGlobalConfiguration#DISTRIBUTED_DEPLOYDB_CHUNKS_IN_FLIGHT
+ * @see OGlobalConfiguration#DISTRIBUTED_DEPLOYDB_CHUNK_RETRIES
+ */
+public class ODistributedDatabaseChunkFetcher {
+  private final ODistributedServerManager manager;
+  private final String                    databaseName;
+  private final String                    node;
+  private final int                       chunksInFlight;
+  private final int                       retries;
+  private       File                      resumeFile;
+  private       ResumeState               resumed;
+
+  public ODistributedDatabaseChunkFetcher(final ODistributedServerManager manager, final String databaseName, final String node) {
+    this(manager, databaseName, node, OGlobalConfiguration.DISTRIBUTED_DEPLOYDB_CHUNKS_IN_FLIGHT.getValueAsInteger(),
+        OGlobalConfiguration.DISTRIBUTED_DEPLOYDB_CHUNK_RETRIES.getValueAsInteger());
+  }
+
+  public ODistributedDatabaseChunkFetcher(final ODistributedServerManager manager, final String databaseName, final String node,
+      final int chunksInFlight, final int retries) {
+    this.manager = manager;
+    this.databaseName = databaseName;
+    this.node = node;
+    this.chunksInFlight = Math.max(1, chunksInFlight);
+    this.retries = Math.max(1, retries);
+  }
+
+  /**
+   * Opens the local file which receives the database. If a previous session received a part of the same remote backup, the file is
+   * kept up to the last verified chunk and {@link #fetch(ODistributedDatabaseChunk, OutputStream)} requests only the following
+   * chunks. The last verified chunk is checked against both the local file and the remote node, otherwise the file is truncated and
+   * the whole database is transferred. Chunks received without checksum are never resumed.
+   *
+   * @return stream positioned where the next received chunk is written
+   */
+  public OutputStream open(final File file, final ODistributedDatabaseChunk firstChunk) throws IOException {
+    file.getParentFile().mkdirs();
+    resumeFile = new File(file.getAbsolutePath() + ".resume");
+    resumed = null;
+
+    final ResumeState state = ResumeState.load(resumeFile);
+    if (state != null && canResume(state, file, firstChunk)) {
+      try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+        raf.setLength(state.offset + state.length);
+      }
+      resumed = state;
+
+      ODistributedServerLog.info(this, manager.getLocalNodeName(), node, DIRECTION.IN,
+          "Resuming transfer of database '%s' after chunk #%d offset=%d", databaseName, state.chunkNum, state.offset);
+      return new FileOutputStream(file, true);
+    }
+
+    resumeFile.delete();
+    return new FileOutputStream(file, false);
+  }
+
+  /**
+   * Writes the first chunk and all the following ones into the stream. If the stream was returned by {@link #open(File,
+   * ODistributedDatabaseChunk)} after a previous session, only the chunks after the last verified one are requested.
+   *
+   * @return size of the received file
+   */
+  public long fetch(final ODistributedDatabaseChunk firstChunk, final OutputStream out) throws IOException, InterruptedException {
+    if (!firstChunk.isValid())
+      throw new ODistributedException("Checksum of the first chunk of database '" + databaseName + "' does not match");
+
+    final String filePath = firstChunk.filePath;
+    long fileSize;
+    long offset;
+    int chunkNum;
+    if (resumed != null) {
+      offset = resumed.offset + resumed.length;
+      fileSize = offset;
+      chunkNum = resumed.chunkNum + 1;
+    } else {
+      fileSize = write(1, firstChunk, out);
+      if (firstChunk.last)
+        return completed(fileSize);
+
+      verified(firstChunk, 1, firstChunk, out);
+      offset = firstChunk.offset + firstChunk.buffer.length;
+      chunkNum = 2;
+    }
+
+    final AtomicInteger threadCounter = new AtomicInteger();
+    final ExecutorService executor = Executors.newFixedThreadPool(chunksInFlight, r -> {
+      final Thread thread = new Thread(r,
+          "OrientDB deploy chunk fetcher node=" + manager.getLocalNodeName() + " db=" + databaseName + " #" + threadCounter
+              .incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    try {
+      // OFFSET AFTER THE LAST CHUNK WHICH IS WRITTEN AND SO ACKNOWLEDGED
+      long requestOffset = offset;
+      // SIZE OF THE REMOTE FILE, CHUNKS AFTER IT ARE NOT REQUESTED IN ADVANCE
+      long remoteFileSize = firstChunk.fileSize;
+
+      final Deque<PendingChunk> pending = new ArrayDeque<>();
+      while (true) {
+        while (pending.isEmpty() || (pending.size() < chunksInFlight && requestOffset < remoteFileSize)) {
+          pending.add(request(executor, filePath, chunkNum + pending.size(), requestOffset));
+          requestOffset += OSyncDatabaseTask.CHUNK_MAX_SIZE;
+        }
+
+        final PendingChunk next = pending.poll();
+        final ODistributedDatabaseChunk chunk = receive(executor, filePath, next);
+
+        fileSize += write(chunkNum, chunk, out);
+        if (chunk.last)
+          return completed(fileSize);
+
+        verified(firstChunk, chunkNum, chunk, out);
+        offset += chunk.buffer.length;
+        chunkNum++;
+        remoteFileSize = Math.max(remoteFileSize, chunk.fileSize);
+
+        if (chunk.buffer.length < OSyncDatabaseTask.CHUNK_MAX_SIZE) {
+          // THE REMOTE FILE IS STILL WRITTEN, CHUNKS REQUESTED IN ADVANCE DO NOT START AFTER THIS ONE
+          for (PendingChunk discarded : pending)
+            discarded.future.cancel(true);
+          pending.clear();
+          requestOffset = offset;
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private ODistributedDatabaseChunk receive(final ExecutorService executor, final String filePath, PendingChunk pendingChunk)
+      throws InterruptedException {
+    for (int attempt = 1; ; attempt++) {
+      Object result;
+      try {
+        result = pendingChunk.future.get();
+      } catch (ExecutionException e) {
+        result = e.getCause();
+      }
+
+      if (result instanceof ODistributedDatabaseChunk) {
+        final ODistributedDatabaseChunk chunk = (ODistributedDatabaseChunk) result;
+        if (chunk.offset == pendingChunk.offset && chunk.isValid())
+          return chunk;
+
+        ODistributedServerLog.warn(this, manager.getLocalNodeName(), node, DIRECTION.IN,
+            "Chunk #%d offset=%d of database '%s' is corrupted (attempt %d/%d)", pendingChunk.chunkNum, pendingChunk.offset,
+            databaseName, attempt, retries);
+      } else if (result instanceof Throwable) {
+        ODistributedServerLog.warn(this, manager.getLocalNodeName(), node, DIRECTION.IN,
+            "Error on receiving chunk #%d offset=%d of database '%s' (attempt %d/%d)", (Throwable) result, pendingChunk.chunkNum,
+            pendingChunk.offset, databaseName, attempt, retries);
+      }
+
+      if (attempt >= retries)
+        throw new ODistributedException(
+            "Cannot receive chunk #" + pendingChunk.chunkNum + " offset=" + pendingChunk.offset + " of database '" + databaseName
+                + "' from server '" + node + "' after " + attempt + " attempts");
+
+      // RESUME FROM THE LAST ACKNOWLEDGED OFFSET
+      pendingChunk = request(executor, filePath, pendingChunk.chunkNum, pendingChunk.offset);
+    }
+  }
+
+  private PendingChunk request(final ExecutorService executor, final String filePath, final int chunkNum, final long offset) {
+    final Future<Object> future = executor.submit(() -> requestChunk(filePath, chunkNum, offset));
+
+    return new PendingChunk(chunkNum, offset, future);
+  }
+
+  private Object requestChunk(final String filePath, final int chunkNum, final long offset) {
+    return manager.sendRequest(databaseName, null, OMultiValue.getSingletonList(node),
+        new OCopyDatabaseChunkTask(filePath, chunkNum, offset, false), manager.getNextMessageIdCounter(),
+        ODistributedRequest.EXECUTION_MODE.RESPONSE, null, null, null).getPayload();
+  }
+
+  private boolean canResume(final ResumeState state, final File file, final ODistributedDatabaseChunk firstChunk)
+      throws IOException {
+    if (firstChunk.checksum == ODistributedDatabaseChunk.NO_CHECKSUM || firstChunk.offset != 0 || firstChunk.last)
+      return false;
+
+    // THE SENDER REUSES ITS LAST VALID BACKUP, A NEW BACKUP HAS A DIFFERENT PATH OR CONTENT
+    if (!state.filePath.equals(firstChunk.filePath) || state.firstChecksum != firstChunk.checksum)
+      return false;
+
+    if (file.length() < state.offset + state.length || state.checksum != localChecksum(file, state.offset, state.length))
+      return false;
+
+    final Object result;
+    try {
+      result = requestChunk(state.filePath, state.chunkNum, state.offset);
+    } catch (RuntimeException e) {
+      ODistributedServerLog.warn(this, manager.getLocalNodeName(), node, DIRECTION.IN,
+          "Error on verifying chunk #%d offset=%d of database '%s', the whole database is transferred", e, state.chunkNum,
+          state.offset, databaseName);
+      return false;
+    }
+
+    if (!(result instanceof ODistributedDatabaseChunk))
+      return false;
+
+    final ODistributedDatabaseChunk chunk = (ODistributedDatabaseChunk) result;
+    return chunk.offset == state.offset && chunk.buffer.length == state.length && chunk.isValid()
+        && chunk.calculateChecksum() == state.checksum;
+  }
+
+  private static long localChecksum(final File file, final long offset, final int length) throws IOException {
+    final byte[] buffer = new byte[length];
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+      raf.seek(offset);
+      raf.readFully(buffer);
+    }
+
+    final ODistributedDatabaseChunk chunk = new ODistributedDatabaseChunk();
+    chunk.buffer = buffer;
+    return chunk.calculateChecksum();
+  }
+
+  /**
+   * Records the chunk as the last verified one, only after its content is written to the file.
+   */
+  private void verified(final ODistributedDatabaseChunk firstChunk, final int chunkNum, final ODistributedDatabaseChunk chunk,
+      final OutputStream out) throws IOException {
+    if (resumeFile == null || firstChunk.checksum == ODistributedDatabaseChunk.NO_CHECKSUM)
+      return;
+
+    out.flush();
+    new ResumeState(firstChunk.filePath, firstChunk.checksum, chunkNum, chunk.offset, chunk.buffer.length,
+        chunk.calculateChecksum()).save(resumeFile);
+  }
+
+  private long completed(final long fileSize) {
+    if (resumeFile != null)
+      resumeFile.delete();
+    return fileSize;
+  }
+
+  private long write(final int chunkNum, final ODistributedDatabaseChunk chunk, final OutputStream out) throws IOException {
+    ODistributedServerLog.info(this, manager.getLocalNodeName(), node, DIRECTION.IN, "- writing chunk #%d offset=%d size=%s",
+        chunkNum, chunk.offset, OFileUtils.getSizeAsString(chunk.buffer.length));
+    out.write(chunk.buffer);
+
+    return chunk.buffer.length;
+  }
+
+  private static final class ResumeState {
+    private final String filePath;
+    private final long   firstChecksum;
+    private final int    chunkNum;
+    private final long   offset;
+    private final int    length;
+    private final long   checksum;
+
+    private ResumeState(final String filePath, final long firstChecksum, final int chunkNum, final long offset, final int length,
+        final long checksum) {
+      this.filePath = filePath;
+      this.firstChecksum = firstChecksum;
+      this.chunkNum = chunkNum;
+      this.offset = offset;
+      this.length = length;
+      this.checksum = checksum;
+    }
+
+    private static ResumeState load(final File file) {
+      if (!file.exists())
+        return null;
+
+      try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+        return new ResumeState(in.readUTF(), in.readLong(), in.readInt(), in.readLong(), in.readInt(), in.readLong());
+      } catch (IOException e) {
+        // CORRUPTED BY A CRASH: THE WHOLE DATABASE IS TRANSFERRED AGAIN
+        return null;
+      }
+    }
+
+    private void save(final File file) throws IOException {
+      final File tmp = new File(file.getAbsolutePath() + ".tmp");
+      try (DataOutputStream out = new DataOutputStream(new FileOutputStream(tmp))) {
+        out.writeUTF(filePath);
+        out.writeLong(firstChecksum);
+        out.writeInt(chunkNum);
+        out.writeLong(offset);
+        out.writeInt(length);
+        out.writeLong(checksum);
+      }
+      Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+  }
+
+  private static final class PendingChunk {
+    private final int            chunkNum;
+    private final long           offset;
+    private final Future<Object> future;
+
+    private PendingChunk(final int chunkNum, final long offset, final Future<Object> future) {
+      this.chunkNum = chunkNum;
+      this.offset = offset;
+      this.future = future;
+    }
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.server.distributed.impl;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Chunk sent to the nodes which use the distributed protocol v3 or later. Besides the content it carries its CRC32 checksum and the
+ * size of the file when the chunk was read, so the receiver can verify the chunk and knows how many chunks can be requested in
+ * advance.
+ */
+public class ODistributedDatabaseChunkV3 extends ODistributedDatabaseChunk {
+  public static final int PROTOCOL_VERSION = 3;
+
+  public ODistributedDatabaseChunkV3() {
+  }
+
+  public ODistributedDatabaseChunkV3(final ODistributedDatabaseChunk chunk) {
+    super(chunk);
+  }
+
+  @Override
+  public ODistributedDatabaseChunk toProtocolVersion(final int protocolVersion) {
+    if (protocolVersion < PROTOCOL_VERSION)
+      throw new IllegalArgumentException("Chunk cannot be sent with protocol v" + protocolVersion);
+
+    return this;
+  }
+
+  @Override
+  public void toStream(final DataOutput out) throws IOException {
+    super.toStream(out);
+    out.writeLong(checksum);
+    out.writeLong(fileSize);
+  }
+
+  @Override
+  public void fromStream(final DataInput in) throws IOException {
+    super.fromStream(in);
+    checksum = in.readLong();
+    fileSize = in.readLong();
+  }
+}
@@ -45,6 +45,7 @@ import com.orientechnologies.orient.server.distributed.*;
 import com.orientechnologies.orient.server.distributed.ODistributedServerLog.DIRECTION;
 import com.orientechnologies.orient.server.distributed.impl.coordinator.*;
 import com.orientechnologies.orient.server.distributed.impl.task.ODistributedLockTask;
+import com.orientechnologies.orient.server.distributed.impl.task.OLockKeysTask;
 import com.orientechnologies.orient.server.distributed.impl.task.OUnreachableServerLocalTask;
 import com.orientechnologies.orient.server.distributed.impl.task.OWaitForTask;
 import com.orientechnologies.orient.server.distributed.task.OAbstractRemoteTask;
@@ -85,6 +86,8 @@ public class ODistributedDatabaseImpl implements ODistributedDatabase {
   protected final List<ODistributedWorker>                                        workerThreads    = new ArrayList<ODistributedWorker>();
   protected       ODistributedWorker                                              lockThread;
   protected       ODistributedWorker                                              nowaitThread;
+  protected final ODistributedRequestScheduler                                    requestScheduler = new ODistributedRequestScheduler(
+      this);
 
   private          AtomicLong                            totalSentRequests     = new AtomicLong();
   private          AtomicLong                            totalReceivedRequests = new AtomicLong();
@@ -224,7 +227,8 @@ public class ODistributedDatabaseImpl implements ODistributedDatabase {
 
   /**
    * Distributed requests against the available workers by using one queue per worker. This guarantee the sequence of the operations
-   * against the same record cluster.
+   * against the same record cluster. Transactions are scheduled by the keys they lock instead (see {@link OLockKeysTask}), so only
+   * the transactions touching the same records are serialized.
    */
   public void processRequest(final ODistributedRequest request, final boolean waitForAcceptingRequests) {
     if (!running) {
@@ -260,6 +264,14 @@ public class ODistributedDatabaseImpl implements ODistributedDatabase {
     // }
     // }
 
+    if (task instanceof OLockKeysTask) {
+      if (workerThreads.isEmpty())
+        throw new ODistributedException("There are no worker threads to process request " + request);
+
+      requestScheduler.schedule(request, ((OLockKeysTask) task).getLockKeys(request.getId()));
+      return;
+    }
+
     final int[] partitionKeys = task.getPartitionKey();
 
     if (ODistributedServerLog.isDebugEnabled())
@@ -269,6 +281,17 @@ public class ODistributedDatabaseImpl implements ODistributedDatabase {
 
     if (partitionKeys.length > 1 || partitionKeys[0] == -1) {
 
+      try {
+        // THE TRANSACTIONS RECEIVED BEFORE MUST BE IN THE QUEUES BEFORE SYNCHRONIZING THEM
+        requestScheduler.waitForDispatch();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        final String msg = String
+            .format("Cannot execute distributed request (%s) because the pending transactions have not been dispatched", request);
+        ODistributedWorker.sendResponseBack(this, manager, request, new ODistributedOperationException(msg));
+        return;
+      }
+
       final Set<Integer> involvedWorkerQueues;
       if (partitionKeys.length > 1)
         involvedWorkerQueues = getInvolvedQueuesByPartitionKeys(partitionKeys);
@@ -362,30 +385,8 @@ public class ODistributedDatabaseImpl implements ODistributedDatabase {
         }
       }
     } else if (partitionKeys.length == 1 && partitionKeys[0] == -2) {
-      // ANY PARTITION: USE THE FIRST EMPTY IF ANY, OTHERWISE THE FIRST IN THE LIST
-      boolean found = false;
-
-      for (ODistributedWorker q : workerThreads) {
-        if (q.isWaitingForNextRequest() && q.localQueue.isEmpty()) {
-          q.processRequest(request);
-          found = true;
-          break;
-        }
-      }
-
-      if (!found)
-        // ALL THE THREADS ARE BUSY, SELECT THE FIRST EMPTY ONE
-        for (ODistributedWorker q : workerThreads) {
-          if (q.localQueue.isEmpty()) {
-            q.processRequest(request);
-            found = true;
-            break;
-          }
-        }
-
-      if (!found)
-        // EXEC ON THE FIRST QUEUE
-        workerThreads.get(0).processRequest(request);
+      // ANY PARTITION
+      getAvailableWorker().processRequest(request);
 
     } else if (partitionKeys.length == 1 && partitionKeys[0] == -3) {
       // SERVICE - LOCK
@@ -420,6 +421,32 @@ public class ODistributedDatabaseImpl implements ODistributedDatabase {
       }
   }
 
+  /**
+   * Returns the first idle worker if any, otherwise the worker with the shortest queue.
+   */
+  protected ODistributedWorker getAvailableWorker() {
+    if (workerThreads.isEmpty())
+      throw new ODistributedException("There are no worker threads to process requests for database '" + databaseName + "'");
+
+    ODistributedWorker candidate = null;
+    int candidateQueueSize = Integer.MAX_VALUE;
+    for (ODistributedWorker q : workerThreads) {
+      final int queueSize = q.localQueue.size();
+      if (queueSize == 0 && q.isWaitingForNextRequest())
+        return q;
+
+      if (queueSize < candidateQueueSize) {
+        candidate = q;
+        candidateQueueSize = queueSize;
+      }
+    }
+    return candidate;
+  }
+
+  public ODistributedRequestScheduler getRequestScheduler() {
+    return requestScheduler;
+  }
+
   protected Set<Integer> getInvolvedQueuesByPartitionKeys(final int[] partitionKeys) {
     final Set<Integer> involvedWorkerQueues = new HashSet<Integer>(partitionKeys.length);
     for (int pk : partitionKeys) {
@@ -1008,8 +1035,10 @@ public class ODistributedDatabaseImpl implements ODistributedDatabase {
             workerThread.join(2000);
           } catch (InterruptedException e) {
           }
+          workerThread.unregisterMetrics();
         }
       }
+      requestScheduler.clear();
       lockThread = null;
       nowaitThread = null;
       workerThreads.clear();
@@ -1202,6 +1231,7 @@ public class ODistributedDatabaseImpl implements ODistributedDatabase {
       final ODistributedWorker workerThread = new ODistributedWorker(this, databaseName, i, true);
       workerThreads.add(workerThread);
       workerThread.start();
+      workerThread.registerMetrics();
 
       ALL_QUEUES.add(i);
     }
@@ -1323,6 +1353,7 @@ public class ODistributedDatabaseImpl implements ODistributedDatabase {
         if (w != null)
           w.reset();
       }
+      requestScheduler.clear();
     }
 
     this.parsing.set(false);
@@ -1377,7 +1408,8 @@ public class ODistributedDatabaseImpl implements ODistributedDatabase {
         final ArrayBlockingQueue<ODistributedRequest> queue = t.localQueue;
 
         if (processing != null || !queue.isEmpty()) {
-          buffer.append("\n  - QUEUE " + t.id + " EXECUTING: " + processing);
+          buffer.append("\n  - QUEUE " + t.id + " EXECUTING: " + processing + " (applied=" + t.getAppliedRequests() + " avgApplyTime="
+              + t.getAverageApplyTime() + "ms barrierWaits=" + t.getBarrierWaits() + ")");
           int i = 0;
           for (ODistributedRequest m : queue) {
             if (m != null)
@@ -1387,6 +1419,14 @@ public class ODistributedDatabaseImpl implements ODistributedDatabase {
       }
     }
 
+    final List<ODistributedRequest> waiting = requestScheduler.getWaiting();
+    if (!waiting.isEmpty()) {
+      buffer.append("\n - WAITING FOR CONFLICTING TRANSACTIONS:");
+      int i = 0;
+      for (ODistributedRequest m : waiting)
+        buffer.append("\n  - " + (i++) + " = " + m.toString());
+    }
+
     return buffer.toString();
   }
 
@@ -0,0 +1,202 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.server.distributed.impl;
+
+import com.orientechnologies.orient.server.distributed.ODistributedRequest;
+import com.orientechnologies.orient.server.distributed.impl.task.OLockKeysTask;
+
+import java.util.*;
+
+/**
+ * Schedules the requests of {@link OLockKeysTask} tasks on the worker threads by the keys they lock. A request that shares no key
+ * with the requests received before it is dispatched immediately to the first available worker, otherwise it waits until all of
+ * them have been applied. In this way the order of the operations against the same key is preserved without synchronizing the
+ * queues of the workers, and transactions touching different records are applied concurrently even when they involve the same
+ * clusters.
+ * <p>
+ * Requests that become ready when another request is released are dispatched by the worker thread that released it, so they are
+ * never dispatched with a blocking put: if all the worker queues are full, they are kept aside and dispatched again as soon as any
+ * worker completes a request.
+ */
+public class ODistributedRequestScheduler {
+  private final ODistributedDatabaseImpl                    distributed;
+  private final Map<Object, ArrayDeque<OScheduledRequest>>  keys      = new HashMap<Object, ArrayDeque<OScheduledRequest>>();
+  private final Map<ODistributedRequest, OScheduledRequest> scheduled = new IdentityHashMap<ODistributedRequest, OScheduledRequest>();
+  private final ArrayDeque<OScheduledRequest>               retry     = new ArrayDeque<OScheduledRequest>();
+  private       int                                         waiting   = 0;
+
+  private static class OScheduledRequest {
+    private final ODistributedRequest request;
+    private final Set<Object>         keys;
+    private       int                 blockedBy;
+    private       long                waitStart = -1;
+
+    private OScheduledRequest(final ODistributedRequest request, final Set<Object> keys) {
+      this.request = request;
+      this.keys = keys;
+    }
+  }
+
+  public ODistributedRequestScheduler(final ODistributedDatabaseImpl distributed) {
+    this.distributed = distributed;
+  }
+
+  /**
+   * Dispatches the request to a worker as soon as the requests received before it that share at least one of its keys have been
+   * applied.
+   */
+  public void schedule(final ODistributedRequest request, final Set<Object> lockKeys) {
+    dispatchRetries();
+
+    final OScheduledRequest entry = new OScheduledRequest(request, lockKeys);
+
+    synchronized (this) {
+      for (Object key : lockKeys) {
+        ArrayDeque<OScheduledRequest> queue = keys.get(key);
+        if (queue == null) {
+          queue = new ArrayDeque<OScheduledRequest>(2);
+          keys.put(key, queue);
+        } else if (!queue.isEmpty())
+          entry.blockedBy++;
+        queue.addLast(entry);
+      }
+      scheduled.put(request, entry);
+
+      if (entry.blockedBy > 0) {
+        waiting++;
+        entry.waitStart = System.currentTimeMillis();
+        return;
+      }
+    }
+
+    // NOT CALLED BY THE WORKERS, SO IT CAN WAIT FOR A FREE SLOT IN THE QUEUE
+    final ODistributedWorker worker = distributed.getAvailableWorker();
+    worker.processRequest(entry.request);
+  }
+
+  /**
+   * Releases the keys of a request once it has been applied or discarded, dispatching the requests that were waiting only for it.
+   * Requests not scheduled by this class are ignored.
+   */
+  public void release(final ODistributedRequest request) {
+    // THE CALLER HAS JUST FREED A SLOT IN ITS QUEUE
+    dispatchRetries();
+
+    final List<OScheduledRequest> ready = new ArrayList<OScheduledRequest>();
+
+    synchronized (this) {
+      final OScheduledRequest entry = scheduled.remove(request);
+      if (entry == null)
+        return;
+
+      for (Object key : entry.keys) {
+        final ArrayDeque<OScheduledRequest> queue = keys.get(key);
+        if (queue == null)
+          continue;
+
+        final boolean head = queue.peekFirst() == entry;
+        queue.remove(entry);
+
+        if (queue.isEmpty())
+          keys.remove(key);
+        else if (head) {
+          final OScheduledRequest next = queue.peekFirst();
+          if (--next.blockedBy == 0)
+            ready.add(next);
+        }
+      }
+    }
+
+    for (OScheduledRequest next : ready)
+      if (!tryDispatch(next))
+        synchronized (this) {
+          retry.addLast(next);
+        }
+  }
+
+  /**
+   * Waits until all the scheduled requests have been dispatched to the workers. Used before synchronizing the worker queues, so a
+   * request waiting for its keys cannot be executed after a request received later.
+   */
+  public synchronized void waitForDispatch() throws InterruptedException {
+    while (waiting > 0)
+      wait();
+  }
+
+  /**
+   * Discards all the scheduled requests.
+   */
+  public synchronized void clear() {
+    keys.clear();
+    scheduled.clear();
+    retry.clear();
+    waiting = 0;
+    notifyAll();
+  }
+
+  public synchronized List<ODistributedRequest> getWaiting() {
+    final List<ODistributedRequest> result = new ArrayList<ODistributedRequest>();
+    for (OScheduledRequest entry : scheduled.values())
+      if (entry.blockedBy > 0)
+        result.add(entry.request);
+    return result;
+  }
+
+  /**
+   * Dispatches the requests kept aside because the worker queues were full, stopping at the first one that does not fit yet.
+   */
+  private void dispatchRetries() {
+    while (true) {
+      final OScheduledRequest entry;
+      synchronized (this) {
+        entry = retry.pollFirst();
+      }
+      if (entry == null)
+        return;
+
+      if (!tryDispatch(entry)) {
+        synchronized (this) {
+          retry.addFirst(entry);
+        }
+        return;
+      }
+    }
+  }
+
+  /**
+   * Puts a request that waited for other requests in the queue of the least loaded worker without blocking.
+   *
+   * @return false if the queue of the worker is full
+   */
+  private boolean tryDispatch(final OScheduledRequest entry) {
+    final ODistributedWorker worker = distributed.getAvailableWorker();
+    if (!worker.offerRequest(entry.request))
+      return false;
+
+    worker.onBarrierWait(System.currentTimeMillis() - entry.waitStart);
+
+    synchronized (this) {
+      // DECREMENTED ONLY NOW THAT THE REQUEST IS IN THE QUEUE OF THE WORKER
+      if (waiting > 0 && --waiting == 0)
+        notifyAll();
+    }
+    return true;
+  }
+}
@@ -25,6 +25,8 @@ import com.orientechnologies.common.concur.OTimeoutException;
 import com.orientechnologies.common.concur.lock.OModificationOperationProhibitedException;
 import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.profiler.OAbstractProfiler;
+import com.orientechnologies.common.profiler.OProfiler;
 import com.orientechnologies.orient.core.Orient;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
@@ -34,6 +36,7 @@ import com.orientechnologies.orient.core.metadata.security.OSecurityUser;
 import com.orientechnologies.orient.core.metadata.security.OUser;
 import com.orientechnologies.orient.server.distributed.*;
 import com.orientechnologies.orient.server.distributed.ODistributedServerLog.DIRECTION;
+import com.orientechnologies.orient.server.distributed.impl.task.OWaitForTask;
 import com.orientechnologies.orient.server.distributed.task.ODistributedOperationException;
 import com.orientechnologies.orient.server.distributed.task.ORemoteTask;
 
@@ -65,6 +68,10 @@ public class ODistributedWorker extends Thread {
 
   private AtomicLong    processedRequests     = new AtomicLong(0);
   private AtomicBoolean waitingForNextRequest = new AtomicBoolean(true);
+  private AtomicLong    barrierWaits          = new AtomicLong(0);
+  private AtomicLong    barrierWaitTime       = new AtomicLong(0);
+  private AtomicLong    appliedRequests       = new AtomicLong(0);
+  private AtomicLong    applyTime             = new AtomicLong(0);
 
   private static final long                MAX_SHUTDOWN_TIMEOUT = 5000l;
   private volatile     ODistributedRequest currentExecuting;
@@ -83,11 +90,8 @@ public class ODistributedWorker extends Thread {
   }
 
   public void processRequest(final ODistributedRequest request) {
-    if (!acceptsWhileNotOnline && manager.isOffline()) {
-      ODistributedServerLog.debug(this, manager.getLocalNodeName(), null, DIRECTION.NONE,
-          "Discard request '%s' for database '%s' because the server is not online", request, this.databaseName);
+    if (discardIfOffline(request))
       return;
-    }
 
     if (!localQueue.offer(request)) {
 //    throw new ODistributedException(
@@ -105,6 +109,25 @@ public class ODistributedWorker extends Thread {
     }
   }
 
+  /**
+   * Adds the request to the queue without waiting if the queue is full.
+   *
+   * @return false if the queue is full and the request has not been added
+   */
+  public boolean offerRequest(final ODistributedRequest request) {
+    return discardIfOffline(request) || localQueue.offer(request);
+  }
+
+  private boolean discardIfOffline(final ODistributedRequest request) {
+    if (acceptsWhileNotOnline || !manager.isOffline())
+      return false;
+
+    ODistributedServerLog.debug(this, manager.getLocalNodeName(), null, DIRECTION.NONE,
+        "Discard request '%s' for database '%s' because the server is not online", request, this.databaseName);
+    distributed.getRequestScheduler().release(request);
+    return true;
+  }
+
   @Override
   public void run() {
     for (long processedMessages = 0; running; processedMessages++) {
@@ -116,9 +139,22 @@ public class ODistributedWorker extends Thread {
         currentExecuting = message;
 
         if (message != null) {
-          message.getId();
           reqId = message.getId();
-          onMessage(message);
+
+          final ORemoteTask task = message.getTask();
+          if (task instanceof OSynchronizedTaskWrapper || task instanceof OWaitForTask)
+            barrierWaits.incrementAndGet();
+
+          final long start = System.currentTimeMillis();
+          try {
+            onMessage(message);
+          } finally {
+            applyTime.addAndGet(System.currentTimeMillis() - start);
+            appliedRequests.incrementAndGet();
+
+            // LET THE REQUESTS WAITING FOR THE SAME KEYS GO
+            distributed.getRequestScheduler().release(message);
+          }
         }
 
         currentExecuting = null;
@@ -469,6 +505,86 @@ public class ODistributedWorker extends Thread {
     return processedRequests.get();
   }
 
+  /**
+   * Called when a request that waited for conflicting requests is dispatched to this worker.
+   */
+  public void onBarrierWait(final long elapsed) {
+    barrierWaits.incrementAndGet();
+    barrierWaitTime.addAndGet(elapsed);
+  }
+
+  public long getBarrierWaits() {
+    return barrierWaits.get();
+  }
+
+  public long getBarrierWaitTime() {
+    return barrierWaitTime.get();
+  }
+
+  public long getAppliedRequests() {
+    return appliedRequests.get();
+  }
+
+  /**
+   * Returns the average time in ms to apply a request.
+   */
+  public long getAverageApplyTime() {
+    final long applied = appliedRequests.get();
+    return applied > 0 ? applyTime.get() / applied : 0;
+  }
+
+  public void registerMetrics() {
+    final String prefix = getMetricPrefix();
+
+    Orient.instance().getProfiler()
+        .registerHookValue(prefix + "queueSize", "Number of requests in the queue of the worker", OProfiler.METRIC_TYPE.SIZE,
+            new OAbstractProfiler.OProfilerHookValue() {
+              @Override
+              public Object getValue() {
+                return (long) localQueue.size();
+              }
+            }, "distributed.db.*.worker.*.queueSize");
+
+    Orient.instance().getProfiler().registerHookValue(prefix + "barrierWaits",
+        "Number of requests executed by the worker after waiting for conflicting requests or for the other queues",
+        OProfiler.METRIC_TYPE.COUNTER, new OAbstractProfiler.OProfilerHookValue() {
+          @Override
+          public Object getValue() {
+            return barrierWaits.get();
+          }
+        }, "distributed.db.*.worker.*.barrierWaits");
+
+    Orient.instance().getProfiler().registerHookValue(prefix + "barrierWaitTime",
+        "Total time in ms the requests of the worker waited for conflicting requests", OProfiler.METRIC_TYPE.COUNTER,
+        new OAbstractProfiler.OProfilerHookValue() {
+          @Override
+          public Object getValue() {
+            return barrierWaitTime.get();
+          }
+        }, "distributed.db.*.worker.*.barrierWaitTime");
+
+    Orient.instance().getProfiler()
+        .registerHookValue(prefix + "applyTime", "Average time in ms to apply a request", OProfiler.METRIC_TYPE.STAT,
+            new OAbstractProfiler.OProfilerHookValue() {
+              @Override
+              public Object getValue() {
+                return getAverageApplyTime();
+              }
+            }, "distributed.db.*.worker.*.applyTime");
+  }
+
+  public void unregisterMetrics() {
+    final String prefix = getMetricPrefix();
+    Orient.instance().getProfiler().unregisterHookValue(prefix + "queueSize");
+    Orient.instance().getProfiler().unregisterHookValue(prefix + "barrierWaits");
+    Orient.instance().getProfiler().unregisterHookValue(prefix + "barrierWaitTime");
+    Orient.instance().getProfiler().unregisterHookValue(prefix + "applyTime");
+  }
+
+  private String getMetricPrefix() {
+    return "distributed.db." + databaseName + ".worker." + id + ".";
+  }
+
   public void reset() {
     localQueue.clear();
     if (database != null) {
@@ -14,6 +14,7 @@ import com.orientechnologies.orient.core.query.live.OLiveQueryHook;
 import com.orientechnologies.orient.core.query.live.OLiveQueryHookV2;
 import com.orientechnologies.orient.core.schedule.OSchedulerImpl;
 import com.orientechnologies.orient.core.security.OSecurityManager;
+import com.orientechnologies.orient.core.sql.executor.OQueryResultCache;
 import com.orientechnologies.orient.core.sql.executor.OQueryStats;
 import com.orientechnologies.orient.core.sql.parser.OExecutionPlanCache;
 import com.orientechnologies.orient.core.sql.parser.OStatementCache;
@@ -38,7 +39,8 @@ public class OSharedContextDistributed extends OSharedContext {
     scheduler = new OSchedulerImpl();
     sequenceLibrary = new OSequenceLibraryImpl();
     liveQueryOps = new OLiveQueryHook.OLiveQueryOps();
-    liveQueryOpsV2 = new OLiveQueryHookV2.OLiveQueryOps();
+    liveQueryOpsV2 = new OLiveQueryHookV2.OLiveQueryOps(storage.getName(),
+        storage.getConfiguration().getContextConfiguration());
     commandCache = new OCommandCacheSoftRefs(storage.getUnderlying());
     statementCache = new OStatementCache(
         storage.getConfiguration().getContextConfiguration().getValueAsInteger(OGlobalConfiguration.STATEMENT_CACHE_SIZE));
@@ -47,6 +49,9 @@ public class OSharedContextDistributed extends OSharedContext {
         storage.getConfiguration().getContextConfiguration().getValueAsInteger(OGlobalConfiguration.STATEMENT_CACHE_SIZE));
     this.registerListener(executionPlanCache);
 
+    queryResultCache = new OQueryResultCache(storage.getName(), storage.getConfiguration().getContextConfiguration());
+    this.registerListener(queryResultCache);
+
     queryStats = new OQueryStats();
 
     distributedContext = new ODistributedContext(storage, orientDB);
@@ -92,6 +97,7 @@ public class OSharedContextDistributed extends OSharedContext {
     commandCache.shutdown();
     statementCache.clear();
     executionPlanCache.invalidate();
+    queryResultCache.invalidate();
     liveQueryOps.close();
     liveQueryOpsV2.close();
     distributedContext.close();
@@ -107,6 +113,7 @@ public class OSharedContextDistributed extends OSharedContext {
       functionLibrary.load(database);
       sequenceLibrary.load(database);
       commandCache.clear();
+      queryResultCache.invalidate();
       scheduler.load(database);
       return null;
     });
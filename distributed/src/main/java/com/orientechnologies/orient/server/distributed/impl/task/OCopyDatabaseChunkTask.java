@@ -27,6 +27,7 @@ import com.orientechnologies.orient.server.OServer;
 import com.orientechnologies.orient.server.distributed.ODistributedRequestId;
 import com.orientechnologies.orient.server.distributed.ODistributedServerLog;
 import com.orientechnologies.orient.server.distributed.ODistributedServerManager;
+import com.orientechnologies.orient.server.distributed.ORemoteServerController;
 import com.orientechnologies.orient.server.distributed.ORemoteTaskFactory;
 import com.orientechnologies.orient.server.distributed.impl.ODistributedDatabaseChunk;
 import com.orientechnologies.orient.server.distributed.task.OAbstractReplicatedTask;
@@ -50,6 +51,7 @@ public class OCopyDatabaseChunkTask extends OAbstractReplicatedTask {
   private int               chunkNum;
   private long              offset;
   private boolean           compressed;
+  private int               protocolVersion  = ORemoteServerController.CURRENT_PROTOCOL_VERSION;
 
   public OCopyDatabaseChunkTask() {
   }
@@ -78,7 +80,7 @@ public class OCopyDatabaseChunkTask extends OAbstractReplicatedTask {
       // NO MORE CHUNKS: SET THE NODE ONLINE (SYNCHRONIZING ENDED)
       iManager.setDatabaseStatus(iManager.getLocalNodeName(), database.getName(), ODistributedServerManager.DB_STATUS.ONLINE);
 
-    return result;
+    return result.toProtocolVersion(protocolVersion);
   }
 
   @Override
@@ -113,6 +115,8 @@ public class OCopyDatabaseChunkTask extends OAbstractReplicatedTask {
     fileName = in.readUTF();
     chunkNum = in.readInt();
     offset = in.readLong();
+    // CHUNKS ARE SENT IN THE FORMAT SUPPORTED BY THE REQUESTER
+    protocolVersion = factory.getProtocolVersion();
   }
 
   @Override
@@ -0,0 +1,37 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.server.distributed.impl.task;
+
+import com.orientechnologies.orient.server.distributed.ODistributedRequestId;
+
+import java.util.Set;
+
+/**
+ * Task scheduled on the worker threads by the keys it locks when applied, instead of by its partition key. Tasks with disjoint
+ * keys are applied concurrently, tasks sharing a key are applied in the order they have been received.
+ */
+public interface OLockKeysTask {
+  /**
+   * Returns the keys locked by the task.
+   *
+   * @param requestId id of the request that contains the task
+   */
+  Set<Object> getLockKeys(ODistributedRequestId requestId);
+}
@@ -34,13 +34,14 @@ import java.util.Collection;
  */
 public class ORemoteTaskFactoryManagerImpl implements ORemoteTaskFactoryManager {
   private final ODistributedServerManager dManager;
-  private       ORemoteTaskFactory[]      factories = new ODefaultRemoteTaskFactoryV0[3];
+  private       ORemoteTaskFactory[]      factories = new ODefaultRemoteTaskFactoryV0[4];
 
   public ORemoteTaskFactoryManagerImpl(final ODistributedServerManager dManager) {
     this.dManager = dManager;
     factories[0] = new ODefaultRemoteTaskFactoryV0();
     factories[1] = new ODefaultRemoteTaskFactoryV1();
     factories[2] = new ODefaultRemoteTaskFactoryV2();
+    factories[3] = new ODefaultRemoteTaskFactoryV3();
   }
 
   @Override
@@ -53,6 +53,11 @@ import java.util.concurrent.atomic.AtomicReference;
 public class OSyncDatabaseTask extends OAbstractSyncDatabaseTask {
   public static final int FACTORYID = 14;
 
+  /**
+   * Version of the protocol used by the node which requested the database, chunks are sent in the format it supports.
+   */
+  private int protocolVersion = ORemoteServerController.CURRENT_PROTOCOL_VERSION;
+
   public OSyncDatabaseTask() {
   }
 
@@ -253,7 +258,7 @@ public class OSyncDatabaseTask extends OAbstractSyncDatabaseTask {
 
         }
 
-        return chunk;
+        return chunk.toProtocolVersion(protocolVersion);
 
       } catch (OLockException e) {
         ODistributedServerLog.debug(this, iManager.getLocalNodeName(), getNodeSource(), DIRECTION.NONE,
@@ -311,6 +316,7 @@ public class OSyncDatabaseTask extends OAbstractSyncDatabaseTask {
     readOptionalLSN(in);
     random = in.readLong();
     lastOperationTimestamp = in.readLong();
+    protocolVersion = factory.getProtocolVersion();
   }
 
   @Override
@@ -11,6 +11,7 @@ import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
 import com.orientechnologies.orient.core.db.record.ORecordOperation;
 import com.orientechnologies.orient.core.exception.OConcurrentModificationException;
 import com.orientechnologies.orient.core.exception.ORecordNotFoundException;
+import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.id.ORecordId;
 import com.orientechnologies.orient.core.record.ORecord;
 import com.orientechnologies.orient.core.record.ORecordInternal;
@@ -33,13 +34,15 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * @author Luigi Dell'Aquila (l.dellaquila - at - orientdb.com)
  */
-public class OTransactionPhase1Task extends OAbstractReplicatedTask {
+public class OTransactionPhase1Task extends OAbstractReplicatedTask implements OLockKeysTask {
   public static final int FACTORYID = 43;
 
   private volatile  boolean                                         hasResponse;
@@ -234,6 +237,29 @@ public class OTransactionPhase1Task extends OAbstractReplicatedTask {
       return ops.stream().mapToInt((x) -> x.getRID().getClusterId()).toArray();
   }
 
+  @Override
+  public Set<Object> getLockKeys(final ODistributedRequestId requestId) {
+    final Set<Object> keys = new HashSet<>();
+    // THE SECOND PHASE OF THE TRANSACTION IS APPLIED AFTER THIS ONE
+    keys.add(requestId);
+    if (operations.size() > 0)
+      for (ORecordOperationRequest operation : operations)
+        addLockKeys(keys, operation.getType(), operation.getId());
+    else
+      for (ORecordOperation op : ops)
+        addLockKeys(keys, op.getType(), op.getRID());
+    return keys;
+  }
+
+  private static void addLockKeys(final Set<Object> keys, final byte type, final ORID rid) {
+    if (type == ORecordOperation.LOADED)
+      return;
+    keys.add(rid);
+    if (type == ORecordOperation.CREATED)
+      // NEW RECORDS ARE ALLOCATED IN THE SAME ORDER OF THE OTHER SERVERS: SERIALIZE THE CREATIONS ON THE SAME CLUSTER
+      keys.add(rid.getClusterId());
+  }
+
   @Override
   public long getDistributedTimeout() {
     return super.getDistributedTimeout() + (operations.size() / 10);
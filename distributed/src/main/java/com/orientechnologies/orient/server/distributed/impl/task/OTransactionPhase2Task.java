@@ -15,13 +15,15 @@ import com.orientechnologies.orient.server.distributed.task.OAbstractReplicatedT
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
 
 import static com.orientechnologies.orient.core.config.OGlobalConfiguration.DISTRIBUTED_CONCURRENT_TX_MAX_AUTORETRY;
 
 /**
  * @author Luigi Dell'Aquila (l.dellaquila - at - orientdb.com)
  */
-public class OTransactionPhase2Task extends OAbstractReplicatedTask {
+public class OTransactionPhase2Task extends OAbstractReplicatedTask implements OLockKeysTask {
   public static final int FACTORYID = 44;
 
   private          ODistributedRequestId transactionId;
@@ -155,4 +157,10 @@ public class OTransactionPhase2Task extends OAbstractReplicatedTask {
   public int[] getPartitionKey() {
     return involvedClusters;
   }
+
+  @Override
+  public Set<Object> getLockKeys(final ODistributedRequestId requestId) {
+    // THE RECORDS ARE ALREADY LOCKED BY THE FIRST PHASE: JUST FOLLOW IT
+    return Collections.singleton(transactionId);
+  }
 }
@@ -0,0 +1,126 @@
+package com.orientechnologies.orient.server.distributed.impl;
+
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.server.distributed.ODistributedException;
+import com.orientechnologies.orient.server.distributed.ODistributedRequest;
+import com.orientechnologies.orient.server.distributed.ODistributedResponse;
+import com.orientechnologies.orient.server.distributed.ODistributedServerManager;
+import com.orientechnologies.orient.server.distributed.impl.task.OCopyDatabaseChunkTask;
+import com.orientechnologies.orient.server.distributed.impl.task.OSyncDatabaseTask;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class ODistributedDatabaseChunkFetcherTest {
+  private File   backupFile;
+  private File   installFile;
+  private byte[] content;
+
+  private final List<Long> requestedOffsets = Collections.synchronizedList(new ArrayList<>());
+  private volatile long failFromOffset = Long.MAX_VALUE;
+
+  private ODistributedServerManager manager;
+
+  @Before
+  public void before() throws IOException {
+    backupFile = File.createTempFile("fetcherTest", ".zip");
+    new File(backupFile.getAbsolutePath() + ".completed").createNewFile();
+    installFile = File.createTempFile("fetcherTestInstall", ".zip");
+
+    content = new byte[OSyncDatabaseTask.CHUNK_MAX_SIZE * 3 + 1000];
+    for (int i = 0; i < content.length; i++)
+      content[i] = (byte) (i * 31);
+    Files.write(backupFile.toPath(), content);
+
+    final ODatabaseDocumentInternal database = Mockito.mock(ODatabaseDocumentInternal.class);
+    manager = Mockito.mock(ODistributedServerManager.class);
+    Mockito.when(manager.getLocalNodeName()).thenReturn("local");
+    Mockito.when(
+        manager.sendRequest(Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.any(OCopyDatabaseChunkTask.class),
+            Mockito.anyLong(), Mockito.any(ODistributedRequest.EXECUTION_MODE.class), Mockito.any(), Mockito.any(), Mockito.any()))
+        .thenAnswer(invocation -> {
+          final OCopyDatabaseChunkTask task = invocation.getArgumentAt(3, OCopyDatabaseChunkTask.class);
+          final ODistributedDatabaseChunk chunk = (ODistributedDatabaseChunk) task.execute(null, null, manager, database);
+          requestedOffsets.add(chunk.offset);
+          if (chunk.offset >= failFromOffset)
+            throw new ODistributedException("Connection lost");
+          return new ODistributedResponse(null, null, "remote", "local", chunk);
+        });
+  }
+
+  @After
+  public void after() {
+    backupFile.delete();
+    new File(backupFile.getAbsolutePath() + ".completed").delete();
+    installFile.delete();
+    new File(installFile.getAbsolutePath() + ".resume").delete();
+  }
+
+  @Test
+  public void testFetch() throws Exception {
+    Assert.assertEquals(content.length, fetch());
+    Assert.assertArrayEquals(content, Files.readAllBytes(installFile.toPath()));
+    Assert.assertFalse(new File(installFile.getAbsolutePath() + ".resume").exists());
+  }
+
+  @Test
+  public void testNewSessionResumesFromLastVerifiedChunk() throws Exception {
+    failFromOffset = OSyncDatabaseTask.CHUNK_MAX_SIZE * 2;
+    try {
+      fetch();
+      Assert.fail();
+    } catch (ODistributedException e) {
+      // EXPECTED
+    }
+    Assert.assertTrue(new File(installFile.getAbsolutePath() + ".resume").exists());
+
+    failFromOffset = Long.MAX_VALUE;
+    requestedOffsets.clear();
+    Assert.assertEquals(content.length, fetch());
+    Assert.assertArrayEquals(content, Files.readAllBytes(installFile.toPath()));
+
+    // THE LAST VERIFIED CHUNK IS REQUESTED AGAIN ONLY TO COMPARE ITS CHECKSUM
+    Assert.assertFalse(requestedOffsets.contains(0L));
+    Assert.assertTrue(requestedOffsets.contains((long) OSyncDatabaseTask.CHUNK_MAX_SIZE));
+    Assert.assertTrue(requestedOffsets.contains((long) OSyncDatabaseTask.CHUNK_MAX_SIZE * 3));
+  }
+
+  @Test
+  public void testChangedBackupIsTransferredAgain() throws Exception {
+    failFromOffset = OSyncDatabaseTask.CHUNK_MAX_SIZE * 2;
+    try {
+      fetch();
+      Assert.fail();
+    } catch (ODistributedException e) {
+      // EXPECTED
+    }
+
+    // THE SECOND CHUNK OF THE BACKUP CHANGED, THE RECEIVED PART CANNOT BE REUSED
+    content[OSyncDatabaseTask.CHUNK_MAX_SIZE + 10]++;
+    Files.write(backupFile.toPath(), content);
+
+    failFromOffset = Long.MAX_VALUE;
+    Assert.assertEquals(content.length, fetch());
+    Assert.assertArrayEquals(content, Files.readAllBytes(installFile.toPath()));
+  }
+
+  private long fetch() throws Exception {
+    final ODistributedDatabaseChunk firstChunk = new ODistributedDatabaseChunk(backupFile, 0, OSyncDatabaseTask.CHUNK_MAX_SIZE,
+        null, false, false).toProtocolVersion(ODistributedDatabaseChunkV3.PROTOCOL_VERSION);
+
+    final ODistributedDatabaseChunkFetcher fetcher = new ODistributedDatabaseChunkFetcher(manager, "test", "remote", 2, 1);
+    try (OutputStream out = fetcher.open(installFile, firstChunk)) {
+      return fetcher.fetch(firstChunk, out);
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package com.orientechnologies.orient.server.distributed.impl;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+public class ODistributedDatabaseChunkTest {
+  private File   file;
+  private File   completedFile;
+  private byte[] content;
+
+  @Before
+  public void before() throws IOException {
+    file = File.createTempFile("chunkTest", ".zip");
+    completedFile = new File(file.getAbsolutePath() + ".completed");
+
+    content = new byte[1000];
+    for (int i = 0; i < content.length; i++)
+      content[i] = (byte) i;
+
+    Files.write(file.toPath(), content);
+    completedFile.createNewFile();
+  }
+
+  @After
+  public void after() {
+    file.delete();
+    completedFile.delete();
+  }
+
+  @Test
+  public void testReadChunks() throws IOException {
+    final ODistributedDatabaseChunk first = new ODistributedDatabaseChunk(file, 0, 400, null, false, false);
+    Assert.assertArrayEquals(Arrays.copyOfRange(content, 0, 400), first.buffer);
+    Assert.assertFalse(first.last);
+    Assert.assertTrue(first.isValid());
+
+    final ODistributedDatabaseChunk last = new ODistributedDatabaseChunk(file, 800, 400, null, false, false);
+    Assert.assertArrayEquals(Arrays.copyOfRange(content, 800, 1000), last.buffer);
+    Assert.assertTrue(last.last);
+    Assert.assertTrue(last.isValid());
+  }
+
+  @Test
+  public void testChunkRequestedAfterEndOfFile() throws IOException {
+    final ODistributedDatabaseChunk chunk = new ODistributedDatabaseChunk(file, 1200, 400, null, false, false);
+    Assert.assertEquals(0, chunk.buffer.length);
+    Assert.assertTrue(chunk.last);
+  }
+
+  @Test
+  public void testChecksumIsTransferred() throws IOException {
+    final ODistributedDatabaseChunk chunk = new ODistributedDatabaseChunk(file, 100, 400, null, false, false)
+        .toProtocolVersion(ODistributedDatabaseChunkV3.PROTOCOL_VERSION);
+
+    final ODistributedDatabaseChunk received = new ODistributedDatabaseChunkV3();
+    transfer(chunk, received);
+    Assert.assertEquals(chunk.checksum, received.checksum);
+    Assert.assertEquals(content.length, received.fileSize);
+    Assert.assertTrue(received.isValid());
+
+    received.buffer[10]++;
+    Assert.assertFalse(received.isValid());
+  }
+
+  @Test
+  public void testChecksumIsNotSentWithOldProtocol() throws IOException {
+    final ODistributedDatabaseChunk chunk = new ODistributedDatabaseChunk(file, 100, 400, null, false, false).toProtocolVersion(2);
+    Assert.assertEquals(ODistributedDatabaseChunk.class, chunk.getClass());
+
+    final ODistributedDatabaseChunk received = new ODistributedDatabaseChunk();
+    transfer(chunk, received);
+    Assert.assertArrayEquals(chunk.buffer, received.buffer);
+    Assert.assertEquals(ODistributedDatabaseChunk.NO_CHECKSUM, received.checksum);
+    Assert.assertEquals(-1, received.fileSize);
+    Assert.assertTrue(received.isValid());
+  }
+
+  private static void transfer(final ODistributedDatabaseChunk chunk, final ODistributedDatabaseChunk received)
+      throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final DataOutputStream out = new DataOutputStream(bytes);
+    chunk.toStream(out);
+    out.writeInt(Integer.MAX_VALUE);
+
+    final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    received.fromStream(in);
+    // WHOLE CHUNK IS READ AND NOTHING ELSE
+    Assert.assertEquals(Integer.MAX_VALUE, in.readInt());
+  }
+}
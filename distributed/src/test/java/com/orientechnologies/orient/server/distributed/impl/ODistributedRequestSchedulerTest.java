@@ -0,0 +1,119 @@
+package com.orientechnologies.orient.server.distributed.impl;
+
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.server.distributed.ODistributedRequest;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+public class ODistributedRequestSchedulerTest {
+
+  @Mock
+  private ODistributedDatabaseImpl distributed;
+  @Mock
+  private ODistributedWorker       worker;
+
+  private ODistributedRequestScheduler scheduler;
+
+  @Before
+  public void before() {
+    MockitoAnnotations.initMocks(this);
+    Mockito.when(distributed.getAvailableWorker()).thenReturn(worker);
+    Mockito.when(worker.offerRequest(Mockito.any(ODistributedRequest.class))).thenReturn(true);
+    scheduler = new ODistributedRequestScheduler(distributed);
+  }
+
+  @Test
+  public void testDisjointKeysAreDispatchedImmediately() {
+    ODistributedRequest first = request(1);
+    ODistributedRequest second = request(2);
+
+    scheduler.schedule(first, keys(new ORecordId(10, 1), new ORecordId(11, 1)));
+    scheduler.schedule(second, keys(new ORecordId(10, 2), new ORecordId(11, 2)));
+
+    Mockito.verify(worker, times(1)).processRequest(first);
+    Mockito.verify(worker, times(1)).processRequest(second);
+    Mockito.verify(worker, never()).onBarrierWait(anyLong());
+  }
+
+  @Test
+  public void testSharedKeyWaitsForPreviousRequest() {
+    ODistributedRequest first = request(1);
+    ODistributedRequest second = request(2);
+    ODistributedRequest third = request(3);
+
+    scheduler.schedule(first, keys(new ORecordId(10, 1)));
+    scheduler.schedule(second, keys(new ORecordId(10, 1), new ORecordId(11, 1)));
+    scheduler.schedule(third, keys(new ORecordId(11, 1)));
+
+    Mockito.verify(worker, times(1)).processRequest(first);
+    Mockito.verify(worker, never()).offerRequest(second);
+    Mockito.verify(worker, never()).offerRequest(third);
+    Assert.assertEquals(2, scheduler.getWaiting().size());
+
+    scheduler.release(first);
+    Mockito.verify(worker, times(1)).offerRequest(second);
+    Mockito.verify(worker, never()).offerRequest(third);
+
+    scheduler.release(second);
+    Mockito.verify(worker, times(1)).offerRequest(third);
+    Mockito.verify(worker, times(2)).onBarrierWait(anyLong());
+    Assert.assertTrue(scheduler.getWaiting().isEmpty());
+  }
+
+  @Test
+  public void testReleaseOfUnknownRequestIsIgnored() {
+    ODistributedRequest first = request(1);
+    ODistributedRequest second = request(2);
+
+    scheduler.schedule(first, keys(new ORecordId(10, 1)));
+    scheduler.schedule(second, keys(new ORecordId(10, 1)));
+
+    scheduler.release(request(3));
+    Mockito.verify(worker, never()).offerRequest(second);
+
+    scheduler.clear();
+    Assert.assertTrue(scheduler.getWaiting().isEmpty());
+    scheduler.release(first);
+    Mockito.verify(worker, never()).offerRequest(second);
+  }
+
+  @Test
+  public void testReleasedRequestIsRetriedWhenQueueIsFull() {
+    ODistributedRequest first = request(1);
+    ODistributedRequest second = request(2);
+
+    scheduler.schedule(first, keys(new ORecordId(10, 1)));
+    scheduler.schedule(second, keys(new ORecordId(10, 1)));
+
+    Mockito.when(worker.offerRequest(second)).thenReturn(false);
+    scheduler.release(first);
+    Mockito.verify(worker, times(1)).offerRequest(second);
+    Mockito.verify(worker, never()).processRequest(second);
+
+    // ANY COMPLETED REQUEST FREES A SLOT IN THE QUEUES
+    Mockito.when(worker.offerRequest(second)).thenReturn(true);
+    scheduler.release(request(3));
+    Mockito.verify(worker, times(2)).offerRequest(second);
+    Mockito.verify(worker, times(1)).onBarrierWait(anyLong());
+  }
+
+  private static ODistributedRequest request(final long sequence) {
+    return new ODistributedRequest(null, 0, sequence, "test", null);
+  }
+
+  private static Set<Object> keys(final Object... keys) {
+    return new HashSet<Object>(Arrays.asList(keys));
+  }
+}
@@ -21,38 +21,60 @@ package com.orientechnologies.orient.etl;
 import com.orientechnologies.orient.etl.context.OETLContextWrapper;
 import com.orientechnologies.orient.etl.extractor.OETLExtractor;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 
 /**
  * Created by frank on 14/06/2016.
  */
 class OETLExtractorWorker implements Runnable {
-  private final BlockingQueue<OETLExtractedItem> queue;
-  private final boolean                          haltOnError;
-  private final OETLExtractor                    extractor;
+  /**
+   * Put in the queue once all the items are extracted.
+   */
+  static final List<OETLExtractedItem> END = Collections.singletonList(new OETLExtractedItem(true));
 
-  public OETLExtractorWorker(OETLExtractor extractor, BlockingQueue<OETLExtractedItem> queue, boolean haltOnError) {
+  private final BlockingQueue<List<OETLExtractedItem>> queue;
+  private final boolean                                haltOnError;
+  private final OETLExtractor                          extractor;
+  private final int                                    batchSize;
+  private final OETLProcessor.OETLProcessorStats       stats;
+
+  private List<OETLExtractedItem> batch;
+  private long                    batchNanos;
+
+  public OETLExtractorWorker(OETLExtractor extractor, BlockingQueue<List<OETLExtractedItem>> queue, boolean haltOnError,
+      int batchSize, OETLProcessor.OETLProcessorStats stats) {
     this.queue = queue;
     this.haltOnError = haltOnError;
     this.extractor = extractor;
+    this.batchSize = batchSize;
+    this.stats = stats;
   }
 
   @Override
   public void run() {
     OETLContextWrapper.getInstance().getMessageHandler().debug(this, "Start extracting");
+    batch = new ArrayList<>(batchSize);
     boolean fetch = true;
     while (fetch == true) {
 
       try {
+        final long start = System.nanoTime();
         if (extractor.hasNext()) {
           // EXTRACTOR
           final OETLExtractedItem current = extractor.next();
+          batchNanos += System.nanoTime() - start;
 
           // enqueue for transform and load
-          queue.put(current);
+          batch.add(current);
+          if (batch.size() >= batchSize)
+            flushBatch();
         } else {
 
-          queue.put(new OETLExtractedItem(true));
+          flushBatch();
+          queue.put(END);
           fetch = false;
         }
       } catch (InterruptedException e) {
@@ -60,7 +82,7 @@ class OETLExtractorWorker implements Runnable {
       } catch (Exception e) {
         if (haltOnError) {
           try {
-            queue.put(new OETLExtractedItem(true));
+            queue.put(END);
           } catch (InterruptedException e1) {
 
           }
@@ -70,4 +92,15 @@ class OETLExtractorWorker implements Runnable {
       }
     }
   }
+
+  private void flushBatch() throws InterruptedException {
+    if (batch.isEmpty())
+      return;
+
+    queue.put(batch);
+    stats.addStageProgress(OETLProcessor.STAGE.EXTRACTION, batch.size(), batchNanos);
+
+    batch = new ArrayList<>(batchSize);
+    batchNanos = 0;
+  }
 }
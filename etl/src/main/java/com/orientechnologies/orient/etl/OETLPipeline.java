@@ -25,9 +25,11 @@ import com.orientechnologies.orient.core.command.OCommandContext;
 import com.orientechnologies.orient.core.db.ODatabasePool;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
 import com.orientechnologies.orient.etl.context.OETLContextWrapper;
+import com.orientechnologies.orient.etl.extractor.OETLExtractor;
 import com.orientechnologies.orient.etl.loader.OETLLoader;
 import com.orientechnologies.orient.etl.transformer.OETLTransformer;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
 
@@ -84,18 +86,7 @@ public class OETLPipeline {
       ODatabaseDocument db = pool.acquire();
       db.activateOnCurrentThread();
       try {
-        Object current = source.payload;
-
-        context.setVariable("extractedNum", source.num);
-        context.setVariable("extractedPayload", source.payload);
-
-        for (OETLTransformer t : transformers) {
-          current = t.transform(db, current);
-          if (current == null) {
-            OETLContextWrapper.getInstance().getMessageHandler()
-                .warn(this, "Transformer [%s] returned null, skip rest of pipeline execution", t);
-          }
-        }
+        final Object current = transform(db, source.num, source.payload);
         if (current != null) {
           // LOAD
           loader.load(db, current, context);
@@ -136,6 +127,117 @@ public class OETLPipeline {
     return this;
   }
 
+  /**
+   * Executes the pipeline on a batch of extracted items: parses items if extractor defers the parsing, runs transformers on every
+   * item, loads all transformed items and commits them at once. If the load of the batch fails and the processor does not halt on
+   * errors, the whole batch is skipped. The same happens if the batch still conflicts with concurrent changes after all the
+   * retries, otherwise the processor is halted.
+   */
+  protected void executeBatch(final List<OETLExtractedItem> batch) {
+    final OETLProcessor.OETLProcessorStats stats = processor.getStats();
+    final OETLExtractor extractor = processor.getExtractor();
+
+    long start = System.nanoTime();
+    final List<Object> parsed = new ArrayList<Object>(batch.size());
+    for (OETLExtractedItem item : batch)
+      parsed.add(extractor.parse(item.payload));
+    stats.addStageProgress(OETLProcessor.STAGE.PARSING, batch.size(), System.nanoTime() - start);
+
+    ONeedRetryException lastError = null;
+    int retry = 0;
+    do {
+      ODatabaseDocument db = pool.acquire();
+      db.activateOnCurrentThread();
+      try {
+        start = System.nanoTime();
+        final List<Object> transformed = new ArrayList<Object>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+          final Object current = transformItemOfBatch(db, batch.get(i).num, parsed.get(i));
+          if (current != null)
+            transformed.add(current);
+        }
+        stats.addStageProgress(OETLProcessor.STAGE.TRANSFORMATION, batch.size(), System.nanoTime() - start);
+
+        start = System.nanoTime();
+        loader.loadBatch(db, transformed, context);
+        db.commit();
+        stats.addStageProgress(OETLProcessor.STAGE.LOADING, transformed.size(), System.nanoTime() - start);
+        return;
+      } catch (ONeedRetryException e) {
+        loader.rollback(db);
+        lastError = e;
+        retry++;
+        OETLContextWrapper.getInstance().getMessageHandler()
+            .info(this, "Error in pipeline execution of batch, retry = %d/%d (exception=)", retry, maxRetries, e);
+      } catch (OETLProcessHaltedException e) {
+        OETLContextWrapper.getInstance().getMessageHandler().error(this, "Pipeline execution halted");
+
+        processor.getStats().incrementErrors();
+
+        loader.rollback(db);
+        throw e;
+
+      } catch (Exception e) {
+        OETLContextWrapper.getInstance().getMessageHandler().error(this, "Error in Pipeline execution of batch:", e);
+
+        processor.getStats().incrementErrors();
+
+        loader.rollback(db);
+        if (!haltOnError) {
+          return;
+        }
+
+        throw OException.wrapException(new OETLProcessHaltedException("Halt"), e);
+
+      } finally {
+        db.close();
+      }
+    } while (retry < maxRetries);
+
+    OETLContextWrapper.getInstance().getMessageHandler()
+        .error(this, "Batch of %d items was not loaded after %d retries (exception=%s)", batch.size(), maxRetries, lastError);
+
+    processor.getStats().incrementErrors();
+
+    if (haltOnError)
+      throw OException.wrapException(new OETLProcessHaltedException("Halt"), lastError);
+  }
+
+  /**
+   * Runs transformers on a single item of the batch, so an item which cannot be transformed does not discard the rest of the batch
+   * when the processor does not halt on errors.
+   */
+  private Object transformItemOfBatch(final ODatabaseDocument db, final long num, final Object payload) {
+    try {
+      return transform(db, num, payload);
+    } catch (ONeedRetryException | OETLProcessHaltedException e) {
+      throw e;
+    } catch (Exception e) {
+      if (haltOnError)
+        throw e;
+
+      OETLContextWrapper.getInstance().getMessageHandler().error(this, "Error in Pipeline execution of item %d: %s", num, e);
+      processor.getStats().incrementErrors();
+      return null;
+    }
+  }
+
+  private Object transform(final ODatabaseDocument db, final long num, final Object payload) {
+    Object current = payload;
+
+    context.setVariable("extractedNum", num);
+    context.setVariable("extractedPayload", payload);
+
+    for (OETLTransformer t : transformers) {
+      current = t.transform(db, current);
+      if (current == null) {
+        OETLContextWrapper.getInstance().getMessageHandler()
+            .warn(this, "Transformer [%s] returned null, skip rest of pipeline execution", t);
+      }
+    }
+    return current;
+  }
+
   public void end() {
 //    pool.close();
   }
@@ -18,6 +18,7 @@
 
 package com.orientechnologies.orient.etl;
 
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 
 /**
@@ -25,21 +26,27 @@ import java.util.concurrent.BlockingQueue;
  */
 final class OETLPipelineWorker implements Runnable {
 
-  private final BlockingQueue<OETLExtractedItem> queue;
-  private final OETLPipeline                     pipeline;
+  private final BlockingQueue<List<OETLExtractedItem>> queue;
+  private final OETLPipeline                           pipeline;
+  private final boolean                                batched;
 
-  public OETLPipelineWorker(BlockingQueue<OETLExtractedItem> queue, OETLPipeline pipeline) {
+  public OETLPipelineWorker(BlockingQueue<List<OETLExtractedItem>> queue, OETLPipeline pipeline, boolean batched) {
     this.queue = queue;
     this.pipeline = pipeline;
+    this.batched = batched;
     pipeline.begin();
   }
 
   @Override
   public void run() {
     try {
-      OETLExtractedItem content;
-      while (!(content = queue.take()).finished) {
-        pipeline.execute(content);
+      List<OETLExtractedItem> content;
+      while ((content = queue.take()) != OETLExtractorWorker.END) {
+        if (batched)
+          pipeline.executeBatch(content);
+        else
+          for (OETLExtractedItem item : content)
+            pipeline.execute(item);
       }
       pipeline.end();
       //RE-ADD END FLAG FOR OTHER THREADS
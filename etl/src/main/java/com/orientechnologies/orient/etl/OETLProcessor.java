@@ -66,6 +66,7 @@ public class OETLProcessor {
   protected boolean haltOnError = true;
   protected int     maxRetries  = 10;
   protected int     workers     = 1;
+  protected int     batchSize   = 0;
   private   boolean parallel    = false;
 
   /**
@@ -135,6 +136,10 @@ public class OETLProcessor {
         workers = cores - 1;
     }
 
+    final Object batchSizeSetting = context.getVariable("batchSize");
+    if (batchSizeSetting != null)
+      batchSize = ((Number) batchSizeSetting).intValue();
+
   }
 
   public OETLProcessorStats getStats() {
@@ -185,16 +190,27 @@ public class OETLProcessor {
   private void runExtractorAndPipeline() {
     try {
 
-      OETLContextWrapper.getInstance().getMessageHandler().info(this, "Started execution with %d worker threads", workers);
+      // IN BATCHED MODE ITEMS ARE PARSED, TRANSFORMED AND LOADED BY CHUNKS, EVERY WORKER COMMITS ITS OWN CHUNKS
+      final boolean batched = batchSize > 1;
+      final int itemsPerBatch = batched ? batchSize : 1;
+
+      if (batched)
+        OETLContextWrapper.getInstance().getMessageHandler()
+            .info(this, "Started execution with %d worker threads and batches of %d items", workers, batchSize);
+      else
+        OETLContextWrapper.getInstance().getMessageHandler().info(this, "Started execution with %d worker threads", workers);
+
+      extractor.setDeferredParsing(batched);
       extractor.extract(source.read());
 
-      BlockingQueue<OETLExtractedItem> queue = new LinkedBlockingQueue<OETLExtractedItem>(workers * 500);
+      BlockingQueue<List<OETLExtractedItem>> queue = new LinkedBlockingQueue<List<OETLExtractedItem>>(
+          Math.max(workers * 2, workers * 500 / itemsPerBatch));
 
-      List<CompletableFuture<Void>> futures = IntStream.range(0, workers).boxed().map(i -> CompletableFuture
-          .runAsync(new OETLPipelineWorker(queue, new OETLPipeline(this, transformers, loader, logLevel, maxRetries, haltOnError)),
-              executor)).collect(Collectors.toList());
+      List<CompletableFuture<Void>> futures = IntStream.range(0, workers).boxed().map(i -> CompletableFuture.runAsync(
+          new OETLPipelineWorker(queue, new OETLPipeline(this, transformers, loader, logLevel, maxRetries, haltOnError), batched),
+          executor)).collect(Collectors.toList());
 
-      futures.add(CompletableFuture.runAsync(new OETLExtractorWorker(extractor, queue, haltOnError), executor));
+      futures.add(CompletableFuture.runAsync(new OETLExtractorWorker(extractor, queue, haltOnError, itemsPerBatch, stats), executor));
 
       futures.forEach(cf -> cf.join());
 
@@ -300,6 +316,12 @@ public class OETLProcessor {
           OIOUtils.getTimeAsString(now - startTime), stats.warnings.get(), stats.errors.get());
     }
 
+    if (batchSize > 1)
+      OETLContextWrapper.getInstance().getMessageHandler().info(this,
+          "+ stages throughput per thread: extraction %,d items/sec - parsing %,d items/sec - transformation %,d items/sec - loading %,d items/sec",
+          stats.getStageThroughput(STAGE.EXTRACTION), stats.getStageThroughput(STAGE.PARSING),
+          stats.getStageThroughput(STAGE.TRANSFORMATION), stats.getStageThroughput(STAGE.LOADING));
+
     stats.lastExtractorProgress = extractorProgress;
     stats.lastLoaderProgress = loaderProgress;
     stats.lastLap = now;
@@ -400,6 +422,13 @@ public class OETLProcessor {
 
   }
 
+  /**
+   * Stages of the batched pipeline, see {@link OETLProcessorStats#getStageThroughput(STAGE)}.
+   */
+  public enum STAGE {
+    EXTRACTION, PARSING, TRANSFORMATION, LOADING
+  }
+
   public class OETLProcessorStats {
     public long       lastExtractorProgress = 0;
     public long       lastLoaderProgress    = 0;
@@ -407,6 +436,9 @@ public class OETLProcessor {
     public AtomicLong warnings              = new AtomicLong();
     public AtomicLong errors                = new AtomicLong();
 
+    private final AtomicLong[] stageItems = newCounters();
+    private final AtomicLong[] stageNanos = newCounters();
+
     public long incrementWarnings() {
       return warnings.incrementAndGet();
     }
@@ -414,5 +446,36 @@ public class OETLProcessor {
     public long incrementErrors() {
       return errors.incrementAndGet();
     }
+
+    /**
+     * Records that given amount of items passed through the stage of the pipeline in given time.
+     */
+    public void addStageProgress(final STAGE stage, final long items, final long nanos) {
+      stageItems[stage.ordinal()].addAndGet(items);
+      stageNanos[stage.ordinal()].addAndGet(nanos);
+    }
+
+    public long getStageItems(final STAGE stage) {
+      return stageItems[stage.ordinal()].get();
+    }
+
+    /**
+     * @return Items processed by the stage per second of time spent inside of it. Time of all the threads is summed up, so the value
+     * is the throughput of the single thread and shows which stage is the bottleneck of the pipeline.
+     */
+    public long getStageThroughput(final STAGE stage) {
+      final long nanos = stageNanos[stage.ordinal()].get();
+      if (nanos == 0)
+        return 0;
+
+      return (long) (stageItems[stage.ordinal()].get() * 1000000000d / nanos);
+    }
+
+    private AtomicLong[] newCounters() {
+      final AtomicLong[] counters = new AtomicLong[STAGE.values().length];
+      for (int i = 0; i < counters.length; i++)
+        counters[i] = new AtomicLong();
+      return counters;
+    }
   }
 }
@@ -52,6 +52,7 @@ public class OETLCSVExtractor extends OETLAbstractSourceExtractor {
   private String nullValue      = NULL_STRING;
   private String dateFormat     = "yyyy-MM-dd";
   private String dateTimeFormat = "yyyy-MM-dd hh:mm";
+  private boolean deferredParsing;
 
   @Override
   public ODocument getConfiguration() {
@@ -185,7 +186,12 @@ public class OETLCSVExtractor extends OETLAbstractSourceExtractor {
       while (shouldSkipRecord(csvRecord) && recordIterator.hasNext()) {
         csvRecord = recordIterator.next();
       }
-      next = fetchNext(csvRecord);
+      if (deferredParsing) {
+        current++;
+        next = new OETLExtractedItem(current, csvRecord);
+      } else {
+        next = fetchNext(csvRecord);
+      }
       return true;
     }
     return false;
@@ -196,7 +202,25 @@ public class OETLCSVExtractor extends OETLAbstractSourceExtractor {
     return csvRecord.getRecordNumber() <= skipTo && csvRecord.getRecordNumber() >= skipFrom;
   }
 
+  @Override
+  public void setDeferredParsing(final boolean deferredParsing) {
+    this.deferredParsing = deferredParsing;
+  }
+
+  @Override
+  public Object parse(final Object payload) {
+    if (payload instanceof CSVRecord)
+      return toDocument((CSVRecord) payload);
+    return payload;
+  }
+
   private OETLExtractedItem fetchNext(CSVRecord csvRecord) {
+    final ODocument doc = toDocument(csvRecord);
+    current++;
+    return new OETLExtractedItem(current, doc);
+  }
+
+  private ODocument toDocument(CSVRecord csvRecord) {
     ODocument doc = new ODocument();
     final Map<String, String> recordAsMap = csvRecord.toMap();
 
@@ -238,8 +262,7 @@ public class OETLCSVExtractor extends OETLAbstractSourceExtractor {
     }
 
     log(Level.FINE, "document=%s", doc);
-    current++;
-    return new OETLExtractedItem(current, doc);
+    return doc;
   }
 
   private Object determineTheType(String fieldStringValue) {
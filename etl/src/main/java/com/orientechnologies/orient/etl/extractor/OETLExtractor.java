@@ -35,4 +35,19 @@ public interface OETLExtractor extends OETLComponent, Iterator<OETLExtractedItem
   long getTotal();
 
   String getUnit();
+
+  /**
+   * Asks the extractor to return raw payloads from {@link #next()} and to leave their conversion to {@link #parse(Object)}, so the
+   * conversion is executed by the pipeline workers in parallel. Extractors which cannot split the parsing ignore the request.
+   */
+  default void setDeferredParsing(boolean deferredParsing) {
+  }
+
+  /**
+   * Converts the payload returned by {@link #next()} into the object passed to the transformers. Called concurrently by the
+   * pipeline workers only if deferred parsing is enabled.
+   */
+  default Object parse(Object payload) {
+    return payload;
+  }
 }
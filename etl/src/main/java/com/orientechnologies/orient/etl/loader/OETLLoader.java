@@ -24,6 +24,8 @@ import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
 import com.orientechnologies.orient.etl.OETLComponent;
 import com.orientechnologies.orient.etl.OETLPipeline;
 
+import java.util.List;
+
 /**
  * ETL Loader.
  */
@@ -31,6 +33,15 @@ public interface OETLLoader extends OETLComponent {
 
   void load(ODatabaseDocument db, final Object input, OCommandContext context);
 
+  /**
+   * Loads a batch of items transformed by the same pipeline worker. The pipeline commits the database once the whole batch is
+   * loaded, so loaders executed in transaction should not commit in the middle of the batch.
+   */
+  default void loadBatch(ODatabaseDocument db, final List<Object> inputs, OCommandContext context) {
+    for (Object input : inputs)
+      load(db, input, context);
+  }
+
   void beginLoader(OETLPipeline pipeline);
 
   long getProgress();
@@ -99,6 +99,48 @@ public class OETLOrientDBLoader extends OETLAbstractLoader implements OETLLoader
       }
     }
 
+    save(db, input);
+
+    // DO BATCH COMMIT if on TX
+
+    if (tx && batchCommitSize > 0 && batchCounter.get() > batchCommitSize) {
+      synchronized (this) {
+        if (batchCommitSize > 0 && batchCounter.get() > batchCommitSize) {
+          log(Level.FINE, "committing document batch %d", progress.get());
+          db.commit();
+          db.begin();
+          db.getTransaction().setUsingLog(txUseLog);
+          batchCounter.set(0);
+        }
+      }
+    } else {
+      batchCounter.incrementAndGet();
+    }
+  }
+
+  /**
+   * Saves all the items of the batch in one transaction if loader is configured to use transactions, the transaction is committed
+   * by the pipeline. Batch commit of the loader is not applied, because every pipeline worker commits its own batches.
+   */
+  @Override
+  public void loadBatch(ODatabaseDocument db, final List<Object> inputs, OCommandContext context) {
+    if (dbAutoCreateProperties) {
+      for (Object input : inputs)
+        autoCreateProperties(db, input);
+    }
+
+    if (tx) {
+      if (!db.getTransaction().isActive()) {
+        db.begin();
+        db.getTransaction().setUsingLog(txUseLog);
+      }
+    }
+
+    for (Object input : inputs)
+      save(db, input);
+  }
+
+  private void save(ODatabaseDocument db, final Object input) {
     if (input instanceof OVertex) {
       final OVertex v = (OVertex) input;
 
@@ -131,22 +173,6 @@ public class OETLOrientDBLoader extends OETLAbstractLoader implements OETLLoader
     }
 
     progress.incrementAndGet();
-
-    // DO BATCH COMMIT if on TX
-
-    if (tx && batchCommitSize > 0 && batchCounter.get() > batchCommitSize) {
-      synchronized (this) {
-        if (batchCommitSize > 0 && batchCounter.get() > batchCommitSize) {
-          log(Level.FINE, "committing document batch %d", progress.get());
-          db.commit();
-          db.begin();
-          db.getTransaction().setUsingLog(txUseLog);
-          batchCounter.set(0);
-        }
-      }
-    } else {
-      batchCounter.incrementAndGet();
-    }
   }
 
   private void autoCreateProperties(ODatabaseDocument db, Object input) {
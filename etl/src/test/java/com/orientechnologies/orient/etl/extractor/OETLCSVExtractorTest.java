@@ -4,6 +4,7 @@ import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.id.ORecordId;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.etl.OETLBaseTest;
+import com.orientechnologies.orient.etl.OETLProcessor;
 import org.junit.Test;
 
 import java.text.DateFormat;
@@ -65,6 +66,32 @@ public class OETLCSVExtractorTest extends OETLBaseTest {
     }
   }
 
+  @Test
+  public void testSmallSetInBatches() {
+    String content = "name,surname,id";
+    for (int i = 0; i < names.length; ++i)
+      content += "\n" + names[i] + "," + surnames[i] + "," + i;
+    configure("{config: { batchSize: 3 }, source: { content: { value: '" + content
+        + "' } }, extractor : { csv: {} },  loader: { test: {} } }");
+    proc.execute();
+
+    assertEquals(names.length, getResult().size());
+
+    int i = 0;
+    for (ODocument doc : getResult()) {
+      assertEquals(3, doc.fields());
+      assertEquals(names[i], doc.field("name"));
+      assertEquals(surnames[i], doc.field("surname"));
+      assertThat(doc.<Integer>field("id")).isEqualTo(i);
+
+      i++;
+    }
+
+    assertThat(proc.getStats().getStageItems(OETLProcessor.STAGE.EXTRACTION)).isEqualTo(names.length);
+    assertThat(proc.getStats().getStageItems(OETLProcessor.STAGE.PARSING)).isEqualTo(names.length);
+    assertThat(proc.getStats().getStageItems(OETLProcessor.STAGE.LOADING)).isEqualTo(names.length);
+  }
+
   @Test
   public void testSkipFromTwoToFour() {
     String content = "name,surname,id";
@@ -23,6 +23,7 @@ import com.orientechnologies.orient.core.exception.OConfigurationException;
 import com.orientechnologies.orient.core.index.OIndex;
 import com.orientechnologies.orient.core.index.OIndexManager;
 import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.executor.OResult;
 import com.orientechnologies.orient.core.sql.executor.OResultSet;
 import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
 import com.orientechnologies.orient.etl.OETLBaseTest;
@@ -190,4 +191,36 @@ public class OETLOrientDBLoaderTest extends OETLBaseTest {
     res.close();
     db.close();
   }
+
+  @Test
+  public void shouldLoadAllItemsInBatches() {
+    String content = "name,surname,id";
+    for (int i = 0; i < names.length; ++i)
+      content += "\n" + names[i] + "," + surnames[i] + "," + i;
+
+    configure("{config: { batchSize: 3, parallel: true }, source: { content: { value: '" + content + "' } }, "
+        + "extractor : { csv: {} }, loader: { orientdb: {\n"
+        + "      dbURL: 'memory:" + name.getMethodName() + "', class:'Person',     dbUser: \"admin\",\n"
+        + "      dbPassword: \"admin\",\n" + "      dbAutoCreate: true,\n      tx: true,\n" + "      wal : false,\n"
+        + "      dbType: \"document\",\n" + "      classes: [\n" + "        {name:\"Person\"},\n" + "      ] } } }");
+
+    proc.execute();
+
+    ODatabaseDocument db = proc.getLoader().getPool().acquire();
+
+    OResultSet res = db.query("SELECT FROM Person ORDER BY id");
+
+    int i = 0;
+    while (res.hasNext()) {
+      OResult person = res.next();
+      assertThat(person.<String>getProperty("name")).isEqualTo(names[i]);
+      assertThat(person.<String>getProperty("surname")).isEqualTo(surnames[i]);
+      assertThat(person.<Integer>getProperty("id")).isEqualTo(i);
+      i++;
+    }
+    assertThat(i).isEqualTo(names.length);
+
+    res.close();
+    db.close();
+  }
 }
\ No newline at end of file
@@ -29,8 +29,12 @@ import java.io.Reader;
 import java.math.BigDecimal;
 import java.net.URL;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -40,7 +44,14 @@ import java.util.Map;
  */
 public class OrientJdbcPreparedStatement extends OrientJdbcStatement implements PreparedStatement {
 
+  /**
+   * Maximum amount of parameter sets sent to the database as single script, can be changed by "batchSize" property of the
+   * connection. 0 means that the whole batch is sent at once.
+   */
+  public static final int DEFAULT_BATCH_SIZE = 1000;
+
   protected final Map<Integer, Object> params;
+  protected final List<Object[]>       batchParams;
 
   public OrientJdbcPreparedStatement(OrientJdbcConnection iConnection, String sql) {
     this(iConnection, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, ResultSet.HOLD_CURSORS_OVER_COMMIT, sql);
@@ -56,6 +67,7 @@ public class OrientJdbcPreparedStatement extends OrientJdbcStatement implements
     super(iConnection, resultSetType, resultSetConcurrency, resultSetHoldability);
     this.sql = sql;
     params = new HashMap<>();
+    batchParams = new ArrayList<>();
   }
 
   @SuppressWarnings("unchecked")
@@ -190,9 +202,93 @@ public class OrientJdbcPreparedStatement extends OrientJdbcStatement implements
   }
 
   public void addBatch() throws SQLException {
+    final Object[] values = params.values().toArray();
+    if (!batchParams.isEmpty() && batchParams.get(0).length != values.length)
+      throw new SQLException(
+          "Batch parameters are not consistent: " + values.length + " parameters are set, but previous parameter sets have "
+              + batchParams.get(0).length);
 
-    //    batches.add(sql);
-    throw new UnsupportedOperationException();
+    batchParams.add(values);
+  }
+
+  @Override
+  public void clearBatch() throws SQLException {
+    super.clearBatch();
+    batchParams.clear();
+  }
+
+  /**
+   * Executes the parameter sets added by {@link #addBatch()}. Parameter sets are sent to the database by chunks of "batchSize"
+   * ({@link #DEFAULT_BATCH_SIZE} by default), each chunk is executed as single SQL script in its own transaction, unless the
+   * transaction is already started on the connection. Amount of updated records is not known for each statement of the script, so
+   * {@link #SUCCESS_NO_INFO} is returned for every parameter set.
+   */
+  @Override
+  public int[] executeBatch() throws SQLException {
+    if (batchParams.isEmpty())
+      return super.executeBatch();
+
+    final int[] results = new int[batchParams.size()];
+    final int batchSize = getBatchSize();
+    int executed = 0;
+
+    try {
+      while (executed < batchParams.size()) {
+        final int size = batchSize > 0 ? Math.min(batchSize, batchParams.size() - executed) : batchParams.size() - executed;
+
+        executeBatchScript(batchParams.subList(executed, executed + size));
+
+        Arrays.fill(results, executed, executed + size, SUCCESS_NO_INFO);
+        executed += size;
+      }
+    } catch (SQLException e) {
+      throw new BatchUpdateException(e.getMessage(), e.getSQLState(), e.getErrorCode(), Arrays.copyOf(results, executed), e);
+    } finally {
+      batchParams.clear();
+    }
+
+    return results;
+  }
+
+  private void executeBatchScript(final List<Object[]> paramSets) throws SQLException {
+    String statement = sql.trim();
+    while (statement.endsWith(";"))
+      statement = statement.substring(0, statement.length() - 1).trim();
+
+    database.activateOnCurrentThread();
+    final boolean transaction = !database.getTransaction().isActive();
+
+    final StringBuilder script = new StringBuilder((statement.length() + 2) * paramSets.size() + 16);
+    final List<Object> args = new ArrayList<>();
+
+    if (transaction)
+      script.append("BEGIN;\n");
+    for (Object[] paramSet : paramSets) {
+      script.append(statement).append(";\n");
+      Collections.addAll(args, paramSet);
+    }
+    if (transaction)
+      script.append("COMMIT;\n");
+
+    try (OResultSet result = database.execute("sql", script.toString(), args.toArray())) {
+      while (result.hasNext())
+        result.next();
+    } catch (OException e) {
+      if (transaction && database.getTransaction().isActive())
+        database.rollback();
+
+      if (e instanceof OQueryParsingException)
+        throw new SQLSyntaxErrorException("Error while parsing batch", e);
+      throw new SQLException("Error while executing batch", e);
+    }
+  }
+
+  private int getBatchSize() throws SQLException {
+    try {
+      return Integer.parseInt(info.getProperty("batchSize", String.valueOf(DEFAULT_BATCH_SIZE)));
+    } catch (NumberFormatException e) {
+      throw new SQLException("Invalid value of batchSize property: " + info.getProperty("batchSize"), e);
+    }
   }
 
   public void setCharacterStream(int parameterIndex, Reader reader, int length) throws SQLException {
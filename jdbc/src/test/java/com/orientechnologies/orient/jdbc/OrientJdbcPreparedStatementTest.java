@@ -22,6 +22,9 @@ import org.junit.Test;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 
 import static java.sql.ResultSet.CONCUR_READ_ONLY;
 import static java.sql.ResultSet.TYPE_FORWARD_ONLY;
@@ -84,6 +87,30 @@ public class OrientJdbcPreparedStatementTest extends OrientJdbcDbPerMethodTempla
     assertThat(rowsInserted).isEqualTo(2);
   }
 
+  @Test
+  public void testExecuteBatchInsertsAllParameterSets() throws Exception {
+    conn.createStatement().executeQuery("CREATE CLASS Insertable ");
+
+    conn.getInfo().setProperty("batchSize", "3");
+    PreparedStatement statement = conn.prepareStatement("INSERT INTO Insertable ( id ) VALUES (?)");
+    for (int i = 0; i < 10; i++) {
+      statement.setInt(1, i);
+      statement.addBatch();
+    }
+    int[] results = statement.executeBatch();
+
+    assertThat(results).hasSize(10).containsOnly(Statement.SUCCESS_NO_INFO);
+
+    ResultSet inserted = conn.createStatement().executeQuery("SELECT id FROM Insertable ORDER BY id");
+    List<Integer> ids = new ArrayList<>();
+    while (inserted.next())
+      ids.add(inserted.getInt("id"));
+
+    assertThat(ids).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+
+    assertThat(statement.executeBatch()).isEmpty();
+  }
+
   @Test
   public void testInsertRIDReturning() throws Exception {
     conn.createStatement().executeQuery("CREATE CLASS Insertable ");
@@ -25,6 +25,7 @@ import com.orientechnologies.lucene.builder.OLuceneIndexType;
 import com.orientechnologies.lucene.exception.OLuceneIndexException;
 import com.orientechnologies.lucene.query.OLuceneQueryContext;
 import com.orientechnologies.lucene.tx.OLuceneTxChanges;
+import com.orientechnologies.lucene.tx.OLuceneTxChangesAbstract;
 import com.orientechnologies.lucene.tx.OLuceneTxChangesMultiRid;
 import com.orientechnologies.lucene.tx.OLuceneTxChangesSingleRid;
 import com.orientechnologies.orient.core.Orient;
@@ -456,10 +457,12 @@ public abstract class OLuceneIndexEngineAbstract extends OSharedResourceAdaptive
 
   @Override
   public OLuceneTxChanges buildTxChanges() throws IOException {
+    // WRITERS ARE CREATED ONLY IF THE TRANSACTION REALLY CHANGES THE INDEX
+    final OLuceneTxChangesAbstract.WriterFactory writerFactory = () -> createIndexWriter(new RAMDirectory());
     if (isCollectionDelete()) {
-      return new OLuceneTxChangesMultiRid(this, createIndexWriter(new RAMDirectory()), createIndexWriter(new RAMDirectory()));
+      return new OLuceneTxChangesMultiRid(this, writerFactory);
     } else {
-      return new OLuceneTxChangesSingleRid(this, createIndexWriter(new RAMDirectory()), createIndexWriter(new RAMDirectory()));
+      return new OLuceneTxChangesSingleRid(this, writerFactory);
     }
   }
 
@@ -22,8 +22,10 @@ import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.lucene.engine.OLuceneIndexEngine;
 import com.orientechnologies.lucene.exception.OLuceneIndexException;
+import org.apache.lucene.document.Document;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.MultiReader;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TopDocs;
@@ -32,46 +34,118 @@ import java.io.IOException;
 
 /**
  * Created by Enrico Risa on 28/09/15.
+ * <p>
+ * In memory indexes of the documents added and removed by the transaction are created only when the first document is added to
+ * them, so transactions which only read or only remove documents do not pay for the setup of the analyzers and the writers.
+ * Readers of the indexes are reused till the next change of the transaction.
  */
 public abstract class OLuceneTxChangesAbstract implements OLuceneTxChanges {
 
   public static final String TMP = "_tmp_rid";
 
   protected final OLuceneIndexEngine engine;
-  protected final IndexWriter        writer;
-  protected final IndexWriter        deletedIdx;
+  private final   WriterFactory      writerFactory;
 
-  public OLuceneTxChangesAbstract(OLuceneIndexEngine engine, IndexWriter writer, IndexWriter deletedIdx) {
+  private IndexWriter     writer;
+  private DirectoryReader reader;
+  private boolean         changed;
+
+  private IndexWriter     deletedIdx;
+  private DirectoryReader deletedReader;
+  private boolean         deletedChanged;
+
+  public OLuceneTxChangesAbstract(OLuceneIndexEngine engine, WriterFactory writerFactory) {
     this.engine = engine;
-    this.writer = writer;
-    this.deletedIdx = deletedIdx;
+    this.writerFactory = writerFactory;
   }
 
   public IndexSearcher searcher() {
-    // TODO optimize
     try {
-      return new IndexSearcher(DirectoryReader.open(writer, true, true));
+      if (writer == null)
+        return new IndexSearcher(new MultiReader());
+
+      if (changed) {
+        reader = reopen(reader, writer);
+        changed = false;
+      }
+
+      return new IndexSearcher(reader);
     } catch (IOException e) {
-//      OLogManager.instance().error(this, "Error during searcher index instantiation on new documents", e);
       throw OException.wrapException(new OLuceneIndexException("Error during searcher index instantiation on new documents"), e);
     }
-
   }
 
   @Override
   public long deletedDocs(Query query) {
+    if (deletedIdx == null)
+      return 0;
 
     try {
-      IndexSearcher indexSearcher = new IndexSearcher(DirectoryReader.open(deletedIdx, true, true));
+      if (deletedChanged) {
+        deletedReader = reopen(deletedReader, deletedIdx);
+        deletedChanged = false;
+      }
+
+      IndexSearcher indexSearcher = new IndexSearcher(deletedReader);
 
       TopDocs search = indexSearcher.search(query, Integer.MAX_VALUE);
       return search.totalHits;
     } catch (IOException e) {
       OLogManager.instance().error(this, "Error during searcher index instantiation on deleted documents ", e);
-    } finally {
-
     }
 
     return 0;
   }
+
+  /**
+   * @return amount of documents added by the transaction which are not removed yet
+   */
+  protected long addedDocs() {
+    if (writer == null)
+      return 0;
+
+    return searcher().getIndexReader().numDocs();
+  }
+
+  protected void addDocument(Document doc) throws IOException {
+    if (writer == null)
+      writer = writerFactory.createWriter();
+
+    writer.addDocument(doc);
+    changed = true;
+  }
+
+  protected void deleteDocuments(Query query) throws IOException {
+    // NOTHING IS ADDED YET, SO THERE IS NOTHING TO DELETE
+    if (writer == null)
+      return;
+
+    writer.deleteDocuments(query);
+    changed = true;
+  }
+
+  protected void addDeletedDocument(Document doc) throws IOException {
+    if (deletedIdx == null)
+      deletedIdx = writerFactory.createWriter();
+
+    deletedIdx.addDocument(doc);
+    deletedChanged = true;
+  }
+
+  private static DirectoryReader reopen(DirectoryReader reader, IndexWriter writer) throws IOException {
+    if (reader == null)
+      return DirectoryReader.open(writer, true, true);
+
+    // SEGMENTS WHICH ARE NOT CHANGED ARE SHARED WITH THE PREVIOUS READER, WHICH MAY STILL BE USED BY THE RUNNING QUERIES
+    final DirectoryReader newReader = DirectoryReader.openIfChanged(reader, writer, true);
+    return newReader != null ? newReader : reader;
+  }
+
+  /**
+   * Creates in memory writers of the transaction changes.
+   */
+  @FunctionalInterface
+  public interface WriterFactory {
+    IndexWriter createWriter() throws IOException;
+  }
 }
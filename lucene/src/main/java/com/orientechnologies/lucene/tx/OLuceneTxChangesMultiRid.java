@@ -24,7 +24,6 @@ import com.orientechnologies.lucene.exception.OLuceneIndexException;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import org.apache.lucene.analysis.core.KeywordAnalyzer;
 import org.apache.lucene.document.Document;
-import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.index.memory.MemoryIndex;
 import org.apache.lucene.search.Query;
@@ -39,13 +38,13 @@ public class OLuceneTxChangesMultiRid extends OLuceneTxChangesAbstract {
   private final Map<String, List<String>> deleted     = new HashMap<String, List<String>>();
   private final Set<Document>             deletedDocs = new HashSet<Document>();
 
-  public OLuceneTxChangesMultiRid(OLuceneIndexEngine engine, IndexWriter writer, IndexWriter deletedIdx) {
-    super(engine, writer, deletedIdx);
+  public OLuceneTxChangesMultiRid(OLuceneIndexEngine engine, WriterFactory writerFactory) {
+    super(engine, writerFactory);
   }
 
   public void put(Object key, OIdentifiable value, Document doc) {
     try {
-      writer.addDocument(doc);
+      addDocument(doc);
     } catch (IOException e) {
       throw OException.wrapException(new OLuceneIndexException("unable to add document to changes index"), e);
     }
@@ -55,7 +54,7 @@ public class OLuceneTxChangesMultiRid extends OLuceneTxChangesAbstract {
 
     try {
       if (value.getIdentity().isTemporary()) {
-        writer.deleteDocuments(engine.deleteQuery(key, value));
+        deleteDocuments(engine.deleteQuery(key, value));
       } else {
 
         deleted.putIfAbsent(value.getIdentity().toString(), new ArrayList<>());
@@ -63,7 +62,7 @@ public class OLuceneTxChangesMultiRid extends OLuceneTxChangesAbstract {
 
         Document doc = engine.buildDocument(key, value);
         deletedDocs.add(doc);
-        deletedIdx.addDocument(doc);
+        addDeletedDocument(doc);
       }
     } catch (IOException e) {
       throw OException
@@ -72,7 +71,7 @@ public class OLuceneTxChangesMultiRid extends OLuceneTxChangesAbstract {
   }
 
   public long numDocs() {
-    return searcher().getIndexReader().numDocs() - deletedDocs.size();
+    return addedDocs() - deletedDocs.size();
   }
 
   public Set<Document> getDeletedDocs() {
@@ -25,7 +25,6 @@ import com.orientechnologies.lucene.exception.OLuceneIndexException;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
-import org.apache.lucene.index.IndexWriter;
 
 import java.io.IOException;
 import java.util.HashSet;
@@ -40,8 +39,8 @@ public class OLuceneTxChangesSingleRid extends OLuceneTxChangesAbstract {
   private final Set<String>   updated     = new HashSet<String>();
   private final Set<Document> deletedDocs = new HashSet<Document>();
 
-  public OLuceneTxChangesSingleRid(OLuceneIndexEngine engine, IndexWriter writer, IndexWriter deletedIdx) {
-    super(engine, writer, deletedIdx);
+  public OLuceneTxChangesSingleRid(OLuceneIndexEngine engine, WriterFactory writerFactory) {
+    super(engine, writerFactory);
   }
 
   public void put(Object key, OIdentifiable value, Document doc) {
@@ -50,7 +49,7 @@ public class OLuceneTxChangesSingleRid extends OLuceneTxChangesAbstract {
       updated.add(value.getIdentity().toString());
     }
     try {
-      writer.addDocument(doc);
+      addDocument(doc);
     } catch (IOException e) {
       throw OException.wrapException(new OLuceneIndexException("unable to add document to changes index"), e);
     }
@@ -60,12 +59,12 @@ public class OLuceneTxChangesSingleRid extends OLuceneTxChangesAbstract {
 
     try {
       if (value.getIdentity().isTemporary()) {
-        writer.deleteDocuments(engine.deleteQuery(key, value));
+        deleteDocuments(engine.deleteQuery(key, value));
       } else {
         deleted.add(value.getIdentity().toString());
         Document doc = engine.buildDocument(key, value);
         deletedDocs.add(doc);
-        deletedIdx.addDocument(doc);
+        addDeletedDocument(doc);
 
       }
     } catch (IOException e) {
@@ -75,7 +74,7 @@ public class OLuceneTxChangesSingleRid extends OLuceneTxChangesAbstract {
   }
 
   public long numDocs() {
-    return searcher().getIndexReader().numDocs() - deleted.size() - updated.size();
+    return addedDocs() - deleted.size() - updated.size();
   }
 
   public Set<Document> getDeletedDocs() {
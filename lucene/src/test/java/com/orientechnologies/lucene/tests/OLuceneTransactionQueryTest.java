@@ -71,6 +71,35 @@ public class OLuceneTransactionQueryTest extends OLuceneBaseTest {
 
   }
 
+  @Test
+  public void testQueryAfterEachChangeInTx() {
+    String query = "select from C1 where search_fields(['p1'], 'abc' )=true ";
+
+    db.begin();
+
+    assertThat(db.query(query)).hasSize(0);
+
+    ODocument first = new ODocument("c1");
+    first.field("p1", "abc");
+    db.save(first);
+
+    assertThat(db.query(query)).hasSize(1);
+
+    ODocument second = new ODocument("c1");
+    second.field("p1", "abc");
+    db.save(second);
+
+    assertThat(db.query(query)).hasSize(2);
+
+    db.delete(first);
+
+    assertThat(db.query(query)).hasSize(1);
+
+    db.commit();
+
+    assertThat(db.query(query)).hasSize(1);
+  }
+
   @Test
   public void txRemoveTest() {
     db.begin();
@@ -102,7 +102,7 @@ public class OClientConnectionManager {
               OCommandRequestText command = entry.getValue().getData().command;
               if (command != null && command.isIdempotent()) {
                 entry.getValue().getProtocol().sendShutdown();
-                entry.getValue().getProtocol().interrupt();
+                interruptProtocol(entry.getValue().getProtocol());
               }
               removeConnectionFromSession(entry.getValue());
               entry.getValue().close();
@@ -256,7 +256,7 @@ public class OClientConnectionManager {
 
       try {
         // INTERRUPT THE NEWTORK MANAGER TOO
-        protocol.interrupt();
+        interruptProtocol(protocol);
       } catch (Exception e) {
         OLogManager.instance().error(this, "Error during interruption of binary protocol", e);
       }
@@ -443,7 +443,7 @@ public class OClientConnectionManager {
 
       OCommandRequestText command = entry.getValue().getData().command;
       if (command != null && command.isIdempotent()) {
-        protocol.interrupt();
+        interruptProtocol(protocol);
       } else {
         if (protocol instanceof ONetworkProtocolBinary
             && ((ONetworkProtocolBinary) protocol).getRequestType() == OChannelBinaryProtocol.REQUEST_SHUTDOWN) {
@@ -466,7 +466,7 @@ public class OClientConnectionManager {
                 .debug(this, "Error on closing connection of %s client during shutdown", e, entry.getValue().getRemoteAddress());
           }
         }
-        if (protocol.isAlive()) {
+        if (protocol.isAlive() || isServedBySelector(protocol)) {
           if (protocol instanceof ONetworkProtocolBinary && ((ONetworkProtocolBinary) protocol).getRequestType() == -1) {
             try {
               OLogManager.instance().debug(this, "Closing socket of thread %s", protocol);
@@ -475,19 +475,28 @@ public class OClientConnectionManager {
               OLogManager.instance().debug(this, "Error during chanel close at shutdown", e);
             }
             OLogManager.instance().debug(this, "Sending interrupt signal to thread %s", protocol);
-            protocol.interrupt();
+            interruptProtocol(protocol);
           }
           toWait.add(protocol);
         }
       }
     }
 
+    final int cleanDelay = server.getContextConfiguration().getValueAsInteger(OGlobalConfiguration.SERVER_CHANNEL_CLEAN_DELAY);
     for (ONetworkProtocol protocol : toWait) {
       try {
-        protocol.join(server.getContextConfiguration().getValueAsInteger(OGlobalConfiguration.SERVER_CHANNEL_CLEAN_DELAY));
-        if (protocol.isAlive()) {
-          protocol.interrupt();
-          protocol.join();
+        if (isServedBySelector(protocol)) {
+          // THE CONNECTION HAS NO THREAD, WAITS TILL ITS CURRENT REQUEST IS EXECUTED BY THE WORKER OF THE SELECTOR
+          final ONetworkProtocolBinary binaryProtocol = (ONetworkProtocolBinary) protocol;
+          binaryProtocol.close();
+          if (!binaryProtocol.awaitShutdown(cleanDelay))
+            binaryProtocol.shutdown();
+        } else {
+          protocol.join(cleanDelay);
+          if (protocol.isAlive()) {
+            protocol.interrupt();
+            protocol.join();
+          }
         }
       } catch (InterruptedException e) {
         Thread.currentThread().interrupt();
@@ -496,6 +505,21 @@ public class OClientConnectionManager {
 
   }
 
+  /**
+   * Interrupts the thread of the network manager. Connections served by the selector do not have their own thread, so they are
+   * closed instead.
+   */
+  private static void interruptProtocol(final ONetworkProtocol protocol) {
+    if (isServedBySelector(protocol))
+      ((ONetworkProtocolBinary) protocol).close();
+    else
+      protocol.interrupt();
+  }
+
+  private static boolean isServedBySelector(final ONetworkProtocol protocol) {
+    return protocol instanceof ONetworkProtocolBinary && ((ONetworkProtocolBinary) protocol).getSelector() != null;
+  }
+
   public void killAllChannels() {
     for (Map.Entry<Integer, OClientConnection> entry : connections.entrySet()) {
       try {
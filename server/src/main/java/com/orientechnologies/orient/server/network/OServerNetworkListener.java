@@ -32,11 +32,13 @@ import com.orientechnologies.orient.server.config.OServerCommandConfiguration;
 import com.orientechnologies.orient.server.config.OServerParameterConfiguration;
 import com.orientechnologies.orient.server.network.protocol.OBeforeDatabaseOpenNetworkEventListener;
 import com.orientechnologies.orient.server.network.protocol.ONetworkProtocol;
+import com.orientechnologies.orient.server.network.protocol.binary.ONetworkProtocolBinary;
 import com.orientechnologies.orient.server.network.protocol.http.command.OServerCommand;
 
 import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.net.*;
+import java.nio.channels.ServerSocketChannel;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -52,6 +54,7 @@ public class OServerNetworkListener extends Thread {
   private OContextConfiguration                         configuration;
   private OServer                                       server;
   private int                                           protocolVersion = -1;
+  private OServerNetworkSelector                        selector;
   private List<OBeforeDatabaseOpenNetworkEventListener> beforeDatabaseOpenNetworkEventListener = new ArrayList<OBeforeDatabaseOpenNetworkEventListener>();
 
   public OServerNetworkListener(final OServer iServer, final OServerSocketFactory iSocketFactory, final String iHostName,
@@ -73,11 +76,11 @@ public class OServerNetworkListener extends Thread {
       throw OException.wrapException(new ONetworkProtocolException(message), e);
     }
 
+    readParameters(iServer.getContextConfiguration(), iParameters);
+
     listen(iHostName, iHostPortRange, iProtocolName, iProtocol);
     protocolType = iProtocol;
 
-    readParameters(iServer.getContextConfiguration(), iParameters);
-
     if (iCommands != null) {
       for (int i = 0; i < iCommands.length; ++i) {
         if (iCommands[i].stateful)
@@ -167,6 +170,9 @@ public class OServerNetworkListener extends Thread {
   public void shutdown() {
     this.active = false;
 
+    if (selector != null)
+      selector.shutdown();
+
     if (serverSocket != null)
       try {
         serverSocket.close();
@@ -178,6 +184,14 @@ public class OServerNetworkListener extends Thread {
     return active;
   }
 
+  /**
+   * @return Selector which serves the connections accepted by this listener or <code>null</code> if every connection is served by
+   * its own thread.
+   */
+  public OServerNetworkSelector getSelector() {
+    return selector;
+  }
+
   @Override
   public void run() {
     try {
@@ -329,15 +343,35 @@ public class OServerNetworkListener extends Thread {
   private void listen(final String iHostName, final String iHostPortRange, final String iProtocolName,
       Class<? extends ONetworkProtocol> protocolClass) {
 
+    final boolean nonBlocking = isNonBlocking(protocolClass);
+
     for (int port : getPorts(iHostPortRange)) {
       inboundAddr = new InetSocketAddress(iHostName, port);
       try {
-        serverSocket = socketFactory.createServerSocket(port, 0, InetAddress.getByName(iHostName));
+        if (nonBlocking) {
+          // THE SOCKETS ACCEPTED BY A SERVER SOCKET OF A CHANNEL HAVE THEIR OWN CHANNELS WHICH CAN BE REGISTERED IN THE SELECTOR
+          final ServerSocketChannel serverSocketChannel = ServerSocketChannel.open();
+          try {
+            serverSocketChannel.bind(new InetSocketAddress(InetAddress.getByName(iHostName), port), 0);
+          } catch (IOException e) {
+            serverSocketChannel.close();
+            throw e;
+          }
+          serverSocket = serverSocketChannel.socket();
+        } else
+          serverSocket = socketFactory.createServerSocket(port, 0, InetAddress.getByName(iHostName));
 
         if (serverSocket.isBound()) {
           OLogManager.instance().info(this,
               "Listening $ANSI{green " + iProtocolName + "} connections on $ANSI{green " + inboundAddr.getAddress().getHostAddress()
-                  + ":" + inboundAddr.getPort() + "} (protocol v." + protocolVersion + ", socket=" + socketFactory.getName() + ")");
+                  + ":" + inboundAddr.getPort() + "} (protocol v." + protocolVersion + ", socket=" + socketFactory.getName() + (
+                  nonBlocking ? ", nio" : "") + ")");
+
+          if (nonBlocking)
+            selector = new OServerNetworkSelector(server.getThreadGroup(),
+                "OrientDB " + protocolClass.getSimpleName() + " selector at " + iHostName + ":" + port,
+                configuration.getValueAsInteger(OGlobalConfiguration.NETWORK_BINARY_NIO_WORKERS),
+                configuration.getValueAsInteger(OGlobalConfiguration.NETWORK_MAX_CONCURRENT_SESSIONS));
 
           return;
         }
@@ -359,6 +393,26 @@ public class OServerNetworkListener extends Thread {
     throw new OSystemException("Unable to listen for connections using the configured ports '%s' on host '%s'");
   }
 
+  /**
+   * Connections are served by a selector only for the binary protocol over plain sockets, SSL sockets do not have channels.
+   */
+  private boolean isNonBlocking(final Class<? extends ONetworkProtocol> protocolClass) {
+    if (!configuration.getValueAsBoolean(OGlobalConfiguration.NETWORK_BINARY_NIO))
+      return false;
+
+    if (!ONetworkProtocolBinary.class.isAssignableFrom(protocolClass))
+      return false;
+
+    if (!(socketFactory instanceof ODefaultServerSocketFactory)) {
+      OLogManager.instance()
+          .warn(this, "Socket factory '%s' is used, binary connections will be served by a thread per connection",
+              socketFactory.getName());
+      return false;
+    }
+
+    return true;
+  }
+
   /**
    * Initializes connection parameters by the reading XML configuration. If not specified, get the parameters defined as global
    * configuration.
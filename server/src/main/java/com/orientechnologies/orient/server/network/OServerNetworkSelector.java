@@ -0,0 +1,398 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.server.network;
+
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.thread.OThreadPoolExecutorWithLogging;
+import com.orientechnologies.orient.server.network.protocol.binary.ONetworkProtocolBinary;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves binary connections without a dedicated thread per connection. Sockets of idle connections are registered inside of a
+ * single selector, when a request arrives the connection is passed to the pool of worker threads which decodes and executes all
+ * requests received so far and then returns the connection back to the selector.
+ * <p>
+ * Sockets are kept in non blocking mode all the time, so the channel of the protocol reads and writes data through streams which
+ * wait for the socket to be ready using a temporary selector of the current thread. That keeps the wire protocol and the code
+ * of the requests unchanged and allows other threads, like the ones which push live query events, to write into the socket while
+ * connection is idle.
+ *
+ * @see com.orientechnologies.orient.core.config.OGlobalConfiguration#NETWORK_BINARY_NIO
+ */
+public class OServerNetworkSelector extends Thread {
+  /**
+   * Selector which is used by the current thread to wait till socket is ready for read or write.
+   */
+  private static final ThreadLocal<Selector> TEMPORARY_SELECTOR = ThreadLocal.withInitial(() -> {
+    try {
+      return Selector.open();
+    } catch (IOException e) {
+      throw new IllegalStateException("Cannot open selector", e);
+    }
+  });
+
+  /**
+   * Interval in milliseconds after which the selector tries again to pass the connections of the backlog to the workers.
+   */
+  private static final int BACKLOG_RETRY_INTERVAL = 10;
+
+  private final Selector           selector;
+  private final ThreadPoolExecutor workers;
+
+  /**
+   * Connections which should start or continue to be watched by the selector. Keys are changed only by the selector thread.
+   */
+  private final Queue<ONetworkProtocolBinary> pending = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Connections which should be closed, see {@link #close(ONetworkProtocolBinary)}.
+   */
+  private final Queue<ONetworkProtocolBinary> closing = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Connections with received requests which were not accepted by the workers because their queue is full. They are not watched
+   * till a worker takes them. Used only by the selector thread.
+   */
+  private final Queue<ONetworkProtocolBinary> backlog = new ArrayDeque<>();
+
+  private volatile boolean active = true;
+
+  /**
+   * @param maxWorkers   Maximum amount of worker threads, 0 means 4 times the number of available cores.
+   * @param maxQueueSize Maximum amount of connections which wait for a free worker, connections over it are kept unwatched by the
+   *                     selector till the queue has a room for them.
+   */
+  public OServerNetworkSelector(final ThreadGroup threadGroup, final String name, final int maxWorkers, final int maxQueueSize)
+      throws IOException {
+    super(threadGroup, name);
+    setDaemon(true);
+
+    selector = Selector.open();
+
+    final int threads = maxWorkers > 0 ? maxWorkers : Runtime.getRuntime().availableProcessors() * 4;
+    workers = new OThreadPoolExecutorWithLogging(threads, threads, 60, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(Math.max(1, maxQueueSize)), new WorkerThreadFactory(threadGroup, name));
+    workers.allowCoreThreadTimeOut(true);
+
+    start();
+  }
+
+  /**
+   * Starts to watch the socket of the connection. Requests of the connection are executed by the worker threads from now on.
+   */
+  public void register(final ONetworkProtocolBinary protocol) {
+    pending.add(protocol);
+    selector.wakeup();
+  }
+
+  /**
+   * Closes the connection, it is the counterpart of the interruption of the thread of a connection which is not served by the
+   * selector. Idle connection is closed by a worker right away, while the connection which is served by a worker right now is
+   * closed once its current request is executed.
+   *
+   * @see ONetworkProtocolBinary#awaitShutdown(long)
+   */
+  public void close(final ONetworkProtocolBinary protocol) {
+    protocol.sendShutdown();
+
+    // ONCE THE SELECTOR IS SHUT DOWN ALL ITS CONNECTIONS ARE CLOSED BY ITS THREAD OR BY THE WORKERS
+    if (active) {
+      closing.add(protocol);
+      selector.wakeup();
+    }
+  }
+
+  public boolean isActive() {
+    return active;
+  }
+
+  public void shutdown() {
+    active = false;
+    selector.wakeup();
+    workers.shutdown();
+  }
+
+  @Override
+  public void run() {
+    try {
+      while (active) {
+        if (backlog.isEmpty())
+          selector.select();
+        else
+          selector.select(BACKLOG_RETRY_INTERVAL);
+
+        registerPending();
+        closePending();
+        dispatchBacklog();
+
+        final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+          final SelectionKey key = keys.next();
+          keys.remove();
+
+          if (!key.isValid())
+            continue;
+
+          // THE CONNECTION IS NOT WATCHED TILL ALL THE RECEIVED REQUESTS ARE EXECUTED
+          key.interestOps(0);
+
+          dispatch((ONetworkProtocolBinary) key.attachment());
+        }
+      }
+    } catch (Exception e) {
+      if (active)
+        OLogManager.instance().error(this, "Error in the selector of binary connections, connections are closed", e);
+    } finally {
+      // CONNECTIONS SERVED BY THE WORKERS RIGHT NOW ARE CLOSED BY THE WORKERS ONCE THEIR CURRENT REQUEST IS EXECUTED
+      for (SelectionKey key : selector.keys()) {
+        final ONetworkProtocolBinary protocol = (ONetworkProtocolBinary) key.attachment();
+        if (!key.isValid() || key.interestOps() != 0)
+          protocol.shutdown();
+        else
+          protocol.sendShutdown();
+      }
+
+      for (ONetworkProtocolBinary protocol : backlog)
+        protocol.shutdown();
+      backlog.clear();
+
+      try {
+        selector.close();
+      } catch (IOException e) {
+        OLogManager.instance().debug(this, "Error on closing the selector of binary connections", e);
+      }
+    }
+  }
+
+  private void registerPending() {
+    ONetworkProtocolBinary protocol;
+    while ((protocol = pending.poll()) != null) {
+      final SocketChannel channel = getSocketChannel(protocol);
+      if (channel == null)
+        // THE CONNECTION WAS CLOSED IN THE MEANTIME
+        continue;
+
+      final SelectionKey key = channel.keyFor(selector);
+      if (protocol.isShutdownFlag()) {
+        // THE CONNECTION WAS ASKED TO CLOSE WHILE IT WAS SERVED BY A WORKER
+        if (key != null)
+          key.cancel();
+        dispatch(protocol);
+        continue;
+      }
+
+      try {
+        if (key == null)
+          channel.register(selector, SelectionKey.OP_READ, protocol);
+        else
+          key.interestOps(SelectionKey.OP_READ);
+      } catch (ClosedChannelException | RuntimeException e) {
+        // THE CONNECTION WAS CLOSED IN THE MEANTIME
+        OLogManager.instance().debug(this, "Binary connection %s is closed", e, protocol);
+        protocol.shutdown();
+      }
+    }
+  }
+
+  private void closePending() {
+    ONetworkProtocolBinary protocol;
+    while ((protocol = closing.poll()) != null) {
+      final SocketChannel channel = getSocketChannel(protocol);
+      final SelectionKey key = channel != null ? channel.keyFor(selector) : null;
+
+      if (key != null && key.isValid() && key.interestOps() != 0) {
+        // IDLE CONNECTION, IT IS CLOSED BY A WORKER IN THE SAME WAY AS WHEN THE CLIENT CLOSES IT
+        key.cancel();
+        dispatch(protocol);
+      }
+
+      // OTHERWISE THE CONNECTION IS SERVED BY A WORKER, WAITS FOR A WORKER OR IS BEING REGISTERED AGAIN, IN ALL THOSE CASES THE
+      // SHUTDOWN FLAG IS CHECKED BEFORE IT IS WATCHED AGAIN
+    }
+  }
+
+  private void dispatch(final ONetworkProtocolBinary protocol) {
+    if (!backlog.isEmpty()) {
+      // KEEPS THE ORDER IN WHICH THE CONNECTIONS RECEIVED THEIR REQUESTS
+      backlog.add(protocol);
+      return;
+    }
+
+    try {
+      workers.execute(() -> serve(protocol));
+    } catch (RejectedExecutionException e) {
+      backlog.add(protocol);
+    }
+  }
+
+  private void dispatchBacklog() {
+    ONetworkProtocolBinary protocol;
+    while ((protocol = backlog.peek()) != null) {
+      final ONetworkProtocolBinary toServe = protocol;
+      try {
+        workers.execute(() -> serve(toServe));
+      } catch (RejectedExecutionException e) {
+        return;
+      }
+
+      backlog.poll();
+    }
+  }
+
+  private void serve(final ONetworkProtocolBinary protocol) {
+    if (protocol.executePendingRequests()) {
+      if (active)
+        register(protocol);
+      else
+        protocol.shutdown();
+    }
+  }
+
+  private static SocketChannel getSocketChannel(final ONetworkProtocolBinary protocol) {
+    final Socket socket = protocol.getChannel().socket;
+    return socket != null ? socket.getChannel() : null;
+  }
+
+  private static final class WorkerThreadFactory implements ThreadFactory {
+    private final ThreadGroup   threadGroup;
+    private final String        prefix;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    private WorkerThreadFactory(final ThreadGroup threadGroup, final String prefix) {
+      this.threadGroup = threadGroup;
+      this.prefix = prefix;
+    }
+
+    @Override
+    public Thread newThread(final Runnable r) {
+      final Thread thread = new Thread(threadGroup, r, prefix + " worker " + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+
+  /**
+   * Waits till the socket is ready for given operation. Temporary selector of the thread is used because main selector watches
+   * only the reads of idle connections.
+   */
+  private static void await(final SocketChannel channel, final int operation, final int timeout) throws IOException {
+    final Selector selector = TEMPORARY_SELECTOR.get();
+    final SelectionKey key = channel.register(selector, operation);
+    try {
+      if (selector.select(timeout) == 0 && timeout > 0)
+        throw new SocketTimeoutException("Timeout on waiting for the socket " + channel.socket().getRemoteSocketAddress());
+    } finally {
+      key.cancel();
+      // DEREGISTERS THE CANCELED KEY, SO THE SOCKET CAN BE REGISTERED AGAIN ON NEXT WAIT
+      selector.selectNow();
+    }
+  }
+
+  /**
+   * Blocking stream on top of the socket in non blocking mode.
+   */
+  public static final class ChannelInputStream extends InputStream {
+    private final SocketChannel channel;
+
+    public ChannelInputStream(final SocketChannel channel) {
+      this.channel = channel;
+    }
+
+    @Override
+    public int read() throws IOException {
+      final byte[] b = new byte[1];
+      final int read = read(b, 0, 1);
+      if (read < 0)
+        return -1;
+
+      return b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+      if (len == 0)
+        return 0;
+
+      final ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+      int read = channel.read(buffer);
+      while (read == 0) {
+        await(channel, SelectionKey.OP_READ, channel.socket().getSoTimeout());
+        read = channel.read(buffer);
+      }
+
+      return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
+
+  /**
+   * Blocking stream on top of the socket in non blocking mode.
+   */
+  public static final class ChannelOutputStream extends OutputStream {
+    private final SocketChannel channel;
+
+    public ChannelOutputStream(final SocketChannel channel) {
+      this.channel = channel;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+      write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+      final ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+      while (buffer.hasRemaining()) {
+        if (channel.write(buffer) == 0)
+          await(channel, SelectionKey.OP_WRITE, 0);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
+}
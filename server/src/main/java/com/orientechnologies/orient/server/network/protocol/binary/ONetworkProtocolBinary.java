@@ -58,6 +58,7 @@ import com.orientechnologies.orient.server.OConnectionBinaryExecutor;
 import com.orientechnologies.orient.server.OServer;
 import com.orientechnologies.orient.server.distributed.*;
 import com.orientechnologies.orient.server.network.OServerNetworkListener;
+import com.orientechnologies.orient.server.network.OServerNetworkSelector;
 import com.orientechnologies.orient.server.network.protocol.ONetworkProtocol;
 import com.orientechnologies.orient.server.plugin.OServerPluginHelper;
 
@@ -68,10 +69,13 @@ import java.io.PrintStream;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketException;
+import java.nio.channels.SocketChannel;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.logging.Level;
 
@@ -87,6 +91,8 @@ public class ONetworkProtocolBinary extends ONetworkProtocol {
   private            HandshakeInfo                      handshakeInfo;
   private volatile   OBinaryPushResponse                expectedPushResponse;
   private            BlockingQueue<OBinaryPushResponse> pushResponse    = new SynchronousQueue<OBinaryPushResponse>();
+  private volatile   OServerNetworkSelector             selector;
+  private final      CountDownLatch                     closed          = new CountDownLatch(1);
 
   private Function<Integer, OBinaryRequest<? extends OBinaryResponse>> factory = ONetworkBinaryProtocolFactory.defaultProtocol();
 
@@ -114,15 +120,97 @@ public class ONetworkProtocolBinary extends ONetworkProtocol {
   public void config(final OServerNetworkListener iListener, final OServer iServer, final Socket iSocket,
       final OContextConfiguration iConfig) throws IOException {
 
-    OChannelBinaryServer channel = new OChannelBinaryServer(iSocket, iConfig);
+    final OServerNetworkSelector selector = iListener != null ? iListener.getSelector() : null;
+    final SocketChannel socketChannel = iSocket.getChannel();
+
+    final OChannelBinaryServer channel;
+    if (selector != null && socketChannel != null) {
+      socketChannel.configureBlocking(false);
+      channel = new OChannelBinaryServer(iSocket, new OServerNetworkSelector.ChannelInputStream(socketChannel),
+          new OServerNetworkSelector.ChannelOutputStream(socketChannel), iConfig);
+    } else
+      channel = new OChannelBinaryServer(iSocket, iConfig);
+
     initVariables(iServer, channel);
 
     // SEND PROTOCOL VERSION
     channel.writeShort((short) getVersion());
 
     channel.flush();
-    start();
     setName("OrientDB (" + iSocket.getLocalSocketAddress() + ") <- BinaryClient (" + iSocket.getRemoteSocketAddress() + ")");
+
+    if (selector != null && socketChannel != null) {
+      // REQUESTS ARE EXECUTED BY THE WORKERS OF THE SELECTOR, THE THREAD OF THE PROTOCOL IS NEVER STARTED
+      this.selector = selector;
+      selector.register(this);
+    } else
+      start();
+  }
+
+  /**
+   * @return Selector which serves the connection or <code>null</code> if the connection is served by its own thread.
+   */
+  public OServerNetworkSelector getSelector() {
+    return selector;
+  }
+
+  /**
+   * Closes the connection served by {@link OServerNetworkSelector}, it is the counterpart of the interruption of the thread of the
+   * connection. Request which is executed right now is completed first.
+   */
+  public void close() {
+    final OServerNetworkSelector selector = this.selector;
+    if (selector != null)
+      selector.close(this);
+    else
+      shutdown();
+  }
+
+  /**
+   * Waits till the connection served by {@link OServerNetworkSelector} is closed, it is the counterpart of {@link #join(long)} of
+   * the connection which is served by its own thread.
+   *
+   * @return <code>true</code> if the connection was closed before the timeout.
+   */
+  public boolean awaitShutdown(final long timeout) throws InterruptedException {
+    return closed.await(timeout, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Executes the requests received so far on the channel of a connection served by {@link OServerNetworkSelector}. It is the
+   * counterpart of the loop of {@link #run()} which is used when connection has its own thread.
+   *
+   * @return <code>false</code> if connection was closed and should not be watched anymore.
+   */
+  public boolean executePendingRequests() {
+    try {
+      while (!isShutdownFlag()) {
+        execute();
+
+        if (channel.in == null || channel.in.available() == 0)
+          break;
+      }
+    } catch (IOException e) {
+      if (channel.socket != null)
+        OLogManager.instance().warn(this, "I/O error on binary connection %s, connection is closed", e, channel);
+      else
+        // THE CONNECTION WAS CLOSED ON THE SERVER SIDE
+        OLogManager.instance().debug(this, "Binary connection %s is closed", e, channel);
+      sendShutdown();
+    } catch (Exception e) {
+      // THE REQUEST MAY BE READ ONLY PARTIALLY, SO THE CONNECTION CANNOT BE USED ANYMORE
+      OLogManager.instance().error(this, "Error on executing request of binary connection %s, connection is closed", e, channel);
+      sendShutdown();
+    } finally {
+      ODatabaseRecordThreadLocal.instance().remove();
+    }
+
+    if (isShutdownFlag()) {
+      shutdown();
+      return false;
+    }
+
+    return true;
   }
 
   @Override
@@ -134,6 +222,7 @@ public class ONetworkProtocolBinary extends ONetworkProtocol {
   public void shutdown() {
     sendShutdown();
     channel.close();
+    closed.countDown();
   }
 
   private boolean isHandshaking(int requestType) {
@@ -0,0 +1,105 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.server.network.protocol.http;
+
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Result set of a query executed through HTTP which is kept open on the server, so the client can read next records of the result
+ * without executing the query again. Database instance used by the query is owned by the cursor and is closed together with it.
+ * <p>
+ * Cursor is used by a single request at a time, it is acquired by the request which reads it and released once the response is
+ * sent.
+ *
+ * @see OHttpCursorManager
+ */
+public class OHttpCursor {
+  private final String            id;
+  private final String            databaseName;
+  private final String            userName;
+  private final String            fetchPlan;
+  private final ODatabaseDocument database;
+  private final OResultSet        resultSet;
+  private final AtomicBoolean     inUse = new AtomicBoolean(true);
+  private volatile long           lastUpdatedOn;
+
+  protected OHttpCursor(final String iId, final String iDatabaseName, final String iUserName, final ODatabaseDocument iDatabase,
+      final OResultSet iResultSet, final String iFetchPlan) {
+    id = iId;
+    databaseName = iDatabaseName;
+    userName = iUserName;
+    database = iDatabase;
+    resultSet = iResultSet;
+    fetchPlan = iFetchPlan;
+    lastUpdatedOn = System.currentTimeMillis();
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public String getDatabaseName() {
+    return databaseName;
+  }
+
+  public String getUserName() {
+    return userName;
+  }
+
+  public String getFetchPlan() {
+    return fetchPlan;
+  }
+
+  public long getUpdatedOn() {
+    return lastUpdatedOn;
+  }
+
+  /**
+   * Activates the database of the cursor on the current thread and returns the result set, the cursor should be acquired by the
+   * caller.
+   */
+  public OResultSet getResultSet() {
+    database.activateOnCurrentThread();
+    return resultSet;
+  }
+
+  protected boolean tryAcquire() {
+    return inUse.compareAndSet(false, true);
+  }
+
+  protected void release() {
+    lastUpdatedOn = System.currentTimeMillis();
+    inUse.set(false);
+  }
+
+  protected void close() {
+    database.activateOnCurrentThread();
+    try {
+      resultSet.close();
+    } finally {
+      database.close();
+      ODatabaseRecordThreadLocal.instance().remove();
+    }
+  }
+}
@@ -0,0 +1,211 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.server.network.protocol.http;
+
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import com.orientechnologies.orient.server.OServer;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps the server side cursors of the queries executed through HTTP. Cursors which are not read for longer than
+ * {@link OGlobalConfiguration#NETWORK_HTTP_CURSOR_TIMEOUT} are closed together with their databases. Each user of a database may
+ * keep up to {@link OGlobalConfiguration#NETWORK_HTTP_MAX_CURSORS_PER_USER} cursors, least recently read cursors above this limit
+ * are closed when new cursors are opened.
+ *
+ * @see OHttpCursor
+ */
+public class OHttpCursorManager {
+  private final ConcurrentMap<String, OHttpCursor> cursors = new ConcurrentHashMap<String, OHttpCursor>();
+  private final Random                             random  = new SecureRandom();
+  private final long                               expirationTime;
+  private final int                                maxCursorsPerUser;
+  private final TimerTask                          expirationTask;
+
+  public OHttpCursorManager(OServer server) {
+    expirationTime = server.getContextConfiguration().getValueAsInteger(OGlobalConfiguration.NETWORK_HTTP_CURSOR_TIMEOUT) * 1000L;
+    maxCursorsPerUser = server.getContextConfiguration().getValueAsInteger(OGlobalConfiguration.NETWORK_HTTP_MAX_CURSORS_PER_USER);
+
+    expirationTask = new TimerTask() {
+      @Override
+      public void run() {
+        final int expired = closeExpiredCursors();
+        if (expired > 0)
+          OLogManager.instance().debug(this, "Closed %d HTTP cursors because expired", expired);
+      }
+    };
+    Orient.instance().scheduleTask(expirationTask, expirationTime, expirationTime);
+  }
+
+  /**
+   * Registers new cursor. Cursor is returned acquired by the caller, so it should be released by
+   * {@link #release(OHttpCursor, boolean)} once the response is sent. If the user has more cursors than allowed, the least recently
+   * read of them, which are not read right now, are closed.
+   */
+  public OHttpCursor open(final String iDatabaseName, final String iUserName, final ODatabaseDocument iDatabase,
+      final OResultSet iResultSet, final String iFetchPlan) {
+    final String id = "OC" + System.currentTimeMillis() + Long.toHexString(random.nextLong());
+    final OHttpCursor cursor = new OHttpCursor(id, iDatabaseName, iUserName, iDatabase, iResultSet, iFetchPlan);
+    cursors.put(id, cursor);
+
+    final int closed = closeExceedingCursors(iDatabaseName, iUserName);
+    if (closed > 0) {
+      // CLOSING OF THE CURSORS CHANGES THE DATABASE OF THE CURRENT THREAD
+      iDatabase.activateOnCurrentThread();
+      OLogManager.instance()
+          .debug(this, "Closed %d HTTP cursors of user '%s' on database '%s' because limit of cursors is reached", closed, iUserName,
+              iDatabaseName);
+    }
+
+    return cursor;
+  }
+
+  private int closeExceedingCursors(final String iDatabaseName, final String iUserName) {
+    final List<OHttpCursor> userCursors = new ArrayList<OHttpCursor>();
+    for (OHttpCursor cursor : cursors.values()) {
+      if (cursor.getDatabaseName().equals(iDatabaseName) && cursor.getUserName().equals(iUserName))
+        userCursors.add(cursor);
+    }
+
+    int exceeding = userCursors.size() - maxCursorsPerUser;
+    if (exceeding <= 0)
+      return 0;
+
+    userCursors.sort(Comparator.comparingLong(OHttpCursor::getUpdatedOn));
+
+    int closed = 0;
+    for (OHttpCursor cursor : userCursors) {
+      if (closed >= exceeding)
+        break;
+
+      // CURSORS WHICH ARE READ RIGHT NOW, INCLUDING THE NEW ONE, ARE NOT ACQUIRED
+      if (cursor.tryAcquire()) {
+        try {
+          release(cursor, true);
+          closed++;
+        } catch (Exception e) {
+          OLogManager.instance().warn(this, "Error on closing of HTTP cursor %s", e, cursor.getId());
+        }
+      }
+    }
+
+    return closed;
+  }
+
+  /**
+   * Acquires the cursor for the request which reads it.
+   *
+   * @return acquired cursor or <code>null</code> if cursor is not found, it is expired or it was opened by another user or on
+   * another database.
+   *
+   * @throws IllegalStateException if cursor is read by another request.
+   */
+  public OHttpCursor acquire(final String iId, final String iDatabaseName, final String iUserName) {
+    final OHttpCursor cursor = cursors.get(iId);
+    if (cursor == null || !cursor.getDatabaseName().equals(iDatabaseName) || !cursor.getUserName().equals(iUserName))
+      return null;
+
+    if (!cursor.tryAcquire())
+      throw new IllegalStateException("Cursor '" + iId + "' is read by another request");
+
+    if (cursors.get(iId) != cursor) {
+      // CLOSED IN THE MEANTIME
+      cursor.release();
+      return null;
+    }
+
+    return cursor;
+  }
+
+  /**
+   * Releases the cursor acquired by the request.
+   *
+   * @param iClose if <code>true</code> the cursor is closed, otherwise it is kept for next requests.
+   */
+  public void release(final OHttpCursor iCursor, final boolean iClose) {
+    if (iClose) {
+      cursors.remove(iCursor.getId(), iCursor);
+      iCursor.close();
+    } else
+      iCursor.release();
+  }
+
+  /**
+   * Closes the cursor if it is not read by another request.
+   *
+   * @return <code>true</code> if the cursor was found and closed.
+   */
+  public boolean close(final String iId, final String iDatabaseName, final String iUserName) {
+    final OHttpCursor cursor = acquire(iId, iDatabaseName, iUserName);
+    if (cursor == null)
+      return false;
+
+    release(cursor, true);
+    return true;
+  }
+
+  public int closeExpiredCursors() {
+    int expired = 0;
+    final long now = System.currentTimeMillis();
+
+    for (OHttpCursor cursor : cursors.values()) {
+      if (now - cursor.getUpdatedOn() > expirationTime && cursor.tryAcquire()) {
+        try {
+          release(cursor, true);
+          expired++;
+        } catch (Exception e) {
+          OLogManager.instance().warn(this, "Error on closing of HTTP cursor %s", e, cursor.getId());
+        }
+      }
+    }
+
+    return expired;
+  }
+
+  public int getOpenCursors() {
+    return cursors.size();
+  }
+
+  public void shutdown() {
+    expirationTask.cancel();
+
+    for (OHttpCursor cursor : cursors.values()) {
+      if (cursor.tryAcquire()) {
+        try {
+          release(cursor, true);
+        } catch (Exception e) {
+          OLogManager.instance().warn(this, "Error on closing of HTTP cursor %s", e, cursor.getId());
+        }
+      }
+    }
+    cursors.clear();
+  }
+}
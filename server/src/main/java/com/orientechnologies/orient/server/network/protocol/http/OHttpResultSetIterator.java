@@ -0,0 +1,112 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.server.network.protocol.http;
+
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+/**
+ * Returns up to <code>limit</code> records of the result set to {@link OHttpResponse}, so records are serialized while they are
+ * read by the query and the result set is never collected in memory. When streaming of the response is enabled, the query is read
+ * only as fast as the client reads the response.
+ * <p>
+ * Once the page is read, execution plan is added to the additional properties of the response, and if there are more records
+ * and a cursor is requested, the cursor is opened and its id is added as "cursor" property, so the client can read next page by
+ * <code>GET cursor/&lt;database&gt;/&lt;cursor-id&gt;[/&lt;limit&gt;]</code>.
+ */
+public class OHttpResultSetIterator implements Iterator<Object> {
+  private final OResultSet            resultSet;
+  private final int                   limit;
+  private final Map<String, Object>   additionalProperties;
+  private final Supplier<OHttpCursor> cursorFactory;
+  private int                         read;
+  private boolean                     completed;
+  private OHttpCursor                 cursor;
+
+  /**
+   * @param limit                Maximum amount of records returned by the iterator, negative value means no limit.
+   * @param additionalProperties Additional properties of the response, they are filled once the page is read.
+   * @param cursorFactory        Opens the cursor if there are more records than limit, <code>null</code> if cursor is not requested.
+   */
+  public OHttpResultSetIterator(final OResultSet resultSet, final int limit, final Map<String, Object> additionalProperties,
+      final Supplier<OHttpCursor> cursorFactory) {
+    this.resultSet = resultSet;
+    this.limit = limit;
+    this.additionalProperties = additionalProperties;
+    this.cursorFactory = cursorFactory;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (completed)
+      return false;
+
+    if ((limit < 0 || read < limit) && resultSet.hasNext())
+      return true;
+
+    complete();
+    return false;
+  }
+
+  @Override
+  public Object next() {
+    if (!hasNext())
+      throw new NoSuchElementException();
+
+    read++;
+    return resultSet.next();
+  }
+
+  /**
+   * @return <code>true</code> if all records of the page are read.
+   */
+  public boolean isCompleted() {
+    return completed;
+  }
+
+  /**
+   * @return Additional properties of the response, they are filled once the page is read.
+   */
+  public Map<String, Object> getAdditionalProperties() {
+    return additionalProperties;
+  }
+
+  /**
+   * @return Cursor opened for the next records or <code>null</code> if all records are read or cursor is not requested.
+   */
+  public OHttpCursor getCursor() {
+    return cursor;
+  }
+
+  private void complete() {
+    completed = true;
+
+    resultSet.getExecutionPlan().ifPresent(x -> additionalProperties.put("executionPlan", x.toResult().toElement()));
+
+    if (cursorFactory != null && resultSet.hasNext()) {
+      cursor = cursorFactory.get();
+      additionalProperties.put("cursor", cursor.getId());
+    }
+  }
+}
@@ -757,6 +757,7 @@ public abstract class ONetworkProtocolHttpAbstract extends ONetworkProtocol {
     cmdManager.registerCommand(new OServerCommandGetDocument());
     cmdManager.registerCommand(new OServerCommandGetDocumentByClass());
     cmdManager.registerCommand(new OServerCommandGetQuery());
+    cmdManager.registerCommand(new OServerCommandGetCursor());
     cmdManager.registerCommand(new OServerCommandGetServer());
     cmdManager.registerCommand(new OServerCommandGetServerVersion());
     cmdManager.registerCommand(new OServerCommandGetConnections());
@@ -785,6 +786,7 @@ public abstract class ONetworkProtocolHttpAbstract extends ONetworkProtocol {
     cmdManager.registerCommand(new OServerCommandDeleteDocument());
     cmdManager.registerCommand(new OServerCommandDeleteProperty());
     cmdManager.registerCommand(new OServerCommandDeleteIndex());
+    cmdManager.registerCommand(new OServerCommandDeleteCursor());
     cmdManager.registerCommand(new OServerCommandOptions());
     cmdManager.registerCommand(new OServerCommandFunction());
     cmdManager.registerCommand(new OServerCommandPostKillDbConnection());
@@ -266,6 +266,20 @@ public abstract class OServerCommandAuthenticatedDbAbstract extends OServerComma
     return (ODatabaseDocumentInternal) localDatabase.getDatabaseOwner();
   }
 
+  /**
+   * Returns the name of the user authenticated by the request, without opening the database.
+   */
+  protected String getAuthenticatedUserName(final OHttpRequest iRequest) {
+    if (iRequest.bearerToken != null)
+      return iRequest.bearerToken.getUserName();
+
+    final OHttpSession session = server.getHttpSessionManager().getSession(iRequest.sessionId);
+    if (session == null)
+      throw new OSecurityAccessException(iRequest.databaseName, "No session active");
+
+    return session.getUserName();
+  }
+
   private void init() {
     if (tokenHandler == null && server.getContextConfiguration().getValueAsBoolean(OGlobalConfiguration.NETWORK_HTTP_USE_TOKEN)) {
       tokenHandler = server.getTokenHandler();
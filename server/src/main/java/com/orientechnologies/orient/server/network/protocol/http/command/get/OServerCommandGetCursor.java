@@ -0,0 +1,79 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.server.network.protocol.http.command.get;
+
+import com.orientechnologies.orient.server.network.protocol.http.OHttpCursor;
+import com.orientechnologies.orient.server.network.protocol.http.OHttpRequest;
+import com.orientechnologies.orient.server.network.protocol.http.OHttpResponse;
+import com.orientechnologies.orient.server.network.protocol.http.OHttpResultSetIterator;
+import com.orientechnologies.orient.server.network.protocol.http.OHttpUtils;
+import com.orientechnologies.orient.server.network.protocol.http.command.OServerCommandAuthenticatedDbAbstract;
+
+import java.util.HashMap;
+
+/**
+ * Returns next records of the query which was executed with a cursor. Response contains "cursor" property while there are more
+ * records to read, the cursor is closed once all records are returned.
+ */
+public class OServerCommandGetCursor extends OServerCommandAuthenticatedDbAbstract {
+  private static final String[] NAMES = { "GET|cursor/*" };
+
+  @Override
+  public boolean execute(final OHttpRequest iRequest, OHttpResponse iResponse) throws Exception {
+    final String[] urlParts = checkSyntax(iRequest.url, 3,
+        "Syntax error: cursor/<database>/<cursor-id>[/<limit>].<br>Limit is optional and is set to 20 by default.");
+
+    final String cursorId = urlParts[2];
+    final int limit = urlParts.length > 3 ? Integer.parseInt(urlParts[3]) : 20;
+    final String accept = iRequest.getHeader("accept");
+
+    iRequest.data.commandInfo = "Cursor";
+    iRequest.data.commandDetail = cursorId;
+
+    final OHttpCursor cursor = server.getHttpCursorManager()
+        .acquire(cursorId, iRequest.databaseName, getAuthenticatedUserName(iRequest));
+    if (cursor == null) {
+      iResponse.send(OHttpUtils.STATUS_NOTFOUND_CODE, OHttpUtils.STATUS_NOTFOUND_DESCRIPTION, OHttpUtils.CONTENT_TEXT_PLAIN,
+          "Cursor '" + cursorId + "' was not found or is expired", null);
+      return false;
+    }
+
+    OHttpResultSetIterator page = null;
+    try {
+      page = new OHttpResultSetIterator(cursor.getResultSet(), limit, new HashMap<>(), () -> cursor);
+
+      if (iRequest.getHeader("TE") != null)
+        iResponse.setStreaming(true);
+
+      iResponse.writeRecords(page, cursor.getFetchPlan(), null, accept, page.getAdditionalProperties());
+    } finally {
+      // CURSOR IS KEPT ONLY IF THERE ARE MORE RECORDS OR IF THE PAGE WAS NOT SENT COMPLETELY
+      final boolean exhausted = page != null && page.isCompleted() && page.getCursor() == null;
+      server.getHttpCursorManager().release(cursor, exhausted);
+    }
+
+    return false;
+  }
+
+  @Override
+  public String[] getNames() {
+    return NAMES;
+  }
+}
@@ -22,14 +22,14 @@ package com.orientechnologies.orient.server.network.protocol.http.command.get;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
 import com.orientechnologies.orient.core.sql.executor.OResultSet;
 import com.orientechnologies.orient.core.sql.parser.OStatement;
+import com.orientechnologies.orient.server.network.protocol.http.OHttpCursor;
 import com.orientechnologies.orient.server.network.protocol.http.OHttpRequest;
 import com.orientechnologies.orient.server.network.protocol.http.OHttpResponse;
+import com.orientechnologies.orient.server.network.protocol.http.OHttpResultSetIterator;
 import com.orientechnologies.orient.server.network.protocol.http.command.OServerCommandAuthenticatedDbAbstract;
 import com.orientechnologies.orient.server.network.protocol.http.command.post.OServerCommandPostCommand;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 public class OServerCommandGetQuery extends OServerCommandAuthenticatedDbAbstract {
@@ -39,54 +39,59 @@ public class OServerCommandGetQuery extends OServerCommandAuthenticatedDbAbstrac
   @SuppressWarnings("unchecked")
   public boolean execute(final OHttpRequest iRequest, OHttpResponse iResponse) throws Exception {
     String[] urlParts = checkSyntax(iRequest.url, 4,
-        "Syntax error: query/<database>/sql/<query-text>[/<limit>][/<fetchPlan>].<br>Limit is optional and is set to 20 by default. Set to 0 to have no limits.");
+        "Syntax error: query/<database>/sql/<query-text>[/<limit>][/<fetchPlan>][?cursor=true].<br>Limit is optional and is set to 20 by default. Set to 0 to have no limits.");
 
     int limit = urlParts.length > 4 ? Integer.parseInt(urlParts[4]) : 20;
     String fetchPlan = urlParts.length > 5 ? urlParts[5] : null;
     final String text = urlParts[3];
     final String accept = iRequest.getHeader("accept");
+    final boolean useCursor = Boolean.parseBoolean(iRequest.getParameter("cursor"));
 
     iRequest.data.commandInfo = "Query";
     iRequest.data.commandDetail = text;
 
     ODatabaseDocument db = null;
+    OResultSet result = null;
+    OHttpResultSetIterator page = null;
+    boolean sent = false;
 
     try {
       db = getProfiledDatabaseInstance(iRequest);
 
       OStatement stm = OServerCommandPostCommand.parseStatement("SQL", text, db);
-      OResultSet result = db.query(text, new Object[] {});
+      result = db.query(text, new Object[] {});
       limit = OServerCommandPostCommand.getLimitFromStatement(stm, limit);
       String localFetchPlan = OServerCommandPostCommand.getFetchPlanFromStatement(stm);
       if (localFetchPlan != null) {
         fetchPlan = localFetchPlan;
       }
-      int i = 0;
-      List response = new ArrayList();
-      while (result.hasNext()) {
-        if (limit >= 0 && i >= limit) {
-          break;
-        }
-        response.add(result.next());
-        i++;
-      }
-
-      Map<String, Object> additionalContent = new HashMap<>();
 
-      result.getExecutionPlan().ifPresent(x -> additionalContent.put("executionPlan", x.toResult().toElement()));
+      final ODatabaseDocument database = db;
+      final OResultSet resultSet = result;
+      final String cursorFetchPlan = fetchPlan;
 
-      result.close();
+      // RECORDS ARE WRITTEN WHILE THEY ARE READ, IF THE CLIENT ASKED FOR A CURSOR THE REST OF THE RESULT IS KEPT OPEN
+      page = new OHttpResultSetIterator(result, limit, new HashMap<>(), useCursor ?
+          () -> server.getHttpCursorManager()
+              .open(iRequest.databaseName, getAuthenticatedUserName(iRequest), database, resultSet, cursorFetchPlan) :
+          null);
 
-      String format = null;
-      if (fetchPlan != null) {
-        format = "fetchPlan:" + fetchPlan;
-      }
+      if (iRequest.getHeader("TE") != null)
+        iResponse.setStreaming(true);
 
-      iResponse.writeRecords(response, fetchPlan, null, accept, additionalContent);
+      iResponse.writeRecords(page, fetchPlan, null, accept, page.getAdditionalProperties());
+      sent = true;
 
     } finally {
-      if (db != null)
+      final OHttpCursor cursor = page != null ? page.getCursor() : null;
+      if (cursor != null)
+        // THE CLIENT CANNOT READ THE CURSOR IF THE PAGE WAS NOT SENT
+        server.getHttpCursorManager().release(cursor, !sent);
+      else if (db != null) {
+        if (result != null)
+          result.close();
         db.close();
+      }
     }
 
     return false;
@@ -26,8 +26,10 @@ import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.sql.OSQLEngine;
 import com.orientechnologies.orient.core.sql.executor.OResultSet;
 import com.orientechnologies.orient.core.sql.parser.*;
+import com.orientechnologies.orient.server.network.protocol.http.OHttpCursor;
 import com.orientechnologies.orient.server.network.protocol.http.OHttpRequest;
 import com.orientechnologies.orient.server.network.protocol.http.OHttpResponse;
+import com.orientechnologies.orient.server.network.protocol.http.OHttpResultSetIterator;
 import com.orientechnologies.orient.server.network.protocol.http.command.OServerCommandAuthenticatedDbAbstract;
 
 import java.util.*;
@@ -49,6 +51,7 @@ public class OServerCommandPostCommand extends OServerCommandAuthenticatedDbAbst
 
     Object params = null;
     String mode = "resultset";
+    boolean useCursor = Boolean.parseBoolean(iRequest.getParameter("cursor"));
 
     if (iRequest.content != null && !iRequest.content.isEmpty()) {
       // CONTENT REPLACES TEXT
@@ -59,6 +62,8 @@ public class OServerCommandPostCommand extends OServerCommandAuthenticatedDbAbst
         params = doc.field("parameters");
         if (doc.containsField("mode"))
           mode = doc.field("mode");
+        if (doc.containsField("cursor"))
+          useCursor = Boolean.TRUE.equals(doc.field("cursor"));
 
         if (params instanceof Collection) {
           final Object[] paramArray = new Object[((Collection) params).size()];
@@ -77,31 +82,29 @@ public class OServerCommandPostCommand extends OServerCommandAuthenticatedDbAbst
     iRequest.data.commandDetail = text;
 
     ODatabaseDocument db = null;
+    OResultSet result = null;
+    OHttpResultSetIterator page = null;
+    boolean sent = false;
 
     try {
       db = getProfiledDatabaseInstance(iRequest);
       OStatement stm = parseStatement(language, text, db);
-      OResultSet result = executeStatement(language, text, params, db);
+      result = executeStatement(language, text, params, db);
       limit = getLimitFromStatement(stm, limit);
       String localFetchPlan = getFetchPlanFromStatement(stm);
       if (localFetchPlan != null) {
         fetchPlan = localFetchPlan;
       }
-      int i = 0;
-      List response = new ArrayList();
-      while (result.hasNext()) {
-        if (limit >= 0 && i >= limit) {
-          break;
-        }
-        response.add(result.next());
-        i++;
-      }
-
-      Map<String, Object> additionalContent = new HashMap<>();
 
-      result.getExecutionPlan().ifPresent(x -> additionalContent.put("executionPlan", x.toResult().toElement()));
+      final ODatabaseDocument database = db;
+      final OResultSet resultSet = result;
+      final String cursorFetchPlan = fetchPlan;
 
-      result.close();
+      // RECORDS ARE WRITTEN WHILE THEY ARE READ, IF THE CLIENT ASKED FOR A CURSOR THE REST OF THE RESULT IS KEPT OPEN
+      page = new OHttpResultSetIterator(result, limit, new HashMap<>(), useCursor ?
+          () -> server.getHttpCursorManager()
+              .open(iRequest.databaseName, getAuthenticatedUserName(iRequest), database, resultSet, cursorFetchPlan) :
+          null);
 
       String format = null;
       if (fetchPlan != null) {
@@ -111,11 +114,18 @@ public class OServerCommandPostCommand extends OServerCommandAuthenticatedDbAbst
       if (iRequest.getHeader("TE") != null)
         iResponse.setStreaming(true);
 
-      iResponse.writeResult(response, format, accept, additionalContent, mode);
+      iResponse.writeRecords(page, null, format, accept, page.getAdditionalProperties(), mode);
+      sent = true;
 
     } finally {
-      if (db != null) {
+      final OHttpCursor cursor = page != null ? page.getCursor() : null;
+      if (cursor != null)
+        // THE CLIENT CANNOT READ THE CURSOR IF THE PAGE WAS NOT SENT
+        server.getHttpCursorManager().release(cursor, !sent);
+      else if (db != null) {
         db.activateOnCurrentThread();
+        if (result != null)
+          result.close();
         db.close();
       }
     }
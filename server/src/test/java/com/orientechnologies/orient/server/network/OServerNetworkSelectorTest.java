@@ -0,0 +1,86 @@
+package com.orientechnologies.orient.server.network;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class OServerNetworkSelectorTest {
+  private ServerSocketChannel serverChannel;
+  private Socket              client;
+  private SocketChannel       channel;
+
+  @Before
+  public void before() throws IOException {
+    serverChannel = ServerSocketChannel.open();
+    serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+
+    client = new Socket(InetAddress.getLoopbackAddress(), serverChannel.socket().getLocalPort());
+    channel = serverChannel.accept();
+    channel.configureBlocking(false);
+  }
+
+  @After
+  public void after() throws IOException {
+    client.close();
+    channel.close();
+    serverChannel.close();
+  }
+
+  @Test
+  public void testReadWaitsForData() throws Exception {
+    final DataInputStream in = new DataInputStream(new OServerNetworkSelector.ChannelInputStream(channel));
+
+    final CompletableFuture<Long> read = CompletableFuture.supplyAsync(() -> {
+      try {
+        return in.readLong();
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+
+    final DataOutputStream out = new DataOutputStream(client.getOutputStream());
+    // SPLIT THE VALUE IN TWO PACKETS TO FORCE THE READER TO WAIT
+    out.writeInt(1);
+    out.flush();
+    Thread.sleep(50);
+    out.writeInt(2);
+    out.flush();
+
+    assertEquals((1L << 32) | 2, (long) read.get(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testWriteWaitsForSpaceInSocketBuffer() throws Exception {
+    final byte[] content = new byte[8 * 1024 * 1024];
+    for (int i = 0; i < content.length; i++)
+      content[i] = (byte) i;
+
+    final CompletableFuture<Void> write = CompletableFuture.runAsync(() -> {
+      try {
+        new OServerNetworkSelector.ChannelOutputStream(channel).write(content);
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+
+    final byte[] received = new byte[content.length];
+    new DataInputStream(client.getInputStream()).readFully(received);
+    write.get(10, TimeUnit.SECONDS);
+
+    assertArrayEquals(content, received);
+  }
+}
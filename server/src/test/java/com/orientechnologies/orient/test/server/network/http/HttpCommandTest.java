@@ -1,11 +1,13 @@
 package com.orientechnologies.orient.test.server.network.http;
 
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
 
 /**
  * Test HTTP "command" command.
@@ -59,6 +61,87 @@ public class HttpCommandTest extends BaseHttpDatabaseTest {
     Assert.assertEquals(doc.field("name"), "admin");
   }
 
+  @Test
+  public void commandWithCursor() throws IOException {
+    post("command/" + getDatabaseName() + "/sql/").payload("create class CursorTest", CONTENT.TEXT).setUserName("admin")
+        .setUserPassword("admin").getResponse();
+    for (int i = 0; i < 5; i++)
+      post("command/" + getDatabaseName() + "/sql/").payload("insert into CursorTest set i = " + i, CONTENT.TEXT)
+          .setUserName("admin").setUserPassword("admin").getResponse();
+
+    Assert.assertEquals(post("command/" + getDatabaseName() + "/sql/-/2")
+        .payload("{\"command\":\"select from CursorTest order by i\",\"cursor\":true}", CONTENT.TEXT).setUserName("admin")
+        .setUserPassword("admin").getResponse().getStatusLine().getStatusCode(), 200);
+
+    ODocument page = new ODocument().fromJSON(getResponse().getEntity().getContent());
+    int read = assertPage(page, 0, 2);
+    String cursor = page.field("cursor");
+    Assert.assertNotNull(cursor);
+
+    while (cursor != null) {
+      Assert.assertEquals(
+          get("cursor/" + getDatabaseName() + "/" + cursor + "/2").setUserName("admin").setUserPassword("admin").getResponse()
+              .getStatusLine().getStatusCode(), 200);
+
+      page = new ODocument().fromJSON(getResponse().getEntity().getContent());
+      read += assertPage(page, read, 2);
+
+      final String nextCursor = page.field("cursor");
+      if (nextCursor != null)
+        Assert.assertEquals(cursor, nextCursor);
+      else
+        Assert.assertEquals(
+            get("cursor/" + getDatabaseName() + "/" + cursor).setUserName("admin").setUserPassword("admin").getResponse()
+                .getStatusLine().getStatusCode(), 404);
+
+      cursor = nextCursor;
+    }
+
+    Assert.assertEquals(5, read);
+  }
+
+  @Test
+  public void commandWithCursorClosesLeastRecentlyReadCursors() throws IOException, InterruptedException {
+    post("command/" + getDatabaseName() + "/sql/").payload("create class CursorLimitTest", CONTENT.TEXT).setUserName("admin")
+        .setUserPassword("admin").getResponse();
+    for (int i = 0; i < 2; i++)
+      post("command/" + getDatabaseName() + "/sql/").payload("insert into CursorLimitTest set i = " + i, CONTENT.TEXT)
+          .setUserName("admin").setUserPassword("admin").getResponse();
+
+    final int maxCursors = OGlobalConfiguration.NETWORK_HTTP_MAX_CURSORS_PER_USER.getValueAsInteger();
+    final String[] cursors = new String[maxCursors + 1];
+    for (int i = 0; i < cursors.length; i++) {
+      Assert.assertEquals(post("command/" + getDatabaseName() + "/sql/-/1")
+          .payload("{\"command\":\"select from CursorLimitTest\",\"cursor\":true}", CONTENT.TEXT).setUserName("admin")
+          .setUserPassword("admin").getResponse().getStatusLine().getStatusCode(), 200);
+
+      cursors[i] = new ODocument().fromJSON(getResponse().getEntity().getContent()).field("cursor");
+      Assert.assertNotNull(cursors[i]);
+
+      // CURSORS ARE ORDERED BY THE TIME OF THE LAST READ IN MILLISECONDS
+      Thread.sleep(2);
+    }
+
+    Assert.assertEquals(
+        get("cursor/" + getDatabaseName() + "/" + cursors[0]).setUserName("admin").setUserPassword("admin").getResponse()
+            .getStatusLine().getStatusCode(), 404);
+
+    for (int i = 1; i < cursors.length; i++)
+      Assert.assertEquals(
+          get("cursor/" + getDatabaseName() + "/" + cursors[i]).setUserName("admin").setUserPassword("admin").getResponse()
+              .getStatusLine().getStatusCode(), 200);
+  }
+
+  private static int assertPage(final ODocument page, final int from, final int limit) {
+    final List<ODocument> records = page.field("result");
+    Assert.assertTrue(records.size() <= limit);
+
+    for (int i = 0; i < records.size(); i++)
+      Assert.assertEquals(from + i, ((Number) records.get(i).field("i")).intValue());
+
+    return records.size();
+  }
+
   @Override
   public String getDatabaseName() {
     return "httpcommand";